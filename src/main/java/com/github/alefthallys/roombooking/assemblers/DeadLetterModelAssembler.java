@@ -0,0 +1,22 @@
+package com.github.alefthallys.roombooking.assemblers;
+
+import com.github.alefthallys.roombooking.controllers.DeadLetterController;
+import com.github.alefthallys.roombooking.dtos.DeadLetter.DeadLetterDTO;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@Component
+public class DeadLetterModelAssembler {
+	
+	public CollectionModel<DeadLetterDTO> toCollectionModel(List<DeadLetterDTO> deadLetters, Integer limit) {
+		return CollectionModel.of(deadLetters,
+				linkTo(methodOn(DeadLetterController.class).peek(limit)).withSelfRel(),
+				linkTo(methodOn(DeadLetterController.class).replay(limit)).withRel("replay")
+		);
+	}
+}
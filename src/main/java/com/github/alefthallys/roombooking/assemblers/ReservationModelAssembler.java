@@ -1,8 +1,12 @@
 package com.github.alefthallys.roombooking.assemblers;
 
 import com.github.alefthallys.roombooking.controllers.ReservationController;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
+import com.github.alefthallys.roombooking.pagination.ReservationSort;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
@@ -16,9 +20,18 @@ public class ReservationModelAssembler implements RepresentationModelAssembler<R
 	public EntityModel<ReservationResponseDTO> toModel(ReservationResponseDTO dto) {
 		return EntityModel.of(dto,
 				linkTo(methodOn(ReservationController.class).findById(dto.id())).withSelfRel(),
-				linkTo(methodOn(ReservationController.class).update(dto.id(), null)).withRel("update"),
+				linkTo(methodOn(ReservationController.class).update(dto.id(), null, null)).withRel("update"),
 				linkTo(methodOn(ReservationController.class).delete(dto.id())).withRel("delete")
 		);
 	}
+	
+	public CollectionModel<EntityModel<ReservationResponseDTO>> toPagedModel(CursorPageDTO<ReservationResponseDTO> page, String cursor, Integer size, ReservationSort sort) {
+		CollectionModel<EntityModel<ReservationResponseDTO>> model = toCollectionModel(page.content());
+		model.add(linkTo(methodOn(ReservationController.class).findAll(cursor, size, sort)).withSelfRel());
+		if (page.hasNext()) {
+			model.add(linkTo(methodOn(ReservationController.class).findAll(page.nextCursor(), size, sort)).withRel(IanaLinkRelations.NEXT));
+		}
+		return model;
+	}
 }
 
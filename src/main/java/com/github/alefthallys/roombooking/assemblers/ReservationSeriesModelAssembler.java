@@ -0,0 +1,35 @@
+package com.github.alefthallys.roombooking.assemblers;
+
+import com.github.alefthallys.roombooking.controllers.ReservationSeriesController;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationOccurrenceDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesResponseDTO;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@Component
+public class ReservationSeriesModelAssembler implements RepresentationModelAssembler<ReservationSeriesResponseDTO, EntityModel<ReservationSeriesResponseDTO>> {
+	
+	@Override
+	public EntityModel<ReservationSeriesResponseDTO> toModel(ReservationSeriesResponseDTO dto) {
+		return EntityModel.of(dto,
+				linkTo(methodOn(ReservationSeriesController.class).findById(dto.id())).withSelfRel(),
+				linkTo(methodOn(ReservationSeriesController.class).findOccurrences(dto.id(), null, null)).withRel("occurrences"),
+				linkTo(methodOn(ReservationSeriesController.class).delete(dto.id())).withRel("delete")
+		);
+	}
+	
+	public CollectionModel<ReservationOccurrenceDTO> toOccurrencesModel(Long id, List<ReservationOccurrenceDTO> occurrences, LocalDateTime from, LocalDateTime to) {
+		return CollectionModel.of(occurrences,
+				linkTo(methodOn(ReservationSeriesController.class).findOccurrences(id, from, to)).withSelfRel(),
+				linkTo(methodOn(ReservationSeriesController.class).findById(id)).withRel("series")
+		);
+	}
+}
@@ -1,11 +1,17 @@
 package com.github.alefthallys.roombooking.assemblers;
 
 import com.github.alefthallys.roombooking.controllers.RoomController;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
@@ -16,9 +22,24 @@ public class RoomModelAssembler implements RepresentationModelAssembler<RoomResp
 	public EntityModel<RoomResponseDTO> toModel(RoomResponseDTO dto) {
 		return EntityModel.of(dto,
 				linkTo(methodOn(RoomController.class).findById(dto.id())).withSelfRel(),
-				linkTo(methodOn(RoomController.class).update(dto.id(), null)).withRel("update"),
+				linkTo(methodOn(RoomController.class).update(dto.id(), null, null)).withRel("update"),
 				linkTo(methodOn(RoomController.class).delete(dto.id())).withRel("delete")
 		);
 	}
+	
+	public CollectionModel<EntityModel<RoomResponseDTO>> toPagedModel(CursorPageDTO<RoomResponseDTO> page, String cursor, Integer size) {
+		CollectionModel<EntityModel<RoomResponseDTO>> model = toCollectionModel(page.content());
+		model.add(linkTo(methodOn(RoomController.class).findAll(cursor, size)).withSelfRel());
+		if (page.hasNext()) {
+			model.add(linkTo(methodOn(RoomController.class).findAll(page.nextCursor(), size)).withRel(IanaLinkRelations.NEXT));
+		}
+		return model;
+	}
+	
+	public CollectionModel<EntityModel<RoomResponseDTO>> toAvailableModel(List<RoomResponseDTO> rooms, LocalDateTime from, LocalDateTime to, Integer minCapacity, String location) {
+		CollectionModel<EntityModel<RoomResponseDTO>> model = toCollectionModel(rooms);
+		model.add(linkTo(methodOn(RoomController.class).findAvailable(from, to, minCapacity, location)).withSelfRel());
+		return model;
+	}
 }
 
@@ -1,8 +1,11 @@
 package com.github.alefthallys.roombooking.assemblers;
 
 import com.github.alefthallys.roombooking.controllers.UserController;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
@@ -20,5 +23,14 @@ public class UserModelAssembler implements RepresentationModelAssembler<UserResp
 				linkTo(methodOn(UserController.class).delete(dto.id())).withRel("delete")
 		);
 	}
+	
+	public CollectionModel<EntityModel<UserResponseDTO>> toPagedModel(CursorPageDTO<UserResponseDTO> page, String cursor, Integer size) {
+		CollectionModel<EntityModel<UserResponseDTO>> model = toCollectionModel(page.content());
+		model.add(linkTo(methodOn(UserController.class).findAll(cursor, size)).withSelfRel());
+		if (page.hasNext()) {
+			model.add(linkTo(methodOn(UserController.class).findAll(page.nextCursor(), size)).withRel(IanaLinkRelations.NEXT));
+		}
+		return model;
+	}
 }
 
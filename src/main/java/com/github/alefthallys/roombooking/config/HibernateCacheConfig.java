@@ -0,0 +1,62 @@
+package com.github.alefthallys.roombooking.config;
+
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache on bounded Caffeine regions behind JCache. Regions are created up
+ * front, so Hibernate never falls back to an unbounded default, and record native statistics that
+ * are published as {@code cache.*} meters.
+ */
+@Configuration
+public class HibernateCacheConfig {
+	
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager(RoomCacheProperties roomCacheProperties) {
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+				.getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+		cacheManager.createCache(Room.CACHE_REGION, region(roomCacheProperties.getTtl(), roomCacheProperties.getMaxSize()));
+		return cacheManager;
+	}
+	
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> {
+			properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+			properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+		};
+	}
+	
+	@Bean
+	@SuppressWarnings("unchecked")
+	public MeterBinder roomCacheMetrics(CacheManager hibernateCacheManager) {
+		return registry -> CaffeineCacheMetrics.monitor(registry,
+				hibernateCacheManager.getCache(Room.CACHE_REGION).unwrap(Cache.class), Room.CACHE_REGION);
+	}
+	
+	private static CaffeineConfiguration<Object, Object> region(Duration ttl, long maxSize) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+		configuration.setMaximumSize(OptionalLong.of(maxSize));
+		configuration.setNativeStatisticsEnabled(true);
+		return configuration;
+	}
+}
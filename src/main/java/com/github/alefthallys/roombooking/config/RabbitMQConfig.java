@@ -1,8 +1,13 @@
 package com.github.alefthallys.roombooking.config;
 
+import com.github.alefthallys.roombooking.messaging.EmailConsumerProperties;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
@@ -10,9 +15,22 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Email pipeline topology. Failed emails are parked on a retry queue whose TTL is one backoff
+ * tier; on expiry they dead-letter back to the main exchange. After the last tier, and for
+ * messages the listener rejects outright, they end up on the dead letter queue. With
+ * {@code spring.threads.virtual.enabled} the consumers run on virtual threads.
+ */
 @Configuration
 @EnableRabbit
 public class RabbitMQConfig {
@@ -20,6 +38,16 @@ public class RabbitMQConfig {
 	public static final String EXCHANGE_NAME = "roombooking.exchange";
 	public static final String QUEUE_NAME = "reservation.confirmation.email.queue";
 	public static final String ROUTING_KEY = "reservation.created";
+	public static final String REMINDER_ROUTING_KEY = "reservation.reminder";
+	
+	public static final String RETRY_EXCHANGE_NAME = "roombooking.email.retry";
+	public static final String DEAD_LETTER_EXCHANGE_NAME = "roombooking.email.dlx";
+	public static final String DEAD_LETTER_QUEUE_NAME = "reservation.confirmation.email.dlq";
+	public static final String DEAD_LETTER_ROUTING_KEY = "reservation.confirmation.email.dead";
+	
+	public static String retryQueueName(Duration delay) {
+		return QUEUE_NAME + ".retry." + delay.toMillis() + "ms";
+	}
 	
 	@Bean
 	public TopicExchange appExchange() {
@@ -28,12 +56,44 @@ public class RabbitMQConfig {
 	
 	@Bean
 	public Queue appQueue() {
-		return new Queue(QUEUE_NAME);
+		return QueueBuilder.durable(QUEUE_NAME)
+				.deadLetterExchange(DEAD_LETTER_EXCHANGE_NAME)
+				.deadLetterRoutingKey(DEAD_LETTER_ROUTING_KEY)
+				.build();
+	}
+	
+	@Bean
+	public Binding binding() {
+		return BindingBuilder.bind(appQueue()).to(appExchange()).with(ROUTING_KEY);
+	}
+	
+	@Bean
+	public Binding reminderBinding() {
+		return BindingBuilder.bind(appQueue()).to(appExchange()).with(REMINDER_ROUTING_KEY);
+	}
+	
+	@Bean
+	public Declarables deadLetterTopology() {
+		DirectExchange deadLetterExchange = new DirectExchange(DEAD_LETTER_EXCHANGE_NAME);
+		Queue deadLetterQueue = QueueBuilder.durable(DEAD_LETTER_QUEUE_NAME).build();
+		return new Declarables(deadLetterExchange, deadLetterQueue,
+				BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(DEAD_LETTER_ROUTING_KEY));
 	}
 	
 	@Bean
-	public Binding binding(Queue queue, TopicExchange exchange) {
-		return BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY);
+	public Declarables retryTopology(EmailConsumerProperties emailConsumerProperties) {
+		DirectExchange retryExchange = new DirectExchange(RETRY_EXCHANGE_NAME);
+		List<Declarable> declarables = new ArrayList<>(List.of(retryExchange));
+		for (Duration delay : emailConsumerProperties.getRetryDelays()) {
+			Queue retryQueue = QueueBuilder.durable(retryQueueName(delay))
+					.ttl(Math.toIntExact(delay.toMillis()))
+					.deadLetterExchange(EXCHANGE_NAME)
+					.deadLetterRoutingKey(ROUTING_KEY)
+					.build();
+			declarables.add(retryQueue);
+			declarables.add(BindingBuilder.bind(retryQueue).to(retryExchange).with(retryQueue.getName()));
+		}
+		return new Declarables(declarables);
 	}
 	
 	@Bean
@@ -49,10 +109,22 @@ public class RabbitMQConfig {
 	}
 	
 	@Bean
-	public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory, MessageConverter jsonMessageConverter) {
+	public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory, MessageConverter jsonMessageConverter, EmailConsumerProperties emailConsumerProperties, Environment environment) {
 		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
 		factory.setConnectionFactory(connectionFactory);
 		factory.setMessageConverter(jsonMessageConverter);
+		factory.setConcurrentConsumers(emailConsumerProperties.getConcurrency());
+		factory.setMaxConcurrentConsumers(emailConsumerProperties.getMaxConcurrency());
+		factory.setPrefetchCount(emailConsumerProperties.getPrefetch());
+		factory.setBatchListener(true);
+		factory.setConsumerBatchEnabled(true);
+		factory.setBatchSize(emailConsumerProperties.getBatchSize());
+		factory.setReceiveTimeout(emailConsumerProperties.getBatchTimeout().toMillis());
+		factory.setDefaultRequeueRejected(false);
+		factory.setAutoStartup(emailConsumerProperties.isAutoStartup());
+		if (Threading.VIRTUAL.isActive(environment)) {
+			factory.setTaskExecutor(new VirtualThreadTaskExecutor("email-consumer-"));
+		}
 		return factory;
 	}
 }
@@ -0,0 +1,18 @@
+package com.github.alefthallys.roombooking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "room.cache")
+public class RoomCacheProperties {
+	
+	private Duration ttl = Duration.ofHours(1);
+	private long maxSize = 10_000;
+}
@@ -9,8 +9,10 @@ import com.github.alefthallys.roombooking.exceptions.Auth.InvalidJwtException;
 import com.github.alefthallys.roombooking.mappers.UserMapper;
 import com.github.alefthallys.roombooking.models.User;
 import com.github.alefthallys.roombooking.security.CustomUserDetailsService;
+import com.github.alefthallys.roombooking.security.TokenDenyList;
 import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
 import com.github.alefthallys.roombooking.services.UserService;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -32,12 +34,14 @@ public class AuthController {
 	private final JwtTokenProvider jwtTokenProvider;
 	private final UserService userService;
 	private final CustomUserDetailsService customUserDetailsService;
+	private final TokenDenyList tokenDenyList;
 	
-	public AuthController(AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider, UserService userService, CustomUserDetailsService customUserDetailsService) {
+	public AuthController(AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider, UserService userService, CustomUserDetailsService customUserDetailsService, TokenDenyList tokenDenyList) {
 		this.authenticationManager = authenticationManager;
 		this.jwtTokenProvider = jwtTokenProvider;
 		this.userService = userService;
 		this.customUserDetailsService = customUserDetailsService;
+		this.tokenDenyList = tokenDenyList;
 	}
 	
 	@GetMapping("/me")
@@ -70,8 +74,13 @@ public class AuthController {
 		String refreshToken = request.refreshToken();
 		
 		try {
-			jwtTokenProvider.validateRefreshToken(refreshToken);
-			String username = jwtTokenProvider.getUsernameFromRefreshToken(refreshToken);
+			Claims claims = jwtTokenProvider.parseRefreshToken(refreshToken);
+			String username = claims.getSubject();
+			
+			if (tokenDenyList.isDenied(username, claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)) {
+				throw new InvalidJwtException("Invalid JWT: Token has been revoked");
+			}
+			
 			UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
 			
 			Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
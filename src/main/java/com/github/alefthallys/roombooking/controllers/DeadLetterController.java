@@ -0,0 +1,43 @@
+package com.github.alefthallys.roombooking.controllers;
+
+import com.github.alefthallys.roombooking.assemblers.DeadLetterModelAssembler;
+import com.github.alefthallys.roombooking.dtos.DeadLetter.DeadLetterDTO;
+import com.github.alefthallys.roombooking.dtos.DeadLetter.DeadLetterReplayDTO;
+import com.github.alefthallys.roombooking.services.DeadLetterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/dead-letters")
+@Tag(name = "Dead Letter Management")
+public class DeadLetterController {
+	
+	private final DeadLetterService deadLetterService;
+	private final DeadLetterModelAssembler deadLetterModelAssembler;
+	
+	public DeadLetterController(DeadLetterService deadLetterService, DeadLetterModelAssembler deadLetterModelAssembler) {
+		this.deadLetterService = deadLetterService;
+		this.deadLetterModelAssembler = deadLetterModelAssembler;
+	}
+	
+	@GetMapping
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Inspect dead-lettered emails without removing them")
+	public ResponseEntity<CollectionModel<DeadLetterDTO>> peek(@RequestParam(required = false) Integer limit) {
+		List<DeadLetterDTO> deadLetters = deadLetterService.peek(limit);
+		return ResponseEntity.ok(deadLetterModelAssembler.toCollectionModel(deadLetters, limit));
+	}
+	
+	@PostMapping("/replay")
+	@PreAuthorize("hasRole('ADMIN')")
+	@Operation(summary = "Republish dead-lettered emails to the main queue with a fresh retry budget")
+	public ResponseEntity<DeadLetterReplayDTO> replay(@RequestParam(required = false) Integer limit) {
+		return ResponseEntity.ok(deadLetterService.replay(limit));
+	}
+}
@@ -0,0 +1,46 @@
+package com.github.alefthallys.roombooking.controllers;
+
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Exposes an entity's {@code @Version} as its ETag and reads it back from {@code If-Match}, so a
+ * client can make a PUT conditional on the representation it last saw.
+ */
+final class EntityTags {
+	
+	private static final String WEAK_PREFIX = "W/";
+	
+	private EntityTags() {
+	}
+	
+	static <T> ResponseEntity<T> ok(T body, Long version) {
+		return tagged(ResponseEntity.ok(), version).body(body);
+	}
+	
+	static ResponseEntity.BodyBuilder tagged(ResponseEntity.BodyBuilder response, Long version) {
+		return version == null ? response : response.eTag(String.valueOf(version));
+	}
+	
+	/**
+	 * Returns the version named by {@code If-Match}, or {@code null} when the header is absent or
+	 * {@code *} and the update should apply to whatever version is current.
+	 */
+	static Long parseIfMatch(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		if (tag.startsWith(WEAK_PREFIX)) {
+			tag = tag.substring(WEAK_PREFIX.length());
+		}
+		if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+			tag = tag.substring(1, tag.length() - 1);
+		}
+		try {
+			return Long.valueOf(tag);
+		} catch (NumberFormatException e) {
+			throw new EntityVersionMismatchException(ifMatch);
+		}
+	}
+}
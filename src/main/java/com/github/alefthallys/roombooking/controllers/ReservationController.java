@@ -1,15 +1,21 @@
 package com.github.alefthallys.roombooking.controllers;
 
 import com.github.alefthallys.roombooking.assemblers.ReservationModelAssembler;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationBatchRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationUpdateRequestDTO;
+import com.github.alefthallys.roombooking.idempotency.IdempotencyService;
+import com.github.alefthallys.roombooking.idempotency.IdempotentResult;
+import com.github.alefthallys.roombooking.pagination.ReservationSort;
 import com.github.alefthallys.roombooking.services.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,18 +30,23 @@ public class ReservationController {
 	
 	private final ReservationService reservationService;
 	private final ReservationModelAssembler reservationModelAssembler;
+	private final IdempotencyService idempotencyService;
 	
-	public ReservationController(ReservationService reservationService, ReservationModelAssembler reservationModelAssembler) {
+	public ReservationController(ReservationService reservationService, ReservationModelAssembler reservationModelAssembler, IdempotencyService idempotencyService) {
 		this.reservationService = reservationService;
 		this.reservationModelAssembler = reservationModelAssembler;
+		this.idempotencyService = idempotencyService;
 	}
 	
 	@GetMapping
 	@PreAuthorize("hasRole('ADMIN')")
 	@Operation(summary = "Find all reservations")
-	public ResponseEntity<CollectionModel<EntityModel<ReservationResponseDTO>>> findAll() {
-		List<ReservationResponseDTO> reservations = reservationService.findAll();
-		CollectionModel<EntityModel<ReservationResponseDTO>> collectionModel = reservationModelAssembler.toCollectionModel(reservations);
+	public ResponseEntity<CollectionModel<EntityModel<ReservationResponseDTO>>> findAll(
+			@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size,
+			@RequestParam(defaultValue = "ID") ReservationSort sort) {
+		CursorPageDTO<ReservationResponseDTO> page = reservationService.findAll(cursor, size, sort);
+		CollectionModel<EntityModel<ReservationResponseDTO>> collectionModel = reservationModelAssembler.toPagedModel(page, cursor, size, sort);
 		return ResponseEntity.ok(collectionModel);
 	}
 	
@@ -54,7 +65,7 @@ public class ReservationController {
 	public ResponseEntity<EntityModel<ReservationResponseDTO>> findById(@PathVariable Long id) {
 		ReservationResponseDTO reservationResponseDTO = reservationService.findById(id);
 		EntityModel<ReservationResponseDTO> model = reservationModelAssembler.toModel(reservationResponseDTO);
-		return ResponseEntity.ok(model);
+		return EntityTags.ok(model, reservationResponseDTO.version());
 	}
 	
 	@GetMapping("/me/{id}")
@@ -63,25 +74,47 @@ public class ReservationController {
 	public ResponseEntity<EntityModel<ReservationResponseDTO>> findByIdForUser(@PathVariable Long id) {
 		ReservationResponseDTO reservationResponseDTO = reservationService.findReservationByIdAndUserId(id);
 		EntityModel<ReservationResponseDTO> model = reservationModelAssembler.toModel(reservationResponseDTO);
-		return ResponseEntity.ok(model);
+		return EntityTags.ok(model, reservationResponseDTO.version());
 	}
 	
 	@PostMapping
 	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-	@Operation(summary = "Create a new reservation")
-	public ResponseEntity<EntityModel<ReservationResponseDTO>> create(@RequestBody @Valid ReservationRequestDTO reservationDTO) {
-		ReservationResponseDTO reservationResponseDTO = reservationService.create(reservationDTO);
-		EntityModel<ReservationResponseDTO> model = reservationModelAssembler.toModel(reservationResponseDTO);
-		return new ResponseEntity<>(model, HttpStatus.CREATED);
+	@Operation(summary = "Create a new reservation, at most once per Idempotency-Key")
+	public ResponseEntity<EntityModel<ReservationResponseDTO>> create(
+			@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+			@RequestBody @Valid ReservationRequestDTO reservationDTO) {
+		if (idempotencyKey == null) {
+			ReservationResponseDTO reservationResponseDTO = reservationService.create(reservationDTO);
+			EntityModel<ReservationResponseDTO> model = reservationModelAssembler.toModel(reservationResponseDTO);
+			return EntityTags.tagged(ResponseEntity.status(HttpStatus.CREATED), reservationResponseDTO.version()).body(model);
+		}
+		IdempotentResult<ReservationResponseDTO> result = idempotencyService.execute(
+				idempotencyKey, reservationDTO, ReservationResponseDTO.class, () -> reservationService.create(reservationDTO));
+		EntityModel<ReservationResponseDTO> model = reservationModelAssembler.toModel(result.value());
+		return EntityTags.tagged(ResponseEntity.status(HttpStatus.CREATED), result.value().version())
+				.header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+				.body(model);
+	}
+	
+	@PostMapping("/batch")
+	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+	@Operation(summary = "Create several reservations at once, all or nothing")
+	public ResponseEntity<CollectionModel<EntityModel<ReservationResponseDTO>>> createBatch(@RequestBody @Valid ReservationBatchRequestDTO batchDTO) {
+		List<ReservationResponseDTO> reservationResponseDTOList = reservationService.createBatch(batchDTO.reservations());
+		CollectionModel<EntityModel<ReservationResponseDTO>> collectionModel = reservationModelAssembler.toCollectionModel(reservationResponseDTOList);
+		return new ResponseEntity<>(collectionModel, HttpStatus.CREATED);
 	}
 	
 	@PutMapping("/{id}")
 	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-	@Operation(summary = "Update an existing reservation")
-	public ResponseEntity<EntityModel<ReservationResponseDTO>> update(@PathVariable Long id, @RequestBody @Valid ReservationUpdateRequestDTO reservationDTO) {
-		ReservationResponseDTO reservationResponseDTO = reservationService.update(id, reservationDTO);
+	@Operation(summary = "Update an existing reservation, optionally only if it still matches the ETag given in If-Match")
+	public ResponseEntity<EntityModel<ReservationResponseDTO>> update(
+			@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestBody @Valid ReservationUpdateRequestDTO reservationDTO) {
+		ReservationResponseDTO reservationResponseDTO = reservationService.update(id, reservationDTO, EntityTags.parseIfMatch(ifMatch));
 		EntityModel<ReservationResponseDTO> model = reservationModelAssembler.toModel(reservationResponseDTO);
-		return ResponseEntity.ok(model);
+		return EntityTags.ok(model, reservationResponseDTO.version());
 	}
 	
 	@DeleteMapping("/{id}")
@@ -0,0 +1,81 @@
+package com.github.alefthallys.roombooking.controllers;
+
+import com.github.alefthallys.roombooking.assemblers.ReservationSeriesModelAssembler;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationOccurrenceDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesRequestDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesResponseDTO;
+import com.github.alefthallys.roombooking.services.ReservationSeriesService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/reservation-series")
+@Tag(name = "Reservation Series Management")
+public class ReservationSeriesController {
+	
+	private final ReservationSeriesService reservationSeriesService;
+	private final ReservationSeriesModelAssembler reservationSeriesModelAssembler;
+	
+	public ReservationSeriesController(ReservationSeriesService reservationSeriesService, ReservationSeriesModelAssembler reservationSeriesModelAssembler) {
+		this.reservationSeriesService = reservationSeriesService;
+		this.reservationSeriesModelAssembler = reservationSeriesModelAssembler;
+	}
+	
+	@GetMapping("/{id}")
+	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+	@Operation(summary = "Find reservation series by ID")
+	public ResponseEntity<EntityModel<ReservationSeriesResponseDTO>> findById(@PathVariable Long id) {
+		ReservationSeriesResponseDTO seriesResponseDTO = reservationSeriesService.findById(id);
+		EntityModel<ReservationSeriesResponseDTO> model = reservationSeriesModelAssembler.toModel(seriesResponseDTO);
+		return ResponseEntity.ok(model);
+	}
+	
+	@GetMapping("/{id}/occurrences")
+	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+	@Operation(summary = "List the occurrences of a reservation series within a time range")
+	public ResponseEntity<CollectionModel<ReservationOccurrenceDTO>> findOccurrences(
+			@PathVariable Long id,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		List<ReservationOccurrenceDTO> occurrences = reservationSeriesService.findOccurrences(id, from, to);
+		CollectionModel<ReservationOccurrenceDTO> collectionModel = reservationSeriesModelAssembler.toOccurrencesModel(id, occurrences, from, to);
+		return ResponseEntity.ok(collectionModel);
+	}
+	
+	@PostMapping
+	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+	@Operation(summary = "Create a recurring reservation series")
+	public ResponseEntity<EntityModel<ReservationSeriesResponseDTO>> create(@RequestBody @Valid ReservationSeriesRequestDTO seriesDTO) {
+		ReservationSeriesResponseDTO seriesResponseDTO = reservationSeriesService.create(seriesDTO);
+		EntityModel<ReservationSeriesResponseDTO> model = reservationSeriesModelAssembler.toModel(seriesResponseDTO);
+		return new ResponseEntity<>(model, HttpStatus.CREATED);
+	}
+	
+	@DeleteMapping("/{id}/occurrences/{date}")
+	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+	@Operation(summary = "Cancel a single occurrence of a reservation series")
+	public ResponseEntity<Void> cancelOccurrence(@PathVariable Long id, @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+		reservationSeriesService.cancelOccurrence(id, date);
+		return ResponseEntity.noContent().build();
+	}
+	
+	@DeleteMapping("/{id}")
+	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+	@Operation(summary = "Delete a reservation series with all its occurrences")
+	public ResponseEntity<Void> delete(@PathVariable Long id) {
+		reservationSeriesService.delete(id);
+		return ResponseEntity.noContent().build();
+	}
+}
@@ -1,6 +1,7 @@
 package com.github.alefthallys.roombooking.controllers;
 
 import com.github.alefthallys.roombooking.assemblers.RoomModelAssembler;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
 import com.github.alefthallys.roombooking.services.RoomService;
@@ -8,12 +9,15 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -32,9 +36,24 @@ public class RoomController {
 	@GetMapping
 	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
 	@Operation(summary = "Find all rooms")
-	public ResponseEntity<CollectionModel<EntityModel<RoomResponseDTO>>> findAll() {
-		List<RoomResponseDTO> roomResponseDTOList = roomService.findAll();
-		CollectionModel<EntityModel<RoomResponseDTO>> collectionModel = roomModelAssembler.toCollectionModel(roomResponseDTOList);
+	public ResponseEntity<CollectionModel<EntityModel<RoomResponseDTO>>> findAll(
+			@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		CursorPageDTO<RoomResponseDTO> page = roomService.findAll(cursor, size);
+		CollectionModel<EntityModel<RoomResponseDTO>> collectionModel = roomModelAssembler.toPagedModel(page, cursor, size);
+		return ResponseEntity.ok(collectionModel);
+	}
+	
+	@GetMapping("/available")
+	@PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+	@Operation(summary = "Find rooms with no reservation overlapping the given range")
+	public ResponseEntity<CollectionModel<EntityModel<RoomResponseDTO>>> findAvailable(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(required = false) Integer minCapacity,
+			@RequestParam(required = false) String location) {
+		List<RoomResponseDTO> rooms = roomService.findAvailable(from, to, minCapacity, location);
+		CollectionModel<EntityModel<RoomResponseDTO>> collectionModel = roomModelAssembler.toAvailableModel(rooms, from, to, minCapacity, location);
 		return ResponseEntity.ok(collectionModel);
 	}
 	
@@ -44,7 +63,7 @@ public class RoomController {
 	public ResponseEntity<EntityModel<RoomResponseDTO>> findById(@PathVariable Long id) {
 		RoomResponseDTO roomResponseDTO = roomService.findById(id);
 		EntityModel<RoomResponseDTO> model = roomModelAssembler.toModel(roomResponseDTO);
-		return ResponseEntity.ok(model);
+		return EntityTags.ok(model, roomResponseDTO.version());
 	}
 	
 	@PostMapping
@@ -58,11 +77,14 @@ public class RoomController {
 	
 	@PutMapping("/{id}")
 	@PreAuthorize("hasRole('ADMIN')")
-	@Operation(summary = "Update an existing room")
-	public ResponseEntity<EntityModel<RoomResponseDTO>> update(@PathVariable Long id, @RequestBody @Valid RoomRequestDTO room) {
-		RoomResponseDTO roomResponseDTO = roomService.update(id, room);
+	@Operation(summary = "Update an existing room, optionally only if it still matches the ETag given in If-Match")
+	public ResponseEntity<EntityModel<RoomResponseDTO>> update(
+			@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestBody @Valid RoomRequestDTO room) {
+		RoomResponseDTO roomResponseDTO = roomService.update(id, room, EntityTags.parseIfMatch(ifMatch));
 		EntityModel<RoomResponseDTO> model = roomModelAssembler.toModel(roomResponseDTO);
-		return ResponseEntity.ok(model);
+		return EntityTags.ok(model, roomResponseDTO.version());
 	}
 	
 	@DeleteMapping("/{id}")
@@ -1,6 +1,7 @@
 package com.github.alefthallys.roombooking.controllers;
 
 import com.github.alefthallys.roombooking.assemblers.UserModelAssembler;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserRequestDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserUpdateRequestDTO;
@@ -15,8 +16,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @Tag(name = "User Management")
 @RequestMapping("/api/v1/users")
@@ -33,9 +32,11 @@ public class UserController {
 	@GetMapping
 	@PreAuthorize("hasRole('ADMIN')")
 	@Operation(summary = "Find all users")
-	public ResponseEntity<CollectionModel<EntityModel<UserResponseDTO>>> findAll() {
-		List<UserResponseDTO> userResponseDTOList = userService.findAll();
-		CollectionModel<EntityModel<UserResponseDTO>> collectionModel = userModelAssembler.toCollectionModel(userResponseDTOList);
+	public ResponseEntity<CollectionModel<EntityModel<UserResponseDTO>>> findAll(
+			@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		CursorPageDTO<UserResponseDTO> page = userService.findAll(cursor, size);
+		CollectionModel<EntityModel<UserResponseDTO>> collectionModel = userModelAssembler.toPagedModel(page, cursor, size);
 		return ResponseEntity.ok(collectionModel);
 	}
 	
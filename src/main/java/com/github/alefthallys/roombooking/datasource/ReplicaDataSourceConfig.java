@@ -0,0 +1,75 @@
+package com.github.alefthallys.roombooking.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits the application datasource into a primary and a read replica pool when
+ * {@code datasource.replica.enabled} is set. Each pool is its own {@link HikariDataSource}, named
+ * {@value #PRIMARY_POOL} and {@value #REPLICA_POOL}, so {@code hikaricp.*} meters are reported per
+ * target. Flyway always migrates through the primary pool.
+ * <p>
+ * Requires {@code spring.jpa.open-in-view=false}: a request-scoped EntityManager holds the first
+ * connection it gets until the request ends, so a write after a replica read would reuse the
+ * replica connection.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+	
+	public static final String PRIMARY_POOL = "primary";
+	public static final String REPLICA_POOL = "replica";
+	
+	public ReplicaDataSourceConfig(@Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+		if (openInView) {
+			throw new IllegalStateException("datasource.replica.enabled requires spring.jpa.open-in-view=false");
+		}
+	}
+	
+	@Bean
+	@FlywayDataSource
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+		HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName(PRIMARY_POOL);
+		return dataSource;
+	}
+	
+	@Bean
+	@ConfigurationProperties("datasource.replica.hikari")
+	public HikariDataSource replicaDataSource(ReplicaDataSourceProperties replicaDataSourceProperties) {
+		HikariDataSource dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(replicaDataSourceProperties.getUrl())
+				.username(replicaDataSourceProperties.getUsername())
+				.password(replicaDataSourceProperties.getPassword())
+				.driverClassName(replicaDataSourceProperties.getDriverClassName())
+				.build();
+		dataSource.setPoolName(REPLICA_POOL);
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+	
+	@Bean
+	public ReplicaLagMonitor replicaLagMonitor(HikariDataSource replicaDataSource, ReplicaDataSourceProperties replicaDataSourceProperties, MeterRegistry meterRegistry) {
+		return new ReplicaLagMonitor(replicaDataSource, replicaDataSourceProperties, meterRegistry);
+	}
+	
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource, ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor, meterRegistry));
+	}
+}
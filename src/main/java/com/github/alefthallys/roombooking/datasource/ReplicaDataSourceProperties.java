@@ -0,0 +1,24 @@
+package com.github.alefthallys.roombooking.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaDataSourceProperties {
+	
+	private boolean enabled = false;
+	private String url;
+	private String username;
+	private String password;
+	private String driverClassName;
+	private Duration maxLag = Duration.ofSeconds(2);
+	private Duration lagCheckInterval = Duration.ofSeconds(5);
+	private boolean allowMissingReplicationStatus = false;
+}
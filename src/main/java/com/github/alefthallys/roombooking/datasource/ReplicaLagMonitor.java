@@ -0,0 +1,92 @@
+package com.github.alefthallys.roombooking.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Polls how far the read replica is behind the primary and decides whether read-only transactions
+ * may use it. The replica is only trusted while its last measured lag is within
+ * {@code datasource.replica.max-lag}; a stopped replication thread, an unreachable replica or a
+ * lag that has not been measured yet all send reads back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements SmartInitializingSingleton {
+	
+	public static final String LAG_GAUGE = "roombooking.datasource.replica.lag";
+	
+	private final Supplier<Optional<Duration>> lagProbe;
+	private final ReplicaDataSourceProperties replicaDataSourceProperties;
+	private volatile Duration lag;
+	private volatile boolean replicaUsable;
+	
+	public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaDataSourceProperties replicaDataSourceProperties, MeterRegistry meterRegistry) {
+		this(secondsBehindPrimary(new JdbcTemplate(replicaDataSource), replicaDataSourceProperties.isAllowMissingReplicationStatus()),
+				replicaDataSourceProperties, meterRegistry);
+	}
+	
+	ReplicaLagMonitor(Supplier<Optional<Duration>> lagProbe, ReplicaDataSourceProperties replicaDataSourceProperties, MeterRegistry meterRegistry) {
+		this.lagProbe = lagProbe;
+		this.replicaDataSourceProperties = replicaDataSourceProperties;
+		Gauge.builder(LAG_GAUGE, this, monitor -> monitor.lag == null ? Double.NaN : monitor.lag.toMillis() / 1000.0)
+				.baseUnit("seconds")
+				.description("Replication lag of the read replica, NaN while it is unknown")
+				.register(meterRegistry);
+	}
+	
+	@Override
+	public void afterSingletonsInstantiated() {
+		checkLag();
+	}
+	
+	@Scheduled(fixedDelayString = "#{@replicaDataSourceProperties.lagCheckInterval.toMillis()}")
+	public void checkLag() {
+		boolean wasUsable = replicaUsable;
+		try {
+			lag = lagProbe.get().orElse(null);
+		} catch (RuntimeException e) {
+			log.debug("Failed to measure the read replica lag", e);
+			lag = null;
+		}
+		replicaUsable = lag != null && lag.compareTo(replicaDataSourceProperties.getMaxLag()) <= 0;
+		if (wasUsable != replicaUsable) {
+			log.info(replicaUsable ? "Read replica is {} behind, routing reads to it" : "Read replica lag is {}, routing reads to the primary",
+					lag == null ? "unknown" : lag);
+		}
+	}
+	
+	public boolean isReplicaUsable() {
+		return replicaUsable;
+	}
+	
+	/**
+	 * Reads {@code Seconds_Behind_Master} from MariaDB. An empty status means the server is not
+	 * replicating at all, so its data may be arbitrarily old; it only counts as up to date when
+	 * {@code datasource.replica.allow-missing-replication-status} is set for a single-node setup.
+	 */
+	static Supplier<Optional<Duration>> secondsBehindPrimary(JdbcTemplate replica, boolean allowMissingReplicationStatus) {
+		return () -> {
+			List<Long> channels = replica.query("SHOW SLAVE STATUS", (resultSet, row) -> {
+				long seconds = resultSet.getLong("Seconds_Behind_Master");
+				return resultSet.wasNull() ? null : seconds;
+			});
+			if (channels.isEmpty()) {
+				return allowMissingReplicationStatus ? Optional.of(Duration.ZERO) : Optional.empty();
+			}
+			if (channels.stream().anyMatch(Objects::isNull)) {
+				return Optional.empty();
+			}
+			return channels.stream().max(Long::compare).map(Duration::ofSeconds);
+		};
+	}
+}
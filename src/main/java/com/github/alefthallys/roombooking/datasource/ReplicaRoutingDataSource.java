@@ -0,0 +1,56 @@
+package com.github.alefthallys.roombooking.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions while {@link ReplicaLagMonitor} trusts
+ * the replica, and primary connections to everything else. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the connection is
+ * only fetched once the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+	
+	public static final String READS_COUNTER = "roombooking.datasource.reads";
+	
+	private final ReplicaLagMonitor replicaLagMonitor;
+	private final Counter replicaReads;
+	private final Counter primaryReads;
+	
+	public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource, ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+		this.replicaLagMonitor = replicaLagMonitor;
+		this.replicaReads = meterRegistry.counter(READS_COUNTER, "target", Target.REPLICA.tag());
+		this.primaryReads = meterRegistry.counter(READS_COUNTER, "target", Target.PRIMARY.tag());
+		setTargetDataSources(Map.of(Target.PRIMARY, primaryDataSource, Target.REPLICA, replicaDataSource));
+		setDefaultTargetDataSource(primaryDataSource);
+		afterPropertiesSet();
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return Target.PRIMARY;
+		}
+		if (replicaLagMonitor.isReplicaUsable()) {
+			replicaReads.increment();
+			return Target.REPLICA;
+		}
+		primaryReads.increment();
+		return Target.PRIMARY;
+	}
+	
+	enum Target {
+		PRIMARY,
+		REPLICA;
+		
+		String tag() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.github.alefthallys.roombooking.dtos;
+
+import java.util.List;
+
+public record CursorPageDTO<T>(
+		List<T> content,
+		String nextCursor
+) {
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+}
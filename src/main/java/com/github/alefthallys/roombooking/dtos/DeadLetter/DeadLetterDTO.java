@@ -0,0 +1,10 @@
+package com.github.alefthallys.roombooking.dtos.DeadLetter;
+
+public record DeadLetterDTO(
+		String messageId,
+		int retryCount,
+		String lastError,
+		String deathReason,
+		String payload
+) {
+}
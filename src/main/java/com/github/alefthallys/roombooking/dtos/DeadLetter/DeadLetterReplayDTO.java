@@ -0,0 +1,6 @@
+package com.github.alefthallys.roombooking.dtos.DeadLetter;
+
+public record DeadLetterReplayDTO(
+		int replayed
+) {
+}
@@ -0,0 +1,15 @@
+package com.github.alefthallys.roombooking.dtos.Reservation;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ReservationBatchRequestDTO(
+		@NotEmpty(message = "At least one reservation is required")
+		@Size(max = 100, message = "A batch can hold at most 100 reservations")
+		List<@Valid @NotNull ReservationRequestDTO> reservations
+) {
+}
@@ -1,6 +1,7 @@
 package com.github.alefthallys.roombooking.dtos.Reservation;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
@@ -17,6 +18,9 @@ public record ReservationResponseDTO(
 		LocalDateTime endDate,
 		
 		UserResponseDTO user,
-		RoomResponseDTO room
+		RoomResponseDTO room,
+		
+		@JsonIgnore
+		Long version
 ) {
 }
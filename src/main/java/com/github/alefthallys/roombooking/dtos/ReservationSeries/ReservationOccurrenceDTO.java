@@ -0,0 +1,15 @@
+package com.github.alefthallys.roombooking.dtos.ReservationSeries;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public record ReservationOccurrenceDTO(
+		Long seriesId,
+		
+		@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+		LocalDateTime startDate,
+		@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+		LocalDateTime endDate
+) {
+}
@@ -0,0 +1,29 @@
+package com.github.alefthallys.roombooking.dtos.ReservationSeries;
+
+import com.github.alefthallys.roombooking.annotations.ValidReservationDates;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+@ValidReservationDates
+public record ReservationSeriesRequestDTO(
+		@NotNull(message = "Room ID is required")
+		Long roomId,
+		
+		@NotNull(message = "Start date is required")
+		@FutureOrPresent(message = "Start date must be today or in the future")
+		LocalDateTime startDate,
+		
+		@NotNull(message = "End date is required")
+		@Future(message = "End date must be in the future")
+		LocalDateTime endDate,
+		
+		@NotBlank(message = "Recurrence rule is required")
+		@Size(max = 255, message = "Recurrence rule must be less than 255 characters")
+		String recurrenceRule
+) {
+}
@@ -0,0 +1,27 @@
+package com.github.alefthallys.roombooking.dtos.ReservationSeries;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReservationSeriesResponseDTO(
+		Long id,
+		
+		@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+		LocalDateTime startDate,
+		@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+		LocalDateTime endDate,
+		
+		String recurrenceRule,
+		List<LocalDate> cancelledDates,
+		
+		UserResponseDTO user,
+		RoomResponseDTO room
+) {
+}
@@ -1,5 +1,6 @@
 package com.github.alefthallys.roombooking.dtos.Room;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -8,6 +9,9 @@ public record RoomResponseDTO(
 		String name,
 		String description,
 		int capacity,
-		String location
+		String location,
+		
+		@JsonIgnore
+		Long version
 ) {
 }
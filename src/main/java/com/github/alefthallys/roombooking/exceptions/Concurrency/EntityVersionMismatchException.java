@@ -0,0 +1,11 @@
+package com.github.alefthallys.roombooking.exceptions.Concurrency;
+
+public class EntityVersionMismatchException extends RuntimeException {
+	public EntityVersionMismatchException(String entity, Long id, Long expectedVersion, Long currentVersion) {
+		super(String.format("The %s with ID %d is at version %d, not the version %d given in If-Match.", entity, id, currentVersion, expectedVersion));
+	}
+	
+	public EntityVersionMismatchException(String ifMatch) {
+		super(String.format("The If-Match header '%s' is not a version previously returned as an ETag.", ifMatch));
+	}
+}
@@ -4,15 +4,27 @@ import com.github.alefthallys.roombooking.dtos.ErrorResponseDTO;
 import com.github.alefthallys.roombooking.dtos.FieldErrorDTO;
 import com.github.alefthallys.roombooking.exceptions.Auth.ForbiddenException;
 import com.github.alefthallys.roombooking.exceptions.Auth.InvalidJwtException;
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.IdempotencyKeyInFlightException;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.IdempotencyKeyReusedException;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.InvalidIdempotencyKeyException;
+import com.github.alefthallys.roombooking.exceptions.Pagination.InvalidCursorException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationConflictException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.Reservation.ReservationBatchRejectedException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.EntityReservationOccurrenceNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.EntityReservationSeriesNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidOccurrenceRangeException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidRecurrenceRuleException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.Room.InvalidAvailabilityRangeException;
 import com.github.alefthallys.roombooking.exceptions.User.EntityUserAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.User.EntityUserNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -20,6 +32,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -92,6 +105,26 @@ public class GlobalExceptionHandler {
 		return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid request body format or missing content", request.getRequestURI());
 	}
 	
+	@ExceptionHandler(EntityReservationSeriesNotFoundException.class)
+	public ResponseEntity<ErrorResponseDTO> handleReservationSeriesNotFound(EntityReservationSeriesNotFoundException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
+	}
+	
+	@ExceptionHandler(EntityReservationOccurrenceNotFoundException.class)
+	public ResponseEntity<ErrorResponseDTO> handleReservationOccurrenceNotFound(EntityReservationOccurrenceNotFoundException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
+	}
+	
+	@ExceptionHandler(InvalidRecurrenceRuleException.class)
+	public ResponseEntity<ErrorResponseDTO> handleInvalidRecurrenceRule(InvalidRecurrenceRuleException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+	}
+	
+	@ExceptionHandler(InvalidOccurrenceRangeException.class)
+	public ResponseEntity<ErrorResponseDTO> handleInvalidOccurrenceRange(InvalidOccurrenceRangeException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+	}
+	
 	@ExceptionHandler(EntityRoomNotFoundException.class)
 	public ResponseEntity<ErrorResponseDTO> handleRoomNotFound(EntityRoomNotFoundException ex, HttpServletRequest request) {
 		return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
@@ -102,6 +135,16 @@ public class GlobalExceptionHandler {
 		return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
 	}
 	
+	@ExceptionHandler(InvalidAvailabilityRangeException.class)
+	public ResponseEntity<ErrorResponseDTO> handleInvalidAvailabilityRange(InvalidAvailabilityRangeException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+	}
+	
+	@ExceptionHandler(MissingServletRequestParameterException.class)
+	public ResponseEntity<ErrorResponseDTO> handleMissingServletRequestParameter(MissingServletRequestParameterException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+	}
+	
 	@ExceptionHandler(EntityReservationNotFoundException.class)
 	public ResponseEntity<ErrorResponseDTO> handleReservationNotFound(EntityReservationNotFoundException ex, HttpServletRequest request) {
 		return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
@@ -142,6 +185,48 @@ public class GlobalExceptionHandler {
 		return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
 	}
 	
+	@ExceptionHandler(ReservationBatchRejectedException.class)
+	public ResponseEntity<ErrorResponseDTO> handleReservationBatchRejected(ReservationBatchRejectedException ex, HttpServletRequest request) {
+		ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+				HttpStatus.CONFLICT.value(),
+				HttpStatus.CONFLICT.getReasonPhrase(),
+				ex.getMessage(),
+				request.getRequestURI(),
+				ex.getItemErrors()
+		);
+		return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+	}
+	
+	@ExceptionHandler(InvalidCursorException.class)
+	public ResponseEntity<ErrorResponseDTO> handleInvalidCursor(InvalidCursorException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+	}
+	
+	@ExceptionHandler(EntityVersionMismatchException.class)
+	public ResponseEntity<ErrorResponseDTO> handleEntityVersionMismatch(EntityVersionMismatchException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), request.getRequestURI());
+	}
+	
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<ErrorResponseDTO> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.CONFLICT, "The resource was modified concurrently. Reload it and try again.", request.getRequestURI());
+	}
+	
+	@ExceptionHandler(InvalidIdempotencyKeyException.class)
+	public ResponseEntity<ErrorResponseDTO> handleInvalidIdempotencyKey(InvalidIdempotencyKeyException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
+	}
+	
+	@ExceptionHandler(IdempotencyKeyReusedException.class)
+	public ResponseEntity<ErrorResponseDTO> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage(), request.getRequestURI());
+	}
+	
+	@ExceptionHandler(IdempotencyKeyInFlightException.class)
+	public ResponseEntity<ErrorResponseDTO> handleIdempotencyKeyInFlight(IdempotencyKeyInFlightException ex, HttpServletRequest request) {
+		return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
+	}
+	
 	@ExceptionHandler(UsernameNotFoundException.class)
 	public ResponseEntity<ErrorResponseDTO> handleUsernameNotFoundException(UsernameNotFoundException ex, HttpServletRequest request) {
 		return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
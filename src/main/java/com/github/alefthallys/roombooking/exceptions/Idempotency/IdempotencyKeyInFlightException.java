@@ -0,0 +1,7 @@
+package com.github.alefthallys.roombooking.exceptions.Idempotency;
+
+public class IdempotencyKeyInFlightException extends RuntimeException {
+	public IdempotencyKeyInFlightException(String key) {
+		super(String.format("A request with the Idempotency-Key '%s' is still being processed. Retry later.", key));
+	}
+}
@@ -0,0 +1,7 @@
+package com.github.alefthallys.roombooking.exceptions.Idempotency;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+	public IdempotencyKeyReusedException(String key) {
+		super(String.format("The Idempotency-Key '%s' was already used with a different request body.", key));
+	}
+}
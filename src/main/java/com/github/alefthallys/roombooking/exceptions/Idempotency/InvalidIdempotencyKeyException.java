@@ -0,0 +1,7 @@
+package com.github.alefthallys.roombooking.exceptions.Idempotency;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+	public InvalidIdempotencyKeyException(int maxLength) {
+		super(String.format("The Idempotency-Key header must be between 1 and %d characters long.", maxLength));
+	}
+}
@@ -0,0 +1,7 @@
+package com.github.alefthallys.roombooking.exceptions.Pagination;
+
+public class InvalidCursorException extends RuntimeException {
+	public InvalidCursorException(String cursor) {
+		super("Invalid pagination cursor: " + cursor);
+	}
+}
@@ -0,0 +1,17 @@
+package com.github.alefthallys.roombooking.exceptions.Reservation;
+
+import com.github.alefthallys.roombooking.dtos.FieldErrorDTO;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class ReservationBatchRejectedException extends RuntimeException {
+	
+	private final List<FieldErrorDTO> itemErrors;
+	
+	public ReservationBatchRejectedException(List<FieldErrorDTO> itemErrors, int batchSize) {
+		super(String.format("Reservation batch rejected: %d of %d reservations cannot be booked.", itemErrors.size(), batchSize));
+		this.itemErrors = List.copyOf(itemErrors);
+	}
+}
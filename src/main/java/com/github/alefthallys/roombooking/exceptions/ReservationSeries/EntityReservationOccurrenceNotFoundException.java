@@ -0,0 +1,9 @@
+package com.github.alefthallys.roombooking.exceptions.ReservationSeries;
+
+import java.time.LocalDate;
+
+public class EntityReservationOccurrenceNotFoundException extends RuntimeException {
+	public EntityReservationOccurrenceNotFoundException(Long seriesId, LocalDate date) {
+		super("Reservation series " + seriesId + " has no occurrence on " + date);
+	}
+}
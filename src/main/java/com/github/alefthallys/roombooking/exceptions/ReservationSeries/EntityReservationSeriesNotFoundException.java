@@ -0,0 +1,7 @@
+package com.github.alefthallys.roombooking.exceptions.ReservationSeries;
+
+public class EntityReservationSeriesNotFoundException extends RuntimeException {
+	public EntityReservationSeriesNotFoundException(Long id) {
+		super("Reservation series not found with id: " + id);
+	}
+}
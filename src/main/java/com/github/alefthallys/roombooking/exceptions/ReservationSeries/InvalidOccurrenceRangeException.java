@@ -0,0 +1,9 @@
+package com.github.alefthallys.roombooking.exceptions.ReservationSeries;
+
+import java.time.LocalDateTime;
+
+public class InvalidOccurrenceRangeException extends RuntimeException {
+	public InvalidOccurrenceRangeException(LocalDateTime from, LocalDateTime to) {
+		super("Invalid occurrence range: 'from' (" + from + ") must be before 'to' (" + to + ")");
+	}
+}
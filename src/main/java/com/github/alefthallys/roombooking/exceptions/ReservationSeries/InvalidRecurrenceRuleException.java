@@ -0,0 +1,7 @@
+package com.github.alefthallys.roombooking.exceptions.ReservationSeries;
+
+public class InvalidRecurrenceRuleException extends RuntimeException {
+	public InvalidRecurrenceRuleException(String rule, String reason) {
+		super("Invalid recurrence rule '" + rule + "': " + reason);
+	}
+}
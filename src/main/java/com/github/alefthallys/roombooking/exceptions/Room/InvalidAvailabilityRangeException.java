@@ -0,0 +1,13 @@
+package com.github.alefthallys.roombooking.exceptions.Room;
+
+import java.time.LocalDateTime;
+
+public class InvalidAvailabilityRangeException extends RuntimeException {
+	public InvalidAvailabilityRangeException(LocalDateTime from, LocalDateTime to) {
+		super("Invalid availability range: 'from' (" + from + ") must be before 'to' (" + to + ")");
+	}
+	
+	public InvalidAvailabilityRangeException(LocalDateTime from) {
+		super("Invalid availability range: 'from' (" + from + ") must not be in the past");
+	}
+}
@@ -0,0 +1,27 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+	
+	private Store store = Store.MEMORY;
+	private Duration ttl = Duration.ofHours(24);
+	private long maxSize = 100_000;
+	private Duration inFlightTimeout = Duration.ofSeconds(30);
+	private Duration claimTimeout = Duration.ofMinutes(10);
+	private Duration purgeInterval = Duration.ofMinutes(10);
+	
+	public enum Store {
+		MEMORY,
+		DATABASE
+	}
+}
@@ -0,0 +1,232 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.IdempotencyKeyInFlightException;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.IdempotencyKeyReusedException;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.InvalidIdempotencyKeyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}. Keys are scoped to the authenticated
+ * user and remembered with a fingerprint of the request body: a retry with the same body gets the
+ * stored response back without running the action again, the same key with a different body is
+ * rejected, and a duplicate arriving while the first request is still running waits for its
+ * outcome. Failed requests are not remembered, so they can be retried with the same key.
+ * <p>
+ * The action and the stored response commit in one transaction, fenced on the claim's owner
+ * token: a response is never stored for work that rolled back, and work whose claim was taken
+ * over is rolled back instead of stored. A claim is only taken over once it is older than
+ * {@code idempotency.claim-timeout}, which must exceed the longest request. Responses are stored
+ * without the DTOs' Jackson view annotations, so fields hidden from clients, like the version
+ * behind the ETag, and full timestamp precision survive a replay.
+ */
+@Slf4j
+@Component
+public class IdempotencyService {
+	
+	public static final String HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+	public static final int MAX_KEY_LENGTH = 255;
+	
+	private static final String REQUESTS_COUNTER = "roombooking.idempotency.requests";
+	private static final long POLL_INTERVAL_MILLIS = 50;
+	
+	private final IdempotencyStore idempotencyStore;
+	private final IdempotencyProperties idempotencyProperties;
+	private final ObjectMapper objectMapper;
+	private final TransactionOperations transactionOperations;
+	private final Clock clock;
+	private final Counter executedRequests;
+	private final Counter replayedRequests;
+	private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+	
+	@Autowired
+	public IdempotencyService(IdempotencyStore idempotencyStore, IdempotencyProperties idempotencyProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+		this(idempotencyStore, idempotencyProperties, objectMapper, meterRegistry, readCommitted(transactionManager), Clock.systemUTC());
+	}
+	
+	IdempotencyService(IdempotencyStore idempotencyStore, IdempotencyProperties idempotencyProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry, TransactionOperations transactionOperations, Clock clock) {
+		this.idempotencyStore = idempotencyStore;
+		this.idempotencyProperties = idempotencyProperties;
+		this.objectMapper = objectMapper.copy().configure(MapperFeature.USE_ANNOTATIONS, false);
+		this.transactionOperations = transactionOperations;
+		this.clock = clock;
+		this.executedRequests = meterRegistry.counter(REQUESTS_COUNTER, "outcome", "executed");
+		this.replayedRequests = meterRegistry.counter(REQUESTS_COUNTER, "outcome", "replayed");
+	}
+	
+	/**
+	 * The action joins this transaction, and booking actions read the room's last commit after
+	 * taking its row lock.
+	 */
+	private static TransactionTemplate readCommitted(PlatformTransactionManager transactionManager) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+		return transactionTemplate;
+	}
+	
+	public <T> IdempotentResult<T> execute(String idempotencyKey, Object request, Class<T> responseType, Supplier<T> action) {
+		if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+			throw new InvalidIdempotencyKeyException(MAX_KEY_LENGTH);
+		}
+		String key = sha256(currentUser() + "\n" + idempotencyKey);
+		String fingerprint = sha256(serialize(request));
+		
+		InFlight running = new InFlight(fingerprint, new CompletableFuture<>());
+		InFlight existing = inFlight.putIfAbsent(key, running);
+		if (existing != null) {
+			return awaitInFlight(idempotencyKey, fingerprint, responseType, existing);
+		}
+		try {
+			IdempotentResult<T> result = executeOnce(idempotencyKey, key, fingerprint, responseType, action);
+			running.response().complete(result.value());
+			(result.replayed() ? replayedRequests : executedRequests).increment();
+			return result;
+		} catch (RuntimeException e) {
+			running.response().completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, running);
+		}
+	}
+	
+	private <T> IdempotentResult<T> awaitInFlight(String idempotencyKey, String fingerprint, Class<T> responseType, InFlight running) {
+		if (!running.fingerprint().equals(fingerprint)) {
+			throw new IdempotencyKeyReusedException(idempotencyKey);
+		}
+		try {
+			T value = responseType.cast(running.response().get(idempotencyProperties.getInFlightTimeout().toMillis(), TimeUnit.MILLISECONDS));
+			replayedRequests.increment();
+			return new IdempotentResult<>(value, true);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (TimeoutException e) {
+			throw new IdempotencyKeyInFlightException(idempotencyKey);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IdempotencyKeyInFlightException(idempotencyKey);
+		}
+	}
+	
+	private <T> IdempotentResult<T> executeOnce(String idempotencyKey, String key, String fingerprint, Class<T> responseType, Supplier<T> action) {
+		String owner = UUID.randomUUID().toString();
+		Instant deadline = clock.instant().plus(idempotencyProperties.getInFlightTimeout());
+		while (true) {
+			Optional<IdempotencyStore.Entry> stored = idempotencyStore.find(key);
+			if (stored.isPresent()) {
+				IdempotencyStore.Entry entry = stored.get();
+				if (!entry.fingerprint().equals(fingerprint)) {
+					throw new IdempotencyKeyReusedException(idempotencyKey);
+				}
+				if (entry.isCompleted()) {
+					return new IdempotentResult<>(deserialize(entry.response(), responseType), true);
+				}
+				if (entry.claimedAt().plus(idempotencyProperties.getClaimTimeout()).isBefore(clock.instant())) {
+					log.warn("Taking over idempotency key abandoned since {}", entry.claimedAt());
+					idempotencyStore.release(key, entry.owner());
+					continue;
+				}
+				if (clock.instant().isAfter(deadline)) {
+					throw new IdempotencyKeyInFlightException(idempotencyKey);
+				}
+				pause(idempotencyKey);
+				continue;
+			}
+			if (idempotencyStore.claim(key, fingerprint, owner, clock.instant())) {
+				return new IdempotentResult<>(runClaimed(idempotencyKey, key, owner, action), false);
+			}
+		}
+	}
+	
+	private <T> T runClaimed(String idempotencyKey, String key, String owner, Supplier<T> action) {
+		try {
+			return transactionOperations.execute(status -> {
+				T value = action.get();
+				if (!idempotencyStore.complete(key, owner, serialize(value))) {
+					throw new IdempotencyKeyInFlightException(idempotencyKey);
+				}
+				return value;
+			});
+		} catch (RuntimeException e) {
+			try {
+				idempotencyStore.release(key, owner);
+			} catch (RuntimeException releaseFailure) {
+				log.warn("Cannot release idempotency key, it will be taken over after the claim timeout", releaseFailure);
+				e.addSuppressed(releaseFailure);
+			}
+			throw e;
+		}
+	}
+	
+	private void pause(String idempotencyKey) {
+		try {
+			Thread.sleep(POLL_INTERVAL_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IdempotencyKeyInFlightException(idempotencyKey);
+		}
+	}
+	
+	private static String currentUser() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		return authentication == null ? "anonymous" : authentication.getName();
+	}
+	
+	private String serialize(Object value) {
+		try {
+			return objectMapper.writeValueAsString(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot serialize " + value.getClass().getSimpleName() + " for an idempotent request", e);
+		}
+	}
+	
+	private <T> T deserialize(String response, Class<T> responseType) {
+		try {
+			return objectMapper.readValue(response, responseType);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot read the stored " + responseType.getSimpleName() + " for an idempotent request", e);
+		}
+	}
+	
+	private static String sha256(String value) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private record InFlight(String fingerprint, CompletableFuture<Object> response) {
+	}
+}
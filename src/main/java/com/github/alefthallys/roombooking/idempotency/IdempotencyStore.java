@@ -0,0 +1,38 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Remembers which idempotency keys have been used, the fingerprint of the request that claimed
+ * each one, the owner token of the claim and, once it finished, the response to replay. Entries
+ * expire after {@code idempotency.ttl}.
+ */
+public interface IdempotencyStore {
+	
+	Optional<Entry> find(String key);
+	
+	/**
+	 * Records the key as in flight for {@code owner}, returning {@code false} if another request
+	 * already holds it.
+	 */
+	boolean claim(String key, String fingerprint, String owner, Instant claimedAt);
+	
+	/**
+	 * Stores the response as part of the surrounding transaction, so it is kept only if the work
+	 * that produced it commits. Returns {@code false} when {@code owner} no longer holds the claim.
+	 */
+	boolean complete(String key, String owner, String response);
+	
+	/**
+	 * Forgets the key, but only while it is still claimed by {@code owner}.
+	 */
+	void release(String key, String owner);
+	
+	record Entry(String fingerprint, String owner, String response, Instant claimedAt) {
+		
+		public boolean isCompleted() {
+			return response != null;
+		}
+	}
+}
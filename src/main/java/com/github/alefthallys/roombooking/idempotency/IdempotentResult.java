@@ -0,0 +1,4 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+public record IdempotentResult<T>(T value, boolean replayed) {
+}
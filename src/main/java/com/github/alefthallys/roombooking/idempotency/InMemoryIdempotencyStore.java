@@ -0,0 +1,90 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Bounded Caffeine store for a single instance. An entry lives for {@code idempotency.ttl} after
+ * it was claimed or completed; under size pressure the least recently used keys are evicted first.
+ * A response is only recorded once the transaction that produced it has committed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore, MeterBinder {
+	
+	private final Cache<String, Entry> cache;
+	
+	@Autowired
+	public InMemoryIdempotencyStore(IdempotencyProperties properties) {
+		this(properties, Ticker.systemTicker());
+	}
+	
+	InMemoryIdempotencyStore(IdempotencyProperties properties, Ticker ticker) {
+		this.cache = Caffeine.newBuilder()
+				.expireAfterWrite(properties.getTtl())
+				.maximumSize(properties.getMaxSize())
+				.ticker(ticker)
+				.recordStats()
+				.build();
+	}
+	
+	@Override
+	public Optional<Entry> find(String key) {
+		return Optional.ofNullable(cache.getIfPresent(key));
+	}
+	
+	@Override
+	public boolean claim(String key, String fingerprint, String owner, Instant claimedAt) {
+		return cache.asMap().putIfAbsent(key, new Entry(fingerprint, owner, null, claimedAt)) == null;
+	}
+	
+	@Override
+	public boolean complete(String key, String owner, String response) {
+		if (!isOwnedBy(cache.getIfPresent(key), owner)) {
+			return false;
+		}
+		afterCommit(() -> cache.asMap().computeIfPresent(key, (ignored, entry) -> isOwnedBy(entry, owner)
+				? new Entry(entry.fingerprint(), owner, response, entry.claimedAt())
+				: entry));
+		return true;
+	}
+	
+	@Override
+	public void release(String key, String owner) {
+		cache.asMap().computeIfPresent(key, (ignored, entry) -> isOwnedBy(entry, owner) ? null : entry);
+	}
+	
+	private static boolean isOwnedBy(Entry entry, String owner) {
+		return entry != null && !entry.isCompleted() && entry.owner().equals(owner);
+	}
+	
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, cache, "idempotency-keys");
+	}
+}
@@ -0,0 +1,84 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+import com.github.alefthallys.roombooking.models.IdempotencyKey;
+import com.github.alefthallys.roombooking.repositories.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Store shared by every instance through the {@code idempotency_keys} table. A claim is an INSERT
+ * committed before the request runs, so a duplicate reaching another instance sees it and waits.
+ * Completing is an UPDATE fenced on the owner token that joins the caller's transaction, so the
+ * response is stored in the same commit as the reservation it describes. Expired rows are ignored
+ * on read and purged every {@code idempotency.purge-interval}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "idempotency", name = "store", havingValue = "database")
+@Slf4j
+public class JpaIdempotencyStore implements IdempotencyStore {
+	
+	private final IdempotencyKeyRepository idempotencyKeyRepository;
+	private final IdempotencyProperties idempotencyProperties;
+	private final Clock clock;
+	
+	@Autowired
+	public JpaIdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository, IdempotencyProperties idempotencyProperties) {
+		this(idempotencyKeyRepository, idempotencyProperties, Clock.systemUTC());
+	}
+	
+	JpaIdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository, IdempotencyProperties idempotencyProperties, Clock clock) {
+		this.idempotencyKeyRepository = idempotencyKeyRepository;
+		this.idempotencyProperties = idempotencyProperties;
+		this.clock = clock;
+	}
+	
+	@Override
+	public Optional<Entry> find(String key) {
+		LocalDateTime now = LocalDateTime.now(clock);
+		return idempotencyKeyRepository.findById(key)
+				.filter(row -> !row.getExpiresAt().isBefore(now))
+				.map(row -> new Entry(row.getFingerprint(), row.getOwner(), row.getResponse(), row.getCreatedAt().toInstant(ZoneOffset.UTC)));
+	}
+	
+	@Override
+	public boolean claim(String key, String fingerprint, String owner, Instant claimedAt) {
+		LocalDateTime createdAt = LocalDateTime.ofInstant(claimedAt, ZoneOffset.UTC);
+		idempotencyKeyRepository.findById(key)
+				.filter(row -> row.getExpiresAt().isBefore(LocalDateTime.now(clock)))
+				.ifPresent(idempotencyKeyRepository::delete);
+		try {
+			idempotencyKeyRepository.saveAndFlush(new IdempotencyKey(key, fingerprint, owner, createdAt, createdAt.plus(idempotencyProperties.getTtl())));
+			return true;
+		} catch (DataIntegrityViolationException e) {
+			return false;
+		}
+	}
+	
+	@Override
+	public boolean complete(String key, String owner, String response) {
+		return idempotencyKeyRepository.complete(key, owner, response, LocalDateTime.now(clock).plus(idempotencyProperties.getTtl())) > 0;
+	}
+	
+	@Override
+	public void release(String key, String owner) {
+		idempotencyKeyRepository.release(key, owner);
+	}
+	
+	@Scheduled(fixedDelayString = "#{@idempotencyProperties.purgeInterval.toMillis()}")
+	public void purgeExpired() {
+		int purged = idempotencyKeyRepository.deleteExpired(LocalDateTime.now(clock));
+		if (purged > 0) {
+			log.info("Purged {} expired idempotency keys", purged);
+		}
+	}
+}
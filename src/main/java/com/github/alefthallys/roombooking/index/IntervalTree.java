@@ -0,0 +1,215 @@
+package com.github.alefthallys.roombooking.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * AVL tree of reservation intervals ordered by start date and id, where every node also
+ * keeps the greatest end date of its subtree so overlap queries can prune whole branches.
+ * Not thread-safe; callers are expected to guard each instance.
+ */
+public class IntervalTree {
+	
+	private static final Comparator<ReservationInterval> ORDER = Comparator
+			.comparing(ReservationInterval::startDate)
+			.thenComparing(ReservationInterval::id);
+	
+	private Node root;
+	private int size;
+	
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public void insert(ReservationInterval interval) {
+		root = insert(root, interval);
+	}
+	
+	public boolean remove(ReservationInterval interval) {
+		int sizeBefore = size;
+		root = remove(root, interval);
+		return size < sizeBefore;
+	}
+	
+	public Optional<ReservationInterval> findFirstOverlap(LocalDateTime start, LocalDateTime end, Long excludedId) {
+		return Optional.ofNullable(findFirstOverlap(root, start, end, excludedId));
+	}
+	
+	public List<ReservationInterval> findOverlaps(LocalDateTime start, LocalDateTime end) {
+		List<ReservationInterval> overlaps = new ArrayList<>();
+		collectOverlaps(root, start, end, overlaps);
+		return overlaps;
+	}
+	
+	public List<ReservationInterval> toList() {
+		List<ReservationInterval> intervals = new ArrayList<>(size);
+		collect(root, intervals);
+		return intervals;
+	}
+	
+	private Node insert(Node node, ReservationInterval interval) {
+		if (node == null) {
+			size++;
+			return new Node(interval);
+		}
+		
+		int cmp = ORDER.compare(interval, node.interval);
+		if (cmp < 0) {
+			node.left = insert(node.left, interval);
+		} else if (cmp > 0) {
+			node.right = insert(node.right, interval);
+		} else {
+			node.interval = interval;
+		}
+		return rebalance(node);
+	}
+	
+	private Node remove(Node node, ReservationInterval interval) {
+		if (node == null) {
+			return null;
+		}
+		
+		int cmp = ORDER.compare(interval, node.interval);
+		if (cmp < 0) {
+			node.left = remove(node.left, interval);
+		} else if (cmp > 0) {
+			node.right = remove(node.right, interval);
+		} else {
+			size--;
+			if (node.left == null) {
+				return node.right;
+			}
+			if (node.right == null) {
+				return node.left;
+			}
+			Node successor = node.right;
+			while (successor.left != null) {
+				successor = successor.left;
+			}
+			node.interval = successor.interval;
+			size++;
+			node.right = remove(node.right, successor.interval);
+		}
+		return rebalance(node);
+	}
+	
+	private ReservationInterval findFirstOverlap(Node node, LocalDateTime start, LocalDateTime end, Long excludedId) {
+		if (node == null || !node.maxEnd.isAfter(start)) {
+			return null;
+		}
+		
+		ReservationInterval found = findFirstOverlap(node.left, start, end, excludedId);
+		if (found != null) {
+			return found;
+		}
+		
+		if (!node.interval.startDate().isBefore(end)) {
+			return null;
+		}
+		
+		if (node.interval.overlaps(start, end) && !node.interval.id().equals(excludedId)) {
+			return node.interval;
+		}
+		return findFirstOverlap(node.right, start, end, excludedId);
+	}
+	
+	private void collectOverlaps(Node node, LocalDateTime start, LocalDateTime end, List<ReservationInterval> overlaps) {
+		if (node == null || !node.maxEnd.isAfter(start)) {
+			return;
+		}
+		
+		collectOverlaps(node.left, start, end, overlaps);
+		
+		if (!node.interval.startDate().isBefore(end)) {
+			return;
+		}
+		
+		if (node.interval.overlaps(start, end)) {
+			overlaps.add(node.interval);
+		}
+		collectOverlaps(node.right, start, end, overlaps);
+	}
+	
+	private void collect(Node node, List<ReservationInterval> intervals) {
+		if (node == null) {
+			return;
+		}
+		collect(node.left, intervals);
+		intervals.add(node.interval);
+		collect(node.right, intervals);
+	}
+	
+	private Node rebalance(Node node) {
+		update(node);
+		int balance = height(node.left) - height(node.right);
+		
+		if (balance > 1) {
+			if (height(node.left.left) < height(node.left.right)) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		}
+		
+		if (balance < -1) {
+			if (height(node.right.right) < height(node.right.left)) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+	
+	private Node rotateLeft(Node node) {
+		Node pivot = node.right;
+		node.right = pivot.left;
+		pivot.left = node;
+		update(node);
+		update(pivot);
+		return pivot;
+	}
+	
+	private Node rotateRight(Node node) {
+		Node pivot = node.left;
+		node.left = pivot.right;
+		pivot.right = node;
+		update(node);
+		update(pivot);
+		return pivot;
+	}
+	
+	private static void update(Node node) {
+		node.height = 1 + Math.max(height(node.left), height(node.right));
+		LocalDateTime maxEnd = node.interval.endDate();
+		if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+			maxEnd = node.left.maxEnd;
+		}
+		if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+			maxEnd = node.right.maxEnd;
+		}
+		node.maxEnd = maxEnd;
+	}
+	
+	private static int height(Node node) {
+		return node == null ? 0 : node.height;
+	}
+	
+	private static final class Node {
+		private ReservationInterval interval;
+		private LocalDateTime maxEnd;
+		private int height = 1;
+		private Node left;
+		private Node right;
+		
+		private Node(ReservationInterval interval) {
+			this.interval = interval;
+			this.maxEnd = interval.endDate();
+		}
+	}
+}
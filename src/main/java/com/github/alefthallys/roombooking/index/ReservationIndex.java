@@ -0,0 +1,239 @@
+package com.github.alefthallys.roombooking.index;
+
+import com.github.alefthallys.roombooking.models.RoomBookingVersion;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomBookingVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory interval trees of the reservations that have not ended yet, plus every reservation
+ * series, per room. Each room's copy is tagged with the {@link RoomBookingVersion} it reflects.
+ * Every transaction that changes a room's bookings takes the room's row lock, opens the room with
+ * {@link #forLockedRoom(Long)} and so bumps that version, which lets the index tell when another
+ * instance committed to the room: the room is then reloaded from the database once, and until
+ * the next foreign commit its conflict checks are answered from memory alone. Reads without the
+ * room's lock, like availability searches, see foreign commits after the next {@link #refresh()}.
+ */
+@Component
+@Slf4j
+public class ReservationIndex implements SmartInitializingSingleton {
+	
+	private final ReservationRepository reservationRepository;
+	private final ReservationSeriesRepository reservationSeriesRepository;
+	private final RoomBookingVersionRepository roomBookingVersionRepository;
+	private final TransactionOperations snapshotTransaction;
+	private final Clock clock;
+	private final Map<Long, RoomTimeline> timelines = new ConcurrentHashMap<>();
+	
+	@Autowired
+	public ReservationIndex(ReservationRepository reservationRepository, ReservationSeriesRepository reservationSeriesRepository, RoomBookingVersionRepository roomBookingVersionRepository, PlatformTransactionManager transactionManager) {
+		this(reservationRepository, reservationSeriesRepository, roomBookingVersionRepository, snapshotTransaction(transactionManager), Clock.systemDefaultZone());
+	}
+	
+	ReservationIndex(ReservationRepository reservationRepository, ReservationSeriesRepository reservationSeriesRepository, RoomBookingVersionRepository roomBookingVersionRepository, TransactionOperations snapshotTransaction, Clock clock) {
+		this.reservationRepository = reservationRepository;
+		this.reservationSeriesRepository = reservationSeriesRepository;
+		this.roomBookingVersionRepository = roomBookingVersionRepository;
+		this.snapshotTransaction = snapshotTransaction;
+		this.clock = clock;
+	}
+	
+	/**
+	 * The warm-up reads the versions and the bookings from one snapshot, so each room's copy
+	 * matches the version it is tagged with.
+	 */
+	private static TransactionTemplate snapshotTransaction(PlatformTransactionManager transactionManager) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		transactionTemplate.setReadOnly(true);
+		return transactionTemplate;
+	}
+	
+	@Override
+	public void afterSingletonsInstantiated() {
+		try {
+			snapshotTransaction.executeWithoutResult(status -> warmUp(LocalDateTime.now(clock)));
+		} catch (RuntimeException e) {
+			log.error("Failed to warm up the reservation index, each room will be loaded by its first booking", e);
+		}
+	}
+	
+	private void warmUp(LocalDateTime now) {
+		Map<Long, Long> versions = roomBookingVersionRepository.findAll().stream()
+				.collect(Collectors.toMap(RoomBookingVersion::getRoomId, RoomBookingVersion::getVersion));
+		Map<Long, List<ReservationInterval>> intervals = reservationRepository.findIntervalsEndingAfter(now).stream()
+				.collect(Collectors.groupingBy(ReservationInterval::roomId));
+		Map<Long, List<ReservationSeriesInterval>> series = reservationSeriesRepository.findAll().stream()
+				.map(ReservationSeriesInterval::of)
+				.collect(Collectors.groupingBy(ReservationSeriesInterval::roomId));
+		
+		Set<Long> roomIds = new HashSet<>(versions.keySet());
+		roomIds.addAll(intervals.keySet());
+		roomIds.addAll(series.keySet());
+		for (Long roomId : roomIds) {
+			timelines.computeIfAbsent(roomId, id -> new RoomTimeline())
+					.reset(versions.getOrDefault(roomId, 0L), now, intervals.getOrDefault(roomId, List.of()), series.getOrDefault(roomId, List.of()));
+		}
+		log.info("Reservation index warmed up with {} reservations and {} series across {} rooms",
+				intervals.values().stream().mapToInt(List::size).sum(), series.values().stream().mapToInt(List::size).sum(), roomIds.size());
+	}
+	
+	/**
+	 * Reloads the rooms whose booking version moved past this instance's copy, reading the versions
+	 * and the reloaded bookings from one snapshot. A room a local commit already advanced further is
+	 * left alone. When nothing moved, the booking versions are the only rows read.
+	 */
+	@Scheduled(fixedDelayString = "#{@reservationIndexProperties.refreshInterval.toMillis()}")
+	public void refresh() {
+		Integer refreshed = snapshotTransaction.execute(status -> refresh(LocalDateTime.now(clock)));
+		if (refreshed != null && refreshed > 0) {
+			log.debug("Refreshed {} rooms of the reservation index", refreshed);
+		}
+	}
+	
+	private int refresh(LocalDateTime now) {
+		Map<Long, Long> moved = new HashMap<>();
+		for (RoomBookingVersion bookingVersion : roomBookingVersionRepository.findAll()) {
+			RoomTimeline timeline = timelines.get(bookingVersion.getRoomId());
+			if (timeline == null || timeline.version() < bookingVersion.getVersion()) {
+				moved.put(bookingVersion.getRoomId(), bookingVersion.getVersion());
+			}
+		}
+		if (moved.isEmpty()) {
+			return 0;
+		}
+		
+		Map<Long, List<ReservationInterval>> intervals = reservationRepository.findIntervalsByRoomInEndingAfter(moved.keySet(), now).stream()
+				.collect(Collectors.groupingBy(ReservationInterval::roomId));
+		Map<Long, List<ReservationSeriesInterval>> series = reservationSeriesRepository.findByRoomIdIn(moved.keySet()).stream()
+				.map(ReservationSeriesInterval::of)
+				.collect(Collectors.groupingBy(ReservationSeriesInterval::roomId));
+		moved.forEach((roomId, version) -> timelines.computeIfAbsent(roomId, id -> new RoomTimeline())
+				.resetIfBehind(version, now, intervals.getOrDefault(roomId, List.of()), series.getOrDefault(roomId, List.of())));
+		return moved.size();
+	}
+	
+	/**
+	 * Whether a reservation or a series occurrence of the room overlaps the range, answered from
+	 * this instance's copy without the room's lock or a query. Reservations that ended before the
+	 * last prune are no longer in the copy, so the range must not start in the past.
+	 */
+	public boolean isBooked(Long roomId, LocalDateTime from, LocalDateTime to) {
+		RoomTimeline timeline = timelines.get(roomId);
+		return timeline != null && timeline.isBooked(from, to);
+	}
+	
+	public int size() {
+		return timelines.values().stream().mapToInt(RoomTimeline::size).sum();
+	}
+	
+	@Scheduled(fixedDelayString = "#{@reservationIndexProperties.pruneInterval.toMillis()}")
+	public void pruneEnded() {
+		LocalDateTime now = LocalDateTime.now(clock);
+		int pruned = timelines.values().stream().mapToInt(timeline -> timeline.pruneEnded(now)).sum();
+		log.info("Pruned {} ended reservations from the reservation index", pruned);
+	}
+	
+	/**
+	 * Opens the room's bookings for the current transaction, which must already hold the room's row
+	 * lock. The room's booking version is read with a locking read, the room is reloaded from the
+	 * database when this instance's copy is not at that version, and the version is bumped for the
+	 * changes the transaction is about to make. A room is opened once per transaction; later calls
+	 * return the same bookings.
+	 */
+	public RoomBookings forLockedRoom(Long roomId) {
+		Map<Long, RoomBookings> opened = openedInTransaction();
+		RoomBookings bookings = opened.get(roomId);
+		if (bookings != null) {
+			return bookings;
+		}
+		
+		RoomBookingVersion bookingVersion = roomBookingVersionRepository.findByRoomIdForUpdate(roomId)
+				.orElseGet(() -> new RoomBookingVersion(roomId));
+		long version = bookingVersion.getVersion();
+		RoomTimeline timeline = timelines.computeIfAbsent(roomId, id -> new RoomTimeline());
+		if (timeline.version() != version) {
+			reload(roomId, version, timeline);
+		}
+		bookingVersion.setVersion(version + 1);
+		roomBookingVersionRepository.save(bookingVersion);
+		
+		bookings = new RoomBookings(roomId, version, timeline, reservationRepository, TransactionSynchronizationManager.isSynchronizationActive());
+		opened.put(roomId, bookings);
+		return bookings;
+	}
+	
+	public void removeRoom(Long roomId) {
+		afterCommit(() -> timelines.remove(roomId));
+	}
+	
+	private void reload(Long roomId, long version, RoomTimeline timeline) {
+		LocalDateTime now = LocalDateTime.now(clock);
+		List<ReservationInterval> intervals = reservationRepository.findIntervalsByRoomEndingAfter(roomId, now);
+		List<ReservationSeriesInterval> series = reservationSeriesRepository.findByRoomIdIn(Set.of(roomId)).stream()
+				.map(ReservationSeriesInterval::of)
+				.toList();
+		timeline.reset(version, now, intervals, series);
+		log.debug("Reloaded room {} at booking version {}", roomId, version);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Map<Long, RoomBookings> openedInTransaction() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return new HashMap<>();
+		}
+		Map<Long, RoomBookings> opened = (Map<Long, RoomBookings>) TransactionSynchronizationManager.getResource(this);
+		if (opened != null) {
+			return opened;
+		}
+		
+		Map<Long, RoomBookings> created = new HashMap<>();
+		TransactionSynchronizationManager.bindResource(this, created);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				created.values().forEach(RoomBookings::publish);
+			}
+			
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(ReservationIndex.this);
+			}
+		});
+		return created;
+	}
+	
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,19 @@
+package com.github.alefthallys.roombooking.index;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "reservation.index")
+public class ReservationIndexProperties {
+	
+	private Duration pruneInterval = Duration.ofMinutes(15);
+	
+	private Duration refreshInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,28 @@
+package com.github.alefthallys.roombooking.index;
+
+import com.github.alefthallys.roombooking.models.Reservation;
+
+import java.time.LocalDateTime;
+
+public record ReservationInterval(
+		Long id,
+		Long roomId,
+		Long userId,
+		LocalDateTime startDate,
+		LocalDateTime endDate
+) {
+	
+	public static ReservationInterval of(Reservation reservation) {
+		return new ReservationInterval(
+				reservation.getId(),
+				reservation.getRoom().getId(),
+				reservation.getUser().getId(),
+				reservation.getStartDate(),
+				reservation.getEndDate()
+		);
+	}
+	
+	public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+		return startDate.isBefore(end) && endDate.isAfter(start);
+	}
+}
@@ -0,0 +1,91 @@
+package com.github.alefthallys.roombooking.index;
+
+import com.github.alefthallys.roombooking.models.ReservationSeries;
+import com.github.alefthallys.roombooking.recurrence.RecurrenceRule;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Detached view of a reservation series whose occurrences are expanded on demand, skipping the
+ * sparse set of cancelled dates. Occurrences are returned as {@link ReservationInterval}s without
+ * an id, so they must never be inserted into an {@link IntervalTree}.
+ */
+public record ReservationSeriesInterval(
+		Long id,
+		Long roomId,
+		Long userId,
+		LocalDateTime startDate,
+		LocalDateTime endDate,
+		RecurrenceRule rule,
+		Set<LocalDate> cancelledDates
+) {
+	
+	public ReservationSeriesInterval {
+		cancelledDates = Set.copyOf(cancelledDates);
+	}
+	
+	public static ReservationSeriesInterval of(ReservationSeries series) {
+		return new ReservationSeriesInterval(
+				series.getId(),
+				series.getRoom().getId(),
+				series.getUser().getId(),
+				series.getStartDate(),
+				series.getEndDate(),
+				series.getRecurrenceRule(),
+				series.getCancelledDates()
+		);
+	}
+	
+	public Duration duration() {
+		return Duration.between(startDate, endDate);
+	}
+	
+	/**
+	 * Occurrences that have not ended by {@code from}, in start order.
+	 */
+	public Stream<ReservationInterval> occurrencesFrom(LocalDateTime from) {
+		Duration duration = duration();
+		return rule.startsFrom(startDate, from.minus(duration))
+				.filter(start -> !cancelledDates.contains(start.toLocalDate()))
+				.map(start -> new ReservationInterval(null, roomId, userId, start, start.plus(duration)))
+				.filter(occurrence -> occurrence.endDate().isAfter(from));
+	}
+	
+	public Stream<ReservationInterval> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+		return occurrencesFrom(from).takeWhile(occurrence -> occurrence.startDate().isBefore(to));
+	}
+	
+	public Optional<ReservationInterval> findFirstOverlap(LocalDateTime start, LocalDateTime end) {
+		return occurrencesBetween(start, end).findFirst();
+	}
+	
+	/**
+	 * Sweeps every occurrence of this series against a timeline sorted by start date whose
+	 * intervals do not overlap each other, returning the first timeline interval that collides.
+	 */
+	public Optional<ReservationInterval> findFirstOverlap(List<ReservationInterval> timeline) {
+		if (timeline.isEmpty()) {
+			return Optional.empty();
+		}
+		
+		int next = 0;
+		for (ReservationInterval occurrence : (Iterable<ReservationInterval>) occurrencesFrom(timeline.get(0).startDate())::iterator) {
+			while (next < timeline.size() && !timeline.get(next).endDate().isAfter(occurrence.startDate())) {
+				next++;
+			}
+			if (next == timeline.size()) {
+				return Optional.empty();
+			}
+			if (timeline.get(next).startDate().isBefore(occurrence.endDate())) {
+				return Optional.of(timeline.get(next));
+			}
+		}
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,150 @@
+package com.github.alefthallys.roombooking.index;
+
+import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.mappers.RoomMapper;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Rooms sorted by capacity, globally and per location, published as an immutable snapshot. The
+ * candidates of a search are found by skipping straight to the first room with enough capacity,
+ * and the booked ones are left out by asking the {@link ReservationIndex}, so a search runs no
+ * query at all. The snapshot is rebuilt after a local room change commits and, for the changes of
+ * other instances, whenever the scheduled check sees the {@link RoomsFingerprint} of the rooms
+ * table move.
+ */
+@Component
+@Slf4j
+public class RoomAvailabilityIndex implements SmartInitializingSingleton {
+	
+	private static final Comparator<RoomResponseDTO> ORDER = Comparator
+			.comparingInt(RoomResponseDTO::capacity)
+			.thenComparing(RoomResponseDTO::id);
+	
+	private final RoomRepository roomRepository;
+	private final ReservationIndex reservationIndex;
+	private final Object reloadLock = new Object();
+	private volatile Snapshot snapshot;
+	
+	public RoomAvailabilityIndex(RoomRepository roomRepository, ReservationIndex reservationIndex) {
+		this.roomRepository = roomRepository;
+		this.reservationIndex = reservationIndex;
+	}
+	
+	@Override
+	public void afterSingletonsInstantiated() {
+		try {
+			Snapshot loaded = reload();
+			log.info("Room availability index warmed up with {} rooms", loaded.byCapacity().length);
+		} catch (RuntimeException e) {
+			log.error("Failed to warm up the room availability index, the first search will load the rooms", e);
+		}
+	}
+	
+	@Scheduled(fixedDelayString = "#{@reservationIndexProperties.refreshInterval.toMillis()}")
+	public void refresh() {
+		RoomsFingerprint fingerprint = roomRepository.findFingerprint();
+		Snapshot current = snapshot;
+		if (current == null || !current.fingerprint().equals(fingerprint)) {
+			reload();
+		}
+	}
+	
+	/**
+	 * Rebuilds the snapshot once the current transaction commits, so this instance's searches see
+	 * its own room changes right away.
+	 */
+	public void roomsChanged() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			reload();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				reload();
+			}
+		});
+	}
+	
+	/**
+	 * The rooms with no reservation or series occurrence overlapping the range, ordered by capacity.
+	 * The range must not start in the past, see {@link ReservationIndex#isBooked}.
+	 */
+	public List<RoomResponseDTO> findAvailable(LocalDateTime from, LocalDateTime to, int minCapacity, String location) {
+		Snapshot current = snapshot;
+		if (current == null) {
+			current = reload();
+		}
+		RoomResponseDTO[] sorted = location == null
+				? current.byCapacity()
+				: current.byLocation().getOrDefault(normalize(location), new RoomResponseDTO[0]);
+		
+		List<RoomResponseDTO> available = new ArrayList<>();
+		for (int i = firstWithCapacity(sorted, minCapacity); i < sorted.length; i++) {
+			if (!reservationIndex.isBooked(sorted[i].id(), from, to)) {
+				available.add(sorted[i]);
+			}
+		}
+		return available;
+	}
+	
+	/**
+	 * The fingerprint is read before the rooms, so a change committed in between moves the
+	 * fingerprint past the snapshot's and the next check reloads again.
+	 */
+	private Snapshot reload() {
+		synchronized (reloadLock) {
+			RoomsFingerprint fingerprint = roomRepository.findFingerprint();
+			List<RoomResponseDTO> rooms = roomRepository.findAll().stream().map(RoomMapper::toDto).toList();
+			Snapshot loaded = Snapshot.of(fingerprint, rooms);
+			snapshot = loaded;
+			log.debug("Room availability index reloaded {} rooms", rooms.size());
+			return loaded;
+		}
+	}
+	
+	private static int firstWithCapacity(RoomResponseDTO[] sorted, int minCapacity) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid].capacity() < minCapacity) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	private static String normalize(String location) {
+		return location.trim().toLowerCase(Locale.ROOT);
+	}
+	
+	private record Snapshot(RoomsFingerprint fingerprint, RoomResponseDTO[] byCapacity, Map<String, RoomResponseDTO[]> byLocation) {
+		
+		private static Snapshot of(RoomsFingerprint fingerprint, Collection<RoomResponseDTO> rooms) {
+			RoomResponseDTO[] byCapacity = rooms.stream().sorted(ORDER).toArray(RoomResponseDTO[]::new);
+			Map<String, RoomResponseDTO[]> byLocation = rooms.stream()
+					.collect(Collectors.groupingBy(room -> normalize(room.location())))
+					.entrySet().stream()
+					.collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stream().sorted(ORDER).toArray(RoomResponseDTO[]::new)));
+			return new Snapshot(fingerprint, byCapacity, byLocation);
+		}
+	}
+}
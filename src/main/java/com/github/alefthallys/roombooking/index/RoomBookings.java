@@ -0,0 +1,123 @@
+package com.github.alefthallys.roombooking.index;
+
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A room's bookings as seen by the transaction that holds the room's row lock, opened through
+ * {@link ReservationIndex#forLockedRoom(Long)}. The room's timeline was brought up to the
+ * committed booking version when it was opened and nobody else can book the room until the lock
+ * is released, so its answers are final. Only ranges starting before the last prune still read the
+ * pruned reservations from the database. Changes are buffered and published after commit.
+ */
+@Slf4j
+public class RoomBookings {
+	
+	private final Long roomId;
+	private final long version;
+	private final RoomTimeline timeline;
+	private final ReservationRepository reservationRepository;
+	private final boolean deferred;
+	private final List<Consumer<RoomTimeline>> changes = new ArrayList<>();
+	
+	RoomBookings(Long roomId, long version, RoomTimeline timeline, ReservationRepository reservationRepository, boolean deferred) {
+		this.roomId = roomId;
+		this.version = version;
+		this.timeline = timeline;
+		this.reservationRepository = reservationRepository;
+		this.deferred = deferred;
+	}
+	
+	public Long roomId() {
+		return roomId;
+	}
+	
+	public Optional<ReservationInterval> findConflict(LocalDateTime startDate, LocalDateTime endDate, Long excludedReservationId) {
+		for (ReservationInterval existing : findReservations(startDate, endDate)) {
+			if (!existing.id().equals(excludedReservationId)) {
+				return Optional.of(existing);
+			}
+		}
+		
+		for (ReservationSeriesInterval roomSeries : timeline.series()) {
+			Optional<ReservationInterval> conflict = roomSeries.findFirstOverlap(startDate, endDate);
+			if (conflict.isPresent()) {
+				return conflict;
+			}
+		}
+		return Optional.empty();
+	}
+	
+	public Optional<ReservationInterval> findConflict(ReservationSeriesInterval candidate, LocalDateTime from, LocalDateTime to) {
+		Optional<ReservationInterval> conflict = candidate.findFirstOverlap(findReservations(from, to));
+		for (ReservationSeriesInterval roomSeries : timeline.series()) {
+			if (conflict.isPresent()) {
+				break;
+			}
+			conflict = candidate.findFirstOverlap(roomSeries.occurrencesBetween(from, to).toList());
+		}
+		return conflict;
+	}
+	
+	public void add(ReservationInterval interval) {
+		change(room -> room.insert(interval));
+	}
+	
+	public void replace(ReservationInterval previous, ReservationInterval current) {
+		change(room -> {
+			room.delete(previous);
+			room.insert(current);
+		});
+	}
+	
+	public void remove(ReservationInterval interval) {
+		change(room -> room.delete(interval));
+	}
+	
+	public void addSeries(ReservationSeriesInterval interval) {
+		change(room -> room.insertSeries(interval));
+	}
+	
+	public void replaceSeries(ReservationSeriesInterval previous, ReservationSeriesInterval current) {
+		change(room -> {
+			room.deleteSeries(previous);
+			room.insertSeries(current);
+		});
+	}
+	
+	public void removeSeries(ReservationSeriesInterval interval) {
+		change(room -> room.deleteSeries(interval));
+	}
+	
+	public void removeUser(Long userId) {
+		change(room -> room.deleteUser(userId));
+	}
+	
+	void publish() {
+		if (!timeline.publish(version, changes)) {
+			log.debug("Room {} moved past booking version {}, it will be reloaded by its next booking", roomId, version);
+		}
+	}
+	
+	private List<ReservationInterval> findReservations(LocalDateTime from, LocalDateTime to) {
+		return timeline.findOverlaps(from, to).orElseGet(() -> reservationRepository.findIntervalsOverlapping(Set.of(roomId), from, to).stream()
+				.sorted(Comparator.comparing(ReservationInterval::startDate))
+				.toList());
+	}
+	
+	private void change(Consumer<RoomTimeline> change) {
+		if (deferred) {
+			changes.add(change);
+		} else {
+			timeline.apply(change);
+		}
+	}
+}
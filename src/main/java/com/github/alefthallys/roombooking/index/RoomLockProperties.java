@@ -0,0 +1,15 @@
+package com.github.alefthallys.roombooking.index;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "room.lock")
+public class RoomLockProperties {
+	
+	private boolean inProcess = true;
+}
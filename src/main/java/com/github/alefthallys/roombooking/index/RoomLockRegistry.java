@@ -0,0 +1,81 @@
+package com.github.alefthallys.roombooking.index;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-room locks that stay held until the surrounding transaction completes. They only
+ * queue bookings of the same room inside this instance so they do not all pile up on the room's
+ * database row lock, which is what actually serializes bookings across instances; they can be
+ * turned off with {@code room.lock.in-process}. Rooms on different stripes never wait on each other.
+ */
+@Component
+public class RoomLockRegistry {
+	
+	private static final int STRIPES = 256;
+	private static final long LOCK_TIMEOUT_SECONDS = 10;
+	
+	private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+	private final RoomLockProperties roomLockProperties;
+	
+	public RoomLockRegistry(RoomLockProperties roomLockProperties) {
+		this.roomLockProperties = roomLockProperties;
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+	
+	public void lockUntilCompletion(Long roomId) {
+		lockUntilCompletion(Set.of(roomId));
+	}
+	
+	public void lockUntilCompletion(Collection<Long> roomIds) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("Room locks can only be acquired inside a transaction");
+		}
+		if (!roomLockProperties.isInProcess()) {
+			return;
+		}
+		
+		List<ReentrantLock> acquired = new ArrayList<>();
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				acquired.forEach(ReentrantLock::unlock);
+			}
+		});
+		
+		int[] stripes = roomIds.stream()
+				.mapToInt(RoomLockRegistry::stripeOf)
+				.distinct()
+				.sorted()
+				.toArray();
+		
+		for (int stripe : stripes) {
+			ReentrantLock lock = locks[stripe];
+			try {
+				if (!lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+					throw new CannotAcquireLockException("Timed out waiting for the booking lock of rooms " + roomIds);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CannotAcquireLockException("Interrupted while waiting for the booking lock of rooms " + roomIds, e);
+			}
+			acquired.add(lock);
+		}
+	}
+	
+	private static int stripeOf(Long roomId) {
+		int hash = Long.hashCode(roomId);
+		return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+	}
+}
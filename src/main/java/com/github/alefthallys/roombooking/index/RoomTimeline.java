@@ -0,0 +1,134 @@
+package com.github.alefthallys.roombooking.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * One room's reservations that end after the horizon plus all of its series, tagged with the
+ * room's booking version they reflect. Every method locks the timeline, so the scheduled prune and
+ * the after-commit publication of one transaction never interleave with a lock holder's reads.
+ */
+final class RoomTimeline {
+	
+	static final long UNKNOWN = -1;
+	
+	private long version = UNKNOWN;
+	private LocalDateTime horizon = LocalDateTime.MAX;
+	private IntervalTree tree = new IntervalTree();
+	private List<ReservationSeriesInterval> series = List.of();
+	
+	synchronized long version() {
+		return version;
+	}
+	
+	synchronized int size() {
+		return tree.size();
+	}
+	
+	synchronized void reset(long version, LocalDateTime horizon, List<ReservationInterval> intervals, List<ReservationSeriesInterval> series) {
+		this.version = version;
+		this.horizon = horizon;
+		this.tree = new IntervalTree();
+		intervals.forEach(tree::insert);
+		this.series = List.copyOf(series);
+	}
+	
+	/**
+	 * Resets the timeline unless it already reflects the version, or a later one published by a
+	 * local commit while the version was being read.
+	 */
+	synchronized void resetIfBehind(long version, LocalDateTime horizon, List<ReservationInterval> intervals, List<ReservationSeriesInterval> series) {
+		if (this.version < version) {
+			reset(version, horizon, intervals, series);
+		}
+	}
+	
+	synchronized boolean isBooked(LocalDateTime from, LocalDateTime to) {
+		if (tree.findFirstOverlap(from, to, null).isPresent()) {
+			return true;
+		}
+		for (ReservationSeriesInterval roomSeries : series) {
+			if (roomSeries.findFirstOverlap(from, to).isPresent()) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * The reservations overlapping the range in start order, or empty when the range starts before
+	 * the horizon and the pruned reservations would have to be asked from the database.
+	 */
+	synchronized Optional<List<ReservationInterval>> findOverlaps(LocalDateTime from, LocalDateTime to) {
+		return from.isBefore(horizon) ? Optional.empty() : Optional.of(tree.findOverlaps(from, to));
+	}
+	
+	synchronized List<ReservationSeriesInterval> series() {
+		return series;
+	}
+	
+	synchronized void apply(Consumer<RoomTimeline> change) {
+		change.accept(this);
+	}
+	
+	/**
+	 * Applies the changes of a transaction that committed the version after {@code readVersion}.
+	 * A timeline at any other version is left alone: it was either reloaded with these changes
+	 * already, or is behind and will be reloaded by the next lock holder.
+	 */
+	synchronized boolean publish(long readVersion, List<Consumer<RoomTimeline>> changes) {
+		if (version != readVersion) {
+			return false;
+		}
+		changes.forEach(change -> change.accept(this));
+		version = readVersion + 1;
+		return true;
+	}
+	
+	synchronized int pruneEnded(LocalDateTime now) {
+		int pruned = 0;
+		for (ReservationInterval interval : tree.toList()) {
+			if (!interval.endDate().isAfter(now) && tree.remove(interval)) {
+				pruned++;
+			}
+		}
+		if (now.isAfter(horizon)) {
+			horizon = now;
+		}
+		return pruned;
+	}
+	
+	// The mutators below only run inside apply or publish, under the timeline's lock.
+	
+	void insert(ReservationInterval interval) {
+		tree.insert(interval);
+	}
+	
+	void delete(ReservationInterval interval) {
+		tree.remove(interval);
+	}
+	
+	void insertSeries(ReservationSeriesInterval interval) {
+		List<ReservationSeriesInterval> updated = new ArrayList<>(series);
+		updated.add(interval);
+		series = List.copyOf(updated);
+	}
+	
+	void deleteSeries(ReservationSeriesInterval interval) {
+		series = series.stream()
+				.filter(existing -> !existing.id().equals(interval.id()))
+				.toList();
+	}
+	
+	void deleteUser(Long userId) {
+		tree.toList().stream()
+				.filter(interval -> userId.equals(interval.userId()))
+				.forEach(tree::remove);
+		series = series.stream()
+				.filter(interval -> !userId.equals(interval.userId()))
+				.toList();
+	}
+}
@@ -0,0 +1,14 @@
+package com.github.alefthallys.roombooking.index;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and latest modification of the rooms table. Creating a room moves both, updating one
+ * moves the latest modification and deleting one moves the count, so two equal fingerprints mean
+ * no room changed in between on any instance.
+ */
+public record RoomsFingerprint(
+		Long count,
+		LocalDateTime lastModifiedDate
+) {
+}
@@ -14,7 +14,8 @@ public class ReservationMapper {
 				reservation.getStartDate(),
 				reservation.getEndDate(),
 				UserMapper.toDto(reservation.getUser()),
-				RoomMapper.toDto(reservation.getRoom())
+				RoomMapper.toDto(reservation.getRoom()),
+				reservation.getVersion()
 		);
 	}
 	
@@ -0,0 +1,25 @@
+package com.github.alefthallys.roombooking.mappers;
+
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationOccurrenceDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesResponseDTO;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.models.ReservationSeries;
+
+public class ReservationSeriesMapper {
+	
+	public static ReservationSeriesResponseDTO toDto(ReservationSeries series) {
+		return new ReservationSeriesResponseDTO(
+				series.getId(),
+				series.getStartDate(),
+				series.getEndDate(),
+				series.getRecurrenceRule().toString(),
+				series.getCancelledDates().stream().sorted().toList(),
+				UserMapper.toDto(series.getUser()),
+				RoomMapper.toDto(series.getRoom())
+		);
+	}
+	
+	public static ReservationOccurrenceDTO toOccurrenceDto(Long seriesId, ReservationInterval occurrence) {
+		return new ReservationOccurrenceDTO(seriesId, occurrence.startDate(), occurrence.endDate());
+	}
+}
@@ -12,7 +12,8 @@ public class RoomMapper {
 				room.getName(),
 				room.getDescription(),
 				room.getCapacity(),
-				room.getLocation()
+				room.getLocation(),
+				room.getVersion()
 		);
 	}
 	
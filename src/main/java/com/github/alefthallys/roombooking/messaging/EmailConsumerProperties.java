@@ -0,0 +1,28 @@
+package com.github.alefthallys.roombooking.messaging;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "email.consumer")
+public class EmailConsumerProperties {
+	
+	private boolean autoStartup = true;
+	private int concurrency = 2;
+	private int maxConcurrency = 4;
+	private int prefetch = 50;
+	private int batchSize = 20;
+	private Duration batchTimeout = Duration.ofSeconds(1);
+	private Locale locale = Locale.forLanguageTag("pt-BR");
+	private List<Duration> retryDelays = List.of(Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(5));
+	private Duration retryConfirmTimeout = Duration.ofSeconds(5);
+	private Duration replayConfirmTimeout = Duration.ofSeconds(5);
+}
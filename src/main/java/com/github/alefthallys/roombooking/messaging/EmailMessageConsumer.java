@@ -2,90 +2,170 @@ package com.github.alefthallys.roombooking.messaging;
 
 import com.github.alefthallys.roombooking.config.RabbitMQConfig;
 import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import com.github.alefthallys.roombooking.templates.EmailTemplateEngine;
+import com.github.alefthallys.roombooking.templates.EmailTemplateType;
+import com.github.alefthallys.roombooking.templates.RenderedEmail;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Consumes confirmation emails in listener batches and sends each batch over a single SMTP
+ * connection, instead of opening a new session per email. Emails that fail to send are handed to
+ * {@link EmailRetryPublisher} and the batch is still acknowledged, so an SMTP outage never holds
+ * healthy messages behind a redelivery loop; emails that cannot even be built are dead-lettered.
+ * Deliveries are acknowledged one by one: if handing an email off fails, only that delivery is
+ * rejected to the queue's dead letter exchange, while the rest of the batch is still acknowledged.
+ */
 @Service
 @Slf4j
 public class EmailMessageConsumer {
 	
+	public static final String EMAIL_TYPE_HEADER = "x-email-type";
+	public static final String SEND_TIMER = "roombooking.email.send";
+	public static final String HANDOFF_FAILURES = "roombooking.email.handoff.failures";
+	
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+	
 	private final JavaMailSender mailSender;
+	private final EmailTemplateEngine emailTemplateEngine;
+	private final EmailConsumerProperties emailConsumerProperties;
+	private final EmailRetryPublisher emailRetryPublisher;
+	private final Timer sendTimer;
+	private final Counter handoffFailures;
 	
-	public EmailMessageConsumer(JavaMailSender mailSender) {
+	public EmailMessageConsumer(JavaMailSender mailSender, EmailTemplateEngine emailTemplateEngine, EmailConsumerProperties emailConsumerProperties, EmailRetryPublisher emailRetryPublisher, MeterRegistry meterRegistry) {
 		this.mailSender = mailSender;
+		this.emailTemplateEngine = emailTemplateEngine;
+		this.emailConsumerProperties = emailConsumerProperties;
+		this.emailRetryPublisher = emailRetryPublisher;
+		this.sendTimer = meterRegistry.timer(SEND_TIMER);
+		this.handoffFailures = meterRegistry.counter(HANDOFF_FAILURES);
 	}
 	
-	@RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
-	public void receiveMessage(ReservationConfirmationEmailDTO emailDTO) {
-		log.info("Received reservation confirmation email for recipient: {}", emailDTO.recipientEmail());
+	@RabbitListener(queues = RabbitMQConfig.QUEUE_NAME, ackMode = "MANUAL")
+	public void receiveMessages(List<Message<ReservationConfirmationEmailDTO>> deliveries, Channel channel) {
+		log.info("Received {} emails", deliveries.size());
+		long startNanos = System.nanoTime();
+		
+		Set<Message<ReservationConfirmationEmailDTO>> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<MimeMessage> messages = new ArrayList<>(deliveries.size());
+		Map<MimeMessage, Message<ReservationConfirmationEmailDTO>> deliveryByMessage = new IdentityHashMap<>();
+		for (Message<ReservationConfirmationEmailDTO> delivery : deliveries) {
+			try {
+				MimeMessage message = toMimeMessage(emailType(delivery), delivery.getPayload());
+				messages.add(message);
+				deliveryByMessage.put(message, delivery);
+			} catch (Exception e) {
+				log.error("Failed to build {}", describe(delivery), e);
+				handOff(delivery, () -> emailRetryPublisher.deadLetter(delivery, e), rejected);
+			}
+		}
+		
+		int failed = 0;
+		if (!messages.isEmpty()) {
+			try {
+				sendTimer.record(() -> mailSender.send(messages.toArray(MimeMessage[]::new)));
+			} catch (MailSendException e) {
+				if (e.getFailedMessages().isEmpty()) {
+					failed = retryAll(messages, deliveryByMessage, e, rejected);
+				} else {
+					e.getFailedMessages().forEach((message, cause) -> {
+						Message<ReservationConfirmationEmailDTO> delivery = deliveryByMessage.get(message);
+						handOff(delivery, () -> emailRetryPublisher.retry(delivery, cause), rejected);
+					});
+					failed = e.getFailedMessages().size();
+				}
+			} catch (MailException e) {
+				failed = retryAll(messages, deliveryByMessage, e, rejected);
+			}
+		}
+		acknowledge(deliveries, rejected, channel);
+		
+		int sent = messages.size() - failed;
+		double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1_000_000_000.0;
+		log.info("Sent {} of {} HTML emails over one SMTP connection at {} emails/s", sent, deliveries.size(), String.format("%.1f", sent / seconds));
+	}
+	
+	static String describe(Message<ReservationConfirmationEmailDTO> delivery) {
+		Object emailType = delivery.getHeaders().get(EMAIL_TYPE_HEADER);
+		return String.format("%s email for reservation ID %d", emailType == null ? EmailTemplateType.CONFIRMATION : emailType, delivery.getPayload().reservationId());
+	}
+	
+	private int retryAll(List<MimeMessage> messages, Map<MimeMessage, Message<ReservationConfirmationEmailDTO>> deliveryByMessage, MailException cause, Set<Message<ReservationConfirmationEmailDTO>> rejected) {
+		log.error("Failed to send {} HTML emails", messages.size(), cause);
+		messages.forEach(message -> {
+			Message<ReservationConfirmationEmailDTO> delivery = deliveryByMessage.get(message);
+			handOff(delivery, () -> emailRetryPublisher.retry(delivery, cause), rejected);
+		});
+		return messages.size();
+	}
+	
+	private void handOff(Message<ReservationConfirmationEmailDTO> delivery, Runnable publish, Set<Message<ReservationConfirmationEmailDTO>> rejected) {
 		try {
-			MimeMessage message = mailSender.createMimeMessage();
-			MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-			
-			helper.setTo(emailDTO.recipientEmail());
-			helper.setSubject("Reserva Confirmada - " + emailDTO.roomName());
-			
-			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-			String formattedStartDate = emailDTO.startDate().format(formatter);
-			String formattedEndDate = emailDTO.endDate().format(formatter);
-			
-			String htmlContent = String.format("""
-							<!DOCTYPE html>
-							<html>
-							<head>
-							<style>
-							    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-							    .container { max-width: 600px; margin: 20px auto; padding: 20px; border: 1px solid #ddd; border-radius: 8px; background-color: #f9f9f9; }
-							    .header { background-color: #007bff; color: white; padding: 10px 20px; border-radius: 8px 8px 0 0; text-align: center; }
-							    .content { padding: 20px; }
-							    .footer { text-align: center; font-size: 0.8em; color: #777; margin-top: 20px; padding-top: 10px; border-top: 1px solid #eee; }
-							    .highlight { font-weight: bold; color: #007bff; }
-							</style>
-							</head>
-							<body>
-							    <div class="container">
-							        <div class="header">
-							            <h2>Confirmação de Reserva</h2>
-							        </div>
-							        <div class="content">
-							            <p>Olá <span class="highlight">%s</span>,</p>
-							            <p>Sua reserva para a sala '<span class="highlight">%s</span>' está confirmada com sucesso!</p>
-							            <p>Detalhes da sua reserva:</p>
-							            <ul>
-							                <li><strong>Sala:</strong> %s</li>
-							                <li><strong>Início:</strong> %s</li>
-							                <li><strong>Fim:</strong> %s</li>
-							                <li><strong>ID da Reserva:</strong> <span class="highlight">%d</span></li>
-							            </ul>
-							            <p>Agradecemos por usar nosso serviço.</p>
-							        </div>
-							        <div class="footer">
-							            <p>&copy; 2025 RoomBooking. Todos os direitos reservados.</p>
-							        </div>
-							    </div>
-							</body>
-							</html>
-							""",
-					emailDTO.userName(),
-					emailDTO.roomName(),
-					emailDTO.roomName(),
-					formattedStartDate,
-					formattedEndDate,
-					emailDTO.reservationId()
-			);
-			
-			helper.setText(htmlContent, true);
-			
-			mailSender.send(message);
-			log.info("HTML email successfully sent to {} for reservation ID {}", emailDTO.recipientEmail(), emailDTO.reservationId());
-		} catch (Exception e) {
-			log.error("Failed to send HTML email to {} for reservation ID {}", emailDTO.recipientEmail(), emailDTO.reservationId(), e);
+			publish.run();
+		} catch (RuntimeException e) {
+			log.error("Failed to hand off {}, rejecting it to the dead letter queue", describe(delivery), e);
+			handoffFailures.increment();
+			rejected.add(delivery);
+		}
+	}
+	
+	private void acknowledge(List<Message<ReservationConfirmationEmailDTO>> deliveries, Set<Message<ReservationConfirmationEmailDTO>> rejected, Channel channel) {
+		for (Message<ReservationConfirmationEmailDTO> delivery : deliveries) {
+			long deliveryTag = delivery.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+			try {
+				if (rejected.contains(delivery)) {
+					channel.basicReject(deliveryTag, false);
+				} else {
+					channel.basicAck(deliveryTag, false);
+				}
+			} catch (IOException e) {
+				log.warn("Failed to acknowledge {}, the broker will redeliver it", describe(delivery), e);
+			}
 		}
 	}
-}
\ No newline at end of file
+	
+	private static EmailTemplateType emailType(Message<ReservationConfirmationEmailDTO> delivery) {
+		String emailType = delivery.getHeaders().get(EMAIL_TYPE_HEADER, String.class);
+		return emailType == null ? EmailTemplateType.CONFIRMATION : EmailTemplateType.valueOf(emailType);
+	}
+	
+	private MimeMessage toMimeMessage(EmailTemplateType emailType, ReservationConfirmationEmailDTO emailDTO) throws MessagingException {
+		RenderedEmail email = emailTemplateEngine.render(emailType, emailConsumerProperties.getLocale(), Map.of(
+				"userName", emailDTO.userName(),
+				"roomName", emailDTO.roomName(),
+				"startDate", emailDTO.startDate().format(DATE_FORMATTER),
+				"endDate", emailDTO.endDate().format(DATE_FORMATTER),
+				"reservationId", String.valueOf(emailDTO.reservationId())
+		));
+		
+		MimeMessage message = mailSender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+		helper.setTo(emailDTO.recipientEmail());
+		helper.setSubject(email.subject());
+		helper.setText(email.html(), true);
+		return message;
+	}
+}
@@ -0,0 +1,76 @@
+package com.github.alefthallys.roombooking.messaging;
+
+import com.github.alefthallys.roombooking.config.RabbitMQConfig;
+import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Moves a failed email off the main queue so healthy messages behind it keep flowing: onto the
+ * retry queue of the next backoff tier, or onto the dead letter queue once every tier is used.
+ * Each copy is published on its own channel and waits for the broker's confirm, so the original is
+ * only acknowledged once the copy is safe; a nacked or timed-out confirm throws, and the consumer
+ * rejects the original instead.
+ */
+@Component
+@Slf4j
+public class EmailRetryPublisher {
+	
+	public static final String RETRY_COUNT_HEADER = "x-retry-count";
+	public static final String LAST_ERROR_HEADER = "x-last-error";
+	private static final int MAX_ERROR_LENGTH = 500;
+	
+	private final RabbitTemplate rabbitTemplate;
+	private final EmailConsumerProperties emailConsumerProperties;
+	
+	public EmailRetryPublisher(RabbitTemplate rabbitTemplate, EmailConsumerProperties emailConsumerProperties) {
+		this.rabbitTemplate = rabbitTemplate;
+		this.emailConsumerProperties = emailConsumerProperties;
+	}
+	
+	public static int retryCount(Message<?> delivery) {
+		Object retryCount = delivery.getHeaders().get(RETRY_COUNT_HEADER);
+		return retryCount instanceof Number number ? number.intValue() : 0;
+	}
+	
+	public void retry(Message<ReservationConfirmationEmailDTO> delivery, Throwable cause) {
+		List<Duration> retryDelays = emailConsumerProperties.getRetryDelays();
+		int retryCount = retryCount(delivery);
+		if (retryCount >= retryDelays.size()) {
+			deadLetter(delivery, cause);
+			return;
+		}
+		
+		Duration delay = retryDelays.get(retryCount);
+		log.warn("Retrying {} in {} (attempt {} of {})",
+				EmailMessageConsumer.describe(delivery), delay, retryCount + 1, retryDelays.size());
+		publish(RabbitMQConfig.RETRY_EXCHANGE_NAME, RabbitMQConfig.retryQueueName(delay), delivery, retryCount + 1, cause);
+	}
+	
+	public void deadLetter(Message<ReservationConfirmationEmailDTO> delivery, Throwable cause) {
+		log.error("Dead-lettering {} after {} retries",
+				EmailMessageConsumer.describe(delivery), retryCount(delivery), cause);
+		publish(RabbitMQConfig.DEAD_LETTER_EXCHANGE_NAME, RabbitMQConfig.DEAD_LETTER_ROUTING_KEY, delivery, retryCount(delivery), cause);
+	}
+	
+	private void publish(String exchange, String routingKey, Message<ReservationConfirmationEmailDTO> delivery, int retryCount, Throwable cause) {
+		String lastError = String.valueOf(cause);
+		rabbitTemplate.invoke(operations -> {
+			operations.convertAndSend(exchange, routingKey, delivery.getPayload(), message -> {
+				message.getMessageProperties().setMessageId(delivery.getHeaders().get(AmqpHeaders.MESSAGE_ID, String.class));
+				message.getMessageProperties().setHeader(EmailMessageConsumer.EMAIL_TYPE_HEADER, delivery.getHeaders().get(EmailMessageConsumer.EMAIL_TYPE_HEADER));
+				message.getMessageProperties().setHeader(RETRY_COUNT_HEADER, retryCount);
+				message.getMessageProperties().setHeader(LAST_ERROR_HEADER, lastError.length() > MAX_ERROR_LENGTH ? lastError.substring(0, MAX_ERROR_LENGTH) : lastError);
+				return message;
+			});
+			operations.waitForConfirmsOrDie(emailConsumerProperties.getRetryConfirmTimeout().toMillis());
+			return null;
+		});
+	}
+}
@@ -0,0 +1,22 @@
+package com.github.alefthallys.roombooking.messaging;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "outbox.relay")
+public class OutboxProperties {
+	
+	private Duration fixedDelay = Duration.ofMillis(500);
+	private int batchSize = 100;
+	private Duration confirmTimeout = Duration.ofSeconds(5);
+	private int maxAttempts = 10;
+	private Duration initialBackoff = Duration.ofSeconds(1);
+	private Duration maxBackoff = Duration.ofMinutes(5);
+}
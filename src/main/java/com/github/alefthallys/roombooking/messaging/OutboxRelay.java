@@ -0,0 +1,164 @@
+package com.github.alefthallys.roombooking.messaging;
+
+import com.github.alefthallys.roombooking.models.OutboxDeadLetter;
+import com.github.alefthallys.roombooking.models.OutboxEvent;
+import com.github.alefthallys.roombooking.repositories.OutboxDeadLetterRepository;
+import com.github.alefthallys.roombooking.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains {@code outbox_events} to RabbitMQ in batches. Each batch is locked with
+ * {@code FOR UPDATE SKIP LOCKED}, so several instances can relay concurrently, published on one
+ * channel and deleted only after the broker confirms every message. Consumers may see a message
+ * more than once.
+ * <p>
+ * While the broker is unreachable, batches stay untouched and are retried on the next run. Any
+ * other failure is isolated by publishing the batch one event at a time. Only the events that
+ * still fail count an attempt and back off exponentially, so the events queued behind them keep
+ * flowing. After {@code outbox.relay.max-attempts} an event is moved to
+ * {@code outbox_dead_letters}.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+	
+	public static final String PUBLISH_TIMER = "roombooking.outbox.publish";
+	public static final String DEAD_LETTER_COUNTER = "roombooking.outbox.dead.letters";
+	
+	private final OutboxEventRepository outboxEventRepository;
+	private final OutboxDeadLetterRepository outboxDeadLetterRepository;
+	private final RabbitTemplate rabbitTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final OutboxProperties outboxProperties;
+	private final MeterRegistry meterRegistry;
+	private final Counter deadLettered;
+	private final Clock clock;
+	
+	@Autowired
+	public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxDeadLetterRepository outboxDeadLetterRepository, RabbitTemplate rabbitTemplate, PlatformTransactionManager transactionManager, OutboxProperties outboxProperties, MeterRegistry meterRegistry) {
+		this(outboxEventRepository, outboxDeadLetterRepository, rabbitTemplate, transactionManager, outboxProperties, meterRegistry, Clock.systemDefaultZone());
+	}
+	
+	OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxDeadLetterRepository outboxDeadLetterRepository, RabbitTemplate rabbitTemplate, PlatformTransactionManager transactionManager, OutboxProperties outboxProperties, MeterRegistry meterRegistry, Clock clock) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.outboxDeadLetterRepository = outboxDeadLetterRepository;
+		this.rabbitTemplate = rabbitTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.outboxProperties = outboxProperties;
+		this.meterRegistry = meterRegistry;
+		this.deadLettered = meterRegistry.counter(DEAD_LETTER_COUNTER);
+		this.clock = clock;
+	}
+	
+	@Scheduled(fixedDelayString = "#{@outboxProperties.fixedDelay.toMillis()}")
+	public void relay() {
+		Integer published;
+		do {
+			published = transactionTemplate.execute(status -> publishNextBatch());
+		} while (published != null && published == outboxProperties.getBatchSize());
+	}
+	
+	private int publishNextBatch() {
+		LocalDateTime now = LocalDateTime.now(clock);
+		List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(now, outboxProperties.getBatchSize());
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		
+		Timer.Sample publish = Timer.start(meterRegistry);
+		try {
+			publish(batch);
+		} catch (AmqpConnectException e) {
+			publish.stop(meterRegistry.timer(PUBLISH_TIMER, "outcome", "failure"));
+			log.warn("Broker unreachable, {} outbox events will be retried", batch.size(), e);
+			return 0;
+		} catch (AmqpException e) {
+			publish.stop(meterRegistry.timer(PUBLISH_TIMER, "outcome", "failure"));
+			if (batch.size() == 1) {
+				recordFailure(batch.get(0), e, now);
+				return 0;
+			}
+			log.warn("Failed to relay {} outbox events together, publishing them one at a time", batch.size(), e);
+			return publishOneByOne(batch, now);
+		}
+		
+		publish.stop(meterRegistry.timer(PUBLISH_TIMER, "outcome", "success"));
+		outboxEventRepository.deleteAllInBatch(batch);
+		log.info("Relayed {} outbox events", batch.size());
+		return batch.size();
+	}
+	
+	private int publishOneByOne(List<OutboxEvent> batch, LocalDateTime now) {
+		List<OutboxEvent> published = new ArrayList<>(batch.size());
+		for (OutboxEvent event : batch) {
+			try {
+				publish(List.of(event));
+				published.add(event);
+			} catch (AmqpException e) {
+				recordFailure(event, e, now);
+			}
+		}
+		if (!published.isEmpty()) {
+			outboxEventRepository.deleteAllInBatch(published);
+			log.info("Relayed {} of {} outbox events one at a time", published.size(), batch.size());
+		}
+		return published.size();
+	}
+	
+	private void publish(List<OutboxEvent> events) {
+		rabbitTemplate.invoke(operations -> {
+			events.forEach(event -> operations.send(event.getExchange(), event.getRoutingKey(), toMessage(event)));
+			operations.waitForConfirmsOrDie(outboxProperties.getConfirmTimeout().toMillis());
+			return null;
+		});
+	}
+	
+	private void recordFailure(OutboxEvent event, AmqpException failure, LocalDateTime now) {
+		event.setAttempts(event.getAttempts() + 1);
+		if (event.getAttempts() >= outboxProperties.getMaxAttempts()) {
+			outboxDeadLetterRepository.save(OutboxDeadLetter.of(event, failure.getMessage(), now));
+			outboxEventRepository.delete(event);
+			deadLettered.increment();
+			log.error("Moved outbox event {} to outbox_dead_letters after {} failed attempts", event.getId(), event.getAttempts(), failure);
+			return;
+		}
+		event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+		log.warn("Failed to relay outbox event {} on attempt {}, retrying at {}", event.getId(), event.getAttempts(), event.getNextAttemptAt(), failure);
+	}
+	
+	private Duration backoff(int attempts) {
+		Duration backoff = outboxProperties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+		return backoff.compareTo(outboxProperties.getMaxBackoff()) > 0 ? outboxProperties.getMaxBackoff() : backoff;
+	}
+	
+	private static Message toMessage(OutboxEvent event) {
+		return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+				.setContentType(MessageProperties.CONTENT_TYPE_JSON)
+				.setContentEncoding(StandardCharsets.UTF_8.name())
+				.setMessageId("outbox-" + event.getId())
+				.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getPayloadType())
+				.build();
+	}
+}
@@ -3,6 +3,7 @@ package com.github.alefthallys.roombooking.models;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.CreatedBy;
@@ -34,4 +35,8 @@ public class Auditable<U> {
 	@LastModifiedDate
 	@Column(name = "last_modified_date")
 	protected LocalDateTime lastModifiedDate;
+	
+	@Version
+	@Column(name = "version", nullable = false)
+	protected Long version;
 }
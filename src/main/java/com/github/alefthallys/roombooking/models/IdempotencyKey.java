@@ -0,0 +1,82 @@
+package com.github.alefthallys.roombooking.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Idempotency key claimed by a request, with the token of the request that owns the claim and
+ * the response to replay once it completed. The id is
+ * assigned by the caller, so new keys report themselves as new and are inserted rather than
+ * merged, letting the primary key reject a second claim.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyKey implements Persistable<String>, Serializable {
+	
+	@Serial
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(length = 64)
+	private String id;
+	
+	@Column(nullable = false, length = 64)
+	private String fingerprint;
+	
+	@Column(nullable = false, length = 36)
+	private String owner;
+	
+	@Column(columnDefinition = "TEXT")
+	private String response;
+	
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+	
+	@Column(nullable = false)
+	private LocalDateTime expiresAt;
+	
+	@Transient
+	private boolean persisted;
+	
+	public IdempotencyKey(String id, String fingerprint, String owner, LocalDateTime createdAt, LocalDateTime expiresAt) {
+		this.id = id;
+		this.fingerprint = fingerprint;
+		this.owner = owner;
+		this.createdAt = createdAt;
+		this.expiresAt = expiresAt;
+	}
+	
+	@Override
+	public boolean isNew() {
+		return !persisted;
+	}
+	
+	@PostLoad
+	@PostPersist
+	void markPersisted() {
+		persisted = true;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == null || getClass() != o.getClass()) return false;
+		IdempotencyKey that = (IdempotencyKey) o;
+		return Objects.equals(getId(), that.getId());
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(getId());
+	}
+}
@@ -0,0 +1,82 @@
+package com.github.alefthallys.roombooking.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Outbox event the relay gave up on after {@code outbox.relay.max-attempts} failed publishes. It
+ * keeps the id, destination and payload of the original event so it can be inspected and, once
+ * the cause is fixed, copied back into {@code outbox_events}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_dead_letters")
+public class OutboxDeadLetter implements Serializable {
+	
+	@Serial
+	private static final long serialVersionUID = 1L;
+	
+	public static final int MAX_ERROR_LENGTH = 1000;
+	
+	@Id
+	private Long id;
+	
+	@Column(nullable = false)
+	private String exchange;
+	
+	@Column(nullable = false)
+	private String routingKey;
+	
+	@Column(nullable = false)
+	private String payloadType;
+	
+	@Column(nullable = false, columnDefinition = "TEXT")
+	private String payload;
+	
+	@Column(nullable = false)
+	private int attempts;
+	
+	@Column(length = MAX_ERROR_LENGTH)
+	private String lastError;
+	
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+	
+	@Column(nullable = false)
+	private LocalDateTime failedAt;
+	
+	public static OutboxDeadLetter of(OutboxEvent event, String lastError, LocalDateTime failedAt) {
+		OutboxDeadLetter deadLetter = new OutboxDeadLetter();
+		deadLetter.setId(event.getId());
+		deadLetter.setExchange(event.getExchange());
+		deadLetter.setRoutingKey(event.getRoutingKey());
+		deadLetter.setPayloadType(event.getPayloadType());
+		deadLetter.setPayload(event.getPayload());
+		deadLetter.setAttempts(event.getAttempts());
+		deadLetter.setLastError(lastError == null || lastError.length() <= MAX_ERROR_LENGTH ? lastError : lastError.substring(0, MAX_ERROR_LENGTH));
+		deadLetter.setCreatedAt(event.getCreatedAt());
+		deadLetter.setFailedAt(failedAt);
+		return deadLetter;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == null || getClass() != o.getClass()) return false;
+		OutboxDeadLetter that = (OutboxDeadLetter) o;
+		return Objects.equals(getId(), that.getId());
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(getId());
+	}
+}
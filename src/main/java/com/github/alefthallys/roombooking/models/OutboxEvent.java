@@ -0,0 +1,74 @@
+package com.github.alefthallys.roombooking.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Message waiting to be published to RabbitMQ. Rows are written in the same transaction as the
+ * change they announce and deleted by the relay once the broker confirms them. A row that fails to
+ * publish waits until {@code nextAttemptAt} before it is picked up again.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent implements Serializable {
+	
+	@Serial
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+	@SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+	private Long id;
+	
+	@Column(nullable = false)
+	private String exchange;
+	
+	@Column(nullable = false)
+	private String routingKey;
+	
+	@Column(nullable = false)
+	private String payloadType;
+	
+	@Column(nullable = false, columnDefinition = "TEXT")
+	private String payload;
+	
+	@Column(nullable = false)
+	private int attempts;
+	
+	@Column(nullable = false)
+	private LocalDateTime nextAttemptAt;
+	
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+	
+	@PrePersist
+	void defaultNextAttemptAt() {
+		if (nextAttemptAt == null) {
+			nextAttemptAt = createdAt;
+		}
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == null || getClass() != o.getClass()) return false;
+		OutboxEvent that = (OutboxEvent) o;
+		return Objects.equals(getId(), that.getId());
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(getId());
+	}
+}
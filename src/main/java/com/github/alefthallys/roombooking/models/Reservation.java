@@ -16,14 +16,18 @@ import java.util.Objects;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+		@Index(name = "idx_reservations_room_dates", columnList = "room_id, start_date, end_date"),
+		@Index(name = "idx_reservations_start_date_id", columnList = "start_date, id")
+})
 public class Reservation extends Auditable<String> implements Serializable {
 	
 	@Serial
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+	@SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
 	private Long id;
 	
 	@Column(nullable = false)
@@ -40,6 +44,9 @@ public class Reservation extends Auditable<String> implements Serializable {
 	@JoinColumn(name = "room_id", nullable = false)
 	private Room room;
 	
+	@Column(insertable = false, updatable = false)
+	private LocalDateTime reminderSentFor;
+	
 	@Override
 	public boolean equals(Object o) {
 		if (o == null || getClass() != o.getClass()) return false;
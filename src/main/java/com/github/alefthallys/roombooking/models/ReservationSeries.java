@@ -0,0 +1,71 @@
+package com.github.alefthallys.roombooking.models;
+
+import com.github.alefthallys.roombooking.recurrence.RecurrenceRule;
+import com.github.alefthallys.roombooking.recurrence.RecurrenceRuleConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reservation_series", indexes = {
+		@Index(name = "idx_reservation_series_room", columnList = "room_id")
+})
+public class ReservationSeries extends Auditable<String> implements Serializable {
+	
+	@Serial
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_series_seq")
+	@SequenceGenerator(name = "reservation_series_seq", sequenceName = "reservation_series_seq", allocationSize = 50)
+	private Long id;
+	
+	@Column(nullable = false)
+	private LocalDateTime startDate;
+	
+	@Column(nullable = false)
+	private LocalDateTime endDate;
+	
+	@Convert(converter = RecurrenceRuleConverter.class)
+	@Column(name = "recurrence_rule", nullable = false)
+	private RecurrenceRule recurrenceRule;
+	
+	@ElementCollection(fetch = FetchType.EAGER)
+	@CollectionTable(name = "reservation_series_exceptions", joinColumns = @JoinColumn(name = "series_id"))
+	@Column(name = "occurrence_date", nullable = false)
+	private Set<LocalDate> cancelledDates = new HashSet<>();
+	
+	@ManyToOne
+	@JoinColumn(name = "user_id", nullable = false)
+	private User user;
+	
+	@ManyToOne
+	@JoinColumn(name = "room_id", nullable = false)
+	private Room room;
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == null || getClass() != o.getClass()) return false;
+		ReservationSeries that = (ReservationSeries) o;
+		return Objects.equals(getId(), that.getId());
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(getId());
+	}
+}
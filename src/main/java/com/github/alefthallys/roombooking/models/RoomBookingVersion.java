@@ -0,0 +1,71 @@
+package com.github.alefthallys.roombooking.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Counts the committed changes to a room's reservations and series. Every booking write bumps it
+ * while holding the room's row lock, so an instance whose copy of the room's bookings was loaded at
+ * the current version knows it has seen every commit. Kept out of {@link Room} so the bump never
+ * touches the second level cache. The id is the room's, so new counters report themselves as new
+ * and are inserted rather than merged.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "room_booking_versions")
+public class RoomBookingVersion implements Persistable<Long>, Serializable {
+	
+	@Serial
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name = "room_id")
+	private Long roomId;
+	
+	@Column(nullable = false)
+	private long version;
+	
+	@Transient
+	private boolean persisted;
+	
+	public RoomBookingVersion(Long roomId) {
+		this.roomId = roomId;
+	}
+	
+	@Override
+	public Long getId() {
+		return roomId;
+	}
+	
+	@Override
+	public boolean isNew() {
+		return !persisted;
+	}
+	
+	@PostLoad
+	@PostPersist
+	void markPersisted() {
+		persisted = true;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == null || getClass() != o.getClass()) return false;
+		RoomBookingVersion that = (RoomBookingVersion) o;
+		return Objects.equals(getRoomId(), that.getRoomId());
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(getRoomId());
+	}
+}
@@ -0,0 +1,46 @@
+package com.github.alefthallys.roombooking.pagination;
+
+import com.github.alefthallys.roombooking.exceptions.Pagination.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the id of the last row of a page and, for pages sorted by start date,
+ * its start date. Encoded as URL-safe Base64 so clients pass it back untouched.
+ */
+public record Cursor(Long id, LocalDateTime startDate) {
+	
+	private static final String SEPARATOR = "|";
+	
+	public static Cursor ofId(Long id) {
+		return new Cursor(id, null);
+	}
+	
+	public static Cursor ofStartDate(LocalDateTime startDate, Long id) {
+		return new Cursor(id, startDate);
+	}
+	
+	public static Cursor decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = decoded.indexOf(SEPARATOR);
+			if (separator < 0) {
+				return ofId(Long.parseLong(decoded));
+			}
+			return ofStartDate(LocalDateTime.parse(decoded.substring(separator + 1)), Long.parseLong(decoded.substring(0, separator)));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new InvalidCursorException(cursor);
+		}
+	}
+	
+	public String encode() {
+		String raw = startDate == null ? String.valueOf(id) : id + SEPARATOR + startDate;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
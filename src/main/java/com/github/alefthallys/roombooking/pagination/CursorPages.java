@@ -0,0 +1,34 @@
+package com.github.alefthallys.roombooking.pagination;
+
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class CursorPages {
+	
+	public static final int DEFAULT_SIZE = 20;
+	public static final int MAX_SIZE = 100;
+	
+	private CursorPages() {
+	}
+	
+	public static int resolveSize(Integer size) {
+		if (size == null) {
+			return DEFAULT_SIZE;
+		}
+		return Math.max(1, Math.min(size, MAX_SIZE));
+	}
+	
+	public static Limit lookahead(int size) {
+		return Limit.of(size + 1);
+	}
+	
+	public static <E, D> CursorPageDTO<D> of(List<E> rows, int size, Function<E, D> mapper, Function<E, Cursor> cursorOf) {
+		boolean hasNext = rows.size() > size;
+		List<E> page = hasNext ? rows.subList(0, size) : rows;
+		String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+		return new CursorPageDTO<>(page.stream().map(mapper).toList(), nextCursor);
+	}
+}
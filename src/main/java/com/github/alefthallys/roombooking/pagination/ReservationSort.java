@@ -0,0 +1,6 @@
+package com.github.alefthallys.roombooking.pagination;
+
+public enum ReservationSort {
+	ID,
+	START_DATE
+}
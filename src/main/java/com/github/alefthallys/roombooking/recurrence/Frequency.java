@@ -0,0 +1,6 @@
+package com.github.alefthallys.roombooking.recurrence;
+
+public enum Frequency {
+	DAILY,
+	WEEKLY
+}
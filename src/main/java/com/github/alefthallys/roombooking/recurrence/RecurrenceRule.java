@@ -0,0 +1,176 @@
+package com.github.alefthallys.roombooking.recurrence;
+
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidRecurrenceRuleException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Subset of an RFC 5545 RRULE: {@code FREQ=DAILY|WEEKLY}, {@code INTERVAL}, {@code BYDAY} for weekly
+ * rules and exactly one of {@code COUNT} or {@code UNTIL} (an inclusive date), so every series is
+ * bounded. Occurrences are generated lazily and can start from any instant without walking the
+ * ones before it.
+ */
+public record RecurrenceRule(
+		Frequency frequency,
+		int interval,
+		List<DayOfWeek> byDays,
+		Integer count,
+		LocalDate until
+) {
+	
+	public static final int MAX_OCCURRENCES = 1000;
+	
+	private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+	private static final Map<String, DayOfWeek> DAY_CODES = Arrays.stream(DayOfWeek.values())
+			.collect(Collectors.toMap(RecurrenceRule::dayCode, day -> day));
+	
+	public RecurrenceRule {
+		byDays = List.copyOf(new TreeSet<>(byDays));
+	}
+	
+	public static RecurrenceRule parse(String rule) {
+		if (rule == null || rule.isBlank()) {
+			throw new InvalidRecurrenceRuleException(rule, "the rule is empty");
+		}
+		
+		Map<String, String> parts = new HashMap<>();
+		for (String part : rule.trim().toUpperCase(Locale.ROOT).split(";")) {
+			String[] keyValue = part.split("=", 2);
+			if (keyValue.length != 2 || keyValue[1].isBlank() || parts.put(keyValue[0].trim(), keyValue[1].trim()) != null) {
+				throw new InvalidRecurrenceRuleException(rule, "'" + part + "' is not a single KEY=VALUE pair");
+			}
+		}
+		
+		Frequency frequency;
+		try {
+			frequency = Frequency.valueOf(required(parts, "FREQ", rule));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidRecurrenceRuleException(rule, "FREQ must be DAILY or WEEKLY");
+		}
+		
+		int interval = parts.containsKey("INTERVAL") ? positive(parts.remove("INTERVAL"), "INTERVAL", rule) : 1;
+		
+		List<DayOfWeek> byDays = new ArrayList<>();
+		if (parts.containsKey("BYDAY")) {
+			if (frequency != Frequency.WEEKLY) {
+				throw new InvalidRecurrenceRuleException(rule, "BYDAY is only supported for WEEKLY rules");
+			}
+			for (String code : parts.remove("BYDAY").split(",")) {
+				DayOfWeek day = DAY_CODES.get(code.trim());
+				if (day == null) {
+					throw new InvalidRecurrenceRuleException(rule, "'" + code + "' is not a weekday code");
+				}
+				byDays.add(day);
+			}
+		}
+		
+		Integer count = parts.containsKey("COUNT") ? positive(parts.remove("COUNT"), "COUNT", rule) : null;
+		LocalDate until = null;
+		if (parts.containsKey("UNTIL")) {
+			String value = parts.remove("UNTIL");
+			try {
+				until = LocalDate.parse(value.length() > 8 ? value.substring(0, 8) : value, UNTIL_FORMAT);
+			} catch (DateTimeParseException e) {
+				throw new InvalidRecurrenceRuleException(rule, "UNTIL must be a date such as 20301231");
+			}
+		}
+		
+		if (!parts.isEmpty()) {
+			throw new InvalidRecurrenceRuleException(rule, "unsupported parts " + parts.keySet());
+		}
+		if ((count == null) == (until == null)) {
+			throw new InvalidRecurrenceRuleException(rule, "exactly one of COUNT or UNTIL is required");
+		}
+		if (count != null && count > MAX_OCCURRENCES) {
+			throw new InvalidRecurrenceRuleException(rule, "COUNT cannot exceed " + MAX_OCCURRENCES);
+		}
+		return new RecurrenceRule(frequency, interval, byDays, count, until);
+	}
+	
+	private static String required(Map<String, String> parts, String key, String rule) {
+		String value = parts.remove(key);
+		if (value == null) {
+			throw new InvalidRecurrenceRuleException(rule, key + " is required");
+		}
+		return value;
+	}
+	
+	private static int positive(String value, String key, String rule) {
+		try {
+			int parsed = Integer.parseInt(value);
+			if (parsed > 0) {
+				return parsed;
+			}
+		} catch (NumberFormatException ignored) {
+			// reported below
+		}
+		throw new InvalidRecurrenceRuleException(rule, key + " must be a positive integer");
+	}
+	
+	private static String dayCode(DayOfWeek day) {
+		return day.name().substring(0, 2);
+	}
+	
+	/**
+	 * Start instants of the occurrences of a series whose first occurrence starts at {@code firstStart},
+	 * beginning with the first one that does not start before {@code from}.
+	 */
+	public Stream<LocalDateTime> startsFrom(LocalDateTime firstStart, LocalDateTime from) {
+		List<DayOfWeek> days = frequency == Frequency.WEEKLY && !byDays.isEmpty() ? byDays : List.of(firstStart.getDayOfWeek());
+		LocalDate anchor = frequency == Frequency.WEEKLY
+				? firstStart.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+				: firstStart.toLocalDate();
+		int periodDays = frequency == Frequency.WEEKLY ? 7 * interval : interval;
+		long skipped = days.stream().filter(day -> day.compareTo(firstStart.getDayOfWeek()) < 0).count();
+		long firstPeriod = from.isAfter(firstStart) ? ChronoUnit.DAYS.between(anchor, from.toLocalDate()) / periodDays : 0;
+		
+		return LongStream.iterate(firstPeriod, period -> period + 1).boxed()
+				.flatMap(period -> IntStream.range(0, days.size()).mapToObj(slot -> new Occurrence(
+						period * days.size() + slot - skipped,
+						anchor.plusDays(period * periodDays + (frequency == Frequency.WEEKLY ? days.get(slot).getValue() - 1 : 0))
+								.atTime(firstStart.toLocalTime()))))
+				.filter(occurrence -> occurrence.ordinal() >= 0)
+				.takeWhile(occurrence -> (count == null || occurrence.ordinal() < count)
+						&& (until == null || !occurrence.start().toLocalDate().isAfter(until)))
+				.map(Occurrence::start)
+				.filter(start -> !start.isBefore(from));
+	}
+	
+	public boolean matchesFirstStart(LocalDateTime firstStart) {
+		return frequency != Frequency.WEEKLY || byDays.isEmpty() || byDays.contains(firstStart.getDayOfWeek());
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder rule = new StringBuilder("FREQ=").append(frequency).append(";INTERVAL=").append(interval);
+		if (!byDays.isEmpty()) {
+			rule.append(";BYDAY=").append(byDays.stream().map(RecurrenceRule::dayCode).collect(Collectors.joining(",")));
+		}
+		if (count != null) {
+			rule.append(";COUNT=").append(count);
+		} else {
+			rule.append(";UNTIL=").append(until.format(UNTIL_FORMAT));
+		}
+		return rule.toString();
+	}
+	
+	private record Occurrence(long ordinal, LocalDateTime start) {
+	}
+}
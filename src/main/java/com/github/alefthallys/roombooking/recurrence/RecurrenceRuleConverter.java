@@ -0,0 +1,18 @@
+package com.github.alefthallys.roombooking.recurrence;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class RecurrenceRuleConverter implements AttributeConverter<RecurrenceRule, String> {
+	
+	@Override
+	public String convertToDatabaseColumn(RecurrenceRule rule) {
+		return rule == null ? null : rule.toString();
+	}
+	
+	@Override
+	public RecurrenceRule convertToEntityAttribute(String rule) {
+		return rule == null ? null : RecurrenceRule.parse(rule);
+	}
+}
@@ -0,0 +1,20 @@
+package com.github.alefthallys.roombooking.reminders;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "reminder.scheduler")
+public class ReminderProperties {
+	
+	private Duration leadTime = Duration.ofMinutes(15);
+	private Duration tick = Duration.ofSeconds(30);
+	private int wheelSize = 4096;
+	private Duration confirmTimeout = Duration.ofSeconds(5);
+}
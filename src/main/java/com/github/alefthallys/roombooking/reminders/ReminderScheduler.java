@@ -0,0 +1,185 @@
+package com.github.alefthallys.roombooking.reminders;
+
+import com.github.alefthallys.roombooking.config.RabbitMQConfig;
+import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.messaging.EmailMessageConsumer;
+import com.github.alefthallys.roombooking.models.Reservation;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.templates.EmailTemplateType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps every upcoming reservation in a {@link TimingWheel} and publishes a reminder email when its
+ * slot fires, instead of polling the reservations table. The wheel only holds ids; the reservation
+ * is reloaded when it fires, so reminders for deleted or moved reservations are dropped there.
+ * Every instance keeps its own wheel, so a reminder is claimed in the reservations table for the
+ * start date it announces; only the instance whose guarded update wins sends it, and a rescheduled
+ * reservation can be claimed again for its new start date. The claim only commits once the broker
+ * confirms the reminder, so a reminder whose publish fails, or whose instance dies before the
+ * confirm, is left unclaimed and sent again. Consumers may see a reminder more than once.
+ */
+@Component
+@Slf4j
+public class ReminderScheduler implements SmartInitializingSingleton {
+	
+	private final ReservationRepository reservationRepository;
+	private final RabbitTemplate rabbitTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ReminderProperties reminderProperties;
+	private final Clock clock;
+	private final TimingWheel wheel;
+	
+	@Autowired
+	public ReminderScheduler(ReservationRepository reservationRepository, RabbitTemplate rabbitTemplate, PlatformTransactionManager transactionManager, ReminderProperties reminderProperties) {
+		this(reservationRepository, rabbitTemplate, transactionManager, reminderProperties, Clock.systemDefaultZone());
+	}
+	
+	ReminderScheduler(ReservationRepository reservationRepository, RabbitTemplate rabbitTemplate, PlatformTransactionManager transactionManager, ReminderProperties reminderProperties, Clock clock) {
+		this.reservationRepository = reservationRepository;
+		this.rabbitTemplate = rabbitTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.reminderProperties = reminderProperties;
+		this.clock = clock;
+		this.wheel = new TimingWheel(reminderProperties.getWheelSize(), tickOf(clock.instant()));
+	}
+	
+	@Override
+	public void afterSingletonsInstantiated() {
+		try {
+			List<ReservationInterval> upcoming = reservationRepository.findIntervalsStartingAfter(LocalDateTime.now(clock));
+			upcoming.forEach(interval -> add(interval.id(), interval.startDate()));
+			log.info("Reminder scheduler loaded {} upcoming reservations", upcoming.size());
+		} catch (RuntimeException e) {
+			log.error("Failed to load upcoming reservations, reminders will only be sent for reservations changed from now on", e);
+		}
+	}
+	
+	public synchronized int pending() {
+		return wheel.size();
+	}
+	
+	public void schedule(Long reservationId, LocalDateTime startDate) {
+		afterCommit(() -> add(reservationId, startDate));
+	}
+	
+	public void reschedule(Long reservationId, LocalDateTime previousStartDate, LocalDateTime startDate) {
+		afterCommit(() -> {
+			remove(reservationId, previousStartDate);
+			add(reservationId, startDate);
+		});
+	}
+	
+	public void cancel(Long reservationId, LocalDateTime startDate) {
+		afterCommit(() -> remove(reservationId, startDate));
+	}
+	
+	@Scheduled(fixedDelayString = "#{@reminderProperties.tick.toMillis()}")
+	public void fireDueReminders() {
+		Set<Long> due = new LinkedHashSet<>();
+		long tick = tickOf(clock.instant());
+		synchronized (this) {
+			wheel.advanceTo(tick, due::add);
+		}
+		if (due.isEmpty()) {
+			return;
+		}
+		
+		LocalDateTime now = LocalDateTime.now(clock);
+		int published = 0;
+		for (Reservation reservation : reservationRepository.findByIdIn(due)) {
+			if (dueTick(reservation.getStartDate()) > tick || !reservation.getStartDate().isAfter(now)) {
+				continue;
+			}
+			try {
+				if (Boolean.TRUE.equals(transactionTemplate.execute(status -> claimAndPublish(reservation)))) {
+					published++;
+				} else {
+					log.debug("Reminder for reservation ID {} was already sent by another instance", reservation.getId());
+				}
+			} catch (AmqpException e) {
+				log.warn("Failed to publish the reminder for reservation ID {}, retrying on the next tick", reservation.getId(), e);
+				synchronized (this) {
+					wheel.schedule(reservation.getId(), tick + 1);
+				}
+			}
+		}
+		log.info("Published {} of {} due reservation reminders", published, due.size());
+	}
+	
+	private boolean claimAndPublish(Reservation reservation) {
+		if (reservationRepository.claimReminder(reservation.getId(), reservation.getStartDate()) == 0) {
+			return false;
+		}
+		publish(reservation);
+		return true;
+	}
+	
+	private void publish(Reservation reservation) {
+		ReservationConfirmationEmailDTO emailDTO = new ReservationConfirmationEmailDTO(
+				reservation.getUser().getEmail(),
+				reservation.getUser().getName(),
+				reservation.getRoom().getName(),
+				reservation.getStartDate(),
+				reservation.getEndDate(),
+				reservation.getId()
+		);
+		rabbitTemplate.invoke(operations -> {
+			operations.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.REMINDER_ROUTING_KEY, emailDTO, message -> {
+				message.getMessageProperties().setMessageId("reminder-" + reservation.getId());
+				message.getMessageProperties().setHeader(EmailMessageConsumer.EMAIL_TYPE_HEADER, EmailTemplateType.REMINDER.name());
+				return message;
+			});
+			operations.waitForConfirmsOrDie(reminderProperties.getConfirmTimeout().toMillis());
+			return null;
+		});
+	}
+	
+	private synchronized void add(Long reservationId, LocalDateTime startDate) {
+		if (startDate.isAfter(LocalDateTime.now(clock))) {
+			wheel.schedule(reservationId, dueTick(startDate));
+		}
+	}
+	
+	private synchronized void remove(Long reservationId, LocalDateTime startDate) {
+		wheel.cancel(reservationId, dueTick(startDate));
+	}
+	
+	private long dueTick(LocalDateTime startDate) {
+		return tickOf(startDate.minus(reminderProperties.getLeadTime()).atZone(clock.getZone()).toInstant());
+	}
+	
+	private long tickOf(Instant instant) {
+		return Math.floorDiv(instant.toEpochMilli(), reminderProperties.getTick().toMillis());
+	}
+	
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,107 @@
+package com.github.alefthallys.roombooking.reminders;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timing wheel of reservation ids keyed by the tick their reminder is due. Each bucket is a
+ * flat {@code long[]} of (id, due tick) pairs, so a pending reminder costs 16 bytes and no object;
+ * entries more than one rotation away simply stay in their bucket until their tick comes round.
+ * Not thread-safe.
+ */
+public class TimingWheel {
+	
+	private final long[][] buckets;
+	private final int[] sizes;
+	private final int mask;
+	private long currentTick;
+	private int size;
+	
+	public TimingWheel(int wheelSize, long currentTick) {
+		if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+			throw new IllegalArgumentException("Wheel size must be a positive power of two: " + wheelSize);
+		}
+		this.buckets = new long[wheelSize][];
+		this.sizes = new int[wheelSize];
+		this.mask = wheelSize - 1;
+		this.currentTick = currentTick;
+	}
+	
+	public long currentTick() {
+		return currentTick;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Schedules {@code id} for {@code dueTick}; ticks that already passed fire on the next advance.
+	 */
+	public void schedule(long id, long dueTick) {
+		long tick = Math.max(dueTick, currentTick + 1);
+		int bucket = (int) (tick & mask);
+		long[] entries = buckets[bucket];
+		int used = sizes[bucket] * 2;
+		if (entries == null) {
+			entries = buckets[bucket] = new long[4];
+		} else if (used == entries.length) {
+			entries = buckets[bucket] = Arrays.copyOf(entries, entries.length * 2);
+		}
+		entries[used] = id;
+		entries[used + 1] = tick;
+		sizes[bucket]++;
+		size++;
+	}
+	
+	public boolean cancel(long id, long dueTick) {
+		long tick = Math.max(dueTick, currentTick + 1);
+		int bucket = (int) (tick & mask);
+		long[] entries = buckets[bucket];
+		for (int i = 0; i < sizes[bucket] * 2; i += 2) {
+			if (entries[i] == id && entries[i + 1] == tick) {
+				removeAt(bucket, i);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Moves the wheel to {@code tick}, handing every id due up to it to {@code expired}. After a gap
+	 * longer than a rotation each bucket is swept once instead of once per missed tick.
+	 */
+	public void advanceTo(long tick, LongConsumer expired) {
+		if (tick <= currentTick) {
+			return;
+		}
+		long steps = Math.min(tick - currentTick, buckets.length);
+		for (long step = 1; step <= steps; step++) {
+			int bucket = (int) ((currentTick + step) & mask);
+			long[] entries = buckets[bucket];
+			int i = 0;
+			while (i < sizes[bucket] * 2) {
+				if (entries[i + 1] <= tick) {
+					long id = entries[i];
+					removeAt(bucket, i);
+					expired.accept(id);
+				} else {
+					i += 2;
+				}
+			}
+			if (sizes[bucket] == 0) {
+				buckets[bucket] = null;
+			}
+		}
+		currentTick = tick;
+	}
+	
+	private void removeAt(int bucket, int index) {
+		long[] entries = buckets[bucket];
+		int last = (sizes[bucket] - 1) * 2;
+		entries[index] = entries[last];
+		entries[index + 1] = entries[last + 1];
+		sizes[bucket]--;
+		size--;
+	}
+}
@@ -0,0 +1,31 @@
+package com.github.alefthallys.roombooking.repositories;
+
+import com.github.alefthallys.roombooking.models.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+	
+	@Transactional
+	@Modifying
+	@Query("UPDATE IdempotencyKey k SET k.response = :response, k.expiresAt = :expiresAt "
+			+ "WHERE k.id = :id AND k.owner = :owner AND k.response IS NULL")
+	int complete(@Param("id") String id, @Param("owner") String owner, @Param("response") String response, @Param("expiresAt") LocalDateTime expiresAt);
+	
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.owner = :owner AND k.response IS NULL")
+	int release(@Param("id") String id, @Param("owner") String owner);
+	
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+	int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,9 @@
+package com.github.alefthallys.roombooking.repositories;
+
+import com.github.alefthallys.roombooking.models.OutboxDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+}
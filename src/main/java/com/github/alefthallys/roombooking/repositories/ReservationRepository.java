@@ -1,9 +1,16 @@
 package com.github.alefthallys.roombooking.repositories;
 
+import com.github.alefthallys.roombooking.index.ReservationInterval;
 import com.github.alefthallys.roombooking.models.Reservation;
 import com.github.alefthallys.roombooking.models.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
@@ -12,9 +19,55 @@ import java.util.Optional;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+	@EntityGraph(attributePaths = {"user", "room"})
 	Collection<Reservation> findByUser(User currentUser);
 	
-	List<Reservation> findByRoomIdAndStartDateBeforeAndEndDateAfter(Long roomId, LocalDateTime newEndDate, LocalDateTime newStartDate);
+	@Override
+	@EntityGraph(attributePaths = {"user", "room"})
+	Optional<Reservation> findById(Long id);
 	
+	@EntityGraph(attributePaths = {"user", "room"})
 	Optional<Reservation> findReservationByIdAndUserId(Long id, Long userId);
+	
+	@Query("select new com.github.alefthallys.roombooking.index.ReservationInterval(r.id, r.room.id, r.user.id, r.startDate, r.endDate) from Reservation r " +
+			"where r.endDate > :endDate")
+	List<ReservationInterval> findIntervalsEndingAfter(@Param("endDate") LocalDateTime endDate);
+	
+	@Query("select new com.github.alefthallys.roombooking.index.ReservationInterval(r.id, r.room.id, r.user.id, r.startDate, r.endDate) from Reservation r " +
+			"where r.room.id = :roomId and r.endDate > :endDate")
+	List<ReservationInterval> findIntervalsByRoomEndingAfter(@Param("roomId") Long roomId, @Param("endDate") LocalDateTime endDate);
+	
+	@Query("select new com.github.alefthallys.roombooking.index.ReservationInterval(r.id, r.room.id, r.user.id, r.startDate, r.endDate) from Reservation r " +
+			"where r.room.id in :roomIds and r.endDate > :endDate")
+	List<ReservationInterval> findIntervalsByRoomInEndingAfter(@Param("roomIds") Collection<Long> roomIds, @Param("endDate") LocalDateTime endDate);
+	
+	@Query("select new com.github.alefthallys.roombooking.index.ReservationInterval(r.id, r.room.id, r.user.id, r.startDate, r.endDate) from Reservation r " +
+			"where r.room.id in :roomIds and r.startDate < :endDate and r.endDate > :startDate")
+	List<ReservationInterval> findIntervalsOverlapping(@Param("roomIds") Collection<Long> roomIds, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+	
+	@Query("select new com.github.alefthallys.roombooking.index.ReservationInterval(r.id, r.room.id, r.user.id, r.startDate, r.endDate) from Reservation r " +
+			"where r.startDate > :startDate")
+	List<ReservationInterval> findIntervalsStartingAfter(@Param("startDate") LocalDateTime startDate);
+	
+	@Query("select distinct r.room.id from Reservation r where r.user.id = :userId")
+	List<Long> findRoomIdsByUserId(@Param("userId") Long userId);
+	
+	@EntityGraph(attributePaths = {"user", "room"})
+	List<Reservation> findByIdIn(Collection<Long> ids);
+	
+	@EntityGraph(attributePaths = {"user", "room"})
+	List<Reservation> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+	
+	@EntityGraph(attributePaths = {"user", "room"})
+	List<Reservation> findAllByOrderByStartDateAscIdAsc(Limit limit);
+	
+	@EntityGraph(attributePaths = {"user", "room"})
+	@Query("select r from Reservation r where r.startDate > :startDate or (r.startDate = :startDate and r.id > :id) order by r.startDate, r.id")
+	List<Reservation> findAfterStartDate(@Param("startDate") LocalDateTime startDate, @Param("id") Long id, Limit limit);
+	
+	@Transactional
+	@Modifying
+	@Query("UPDATE Reservation r SET r.reminderSentFor = :startDate WHERE r.id = :id AND r.startDate = :startDate "
+			+ "AND (r.reminderSentFor IS NULL OR r.reminderSentFor <> :startDate)")
+	int claimReminder(@Param("id") Long id, @Param("startDate") LocalDateTime startDate);
 }
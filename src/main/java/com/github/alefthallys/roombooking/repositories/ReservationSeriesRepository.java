@@ -0,0 +1,22 @@
+package com.github.alefthallys.roombooking.repositories;
+
+import com.github.alefthallys.roombooking.models.ReservationSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservationSeriesRepository extends JpaRepository<ReservationSeries, Long> {
+	List<ReservationSeries> findByRoomIdIn(Collection<Long> roomIds);
+	
+	@Query("select distinct s.room.id from ReservationSeries s where s.user.id = :userId")
+	List<Long> findRoomIdsByUserId(@Param("userId") Long userId);
+	
+	@Query("select s.room.id from ReservationSeries s where s.id = :id")
+	Optional<Long> findRoomIdById(@Param("id") Long id);
+}
@@ -0,0 +1,19 @@
+package com.github.alefthallys.roombooking.repositories;
+
+import com.github.alefthallys.roombooking.models.RoomBookingVersion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RoomBookingVersionRepository extends JpaRepository<RoomBookingVersion, Long> {
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select v from RoomBookingVersion v where v.roomId = :roomId")
+	Optional<RoomBookingVersion> findByRoomIdForUpdate(@Param("roomId") Long roomId);
+}
@@ -1,10 +1,33 @@
 package com.github.alefthallys.roombooking.repositories;
 
+import com.github.alefthallys.roombooking.index.RoomsFingerprint;
 import com.github.alefthallys.roombooking.models.Room;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 	boolean existsByName(String name);
+	
+	List<Room> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select r from Room r where r.id = :id")
+	Optional<Room> findByIdForUpdate(@Param("id") Long id);
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select r from Room r where r.id in :ids order by r.id")
+	List<Room> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+	
+	@Query("select new com.github.alefthallys.roombooking.index.RoomsFingerprint(count(r), max(r.lastModifiedDate)) from Room r")
+	RoomsFingerprint findFingerprint();
 }
@@ -1,9 +1,15 @@
 package com.github.alefthallys.roombooking.repositories;
 
 import com.github.alefthallys.roombooking.models.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 
@@ -12,4 +18,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	boolean existsByEmail(String email);
 	
 	Optional<User> findByEmail(String email);
+	
+	List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select u from User u where u.id = :id")
+	Optional<User> findByIdForUpdate(@Param("id") Long id);
+	
+	@Lock(LockModeType.PESSIMISTIC_READ)
+	@Query("select u from User u where u.id = :id")
+	Optional<User> findByIdForShare(@Param("id") Long id);
 }
@@ -0,0 +1,87 @@
+package com.github.alefthallys.roombooking.security;
+
+import com.github.alefthallys.roombooking.models.User;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Security principal carrying the user profile, so the current user can be resolved from the
+ * security context without going back to the database.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+	
+	private final Long id;
+	private final String name;
+	private final String email;
+	private final String phone;
+	private final User.Role role;
+	private final Long version;
+	private String password;
+	
+	public AuthenticatedUser(Long id, String name, String email, String phone, User.Role role, String password) {
+		this(id, name, email, phone, role, null, password);
+	}
+	
+	public AuthenticatedUser(Long id, String name, String email, String phone, User.Role role, Long version, String password) {
+		this.id = id;
+		this.name = name;
+		this.email = email;
+		this.phone = phone;
+		this.role = role;
+		this.version = version;
+		this.password = password;
+	}
+	
+	public static AuthenticatedUser from(User user) {
+		return new AuthenticatedUser(
+				user.getId(),
+				user.getName(),
+				user.getEmail(),
+				user.getPhone(),
+				user.getRole(),
+				user.getVersion(),
+				user.getPassword()
+		);
+	}
+	
+	public static AuthenticatedUser fromClaims(Long id, String email, User.Role role) {
+		return new AuthenticatedUser(id, null, email, null, role, null);
+	}
+	
+	public boolean hasProfile() {
+		return name != null;
+	}
+	
+	public User toUser() {
+		User user = new User();
+		user.setId(id);
+		user.setName(name);
+		user.setEmail(email);
+		user.setPhone(phone);
+		user.setRole(role);
+		user.setVersion(version);
+		return user;
+	}
+	
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+	}
+	
+	@Override
+	public String getUsername() {
+		return email;
+	}
+	
+	@Override
+	public void eraseCredentials() {
+		password = null;
+	}
+}
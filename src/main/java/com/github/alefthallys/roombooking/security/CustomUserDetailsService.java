@@ -1,15 +1,11 @@
 package com.github.alefthallys.roombooking.security;
 
 import com.github.alefthallys.roombooking.repositories.UserRepository;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 	
@@ -21,13 +17,13 @@ public class CustomUserDetailsService implements UserDetailsService {
 	
 	@Override
 	public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+		return loadAuthenticatedUser(email);
+	}
+	
+	public AuthenticatedUser loadAuthenticatedUser(String email) throws UsernameNotFoundException {
 		var user = userRepository.findByEmail(email)
 				.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 		
-		return new User(
-				user.getEmail(),
-				user.getPassword(),
-				List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-		);
+		return AuthenticatedUser.from(user);
 	}
 }
@@ -0,0 +1,29 @@
+package com.github.alefthallys.roombooking.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * Matches requests that arrived on the management server, whose port is only known once the
+ * management child context has started it.
+ */
+final class ManagementPortRequestMatcher implements RequestMatcher, ApplicationListener<WebServerInitializedEvent> {
+	
+	private static final String MANAGEMENT_NAMESPACE = "management";
+	
+	private volatile int port = -1;
+	
+	@Override
+	public void onApplicationEvent(WebServerInitializedEvent event) {
+		if (MANAGEMENT_NAMESPACE.equals(event.getApplicationContext().getServerNamespace())) {
+			port = event.getWebServer().getPort();
+		}
+	}
+	
+	@Override
+	public boolean matches(HttpServletRequest request) {
+		return port >= 0 && request.getLocalPort() == port;
+	}
+}
@@ -0,0 +1,73 @@
+package com.github.alefthallys.roombooking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Bounded cache of authenticated principals keyed by token subject and token id, so an access
+ * token only costs one user lookup for as long as the entry lives.
+ */
+@Component
+public class PrincipalCache implements MeterBinder {
+	
+	private final Cache<Key, AuthenticatedUser> cache;
+	
+	@Autowired
+	public PrincipalCache(PrincipalCacheProperties properties) {
+		this(properties, Ticker.systemTicker());
+	}
+	
+	PrincipalCache(PrincipalCacheProperties properties, Ticker ticker) {
+		this.cache = Caffeine.newBuilder()
+				.expireAfterWrite(properties.getTtl())
+				.maximumSize(properties.getMaxSize())
+				.ticker(ticker)
+				.recordStats()
+				.build();
+	}
+	
+	public AuthenticatedUser get(String subject, String tokenId, Function<String, AuthenticatedUser> loader) {
+		return cache.get(new Key(subject, tokenId), key -> {
+			AuthenticatedUser principal = loader.apply(key.subject());
+			principal.eraseCredentials();
+			return principal;
+		});
+	}
+	
+	public void invalidate(String subject) {
+		Runnable action = () -> cache.asMap().keySet().removeIf(key -> key.subject().equals(subject));
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, cache, "principals");
+	}
+	
+	public CacheStats stats() {
+		return cache.stats();
+	}
+	
+	private record Key(String subject, String tokenId) {
+	}
+}
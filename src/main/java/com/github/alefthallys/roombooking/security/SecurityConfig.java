@@ -1,8 +1,11 @@
 package com.github.alefthallys.roombooking.security;
 
 import com.github.alefthallys.roombooking.security.jwt.JwtAuthenticationFilter;
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -25,10 +28,37 @@ public class SecurityConfig {
 	}
 	
 	@Bean
+	@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+	ManagementPortRequestMatcher managementPortRequestMatcher() {
+		return new ManagementPortRequestMatcher();
+	}
+	
+	/**
+	 * With {@code management.server.port} set apart from the API port, the actuator is only served
+	 * on that port, which is reachable from inside the network alone. Scrapers reach it without a
+	 * user JWT; the API chain below never sees those requests.
+	 */
+	@Bean
+	@Order(1)
+	@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+	public SecurityFilterChain managementSecurityFilterChain(HttpSecurity http, ManagementPortRequestMatcher managementPortRequestMatcher) throws Exception {
+		http.securityMatcher(managementPortRequestMatcher)
+				.csrf(AbstractHttpConfigurer::disable)
+				.authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+				.sessionManagement(session -> session
+						.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+				);
+		
+		return http.build();
+	}
+	
+	@Bean
+	@Order(2)
 	public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 		http.csrf(AbstractHttpConfigurer::disable)
 				.authorizeHttpRequests(auth -> auth
 						.requestMatchers(SecurityConstants.PUBLIC_ENDPOINTS.toArray(String[]::new)).permitAll()
+						.requestMatchers("/actuator/**").hasRole("ADMIN")
 						.anyRequest().authenticated()
 				)
 				.sessionManagement(session -> session
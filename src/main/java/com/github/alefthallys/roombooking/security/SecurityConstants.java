@@ -9,7 +9,8 @@ public class SecurityConstants {
 			"/api/v1/auth/refresh-token",
 			"/swagger-ui/**",
 			"/v3/api-docs/**",
-			"/actuator/**"
+			"/actuator/health/**",
+			"/actuator/info"
 	);
 	
 	private SecurityConstants() {
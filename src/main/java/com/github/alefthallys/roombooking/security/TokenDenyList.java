@@ -0,0 +1,62 @@
+package com.github.alefthallys.roombooking.security;
+
+import com.github.alefthallys.roombooking.security.jwt.JwtProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revokes every access token of a subject issued before the second it was denied. Tokens carry
+ * their issue time in whole seconds, so a login in that same second, right after a password change,
+ * still gets a working token. Entries are dropped once the longest-lived token they could match has
+ * expired.
+ */
+@Component
+public class TokenDenyList {
+	
+	private final Map<String, Instant> deniedSubjects = new ConcurrentHashMap<>();
+	private final JwtProperties jwtProperties;
+	private final Clock clock;
+	
+	@Autowired
+	public TokenDenyList(JwtProperties jwtProperties) {
+		this(jwtProperties, Clock.systemUTC());
+	}
+	
+	TokenDenyList(JwtProperties jwtProperties, Clock clock) {
+		this.jwtProperties = jwtProperties;
+		this.clock = clock;
+	}
+	
+	public void deny(String subject) {
+		Runnable action = () -> {
+			Instant now = clock.instant();
+			Instant expired = now.minus(Duration.ofMillis(jwtProperties.getExpiration()));
+			deniedSubjects.values().removeIf(deniedAt -> deniedAt.isBefore(expired));
+			deniedSubjects.put(subject, now);
+		};
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+	
+	public boolean isDenied(String subject, Instant issuedAt) {
+		Instant deniedAt = deniedSubjects.get(subject);
+		return deniedAt != null && (issuedAt == null || issuedAt.isBefore(deniedAt.truncatedTo(ChronoUnit.SECONDS)));
+	}
+}
@@ -1,9 +1,14 @@
 package com.github.alefthallys.roombooking.security.jwt;
 
 import com.github.alefthallys.roombooking.exceptions.Auth.InvalidJwtException;
-import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.github.alefthallys.roombooking.security.AuthenticatedUser;
 import com.github.alefthallys.roombooking.security.CustomUserDetailsService;
+import com.github.alefthallys.roombooking.security.PrincipalCache;
 import com.github.alefthallys.roombooking.security.SecurityConstants;
+import com.github.alefthallys.roombooking.security.TokenDenyList;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +16,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.AntPathMatcher;
@@ -19,19 +24,28 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	
+	public static final String VALIDATION_TIMER = "roombooking.jwt.validation";
+	
 	private final JwtTokenProvider jwtTokenProvider;
 	private final CustomUserDetailsService customUserDetailsService;
 	private final AntPathMatcher pathMatcher = new AntPathMatcher();
-	private final UserRepository userRepository;
+	private final PrincipalCache principalCache;
+	private final TokenDenyList tokenDenyList;
+	private final JwtProperties jwtProperties;
+	private final MeterRegistry meterRegistry;
 	
-	public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, CustomUserDetailsService customUserDetailsService, UserRepository userRepository) {
+	public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, CustomUserDetailsService customUserDetailsService, PrincipalCache principalCache, TokenDenyList tokenDenyList, JwtProperties jwtProperties, MeterRegistry meterRegistry) {
 		this.jwtTokenProvider = jwtTokenProvider;
 		this.customUserDetailsService = customUserDetailsService;
-		this.userRepository = userRepository;
+		this.principalCache = principalCache;
+		this.tokenDenyList = tokenDenyList;
+		this.jwtProperties = jwtProperties;
+		this.meterRegistry = meterRegistry;
 	}
 	
 	@Override
@@ -49,37 +63,57 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 			return;
 		}
 		
+		Timer.Sample validation = Timer.start(meterRegistry);
+		String outcome = "rejected";
 		try {
 			String token = extractToken(request);
-			jwtTokenProvider.validateToken(token);
+			Claims claims = jwtTokenProvider.parseAccessToken(token);
 			
-			String username = jwtTokenProvider.getUsernameFromToken(token);
+			String username = claims.getSubject();
 			
-			if (!userRepository.existsByEmail(username)) {
-				throw new InvalidJwtException("Invalid JWT: User does not exist");
+			if (tokenDenyList.isDenied(username, claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)) {
+				throw new InvalidJwtException("Invalid JWT: Token has been revoked");
 			}
 			
+			AuthenticatedUser principal = resolvePrincipal(claims);
+			
 			if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-				UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-				
 				var auth = new UsernamePasswordAuthenticationToken(
-						userDetails,
+						principal,
 						null,
-						userDetails.getAuthorities()
+						principal.getAuthorities()
 				);
 				
 				auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 				SecurityContextHolder.getContext().setAuthentication(auth);
 			}
+			outcome = "accepted";
 			
 		} catch (InvalidJwtException ex) {
 			respondUnauthorized(response, request, ex);
 			return;
+		} finally {
+			validation.stop(meterRegistry.timer(VALIDATION_TIMER, "outcome", outcome));
 		}
 		
 		filterChain.doFilter(request, response);
 	}
 	
+	private AuthenticatedUser resolvePrincipal(Claims claims) {
+		if (jwtProperties.isClaimsTrusted()) {
+			Optional<AuthenticatedUser> trustedPrincipal = jwtTokenProvider.getPrincipalFromClaims(claims);
+			if (trustedPrincipal.isPresent()) {
+				return trustedPrincipal.get();
+			}
+		}
+		
+		try {
+			return principalCache.get(claims.getSubject(), claims.getId(), customUserDetailsService::loadAuthenticatedUser);
+		} catch (UsernameNotFoundException e) {
+			throw new InvalidJwtException("Invalid JWT: User does not exist");
+		}
+	}
+	
 	private String extractToken(HttpServletRequest request) {
 		String header = request.getHeader("Authorization");
 		
@@ -19,4 +19,5 @@ public class JwtProperties {
 	private String prefix;
 	private String refreshSecret;
 	private long refreshExpiration;
+	private boolean claimsTrusted;
 }
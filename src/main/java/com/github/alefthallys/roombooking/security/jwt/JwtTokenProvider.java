@@ -3,6 +3,9 @@ package com.github.alefthallys.roombooking.security.jwt;
 import com.github.alefthallys.roombooking.exceptions.Auth.InvalidJwtException;
 import com.github.alefthallys.roombooking.models.User;
 import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.github.alefthallys.roombooking.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -17,16 +20,22 @@ import java.security.Key;
 import java.time.Clock;
 import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 	
+	private static final String ROLE_CLAIM = "role";
+	private static final String USER_ID_CLAIM = "uid";
+	
 	private final JwtProperties jwtProperties;
 	private final Clock clock;
 	private final UserRepository userRepository;
 	private Key secretKey;
 	private Key refreshSecretKey;
+	private JwtParser accessTokenParser;
+	private JwtParser refreshTokenParser;
 	
 	@Autowired
 	public JwtTokenProvider(JwtProperties jwtProperties, UserRepository userRepository) {
@@ -46,6 +55,8 @@ public class JwtTokenProvider {
 			this.secretKey = Keys.hmacShaKeyFor(decodedKeyBytes);
 			byte[] decodedRefreshKeyBytes = Base64.getDecoder().decode(jwtProperties.getRefreshSecret());
 			this.refreshSecretKey = Keys.hmacShaKeyFor(decodedRefreshKeyBytes);
+			this.accessTokenParser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+			this.refreshTokenParser = Jwts.parserBuilder().setSigningKey(refreshSecretKey).build();
 		} catch (IllegalArgumentException e) {
 			throw new IllegalStateException("Failed to decode JWT secret or refresh secret from Base64. " +
 					"Please check 'jwt.secret' and 'jwt.refreshSecret' in application.yml.", e);
@@ -58,13 +69,16 @@ public class JwtTokenProvider {
 		Date expiry = Date.from(clock.instant().plusMillis(jwtProperties.getExpiration()));
 		
 		UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+		Long userId = userDetails instanceof AuthenticatedUser authenticatedUser ? authenticatedUser.getId() : null;
 		
 		return Jwts.builder()
 				.setSubject(email)
-				.claim("role", userDetails.getAuthorities().stream()
+				.setId(UUID.randomUUID().toString())
+				.claim(ROLE_CLAIM, userDetails.getAuthorities().stream()
 						.map(auth -> auth.getAuthority().replace("ROLE_", "")) // remove prefixo
 						.findFirst()
 						.orElse("USER"))
+				.claim(USER_ID_CLAIM, userId)
 				.setIssuer(jwtProperties.getIssuer())
 				.setAudience(jwtProperties.getAudience())
 				.setIssuedAt(now)
@@ -90,22 +104,33 @@ public class JwtTokenProvider {
 				.compact();
 	}
 	
-	public String getUsernameFromToken(String token) {
-		return Jwts.parserBuilder()
-				.setSigningKey(secretKey)
-				.build()
-				.parseClaimsJws(token)
-				.getBody()
-				.getSubject();
+	public Claims parseAccessToken(String token) {
+		try {
+			return accessTokenParser.parseClaimsJws(token).getBody();
+		} catch (Exception e) {
+			throw new InvalidJwtException("JWT token is invalid", e);
+		}
 	}
 	
-	public String getUsernameFromRefreshToken(String token) {
-		return Jwts.parserBuilder()
-				.setSigningKey(refreshSecretKey)
-				.build()
-				.parseClaimsJws(token)
-				.getBody()
-				.getSubject();
+	public Claims parseRefreshToken(String token) {
+		try {
+			return refreshTokenParser.parseClaimsJws(token).getBody();
+		} catch (Exception e) {
+			throw new InvalidJwtException("Refresh token is invalid", e);
+		}
+	}
+	
+	public Optional<AuthenticatedUser> getPrincipalFromClaims(Claims claims) {
+		Long userId = claims.get(USER_ID_CLAIM, Long.class);
+		String role = claims.get(ROLE_CLAIM, String.class);
+		if (userId == null || role == null || claims.getSubject() == null) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(AuthenticatedUser.fromClaims(userId, claims.getSubject(), User.Role.valueOf(role)));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidJwtException("Invalid JWT: Unknown role " + role, e);
+		}
 	}
 	
 	public UserDetails getAuthentication() {
@@ -124,29 +149,18 @@ public class JwtTokenProvider {
 	}
 	
 	public void validateToken(String token) {
-		try {
-			Jwts.parserBuilder()
-					.setSigningKey(secretKey)
-					.build()
-					.parseClaimsJws(token);
-		} catch (Exception e) {
-			throw new InvalidJwtException("JWT token is invalid", e);
-		}
+		parseAccessToken(token);
 	}
 	
 	public void validateRefreshToken(String token) {
-		try {
-			Jwts.parserBuilder()
-					.setSigningKey(refreshSecretKey)
-					.build()
-					.parseClaimsJws(token);
-		} catch (Exception e) {
-			throw new InvalidJwtException("Refresh token is invalid", e);
-		}
+		parseRefreshToken(token);
 	}
 	
 	public User getCurrentUser() {
 		UserDetails userDetails = getAuthentication();
+		if (userDetails instanceof AuthenticatedUser authenticatedUser && authenticatedUser.hasProfile()) {
+			return authenticatedUser.toUser();
+		}
 		if (userDetails != null) {
 			String username = userDetails.getUsername();
 			return userRepository.findByEmail(username)
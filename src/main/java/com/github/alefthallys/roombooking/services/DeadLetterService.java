@@ -0,0 +1,117 @@
+package com.github.alefthallys.roombooking.services;
+
+import com.github.alefthallys.roombooking.config.RabbitMQConfig;
+import com.github.alefthallys.roombooking.dtos.DeadLetter.DeadLetterDTO;
+import com.github.alefthallys.roombooking.dtos.DeadLetter.DeadLetterReplayDTO;
+import com.github.alefthallys.roombooking.messaging.EmailConsumerProperties;
+import com.github.alefthallys.roombooking.messaging.EmailRetryPublisher;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inspects and replays the email dead letter queue. Peeking pulls messages without acknowledging
+ * them and requeues them all at once, so it never removes anything from the queue.
+ */
+@Service
+@Slf4j
+public class DeadLetterService {
+	
+	public static final int DEFAULT_LIMIT = 20;
+	public static final int MAX_LIMIT = 100;
+	
+	private final RabbitTemplate rabbitTemplate;
+	private final EmailConsumerProperties emailConsumerProperties;
+	
+	public DeadLetterService(RabbitTemplate rabbitTemplate, EmailConsumerProperties emailConsumerProperties) {
+		this.rabbitTemplate = rabbitTemplate;
+		this.emailConsumerProperties = emailConsumerProperties;
+	}
+	
+	public static int resolveLimit(Integer limit) {
+		if (limit == null) {
+			return DEFAULT_LIMIT;
+		}
+		return Math.max(1, Math.min(limit, MAX_LIMIT));
+	}
+	
+	public List<DeadLetterDTO> peek(Integer limit) {
+		int resolvedLimit = resolveLimit(limit);
+		return rabbitTemplate.execute(channel -> {
+			List<DeadLetterDTO> deadLetters = new ArrayList<>(resolvedLimit);
+			long lastDeliveryTag = -1;
+			GetResponse response;
+			while (deadLetters.size() < resolvedLimit && (response = channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false)) != null) {
+				deadLetters.add(toDeadLetterDTO(response));
+				lastDeliveryTag = response.getEnvelope().getDeliveryTag();
+			}
+			if (lastDeliveryTag >= 0) {
+				channel.basicNack(lastDeliveryTag, true, true);
+			}
+			return deadLetters;
+		});
+	}
+	
+	/**
+	 * Each dead letter is acked only after the broker confirms its republished copy. If a confirm is
+	 * nacked or times out the channel is closed, which returns that message and the rest to the queue.
+	 */
+	public DeadLetterReplayDTO replay(Integer limit) {
+		int resolvedLimit = resolveLimit(limit);
+		long confirmTimeout = emailConsumerProperties.getReplayConfirmTimeout().toMillis();
+		int replayed = rabbitTemplate.execute(channel -> {
+			channel.confirmSelect();
+			int count = 0;
+			GetResponse response;
+			while (count < resolvedLimit && (response = channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false)) != null) {
+				channel.basicPublish(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY, withRetriesReset(response.getProps()), response.getBody());
+				channel.waitForConfirmsOrDie(confirmTimeout);
+				channel.basicAck(response.getEnvelope().getDeliveryTag(), false);
+				count++;
+			}
+			return count;
+		});
+		log.info("Replayed {} dead-lettered reservation confirmation emails", replayed);
+		return new DeadLetterReplayDTO(replayed);
+	}
+	
+	private static DeadLetterDTO toDeadLetterDTO(GetResponse response) {
+		Map<String, Object> headers = response.getProps().getHeaders() != null ? response.getProps().getHeaders() : Map.of();
+		Object retryCount = headers.get(EmailRetryPublisher.RETRY_COUNT_HEADER);
+		Object lastError = headers.get(EmailRetryPublisher.LAST_ERROR_HEADER);
+		return new DeadLetterDTO(
+				response.getProps().getMessageId(),
+				retryCount instanceof Number number ? number.intValue() : 0,
+				lastError != null ? lastError.toString() : null,
+				deathReason(headers.get("x-death")),
+				new String(response.getBody(), StandardCharsets.UTF_8)
+		);
+	}
+	
+	private static String deathReason(Object xDeath) {
+		if (xDeath instanceof List<?> deaths && !deaths.isEmpty() && deaths.get(0) instanceof Map<?, ?> death) {
+			Object reason = death.get("reason");
+			return reason != null ? reason.toString() : null;
+		}
+		return null;
+	}
+	
+	private static AMQP.BasicProperties withRetriesReset(AMQP.BasicProperties properties) {
+		Map<String, Object> headers = properties.getHeaders() != null ? new HashMap<>(properties.getHeaders()) : new HashMap<>();
+		headers.remove(EmailRetryPublisher.RETRY_COUNT_HEADER);
+		headers.remove(EmailRetryPublisher.LAST_ERROR_HEADER);
+		headers.remove("x-death");
+		headers.remove("x-first-death-exchange");
+		headers.remove("x-first-death-queue");
+		headers.remove("x-first-death-reason");
+		return properties.builder().headers(headers).build();
+	}
+}
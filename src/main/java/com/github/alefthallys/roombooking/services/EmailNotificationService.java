@@ -1,23 +1,59 @@
 package com.github.alefthallys.roombooking.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.alefthallys.roombooking.config.RabbitMQConfig;
 import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import com.github.alefthallys.roombooking.models.OutboxEvent;
+import com.github.alefthallys.roombooking.repositories.OutboxEventRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queues confirmation emails in the transactional outbox of the calling transaction, so a booking
+ * never waits on the broker and a rolled back booking never sends an email.
+ * {@link com.github.alefthallys.roombooking.messaging.OutboxRelay} publishes them afterwards.
+ */
 @Service
 @Slf4j
 public class EmailNotificationService {
 	
-	private final RabbitTemplate rabbitTemplate;
+	private final OutboxEventRepository outboxEventRepository;
+	private final ObjectMapper objectMapper;
 	
-	public EmailNotificationService(RabbitTemplate rabbitTemplate) {
-		this.rabbitTemplate = rabbitTemplate;
+	public EmailNotificationService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.objectMapper = objectMapper;
 	}
 	
+	@Transactional(propagation = Propagation.MANDATORY)
 	public void sendReservationConfirmationEmail(ReservationConfirmationEmailDTO emailDTO) {
-		log.info("Sending reservation confirmation email message for reservation ID: {}", emailDTO.reservationId());
-		rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY, emailDTO);
+		log.info("Queueing reservation confirmation email message for reservation ID: {}", emailDTO.reservationId());
+		outboxEventRepository.save(toOutboxEvent(emailDTO));
+	}
+	
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void sendReservationConfirmationEmails(List<ReservationConfirmationEmailDTO> emailDTOs) {
+		log.info("Queueing {} reservation confirmation email messages", emailDTOs.size());
+		outboxEventRepository.saveAll(emailDTOs.stream().map(this::toOutboxEvent).toList());
+	}
+	
+	private OutboxEvent toOutboxEvent(ReservationConfirmationEmailDTO emailDTO) {
+		OutboxEvent event = new OutboxEvent();
+		event.setExchange(RabbitMQConfig.EXCHANGE_NAME);
+		event.setRoutingKey(RabbitMQConfig.ROUTING_KEY);
+		event.setPayloadType(ReservationConfirmationEmailDTO.class.getName());
+		event.setCreatedAt(LocalDateTime.now());
+		try {
+			event.setPayload(objectMapper.writeValueAsString(emailDTO));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot serialize the confirmation email for reservation ID: " + emailDTO.reservationId(), e);
+		}
+		return event;
 	}
 }
@@ -0,0 +1,58 @@
+package com.github.alefthallys.roombooking.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs an update in its own transaction and replays it when the row's {@code @Version} moved
+ * underneath it, so concurrent edits never overwrite each other and no lock is held between the
+ * read and the write. Each attempt re-reads the entity; after {@link #MAX_ATTEMPTS} lost races the
+ * failure is rethrown and reported as 409.
+ */
+@Component
+@Slf4j
+public class OptimisticLockRetry {
+	
+	public static final int MAX_ATTEMPTS = 3;
+	
+	private final TransactionOperations transactionOperations;
+	
+	@Autowired
+	public OptimisticLockRetry(PlatformTransactionManager transactionManager) {
+		this(readCommitted(transactionManager));
+	}
+	
+	OptimisticLockRetry(TransactionOperations transactionOperations) {
+		this.transactionOperations = transactionOperations;
+	}
+	
+	/**
+	 * Updates take the room's row lock, and the reads after it must see the last commit to the room.
+	 */
+	private static TransactionTemplate readCommitted(PlatformTransactionManager transactionManager) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+		return transactionTemplate;
+	}
+	
+	public <T> T execute(Supplier<T> update) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return transactionOperations.execute(status -> update.get());
+			} catch (OptimisticLockingFailureException e) {
+				if (attempt == MAX_ATTEMPTS) {
+					throw e;
+				}
+				log.debug("Optimistic lock lost on attempt {}, retrying", attempt, e);
+			}
+		}
+	}
+}
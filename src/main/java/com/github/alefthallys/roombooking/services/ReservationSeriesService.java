@@ -0,0 +1,202 @@
+package com.github.alefthallys.roombooking.services;
+
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationOccurrenceDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesRequestDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesResponseDTO;
+import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationConflictException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.EntityReservationOccurrenceNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.EntityReservationSeriesNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidOccurrenceRangeException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidRecurrenceRuleException;
+import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.User.EntityUserNotFoundException;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.index.ReservationSeriesInterval;
+import com.github.alefthallys.roombooking.index.RoomBookings;
+import com.github.alefthallys.roombooking.index.RoomLockRegistry;
+import com.github.alefthallys.roombooking.mappers.ReservationSeriesMapper;
+import com.github.alefthallys.roombooking.models.ReservationSeries;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.recurrence.RecurrenceRule;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
+import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Books a room on every occurrence of a recurrence rule. Only the first occurrence and the rule are
+ * stored; occurrences are expanded on demand and cancelled ones are kept as a sparse set of dates.
+ */
+@Service
+public class ReservationSeriesService {
+	
+	private final ReservationSeriesRepository reservationSeriesRepository;
+	private final RoomRepository roomRepository;
+	private final UserRepository userRepository;
+	private final JwtTokenProvider jwtTokenProvider;
+	private final AuthService authService;
+	private final ReservationIndex reservationIndex;
+	private final RoomLockRegistry roomLockRegistry;
+	
+	public ReservationSeriesService(ReservationSeriesRepository reservationSeriesRepository, RoomRepository roomRepository, UserRepository userRepository, JwtTokenProvider jwtTokenProvider, AuthService authService, ReservationIndex reservationIndex, RoomLockRegistry roomLockRegistry) {
+		this.reservationSeriesRepository = reservationSeriesRepository;
+		this.roomRepository = roomRepository;
+		this.userRepository = userRepository;
+		this.jwtTokenProvider = jwtTokenProvider;
+		this.authService = authService;
+		this.reservationIndex = reservationIndex;
+		this.roomLockRegistry = roomLockRegistry;
+	}
+	
+	private static void validateIdOrThrowException(Long id) {
+		if (id == null || id <= 0) {
+			throw new IllegalArgumentException("Invalid reservation series ID: " + id);
+		}
+	}
+	
+	@Transactional(readOnly = true)
+	public ReservationSeriesResponseDTO findById(Long id) {
+		ReservationSeries series = findOwnedSeries(id);
+		return ReservationSeriesMapper.toDto(series);
+	}
+	
+	@Transactional(readOnly = true)
+	public List<ReservationOccurrenceDTO> findOccurrences(Long id, LocalDateTime from, LocalDateTime to) {
+		if (!from.isBefore(to)) {
+			throw new InvalidOccurrenceRangeException(from, to);
+		}
+		ReservationSeries series = findOwnedSeries(id);
+		return ReservationSeriesInterval.of(series).occurrencesBetween(from, to)
+				.map(occurrence -> ReservationSeriesMapper.toOccurrenceDto(series.getId(), occurrence))
+				.toList();
+	}
+	
+	@Transactional(isolation = Isolation.READ_COMMITTED)
+	public ReservationSeriesResponseDTO create(ReservationSeriesRequestDTO seriesDTO) {
+		RecurrenceRule rule = RecurrenceRule.parse(seriesDTO.recurrenceRule());
+		if (!rule.matchesFirstStart(seriesDTO.startDate())) {
+			throw new InvalidRecurrenceRuleException(seriesDTO.recurrenceRule(), "the start date must fall on one of the BYDAY weekdays");
+		}
+		
+		User currentUser = lockBookingUser();
+		Room roomById = lockRoom(seriesDTO.roomId());
+		RoomBookings bookings = reservationIndex.forLockedRoom(roomById.getId());
+		
+		ReservationSeries seriesToSave = new ReservationSeries();
+		seriesToSave.setRoom(roomById);
+		seriesToSave.setUser(currentUser);
+		seriesToSave.setStartDate(seriesDTO.startDate());
+		seriesToSave.setEndDate(seriesDTO.endDate());
+		seriesToSave.setRecurrenceRule(rule);
+		
+		ReservationSeriesInterval candidate = new ReservationSeriesInterval(null, roomById.getId(), currentUser.getId(),
+				seriesDTO.startDate(), seriesDTO.endDate(), rule, Set.of());
+		List<ReservationInterval> occurrences = expand(candidate, seriesDTO.recurrenceRule());
+		
+		checkSeriesConflict(bookings, roomById, candidate, occurrences.get(0).startDate(), occurrences.get(occurrences.size() - 1).endDate());
+		
+		ReservationSeries savedSeries = reservationSeriesRepository.save(seriesToSave);
+		bookings.addSeries(ReservationSeriesInterval.of(savedSeries));
+		return ReservationSeriesMapper.toDto(savedSeries);
+	}
+	
+	@Transactional(isolation = Isolation.READ_COMMITTED)
+	public void cancelOccurrence(Long id, LocalDate date) {
+		RoomBookings bookings = lockSeriesRoom(id);
+		ReservationSeries series = findOwnedSeries(id);
+		ReservationSeriesInterval previousInterval = ReservationSeriesInterval.of(series);
+		
+		boolean scheduled = previousInterval.occurrencesBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+				.anyMatch(occurrence -> occurrence.startDate().toLocalDate().equals(date));
+		if (!scheduled) {
+			throw new EntityReservationOccurrenceNotFoundException(id, date);
+		}
+		
+		Set<LocalDate> cancelledDates = new HashSet<>(series.getCancelledDates());
+		cancelledDates.add(date);
+		series.setCancelledDates(cancelledDates);
+		
+		ReservationSeries savedSeries = reservationSeriesRepository.save(series);
+		bookings.replaceSeries(previousInterval, ReservationSeriesInterval.of(savedSeries));
+	}
+	
+	@Transactional(isolation = Isolation.READ_COMMITTED)
+	public void delete(Long id) {
+		RoomBookings bookings = lockSeriesRoom(id);
+		ReservationSeries series = findOwnedSeries(id);
+		reservationSeriesRepository.delete(series);
+		bookings.removeSeries(ReservationSeriesInterval.of(series));
+	}
+	
+	/**
+	 * Locks the series' room before the series itself is loaded, so the cancelled dates it is
+	 * changed from are the ones committed by the previous holder of the room's lock.
+	 */
+	private RoomBookings lockSeriesRoom(Long id) {
+		validateIdOrThrowException(id);
+		Long roomId = reservationSeriesRepository.findRoomIdById(id)
+				.orElseThrow(() -> new EntityReservationSeriesNotFoundException(id));
+		Room room = lockRoom(roomId);
+		return reservationIndex.forLockedRoom(room.getId());
+	}
+	
+	/**
+	 * Shares the booking user's row lock with {@link UserService#delete(Long)}, which takes it
+	 * exclusively before reading the rooms to open, and is always taken before the room lock.
+	 */
+	private User lockBookingUser() {
+		Long userId = jwtTokenProvider.getCurrentUser().getId();
+		return userRepository.findByIdForShare(userId).orElseThrow(() -> new EntityUserNotFoundException(userId));
+	}
+	
+	private Room lockRoom(Long roomId) {
+		roomLockRegistry.lockUntilCompletion(roomId);
+		return roomRepository.findByIdForUpdate(roomId).orElseThrow(() -> new EntityRoomNotFoundException(roomId));
+	}
+	
+	private ReservationSeries findOwnedSeries(Long id) {
+		validateIdOrThrowException(id);
+		ReservationSeries series = reservationSeriesRepository.findById(id)
+				.orElseThrow(() -> new EntityReservationSeriesNotFoundException(id));
+		authService.validateUserOwnership(series.getUser());
+		return series;
+	}
+	
+	private static List<ReservationInterval> expand(ReservationSeriesInterval candidate, String rule) {
+		List<ReservationInterval> occurrences = candidate.occurrencesFrom(candidate.startDate())
+				.limit(RecurrenceRule.MAX_OCCURRENCES + 1L)
+				.toList();
+		if (occurrences.isEmpty()) {
+			throw new InvalidRecurrenceRuleException(rule, "the rule produces no occurrences");
+		}
+		if (occurrences.size() > RecurrenceRule.MAX_OCCURRENCES) {
+			throw new InvalidRecurrenceRuleException(rule, "the rule produces more than " + RecurrenceRule.MAX_OCCURRENCES + " occurrences");
+		}
+		for (int i = 1; i < occurrences.size(); i++) {
+			if (occurrences.get(i).startDate().isBefore(occurrences.get(i - 1).endDate())) {
+				throw new InvalidRecurrenceRuleException(rule, "consecutive occurrences overlap each other");
+			}
+		}
+		return occurrences;
+	}
+	
+	/**
+	 * Runs under the room's row lock, so the room's bookings have the final word.
+	 */
+	private void checkSeriesConflict(RoomBookings bookings, Room room, ReservationSeriesInterval candidate, LocalDateTime from, LocalDateTime to) {
+		bookings.findConflict(candidate, from, to).ifPresent(existing -> {
+			throw new EntityReservationConflictException(existing.startDate(), existing.endDate(), room.getName());
+		});
+	}
+}
@@ -1,41 +1,83 @@
 package com.github.alefthallys.roombooking.services;
 
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
+import com.github.alefthallys.roombooking.dtos.FieldErrorDTO;
 import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationUpdateRequestDTO;
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
+import com.github.alefthallys.roombooking.exceptions.Pagination.InvalidCursorException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationConflictException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.Reservation.ReservationBatchRejectedException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.User.EntityUserNotFoundException;
+import com.github.alefthallys.roombooking.index.IntervalTree;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.index.RoomBookings;
+import com.github.alefthallys.roombooking.index.RoomLockRegistry;
 import com.github.alefthallys.roombooking.mappers.ReservationMapper;
 import com.github.alefthallys.roombooking.models.Reservation;
 import com.github.alefthallys.roombooking.models.Room;
 import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.pagination.Cursor;
+import com.github.alefthallys.roombooking.pagination.CursorPages;
+import com.github.alefthallys.roombooking.pagination.ReservationSort;
+import com.github.alefthallys.roombooking.reminders.ReminderScheduler;
 import com.github.alefthallys.roombooking.repositories.ReservationRepository;
 import com.github.alefthallys.roombooking.repositories.RoomRepository;
+import com.github.alefthallys.roombooking.repositories.UserRepository;
 import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ReservationService {
 	
+	public static final String CREATE_TIMER = "roombooking.reservation.create";
+	public static final String CONFLICT_CHECK_TIMER = "roombooking.reservation.conflict.check";
+	
 	private final ReservationRepository reservationRepository;
 	private final RoomRepository roomRepository;
+	private final UserRepository userRepository;
 	private final JwtTokenProvider jwtTokenProvider;
 	private final AuthService authService;
 	private final EmailNotificationService emailNotificationService;
+	private final ReservationIndex reservationIndex;
+	private final RoomLockRegistry roomLockRegistry;
+	private final ReminderScheduler reminderScheduler;
+	private final OptimisticLockRetry optimisticLockRetry;
+	private final Timer createTimer;
+	private final Timer conflictCheckTimer;
 	
-	public ReservationService(ReservationRepository reservationRepository, RoomRepository roomRepository, JwtTokenProvider jwtTokenProvider, AuthService authService, EmailNotificationService emailNotificationService) {
+	public ReservationService(ReservationRepository reservationRepository, RoomRepository roomRepository, UserRepository userRepository, JwtTokenProvider jwtTokenProvider, AuthService authService, EmailNotificationService emailNotificationService, ReservationIndex reservationIndex, RoomLockRegistry roomLockRegistry, ReminderScheduler reminderScheduler, OptimisticLockRetry optimisticLockRetry, MeterRegistry meterRegistry) {
 		this.reservationRepository = reservationRepository;
 		this.roomRepository = roomRepository;
+		this.userRepository = userRepository;
 		this.jwtTokenProvider = jwtTokenProvider;
 		this.authService = authService;
 		this.emailNotificationService = emailNotificationService;
+		this.reservationIndex = reservationIndex;
+		this.roomLockRegistry = roomLockRegistry;
+		this.reminderScheduler = reminderScheduler;
+		this.optimisticLockRetry = optimisticLockRetry;
+		this.createTimer = meterRegistry.timer(CREATE_TIMER);
+		this.conflictCheckTimer = meterRegistry.timer(CONFLICT_CHECK_TIMER);
 	}
 	
 	private static void validateIdOrThrowException(Long id) {
@@ -45,11 +87,26 @@ public class ReservationService {
 	}
 	
 	@Transactional(readOnly = true)
-	public List<ReservationResponseDTO> findAll() {
-		return reservationRepository.findAll()
-				.stream()
-				.map(ReservationMapper::toDto)
-				.collect(Collectors.toList());
+	public CursorPageDTO<ReservationResponseDTO> findAll(String cursor, Integer size, ReservationSort sort) {
+		int pageSize = CursorPages.resolveSize(size);
+		Cursor after = Cursor.decode(cursor);
+		
+		if (sort == ReservationSort.START_DATE) {
+			List<Reservation> rows;
+			if (after == null) {
+				rows = reservationRepository.findAllByOrderByStartDateAscIdAsc(CursorPages.lookahead(pageSize));
+			} else if (after.startDate() == null) {
+				throw new InvalidCursorException(cursor);
+			} else {
+				rows = reservationRepository.findAfterStartDate(after.startDate(), after.id(), CursorPages.lookahead(pageSize));
+			}
+			return CursorPages.of(rows, pageSize, ReservationMapper::toDto,
+					reservation -> Cursor.ofStartDate(reservation.getStartDate(), reservation.getId()));
+		}
+		
+		Long afterId = after == null ? 0L : after.id();
+		List<Reservation> rows = reservationRepository.findByIdGreaterThanOrderByIdAsc(afterId, CursorPages.lookahead(pageSize));
+		return CursorPages.of(rows, pageSize, ReservationMapper::toDto, reservation -> Cursor.ofId(reservation.getId()));
 	}
 	
 	@Transactional(readOnly = true)
@@ -78,14 +135,17 @@ public class ReservationService {
 		return ReservationMapper.toDto(reservationById);
 	}
 	
-	@Transactional
+	@Transactional(isolation = Isolation.READ_COMMITTED)
 	public ReservationResponseDTO create(ReservationRequestDTO reservationDTO) {
-		validateRoomExists(reservationDTO.roomId());
-		
-		User currentUser = jwtTokenProvider.getCurrentUser();
-		Room roomById = roomRepository.findById(reservationDTO.roomId()).orElseThrow(() -> new EntityRoomNotFoundException(reservationDTO.roomId()));
+		return createTimer.record(() -> createReservation(reservationDTO));
+	}
+	
+	private ReservationResponseDTO createReservation(ReservationRequestDTO reservationDTO) {
+		User currentUser = lockBookingUser();
+		Room roomById = lockRoom(reservationDTO.roomId());
+		RoomBookings bookings = reservationIndex.forLockedRoom(roomById.getId());
 		
-		checkReservationConflict(reservationDTO.roomId(), reservationDTO.startDate(), reservationDTO.endDate(), null);
+		checkReservationConflict(bookings, roomById, reservationDTO.startDate(), reservationDTO.endDate(), null);
 		
 		Reservation reservationToSave = new Reservation();
 		reservationToSave.setRoom(roomById);
@@ -94,6 +154,8 @@ public class ReservationService {
 		reservationToSave.setEndDate(reservationDTO.endDate());
 		
 		Reservation savedReservation = reservationRepository.save(reservationToSave);
+		bookings.add(ReservationInterval.of(savedReservation));
+		reminderScheduler.schedule(savedReservation.getId(), savedReservation.getStartDate());
 		ReservationResponseDTO responseDTO = ReservationMapper.toDto(savedReservation);
 		
 		emailNotificationService.sendReservationConfirmationEmail(
@@ -110,30 +172,85 @@ public class ReservationService {
 		return responseDTO;
 	}
 	
-	@Transactional
-	public ReservationResponseDTO update(Long id, ReservationUpdateRequestDTO reservationDTO) {
-		validateIdOrThrowException(id);
+	@Transactional(isolation = Isolation.READ_COMMITTED)
+	public List<ReservationResponseDTO> createBatch(List<ReservationRequestDTO> reservationDTOs) {
+		User currentUser = lockBookingUser();
+		Set<Long> roomIds = reservationDTOs.stream().map(ReservationRequestDTO::roomId).collect(Collectors.toSet());
+		roomLockRegistry.lockUntilCompletion(roomIds);
+		Map<Long, Room> roomsById = roomRepository.findAllByIdForUpdate(roomIds).stream()
+				.collect(Collectors.toMap(Room::getId, Function.identity()));
+		Map<Long, RoomBookings> bookingsByRoom = roomsById.keySet().stream()
+				.collect(Collectors.toMap(Function.identity(), reservationIndex::forLockedRoom));
 		
-		Reservation reservationById = reservationRepository.findById(id).orElseThrow(
-				() -> new EntityReservationNotFoundException(id));
+		List<FieldErrorDTO> itemErrors = checkBatchConflicts(reservationDTOs, roomsById, bookingsByRoom);
+		if (!itemErrors.isEmpty()) {
+			throw new ReservationBatchRejectedException(itemErrors, reservationDTOs.size());
+		}
 		
-		authService.validateUserOwnership(reservationById.getUser());
+		List<Reservation> reservationsToSave = reservationDTOs.stream()
+				.map(reservationDTO -> {
+					Reservation reservation = new Reservation();
+					reservation.setRoom(roomsById.get(reservationDTO.roomId()));
+					reservation.setUser(currentUser);
+					reservation.setStartDate(reservationDTO.startDate());
+					reservation.setEndDate(reservationDTO.endDate());
+					return reservation;
+				})
+				.toList();
 		
-		checkReservationConflict(reservationById.getRoom().getId(), reservationDTO.startDate(), reservationDTO.endDate(), id);
+		List<Reservation> savedReservations = reservationRepository.saveAll(reservationsToSave);
+		savedReservations.forEach(savedReservation -> {
+			bookingsByRoom.get(savedReservation.getRoom().getId()).add(ReservationInterval.of(savedReservation));
+			reminderScheduler.schedule(savedReservation.getId(), savedReservation.getStartDate());
+		});
 		
-		if (reservationDTO.startDate() != null) {
-			reservationById.setStartDate(reservationDTO.startDate());
-		}
+		emailNotificationService.sendReservationConfirmationEmails(savedReservations.stream()
+				.map(savedReservation -> new ReservationConfirmationEmailDTO(
+						currentUser.getEmail(),
+						currentUser.getName(),
+						savedReservation.getRoom().getName(),
+						savedReservation.getStartDate(),
+						savedReservation.getEndDate(),
+						savedReservation.getId()
+				))
+				.toList());
 		
-		if (reservationDTO.endDate() != null) {
-			reservationById.setEndDate(reservationDTO.endDate());
-		}
+		return savedReservations.stream().map(ReservationMapper::toDto).toList();
+	}
+	
+	public ReservationResponseDTO update(Long id, ReservationUpdateRequestDTO reservationDTO, Long expectedVersion) {
+		validateIdOrThrowException(id);
 		
-		Reservation savedReservation = reservationRepository.save(reservationById);
-		return ReservationMapper.toDto(savedReservation);
+		return optimisticLockRetry.execute(() -> {
+			Reservation reservationById = reservationRepository.findById(id).orElseThrow(
+					() -> new EntityReservationNotFoundException(id));
+			
+			authService.validateUserOwnership(reservationById.getUser());
+			if (expectedVersion != null && !expectedVersion.equals(reservationById.getVersion())) {
+				throw new EntityVersionMismatchException("reservation", id, expectedVersion, reservationById.getVersion());
+			}
+			
+			Room room = lockRoom(reservationById.getRoom().getId());
+			RoomBookings bookings = reservationIndex.forLockedRoom(room.getId());
+			checkReservationConflict(bookings, room, reservationDTO.startDate(), reservationDTO.endDate(), id);
+			ReservationInterval previousInterval = ReservationInterval.of(reservationById);
+			
+			if (reservationDTO.startDate() != null) {
+				reservationById.setStartDate(reservationDTO.startDate());
+			}
+			
+			if (reservationDTO.endDate() != null) {
+				reservationById.setEndDate(reservationDTO.endDate());
+			}
+			
+			Reservation savedReservation = reservationRepository.saveAndFlush(reservationById);
+			bookings.replace(previousInterval, ReservationInterval.of(savedReservation));
+			reminderScheduler.reschedule(savedReservation.getId(), previousInterval.startDate(), savedReservation.getStartDate());
+			return ReservationMapper.toDto(savedReservation);
+		});
 	}
 	
-	@Transactional
+	@Transactional(isolation = Isolation.READ_COMMITTED)
 	public void delete(Long id) {
 		validateIdOrThrowException(id);
 		
@@ -141,29 +258,73 @@ public class ReservationService {
 				() -> new EntityReservationNotFoundException(id));
 		
 		authService.validateUserOwnership(reservationById.getUser());
+		Room room = lockRoom(reservationById.getRoom().getId());
+		RoomBookings bookings = reservationIndex.forLockedRoom(room.getId());
 		reservationRepository.delete(reservationById);
+		bookings.remove(ReservationInterval.of(reservationById));
+		reminderScheduler.cancel(reservationById.getId(), reservationById.getStartDate());
 	}
 	
-	private void validateRoomExists(Long roomId) {
-		if (!roomRepository.existsById(roomId)) {
-			throw new EntityRoomNotFoundException(roomId);
-		}
+	/**
+	 * Takes the room's row lock for the rest of the transaction, so the conflict check and the
+	 * write of one booking are never interleaved with another booking of the same room on any
+	 * instance. The in-process stripe is taken first and only keeps local bookings off the row lock.
+	 * Booking transactions run at READ COMMITTED, so every read made after the lock sees the last
+	 * commit to the room rather than a snapshot taken before it.
+	 */
+	/**
+	 * Takes a shared lock on the booking user's row before any room lock. Deleting a user takes the
+	 * row exclusively before it reads the rooms to open, so it never misses a booking still being
+	 * written to a room it has not locked.
+	 */
+	private User lockBookingUser() {
+		Long userId = jwtTokenProvider.getCurrentUser().getId();
+		return userRepository.findByIdForShare(userId).orElseThrow(() -> new EntityUserNotFoundException(userId));
 	}
 	
-	@Transactional(readOnly = true)
-	public void checkReservationConflict(Long roomId, LocalDateTime newStartDate, LocalDateTime newEndDate, Long currentReservationId) {
-		List<Reservation> existingReservations = reservationRepository.findByRoomIdAndStartDateBeforeAndEndDateAfter(
-				roomId, newEndDate, newStartDate);
+	private Room lockRoom(Long roomId) {
+		roomLockRegistry.lockUntilCompletion(roomId);
+		return roomRepository.findByIdForUpdate(roomId).orElseThrow(() -> new EntityRoomNotFoundException(roomId));
+	}
+	
+	private List<FieldErrorDTO> checkBatchConflicts(List<ReservationRequestDTO> reservationDTOs, Map<Long, Room> roomsById, Map<Long, RoomBookings> bookingsByRoom) {
+		Map<Long, IntervalTree> batchIntervals = new HashMap<>();
+		List<FieldErrorDTO> itemErrors = new ArrayList<>();
 		
-		for (Reservation existingReservation : existingReservations) {
-			if (currentReservationId != null && existingReservation.getId().equals(currentReservationId)) {
+		for (int i = 0; i < reservationDTOs.size(); i++) {
+			ReservationRequestDTO reservationDTO = reservationDTOs.get(i);
+			String field = "reservations[" + i + "]";
+			Room room = roomsById.get(reservationDTO.roomId());
+			if (room == null) {
+				itemErrors.add(new FieldErrorDTO(field, new EntityRoomNotFoundException(reservationDTO.roomId()).getMessage(), reservationDTO));
 				continue;
 			}
-			throw new EntityReservationConflictException(
-					existingReservation.getStartDate(),
-					existingReservation.getEndDate(),
-					existingReservation.getRoom().getName()
-			);
+			
+			Optional<ReservationInterval> conflict = bookingsByRoom.get(room.getId())
+					.findConflict(reservationDTO.startDate(), reservationDTO.endDate(), null);
+			
+			IntervalTree batchTree = batchIntervals.computeIfAbsent(room.getId(), roomId -> new IntervalTree());
+			if (conflict.isEmpty()) {
+				conflict = batchTree.findFirstOverlap(reservationDTO.startDate(), reservationDTO.endDate(), null);
+			}
+			
+			if (conflict.isPresent()) {
+				String message = new EntityReservationConflictException(conflict.get().startDate(), conflict.get().endDate(), room.getName()).getMessage();
+				itemErrors.add(new FieldErrorDTO(field, message, reservationDTO));
+			} else {
+				batchTree.insert(new ReservationInterval((long) i, room.getId(), null, reservationDTO.startDate(), reservationDTO.endDate()));
+			}
 		}
+		return itemErrors;
+	}
+	
+	/**
+	 * Answered by the room's bookings alone: they are current while the room's row lock is held.
+	 */
+	private void checkReservationConflict(RoomBookings bookings, Room room, LocalDateTime newStartDate, LocalDateTime newEndDate, Long currentReservationId) {
+		conflictCheckTimer.record(() -> bookings.findConflict(newStartDate, newEndDate, currentReservationId)
+				.ifPresent(conflict -> {
+					throw new EntityReservationConflictException(conflict.startDate(), conflict.endDate(), room.getName());
+				}));
 	}
 }
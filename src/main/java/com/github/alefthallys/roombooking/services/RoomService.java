@@ -1,25 +1,38 @@
 package com.github.alefthallys.roombooking.services;
 
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.Room.InvalidAvailabilityRangeException;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.RoomAvailabilityIndex;
 import com.github.alefthallys.roombooking.mappers.RoomMapper;
 import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.pagination.Cursor;
+import com.github.alefthallys.roombooking.pagination.CursorPages;
 import com.github.alefthallys.roombooking.repositories.RoomRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class RoomService {
 	
 	private final RoomRepository roomRepository;
+	private final ReservationIndex reservationIndex;
+	private final RoomAvailabilityIndex roomAvailabilityIndex;
+	private final OptimisticLockRetry optimisticLockRetry;
 	
-	public RoomService(RoomRepository roomRepository) {
+	public RoomService(RoomRepository roomRepository, ReservationIndex reservationIndex, RoomAvailabilityIndex roomAvailabilityIndex, OptimisticLockRetry optimisticLockRetry) {
 		this.roomRepository = roomRepository;
+		this.reservationIndex = reservationIndex;
+		this.roomAvailabilityIndex = roomAvailabilityIndex;
+		this.optimisticLockRetry = optimisticLockRetry;
 	}
 	
 	private static void validateIdOrThrowException(Long id) {
@@ -29,11 +42,13 @@ public class RoomService {
 	}
 	
 	@Transactional(readOnly = true)
-	public List<RoomResponseDTO> findAll() {
-		return roomRepository.findAll()
-				.stream()
-				.map(RoomMapper::toDto)
-				.collect(Collectors.toList());
+	public CursorPageDTO<RoomResponseDTO> findAll(String cursor, Integer size) {
+		int pageSize = CursorPages.resolveSize(size);
+		Cursor after = Cursor.decode(cursor);
+		Long afterId = after == null ? 0L : after.id();
+		
+		List<Room> rows = roomRepository.findByIdGreaterThanOrderByIdAsc(afterId, CursorPages.lookahead(pageSize));
+		return CursorPages.of(rows, pageSize, RoomMapper::toDto, room -> Cursor.ofId(room.getId()));
 	}
 	
 	@Transactional(readOnly = true)
@@ -44,29 +59,48 @@ public class RoomService {
 				.orElseThrow(() -> new EntityRoomNotFoundException(id));
 	}
 	
+	public List<RoomResponseDTO> findAvailable(LocalDateTime from, LocalDateTime to, Integer minCapacity, String location) {
+		if (!from.isBefore(to)) {
+			throw new InvalidAvailabilityRangeException(from, to);
+		}
+		if (from.isBefore(LocalDateTime.now())) {
+			throw new InvalidAvailabilityRangeException(from);
+		}
+		int capacity = minCapacity == null ? 0 : minCapacity;
+		String roomLocation = location == null || location.isBlank() ? null : location.trim();
+		return roomAvailabilityIndex.findAvailable(from, to, capacity, roomLocation);
+	}
+	
 	@Transactional
 	public RoomResponseDTO create(RoomRequestDTO roomRequestDTO) {
 		verifyIfRoomExist(roomRequestDTO);
 		Room room = RoomMapper.toEntity(roomRequestDTO);
 		room = roomRepository.save(room);
+		roomAvailabilityIndex.roomsChanged();
 		return RoomMapper.toDto(room);
 	}
 	
-	@Transactional
-	public RoomResponseDTO update(Long id, RoomRequestDTO roomRequestDTO) {
+	public RoomResponseDTO update(Long id, RoomRequestDTO roomRequestDTO, Long expectedVersion) {
 		validateIdOrThrowException(id);
-		verifyIfRoomExist(roomRequestDTO);
-		
-		Room room = roomRepository.findById(id)
-				.orElseThrow(() -> new EntityRoomNotFoundException(id));
 		
-		room.setName(roomRequestDTO.name());
-		room.setDescription(roomRequestDTO.description());
-		room.setCapacity(roomRequestDTO.capacity());
-		room.setLocation(roomRequestDTO.location());
-		
-		room = roomRepository.save(room);
-		return RoomMapper.toDto(room);
+		return optimisticLockRetry.execute(() -> {
+			verifyIfRoomExist(roomRequestDTO);
+			
+			Room room = roomRepository.findById(id)
+					.orElseThrow(() -> new EntityRoomNotFoundException(id));
+			if (expectedVersion != null && !expectedVersion.equals(room.getVersion())) {
+				throw new EntityVersionMismatchException("room", id, expectedVersion, room.getVersion());
+			}
+			
+			room.setName(roomRequestDTO.name());
+			room.setDescription(roomRequestDTO.description());
+			room.setCapacity(roomRequestDTO.capacity());
+			room.setLocation(roomRequestDTO.location());
+			
+			room = roomRepository.saveAndFlush(room);
+			roomAvailabilityIndex.roomsChanged();
+			return RoomMapper.toDto(room);
+		});
 	}
 	
 	@Transactional
@@ -75,6 +109,8 @@ public class RoomService {
 		Room room = roomRepository.findById(id)
 				.orElseThrow(() -> new EntityRoomNotFoundException(id));
 		roomRepository.delete(room);
+		reservationIndex.removeRoom(room.getId());
+		roomAvailabilityIndex.roomsChanged();
 	}
 	
 	private void verifyIfRoomExist(RoomRequestDTO roomRequestDTO) {
@@ -1,29 +1,55 @@
 package com.github.alefthallys.roombooking.services;
 
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserRequestDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserUpdateRequestDTO;
 import com.github.alefthallys.roombooking.exceptions.User.EntityUserAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.User.EntityUserNotFoundException;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.RoomLockRegistry;
 import com.github.alefthallys.roombooking.mappers.UserMapper;
 import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.pagination.Cursor;
+import com.github.alefthallys.roombooking.pagination.CursorPages;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
 import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.github.alefthallys.roombooking.security.PrincipalCache;
+import com.github.alefthallys.roombooking.security.TokenDenyList;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class UserService {
 	
 	private final UserRepository userRepository;
+	private final ReservationRepository reservationRepository;
+	private final ReservationSeriesRepository reservationSeriesRepository;
+	private final RoomRepository roomRepository;
 	private final PasswordEncoder passwordEncoder;
+	private final ReservationIndex reservationIndex;
+	private final RoomLockRegistry roomLockRegistry;
+	private final PrincipalCache principalCache;
+	private final TokenDenyList tokenDenyList;
 	
-	public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+	public UserService(UserRepository userRepository, ReservationRepository reservationRepository, ReservationSeriesRepository reservationSeriesRepository, RoomRepository roomRepository, PasswordEncoder passwordEncoder, ReservationIndex reservationIndex, RoomLockRegistry roomLockRegistry, PrincipalCache principalCache, TokenDenyList tokenDenyList) {
 		this.userRepository = userRepository;
+		this.reservationRepository = reservationRepository;
+		this.reservationSeriesRepository = reservationSeriesRepository;
+		this.roomRepository = roomRepository;
 		this.passwordEncoder = passwordEncoder;
+		this.reservationIndex = reservationIndex;
+		this.roomLockRegistry = roomLockRegistry;
+		this.principalCache = principalCache;
+		this.tokenDenyList = tokenDenyList;
 	}
 	
 	private static void validateIdOrThrowException(Long id) {
@@ -33,11 +59,13 @@ public class UserService {
 	}
 	
 	@Transactional(readOnly = true)
-	public List<UserResponseDTO> findAll() {
-		return userRepository.findAll()
-				.stream()
-				.map(UserMapper::toDto)
-				.collect(Collectors.toList());
+	public CursorPageDTO<UserResponseDTO> findAll(String cursor, Integer size) {
+		int pageSize = CursorPages.resolveSize(size);
+		Cursor after = Cursor.decode(cursor);
+		Long afterId = after == null ? 0L : after.id();
+		
+		List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, CursorPages.lookahead(pageSize));
+		return CursorPages.of(rows, pageSize, UserMapper::toDto, user -> Cursor.ofId(user.getId()));
 	}
 	
 	@Transactional(readOnly = true)
@@ -70,14 +98,33 @@ public class UserService {
 		user.setPassword(passwordEncoder.encode(userUpdateRequestDTO.password()));
 		
 		user = userRepository.save(user);
+		principalCache.invalidate(user.getEmail());
+		tokenDenyList.deny(user.getEmail());
 		return UserMapper.toDto(user);
 	}
 	
-	@Transactional
+	/**
+	 * The user's reservations and series go with the user, so every room they booked is locked
+	 * and opened first, like any other change to a room's bookings. The user's row is locked before
+	 * the rooms are read: bookings share that lock, so none of the user's bookings can still be in
+	 * flight to a room missing from the list.
+	 */
+	@Transactional(isolation = Isolation.READ_COMMITTED)
 	public void delete(Long id) {
 		validateIdOrThrowException(id);
-		User user = userRepository.findById(id)
+		User user = userRepository.findByIdForUpdate(id)
 				.orElseThrow(() -> new EntityUserNotFoundException(id));
+		
+		Set<Long> roomIds = new HashSet<>(reservationRepository.findRoomIdsByUserId(user.getId()));
+		roomIds.addAll(reservationSeriesRepository.findRoomIdsByUserId(user.getId()));
+		if (!roomIds.isEmpty()) {
+			roomLockRegistry.lockUntilCompletion(roomIds);
+			roomRepository.findAllByIdForUpdate(roomIds)
+					.forEach(room -> reservationIndex.forLockedRoom(room.getId()).removeUser(user.getId()));
+		}
+		
 		userRepository.delete(user);
+		principalCache.invalidate(user.getEmail());
+		tokenDenyList.deny(user.getEmail());
 	}
 }
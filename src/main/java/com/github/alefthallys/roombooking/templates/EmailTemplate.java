@@ -0,0 +1,109 @@
+package com.github.alefthallys.roombooking.templates;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Template compiled once into alternating literal and {@code {{variable}}} segments. Rendering
+ * appends straight into a buffer, HTML-escaping every value on the way unless the template is
+ * plain text.
+ */
+public final class EmailTemplate {
+	
+	private static final Pattern VARIABLE_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9]*");
+	
+	private final String name;
+	private final String[] literals;
+	private final String[] variables;
+	private final boolean html;
+	private final int literalLength;
+	
+	private EmailTemplate(String name, String[] literals, String[] variables, boolean html) {
+		this.name = name;
+		this.literals = literals;
+		this.variables = variables;
+		this.html = html;
+		int literalLength = 0;
+		for (String literal : literals) {
+			literalLength += literal.length();
+		}
+		this.literalLength = literalLength;
+	}
+	
+	public static EmailTemplate compile(String name, String source, boolean html) {
+		List<String> literals = new ArrayList<>();
+		List<String> variables = new ArrayList<>();
+		int position = 0;
+		int open;
+		while ((open = source.indexOf("{{", position)) >= 0) {
+			int close = source.indexOf("}}", open + 2);
+			if (close < 0) {
+				throw new IllegalArgumentException("Template '" + name + "' has an unclosed '{{' at offset " + open);
+			}
+			String variable = source.substring(open + 2, close).trim();
+			if (!VARIABLE_NAME.matcher(variable).matches()) {
+				throw new IllegalArgumentException("Template '" + name + "' has an invalid variable '" + variable + "' at offset " + open);
+			}
+			literals.add(source.substring(position, open));
+			variables.add(variable);
+			position = close + 2;
+		}
+		literals.add(source.substring(position));
+		return new EmailTemplate(name, literals.toArray(String[]::new), variables.toArray(String[]::new), html);
+	}
+	
+	public Set<String> variables() {
+		return new LinkedHashSet<>(List.of(variables));
+	}
+	
+	/**
+	 * Renders into a buffer sized from the compiled literals plus every value spliced in, repeated
+	 * variables included, so only HTML escaping can make it grow.
+	 */
+	public String render(Map<String, String> model) {
+		int capacity = literalLength;
+		for (String variable : variables) {
+			String value = model.get(variable);
+			if (value != null) {
+				capacity += value.length();
+			}
+		}
+		StringBuilder out = new StringBuilder(capacity);
+		renderTo(out, model);
+		return out.toString();
+	}
+	
+	public void renderTo(StringBuilder out, Map<String, String> model) {
+		out.append(literals[0]);
+		for (int i = 0; i < variables.length; i++) {
+			String value = model.get(variables[i]);
+			if (value == null) {
+				throw new IllegalArgumentException("Template '" + name + "' is missing a value for '" + variables[i] + "'");
+			}
+			if (html) {
+				appendEscaped(out, value);
+			} else {
+				out.append(value);
+			}
+			out.append(literals[i + 1]);
+		}
+	}
+	
+	private static void appendEscaped(StringBuilder out, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '&' -> out.append("&amp;");
+				case '<' -> out.append("&lt;");
+				case '>' -> out.append("&gt;");
+				case '"' -> out.append("&quot;");
+				case '\'' -> out.append("&#39;");
+				default -> out.append(c);
+			}
+		}
+	}
+}
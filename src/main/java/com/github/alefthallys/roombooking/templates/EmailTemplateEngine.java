@@ -0,0 +1,82 @@
+package com.github.alefthallys.roombooking.templates;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Loads every email template from {@code classpath:templates/email/<language>/} at startup. Each
+ * body is spliced into the language's {@code layout.html} at its {@code {{> body}}} marker and
+ * compiled once; subjects come from {@code subjects.properties}. Each render sizes its buffers from
+ * the compiled template rather than pooling them per thread, since a virtual thread lives for one
+ * request only. Unknown languages fall back to Portuguese.
+ */
+@Component
+public class EmailTemplateEngine {
+	
+	static final List<String> LANGUAGES = List.of("pt", "en");
+	private static final String DEFAULT_LANGUAGE = "pt";
+	private static final String BODY_PARTIAL = "{{> body}}";
+	
+	private final Map<String, Map<EmailTemplateType, CompiledEmail>> templates = new HashMap<>();
+	
+	public EmailTemplateEngine() {
+		for (String language : LANGUAGES) {
+			String layout = read(language + "/layout.html");
+			if (!layout.contains(BODY_PARTIAL)) {
+				throw new IllegalStateException("Email layout for '" + language + "' has no " + BODY_PARTIAL + " marker");
+			}
+			Properties subjects = readProperties(language + "/subjects.properties");
+			
+			Map<EmailTemplateType, CompiledEmail> byType = new EnumMap<>(EmailTemplateType.class);
+			for (EmailTemplateType type : EmailTemplateType.values()) {
+				String name = language + "/" + type.fileName();
+				String subject = subjects.getProperty(type.fileName());
+				if (subject == null) {
+					throw new IllegalStateException("Email template '" + name + "' has no subject");
+				}
+				byType.put(type, new CompiledEmail(
+						EmailTemplate.compile(name + ".subject", subject, false),
+						EmailTemplate.compile(name, layout.replace(BODY_PARTIAL, read(name + ".html")), true)));
+			}
+			templates.put(language, byType);
+		}
+	}
+	
+	public RenderedEmail render(EmailTemplateType type, Locale locale, Map<String, String> model) {
+		CompiledEmail email = templates.getOrDefault(locale.getLanguage(), templates.get(DEFAULT_LANGUAGE)).get(type);
+		return new RenderedEmail(email.subject().render(model), email.body().render(model));
+	}
+	
+	private static String read(String path) {
+		try (InputStream in = new ClassPathResource("templates/email/" + path).getInputStream()) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read email template " + path, e);
+		}
+	}
+	
+	private static Properties readProperties(String path) {
+		Properties properties = new Properties();
+		try (Reader reader = new InputStreamReader(new ClassPathResource("templates/email/" + path).getInputStream(), StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read email subjects " + path, e);
+		}
+		return properties;
+	}
+	
+	private record CompiledEmail(EmailTemplate subject, EmailTemplate body) {
+	}
+}
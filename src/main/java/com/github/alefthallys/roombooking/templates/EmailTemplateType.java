@@ -0,0 +1,14 @@
+package com.github.alefthallys.roombooking.templates;
+
+import java.util.Locale;
+
+public enum EmailTemplateType {
+	CONFIRMATION,
+	UPDATE,
+	CANCELLATION,
+	REMINDER;
+	
+	String fileName() {
+		return name().toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,4 @@
+package com.github.alefthallys.roombooking.templates;
+
+public record RenderedEmail(String subject, String html) {
+}
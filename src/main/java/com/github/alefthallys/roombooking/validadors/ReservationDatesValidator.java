@@ -3,6 +3,7 @@ package com.github.alefthallys.roombooking.validadors;
 import com.github.alefthallys.roombooking.annotations.ValidReservationDates;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationUpdateRequestDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesRequestDTO;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
@@ -18,6 +19,10 @@ public class ReservationDatesValidator implements ConstraintValidator<ValidReser
 		if (value instanceof ReservationUpdateRequestDTO dto) {
 			return isValidDates(dto.startDate(), dto.endDate());
 		}
+		
+		if (value instanceof ReservationSeriesRequestDTO dto) {
+			return isValidDates(dto.startDate(), dto.endDate());
+		}
 		return false;
 	}
 	
@@ -0,0 +1,24 @@
+CREATE TABLE IF NOT EXISTS `room_booking`.`reservation_series`
+(
+    `id`                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+    `start_date`         DATETIME(6)  NOT NULL,
+    `end_date`           DATETIME(6)  NOT NULL,
+    `recurrence_rule`    VARCHAR(255) NOT NULL,
+    `user_id`            BIGINT       NOT NULL,
+    `room_id`            BIGINT       NOT NULL,
+    `created_by`         VARCHAR(255),
+    `created_date`       DATETIME,
+    `last_modified_by`   VARCHAR(255),
+    `last_modified_date` DATETIME,
+    INDEX `idx_reservation_series_room` (`room_id`),
+    CONSTRAINT `fk_reservation_series_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE,
+    CONSTRAINT `fk_reservation_series_room` FOREIGN KEY (`room_id`) REFERENCES `rooms` (`id`) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS `room_booking`.`reservation_series_exceptions`
+(
+    `series_id`       BIGINT NOT NULL,
+    `occurrence_date` DATE   NOT NULL,
+    PRIMARY KEY (`series_id`, `occurrence_date`),
+    CONSTRAINT `fk_reservation_series_exceptions_series` FOREIGN KEY (`series_id`) REFERENCES `reservation_series` (`id`) ON DELETE CASCADE
+);
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS `room_booking`.`outbox_events`
+(
+    `id`           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    `exchange`     VARCHAR(255) NOT NULL,
+    `routing_key`  VARCHAR(255) NOT NULL,
+    `payload_type` VARCHAR(255) NOT NULL,
+    `payload`      TEXT         NOT NULL,
+    `attempts`     INT          NOT NULL DEFAULT 0,
+    `created_at`   DATETIME(6)  NOT NULL
+);
@@ -0,0 +1,33 @@
+-- Ids now come from pooled sequences instead of AUTO_INCREMENT so Hibernate can batch inserts.
+-- Each sequence value is the top of a block of 50 ids, so every sequence starts 50 past the
+-- current maximum id and the first block begins right after the existing rows.
+
+SET @start = (SELECT COALESCE(MAX(`id`), 0) + 50 FROM `room_booking`.`users`);
+SET @ddl = CONCAT('CREATE SEQUENCE `room_booking`.`users_seq` START WITH ', @start, ' INCREMENT BY 50');
+PREPARE create_sequence FROM @ddl;
+EXECUTE create_sequence;
+DEALLOCATE PREPARE create_sequence;
+
+SET @start = (SELECT COALESCE(MAX(`id`), 0) + 50 FROM `room_booking`.`rooms`);
+SET @ddl = CONCAT('CREATE SEQUENCE `room_booking`.`rooms_seq` START WITH ', @start, ' INCREMENT BY 50');
+PREPARE create_sequence FROM @ddl;
+EXECUTE create_sequence;
+DEALLOCATE PREPARE create_sequence;
+
+SET @start = (SELECT COALESCE(MAX(`id`), 0) + 50 FROM `room_booking`.`reservations`);
+SET @ddl = CONCAT('CREATE SEQUENCE `room_booking`.`reservations_seq` START WITH ', @start, ' INCREMENT BY 50');
+PREPARE create_sequence FROM @ddl;
+EXECUTE create_sequence;
+DEALLOCATE PREPARE create_sequence;
+
+SET @start = (SELECT COALESCE(MAX(`id`), 0) + 50 FROM `room_booking`.`reservation_series`);
+SET @ddl = CONCAT('CREATE SEQUENCE `room_booking`.`reservation_series_seq` START WITH ', @start, ' INCREMENT BY 50');
+PREPARE create_sequence FROM @ddl;
+EXECUTE create_sequence;
+DEALLOCATE PREPARE create_sequence;
+
+SET @start = (SELECT COALESCE(MAX(`id`), 0) + 50 FROM `room_booking`.`outbox_events`);
+SET @ddl = CONCAT('CREATE SEQUENCE `room_booking`.`outbox_events_seq` START WITH ', @start, ' INCREMENT BY 50');
+PREPARE create_sequence FROM @ddl;
+EXECUTE create_sequence;
+DEALLOCATE PREPARE create_sequence;
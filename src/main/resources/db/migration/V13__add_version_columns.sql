@@ -0,0 +1,13 @@
+-- Optimistic locking: every auditable entity carries a version that Hibernate checks and bumps on update.
+
+ALTER TABLE `room_booking`.`users`
+    ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE `room_booking`.`rooms`
+    ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE `room_booking`.`reservations`
+    ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE `room_booking`.`reservation_series`
+    ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS `room_booking`.`idempotency_keys`
+(
+    `id`          VARCHAR(64) PRIMARY KEY,
+    `fingerprint` VARCHAR(64) NOT NULL,
+    `response`    TEXT,
+    `created_at`  DATETIME(6) NOT NULL,
+    `expires_at`  DATETIME(6) NOT NULL
+);
+
+CREATE INDEX `idx_idempotency_keys_expires_at` ON `room_booking`.`idempotency_keys` (`expires_at`);
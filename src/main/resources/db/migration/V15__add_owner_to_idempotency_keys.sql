@@ -0,0 +1,2 @@
+ALTER TABLE `room_booking`.`idempotency_keys`
+    ADD COLUMN `owner` VARCHAR(36) NOT NULL DEFAULT '' AFTER `fingerprint`;
@@ -0,0 +1,23 @@
+ALTER TABLE `room_booking`.`outbox_events`
+    ADD COLUMN `next_attempt_at` DATETIME(6) NULL AFTER `attempts`;
+
+UPDATE `room_booking`.`outbox_events`
+SET `next_attempt_at` = `created_at`;
+
+ALTER TABLE `room_booking`.`outbox_events`
+    MODIFY COLUMN `next_attempt_at` DATETIME(6) NOT NULL;
+
+CREATE INDEX `idx_outbox_events_next_attempt_at` ON `room_booking`.`outbox_events` (`next_attempt_at`, `id`);
+
+CREATE TABLE IF NOT EXISTS `room_booking`.`outbox_dead_letters`
+(
+    `id`           BIGINT PRIMARY KEY,
+    `exchange`     VARCHAR(255)  NOT NULL,
+    `routing_key`  VARCHAR(255)  NOT NULL,
+    `payload_type` VARCHAR(255)  NOT NULL,
+    `payload`      TEXT          NOT NULL,
+    `attempts`     INT           NOT NULL,
+    `last_error`   VARCHAR(1000),
+    `created_at`   DATETIME(6)   NOT NULL,
+    `failed_at`    DATETIME(6)   NOT NULL
+);
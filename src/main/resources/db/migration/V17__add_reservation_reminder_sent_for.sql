@@ -0,0 +1,4 @@
+-- Start date the last reminder was sent for; claimed with a guarded UPDATE so only one instance sends it.
+
+ALTER TABLE `room_booking`.`reservations`
+    ADD COLUMN `reminder_sent_for` DATETIME(6) NULL;
@@ -0,0 +1,12 @@
+-- Bumped by every transaction that changes a room's reservations or series, under the room's row lock.
+
+CREATE TABLE IF NOT EXISTS `room_booking`.`room_booking_versions`
+(
+    `room_id` BIGINT NOT NULL PRIMARY KEY,
+    `version` BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT `fk_room_booking_versions_room` FOREIGN KEY (`room_id`) REFERENCES `rooms` (`id`) ON DELETE CASCADE
+);
+
+INSERT INTO `room_booking`.`room_booking_versions` (`room_id`, `version`)
+SELECT `id`, 0
+FROM `room_booking`.`rooms`;
@@ -0,0 +1,8 @@
+UPDATE `room_booking`.`reservations`
+SET `start_date` = REPLACE(`start_date`, 'T', ' '),
+    `end_date`   = REPLACE(`end_date`, 'T', ' ');
+
+ALTER TABLE `room_booking`.`reservations`
+    MODIFY COLUMN `start_date` DATETIME(6) NOT NULL,
+    MODIFY COLUMN `end_date` DATETIME(6) NOT NULL,
+    ADD INDEX `idx_reservations_room_dates` (`room_id`, `start_date`, `end_date`);
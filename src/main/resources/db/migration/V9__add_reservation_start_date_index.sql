@@ -0,0 +1,2 @@
+ALTER TABLE `room_booking`.`reservations`
+    ADD INDEX `idx_reservations_start_date_id` (`start_date`, `id`);
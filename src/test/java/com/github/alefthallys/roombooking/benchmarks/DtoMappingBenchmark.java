@@ -0,0 +1,55 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
+import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
+import com.github.alefthallys.roombooking.mappers.ReservationMapper;
+import com.github.alefthallys.roombooking.mappers.RoomMapper;
+import com.github.alefthallys.roombooking.mappers.UserMapper;
+import com.github.alefthallys.roombooking.models.Reservation;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.testBuilders.ReservationTestBuilder;
+import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
+import com.github.alefthallys.roombooking.testBuilders.UserTestBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response DTO mapping for the three aggregates returned by every list endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+	
+	private Reservation reservation;
+	private Room room;
+	private User user;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		user = UserTestBuilder.anUser().build();
+		room = RoomTestBuilder.aRoom().build();
+		reservation = ReservationTestBuilder.aReservation().withUser(user).withRoom(room).build();
+	}
+	
+	@Benchmark
+	public ReservationResponseDTO reservationToDto() {
+		return ReservationMapper.toDto(reservation);
+	}
+	
+	@Benchmark
+	public RoomResponseDTO roomToDto() {
+		return RoomMapper.toDto(room);
+	}
+	
+	@Benchmark
+	public UserResponseDTO userToDto() {
+		return UserMapper.toDto(user);
+	}
+}
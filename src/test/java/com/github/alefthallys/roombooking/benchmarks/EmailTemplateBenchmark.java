@@ -0,0 +1,140 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.github.alefthallys.roombooking.templates.EmailTemplateEngine;
+import com.github.alefthallys.roombooking.templates.EmailTemplateType;
+import com.github.alefthallys.roombooking.templates.RenderedEmail;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render throughput of a confirmation email with {@link EmailTemplateEngine} against the former
+ * {@code String.format} on an inline HTML literal with a per-message {@link DateTimeFormatter}.
+ * Each email is rendered as one request would be: on a reused worker thread in {@code platform}
+ * mode, or on its own virtual thread in {@code virtual} mode, which needs JDK 21 and is added by
+ * {@code mvn -P benchmark,virtual-threads test -DskipTests -Dbenchmark.include=EmailTemplate}.
+ * The benchmark profile runs with {@code -prof gc}, so {@code gc.alloc.rate.norm} reports the
+ * bytes allocated per email next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+	
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+	private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+	
+	private final String userName = "Maria Silva";
+	private final String roomName = "Sala de Reuniões 3";
+	private final LocalDateTime startDate = LocalDateTime.of(2030, 1, 7, 9, 0);
+	private final LocalDateTime endDate = startDate.plusHours(2);
+	private final Long reservationId = 4242L;
+	
+	@Param({"platform", "virtual"})
+	public String threads;
+	
+	private EmailTemplateEngine engine;
+	private ExecutorService platformWorker;
+	private Executor executor;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		if (threads.equals("virtual") && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("Virtual threads need JDK 21, this is JDK " + Runtime.version().feature());
+		}
+		engine = new EmailTemplateEngine();
+		if (threads.equals("virtual")) {
+			executor = new VirtualThreadTaskExecutor("email-");
+		} else {
+			platformWorker = Executors.newSingleThreadExecutor();
+			executor = platformWorker;
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (platformWorker != null) {
+			platformWorker.shutdownNow();
+		}
+	}
+	
+	@Benchmark
+	public String stringFormat() {
+		return CompletableFuture.supplyAsync(this::formatInline, executor).join();
+	}
+	
+	@Benchmark
+	public RenderedEmail templateEngine() {
+		return CompletableFuture.supplyAsync(this::renderTemplate, executor).join();
+	}
+	
+	private String formatInline() {
+		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+		return "Reserva Confirmada - " + roomName + String.format("""
+						<!DOCTYPE html>
+						<html>
+						<head>
+						<style>
+						    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
+						    .container { max-width: 600px; margin: 20px auto; padding: 20px; border: 1px solid #ddd; border-radius: 8px; background-color: #f9f9f9; }
+						    .header { background-color: #007bff; color: white; padding: 10px 20px; border-radius: 8px 8px 0 0; text-align: center; }
+						    .content { padding: 20px; }
+						    .footer { text-align: center; font-size: 0.8em; color: #777; margin-top: 20px; padding-top: 10px; border-top: 1px solid #eee; }
+						    .highlight { font-weight: bold; color: #007bff; }
+						</style>
+						</head>
+						<body>
+						    <div class="container">
+						        <div class="header">
+						            <h2>Confirmação de Reserva</h2>
+						        </div>
+						        <div class="content">
+						            <p>Olá <span class="highlight">%s</span>,</p>
+						            <p>Sua reserva para a sala '<span class="highlight">%s</span>' está confirmada com sucesso!</p>
+						            <p>Detalhes da sua reserva:</p>
+						            <ul>
+						                <li><strong>Sala:</strong> %s</li>
+						                <li><strong>Início:</strong> %s</li>
+						                <li><strong>Fim:</strong> %s</li>
+						                <li><strong>ID da Reserva:</strong> <span class="highlight">%d</span></li>
+						            </ul>
+						            <p>Agradecemos por usar nosso serviço.</p>
+						        </div>
+						        <div class="footer">
+						            <p>&copy; 2025 RoomBooking. Todos os direitos reservados.</p>
+						        </div>
+						    </div>
+						</body>
+						</html>
+						""",
+				userName,
+				roomName,
+				roomName,
+				startDate.format(formatter),
+				endDate.format(formatter),
+				reservationId
+		);
+	}
+	
+	private RenderedEmail renderTemplate() {
+		return engine.render(EmailTemplateType.CONFIRMATION, PT_BR, Map.of(
+				"userName", userName,
+				"roomName", roomName,
+				"startDate", startDate.format(DATE_FORMATTER),
+				"endDate", endDate.format(DATE_FORMATTER),
+				"reservationId", String.valueOf(reservationId)
+		));
+	}
+}
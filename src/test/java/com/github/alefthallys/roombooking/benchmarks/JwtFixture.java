@@ -0,0 +1,57 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.github.alefthallys.roombooking.security.jwt.JwtProperties;
+import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing key, {@link JwtTokenProvider} with its parsers built, an authenticated user and an access
+ * token issued for it, shared by the JWT benchmarks.
+ */
+@State(Scope.Benchmark)
+public class JwtFixture {
+	
+	Key secretKey;
+	JwtTokenProvider jwtTokenProvider;
+	Authentication authentication;
+	String token;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+		String encodedKey = Base64.getEncoder().encodeToString(secretKey.getEncoded());
+		
+		JwtProperties jwtProperties = new JwtProperties();
+		jwtProperties.setSecret(encodedKey);
+		jwtProperties.setRefreshSecret(encodedKey);
+		jwtProperties.setExpiration(TimeUnit.HOURS.toMillis(1));
+		jwtProperties.setIssuer("roomBooking");
+		jwtProperties.setAudience("roomBooking");
+		jwtTokenProvider = new BenchmarkJwtTokenProvider(jwtProperties);
+		
+		UserDetails userDetails = User.withUsername("john@gmail.com").password("password").roles("USER").build();
+		authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+		token = jwtTokenProvider.generateToken(authentication);
+	}
+	
+	private static class BenchmarkJwtTokenProvider extends JwtTokenProvider {
+		
+		BenchmarkJwtTokenProvider(JwtProperties jwtProperties) {
+			super(jwtProperties, null);
+			init();
+		}
+	}
+}
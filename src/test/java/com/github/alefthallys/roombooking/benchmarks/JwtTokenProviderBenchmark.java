@@ -0,0 +1,23 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing an access token at login with {@link JwtTokenProvider}. Validating one on every
+ * authenticated request is measured by {@link JwtValidationBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+	
+	@Benchmark
+	public String generateToken(JwtFixture fixture) {
+		return fixture.jwtTokenProvider.generateToken(fixture.authentication);
+	}
+}
@@ -0,0 +1,122 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert 100k reservations the way Hibernate issues them under each id strategy, against
+ * H2 over a local TCP server so every statement pays a network round trip. {@code identity} runs
+ * one INSERT per row and reads the generated key back; {@code pooledSequence} fetches one sequence
+ * value per 50 ids and sends the rows in JDBC batches of 50. Rows per second is 100k divided by
+ * the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReservationBulkInsertBenchmark {
+	
+	private static final int ROWS = 100_000;
+	private static final int BATCH_SIZE = 50;
+	private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 8, 0);
+	private static final String INSERT = "INSERT INTO reservations (start_date, end_date, user_id, room_id) VALUES (?, ?, ?, ?)";
+	private static final String INSERT_WITH_ID = "INSERT INTO reservations (id, start_date, end_date, user_id, room_id) VALUES (?, ?, ?, ?, ?)";
+	
+	@Param({"identity", "pooledSequence"})
+	public String idStrategy;
+	
+	private Server server;
+	private Connection connection;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+		connection = DriverManager.getConnection("jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:bulk-insert-benchmark;DB_CLOSE_DELAY=-1");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE reservations (id BIGINT AUTO_INCREMENT PRIMARY KEY, start_date TIMESTAMP(6) NOT NULL, "
+					+ "end_date TIMESTAMP(6) NOT NULL, user_id BIGINT NOT NULL, room_id BIGINT NOT NULL)");
+			statement.execute("CREATE SEQUENCE reservations_seq START WITH " + BATCH_SIZE + " INCREMENT BY " + BATCH_SIZE);
+		}
+		connection.setAutoCommit(false);
+	}
+	
+	@Setup(Level.Iteration)
+	public void truncate() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("TRUNCATE TABLE reservations");
+		}
+		connection.commit();
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		connection.close();
+		server.stop();
+	}
+	
+	@Benchmark
+	public long insert() throws SQLException {
+		long inserted = idStrategy.equals("identity") ? insertWithIdentity() : insertWithPooledSequence();
+		connection.commit();
+		return inserted;
+	}
+	
+	private long insertWithIdentity() throws SQLException {
+		long lastId = 0;
+		try (PreparedStatement insert = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+			for (int row = 0; row < ROWS; row++) {
+				bind(insert, 1, row);
+				insert.executeUpdate();
+				try (ResultSet keys = insert.getGeneratedKeys()) {
+					keys.next();
+					lastId = keys.getLong(1);
+				}
+			}
+		}
+		return lastId;
+	}
+	
+	private long insertWithPooledSequence() throws SQLException {
+		long nextId = 1;
+		long hi = 0;
+		try (PreparedStatement sequence = connection.prepareStatement("SELECT NEXT VALUE FOR reservations_seq");
+			 PreparedStatement insert = connection.prepareStatement(INSERT_WITH_ID)) {
+			for (int row = 0; row < ROWS; row++) {
+				if (nextId > hi) {
+					try (ResultSet value = sequence.executeQuery()) {
+						value.next();
+						hi = value.getLong(1);
+					}
+					nextId = hi - BATCH_SIZE + 1;
+				}
+				insert.setLong(1, nextId++);
+				bind(insert, 2, row);
+				insert.addBatch();
+				if ((row + 1) % BATCH_SIZE == 0) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+		return nextId - 1;
+	}
+	
+	private static void bind(PreparedStatement insert, int firstParameter, int row) throws SQLException {
+		LocalDateTime start = FIRST_SLOT.plusHours(row);
+		insert.setObject(firstParameter, start);
+		insert.setObject(firstParameter + 1, start.plusHours(1));
+		insert.setLong(firstParameter + 2, row % 100 + 1);
+		insert.setLong(firstParameter + 3, row % 1_000 + 1);
+	}
+}
@@ -0,0 +1,117 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.index.RoomBookings;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomBookingVersionRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The conflict check of a booking over the same seeded data: the overlap query the service used
+ * to run, on an in-memory H2 with the V8 room/date index, and the lookup on the {@link RoomBookings}
+ * that {@link ReservationIndex#forLockedRoom(Long)} hands out once the room is at its committed
+ * version. Self-contained, unlike {@link ReservationConflictQueryBenchmark}, so it can run on any
+ * machine between releases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationConflictCheckBenchmark {
+	
+	private static final int ROOMS = 1_000;
+	private static final int SLOTS_PER_ROOM = 100;
+	private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 8, 0);
+	
+	private Connection connection;
+	private PreparedStatement overlapQuery;
+	private RoomBookings[] roomBookings;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:conflict-benchmark;DB_CLOSE_DELAY=-1");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE reservations (id BIGINT PRIMARY KEY, start_date TIMESTAMP(6) NOT NULL, "
+					+ "end_date TIMESTAMP(6) NOT NULL, user_id BIGINT NOT NULL, room_id BIGINT NOT NULL)");
+			statement.execute("CREATE INDEX idx_reservations_room_dates ON reservations (room_id, start_date, end_date)");
+		}
+		
+		List<ReservationInterval> intervals = new ArrayList<>(ROOMS * SLOTS_PER_ROOM);
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO reservations (id, start_date, end_date, user_id, room_id) VALUES (?, ?, ?, ?, ?)")) {
+			long id = 1;
+			for (long room = 1; room <= ROOMS; room++) {
+				for (int slot = 0; slot < SLOTS_PER_ROOM; slot++) {
+					LocalDateTime start = FIRST_SLOT.plusHours(slot);
+					insert.setLong(1, id);
+					insert.setObject(2, start);
+					insert.setObject(3, start.plusHours(1));
+					insert.setLong(4, id % 100 + 1);
+					insert.setLong(5, room);
+					insert.addBatch();
+					intervals.add(new ReservationInterval(id, room, id % 100 + 1, start, start.plusHours(1)));
+					id++;
+				}
+				insert.executeBatch();
+			}
+			connection.commit();
+		} finally {
+			connection.setAutoCommit(true);
+		}
+		overlapQuery = connection.prepareStatement(
+				"SELECT id, start_date, end_date FROM reservations WHERE room_id = ? AND start_date < ? AND end_date > ?");
+		
+		ReservationRepository reservationRepository = Mockito.mock(ReservationRepository.class);
+		Mockito.when(reservationRepository.findIntervalsEndingAfter(Mockito.any(LocalDateTime.class))).thenReturn(intervals);
+		ReservationIndex reservationIndex = new ReservationIndex(reservationRepository, Mockito.mock(ReservationSeriesRepository.class),
+				Mockito.mock(RoomBookingVersionRepository.class), Mockito.mock(PlatformTransactionManager.class));
+		reservationIndex.afterSingletonsInstantiated();
+		roomBookings = new RoomBookings[ROOMS];
+		for (int room = 0; room < ROOMS; room++) {
+			roomBookings[room] = reservationIndex.forLockedRoom(room + 1L);
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+	
+	@Benchmark
+	public void database(Blackhole blackhole) throws SQLException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		LocalDateTime start = FIRST_SLOT.plusHours(random.nextInt(SLOTS_PER_ROOM)).plusMinutes(30);
+		
+		overlapQuery.setLong(1, 1 + random.nextInt(ROOMS));
+		overlapQuery.setObject(2, start.plusHours(1));
+		overlapQuery.setObject(3, start);
+		try (ResultSet resultSet = overlapQuery.executeQuery()) {
+			while (resultSet.next()) {
+				blackhole.consume(resultSet.getLong(1));
+			}
+		}
+	}
+	
+	@Benchmark
+	public void index(Blackhole blackhole) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		LocalDateTime start = FIRST_SLOT.plusHours(random.nextInt(SLOTS_PER_ROOM)).plusMinutes(30);
+		
+		blackhole.consume(roomBookings[random.nextInt(ROOMS)].findConflict(start, start.plusHours(1), null));
+	}
+}
@@ -0,0 +1,166 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overlap query latency on MariaDB before (VARCHAR dates, only the room_id index behind the rooms
+ * foreign key) and after (DATETIME(6) dates with the room/date composite index) migration V8.
+ * Needs a reachable MariaDB: BENCHMARK_JDBC_URL, BENCHMARK_JDBC_USER and BENCHMARK_JDBC_PASSWORD,
+ * falling back to the SPRING_DATASOURCE_* variables used by the application.
+ * Each trial prints the EXPLAIN plan of the overlap query so the timings can be read against it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReservationConflictQueryBenchmark {
+	
+	private static final int ROOMS = 5_000;
+	private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 8, 0);
+	
+	@Param({"1000000"})
+	private int reservations;
+	
+	@Param({"VARCHAR", "DATETIME"})
+	private String schema;
+	
+	private Connection connection;
+	private PreparedStatement overlapQuery;
+	private int slotsPerRoom;
+	
+	private static String env(String name, String fallback) {
+		String value = System.getenv(name);
+		return value != null ? value : System.getenv(fallback);
+	}
+	
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection(
+				env("BENCHMARK_JDBC_URL", "SPRING_DATASOURCE_URL"),
+				env("BENCHMARK_JDBC_USER", "SPRING_DATASOURCE_USERNAME"),
+				env("BENCHMARK_JDBC_PASSWORD", "SPRING_DATASOURCE_PASSWORD"));
+		slotsPerRoom = reservations / ROOMS;
+		
+		String table = "bench_reservations_" + schema.toLowerCase();
+		seedRooms();
+		createAndSeed(table);
+		String sql = "SELECT id, start_date, end_date FROM " + table + " WHERE room_id = ? AND start_date < ? AND end_date > ?";
+		overlapQuery = connection.prepareStatement(sql);
+		printPlan(sql);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+	
+	@Benchmark
+	public void findOverlappingReservations(Blackhole blackhole) throws SQLException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		LocalDateTime start = FIRST_SLOT.plusHours(random.nextInt(slotsPerRoom)).plusMinutes(30);
+		
+		overlapQuery.setLong(1, 1 + random.nextInt(ROOMS));
+		overlapQuery.setObject(2, start.plusHours(1));
+		overlapQuery.setObject(3, start);
+		
+		try (ResultSet resultSet = overlapQuery.executeQuery()) {
+			while (resultSet.next()) {
+				blackhole.consume(resultSet.getLong(1));
+			}
+		}
+	}
+	
+	private void printPlan(String sql) throws SQLException {
+		try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+			explain.setLong(1, 1);
+			explain.setObject(2, FIRST_SLOT.plusHours(1));
+			explain.setObject(3, FIRST_SLOT);
+			try (ResultSet plan = explain.executeQuery()) {
+				int columns = plan.getMetaData().getColumnCount();
+				while (plan.next()) {
+					StringBuilder row = new StringBuilder("EXPLAIN [" + schema + "]");
+					for (int column = 1; column <= columns; column++) {
+						row.append(' ').append(plan.getMetaData().getColumnLabel(column)).append('=').append(plan.getString(column));
+					}
+					System.out.println(row);
+				}
+			}
+		}
+	}
+	
+	private void seedRooms() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE IF NOT EXISTS bench_rooms (id BIGINT PRIMARY KEY)");
+			try (ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM bench_rooms")) {
+				count.next();
+				if (count.getLong(1) == ROOMS) {
+					return;
+				}
+			}
+		}
+		
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bench_rooms (id) VALUES (?)")) {
+			for (int room = 1; room <= ROOMS; room++) {
+				insert.setLong(1, room);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+			connection.commit();
+		} finally {
+			connection.setAutoCommit(true);
+		}
+	}
+	
+	/**
+	 * Both schemas keep the rooms foreign key of V5, so the VARCHAR table has the room_id index
+	 * InnoDB builds for it, as production had before V8. The table is recreated on every trial so
+	 * an older layout left in the database is never measured.
+	 */
+	private void createAndSeed(String table) throws SQLException {
+		String dateType = schema.equals("DATETIME") ? "DATETIME(6)" : "VARCHAR(255)";
+		String index = schema.equals("DATETIME")
+				? "INDEX idx_" + table + "_room_dates (room_id, start_date, end_date)"
+				: "INDEX idx_" + table + "_room (room_id)";
+		
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS " + table);
+			statement.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, start_date " + dateType
+					+ " NOT NULL, end_date " + dateType + " NOT NULL, user_id BIGINT NOT NULL, room_id BIGINT NOT NULL, " + index
+					+ ", CONSTRAINT fk_" + table + "_room FOREIGN KEY (room_id) REFERENCES bench_rooms (id))");
+		}
+		
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO " + table + " (id, start_date, end_date, user_id, room_id) VALUES (?, ?, ?, ?, ?)")) {
+			long id = 1;
+			for (int room = 1; room <= ROOMS; room++) {
+				for (int slot = 0; slot < slotsPerRoom; slot++) {
+					LocalDateTime start = FIRST_SLOT.plusHours(slot);
+					insert.setLong(1, id);
+					insert.setObject(2, start);
+					insert.setObject(3, start.plusHours(1));
+					insert.setLong(4, id % 1_000 + 1);
+					insert.setLong(5, room);
+					insert.addBatch();
+					if (id++ % 5_000 == 0) {
+						insert.executeBatch();
+						connection.commit();
+					}
+				}
+			}
+			insert.executeBatch();
+			connection.commit();
+		} finally {
+			connection.setAutoCommit(true);
+		}
+	}
+}
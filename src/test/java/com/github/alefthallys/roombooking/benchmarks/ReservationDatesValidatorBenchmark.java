@@ -0,0 +1,61 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationRequestDTO;
+import com.github.alefthallys.roombooking.validadors.ReservationDatesValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReservationDatesValidator} on its own and the full Bean Validation pass that runs it on
+ * every reservation request body, for a valid and an inverted date range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationDatesValidatorBenchmark {
+	
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 9, 0);
+	
+	@Param({"VALID", "INVERTED"})
+	private String range;
+	
+	private ValidatorFactory validatorFactory;
+	private Validator validator;
+	private ReservationDatesValidator datesValidator;
+	private ReservationRequestDTO request;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+		datesValidator = new ReservationDatesValidator();
+		request = range.equals("VALID")
+				? new ReservationRequestDTO(1L, START, START.plusHours(1))
+				: new ReservationRequestDTO(1L, START.plusHours(1), START);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		validatorFactory.close();
+	}
+	
+	@Benchmark
+	public boolean datesValidator() {
+		return datesValidator.isValid(request, null);
+	}
+	
+	@Benchmark
+	public Set<ConstraintViolation<ReservationRequestDTO>> beanValidation() {
+		return validator.validate(request);
+	}
+}
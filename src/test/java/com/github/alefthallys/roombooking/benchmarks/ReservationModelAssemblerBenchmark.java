@@ -0,0 +1,63 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.github.alefthallys.roombooking.assemblers.ReservationModelAssembler;
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
+import com.github.alefthallys.roombooking.mappers.ReservationMapper;
+import com.github.alefthallys.roombooking.testBuilders.ReservationTestBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * HATEOAS link building in {@link ReservationModelAssembler} for a single reservation and for a
+ * default-sized page, inside a bound servlet request as on the controller thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationModelAssemblerBenchmark {
+	
+	private static final int PAGE_SIZE = 20;
+	
+	private ReservationModelAssembler assembler;
+	private ReservationResponseDTO reservation;
+	private List<ReservationResponseDTO> page;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/reservations");
+		request.setServerName("roombooking.example.com");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		
+		assembler = new ReservationModelAssembler();
+		page = LongStream.rangeClosed(1, PAGE_SIZE)
+				.mapToObj(id -> ReservationMapper.toDto(ReservationTestBuilder.aReservation().withId(id).build()))
+				.toList();
+		reservation = page.get(0);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+	
+	@Benchmark
+	public EntityModel<ReservationResponseDTO> toModel() {
+		return assembler.toModel(reservation);
+	}
+	
+	@Benchmark
+	public CollectionModel<EntityModel<ReservationResponseDTO>> toCollectionModel() {
+		return assembler.toCollectionModel(page);
+	}
+}
@@ -0,0 +1,181 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.index.RoomAvailabilityIndex;
+import com.github.alefthallys.roombooking.index.RoomsFingerprint;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomBookingVersionRepository;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A room availability search over 5k rooms spread across 10 locations, each holding a working
+ * week of hourly reservations with gaps: the query the search used to run, on an in-memory H2
+ * with the V8 room/date index, against {@link RoomAvailabilityIndex} answering from the
+ * {@link ReservationIndex}. Both indexes are loaded from the rows seeded into H2, and a search on
+ * them runs no query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomAvailabilityBenchmark {
+	
+	private static final int ROOMS = 5_000;
+	private static final int LOCATIONS = 10;
+	private static final int SLOTS_PER_ROOM = 50;
+	private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 8, 0);
+	
+	private Connection connection;
+	private PreparedStatement availabilityQuery;
+	private RoomAvailabilityIndex roomAvailabilityIndex;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:availability-benchmark;DB_CLOSE_DELAY=-1");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE rooms (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, description VARCHAR(255), "
+					+ "capacity INT NOT NULL, location VARCHAR(255) NOT NULL)");
+			statement.execute("CREATE TABLE reservations (id BIGINT PRIMARY KEY, start_date TIMESTAMP(6) NOT NULL, "
+					+ "end_date TIMESTAMP(6) NOT NULL, user_id BIGINT NOT NULL, room_id BIGINT NOT NULL)");
+			statement.execute("CREATE INDEX idx_reservations_room_dates ON reservations (room_id, start_date, end_date)");
+		}
+		seed();
+		availabilityQuery = connection.prepareStatement("SELECT r.id, r.name, r.description, r.capacity, r.location FROM rooms r "
+				+ "WHERE r.capacity >= ? AND (CAST(? AS VARCHAR) IS NULL OR LOWER(r.location) = LOWER(?)) "
+				+ "AND NOT EXISTS (SELECT 1 FROM reservations res WHERE res.room_id = r.id AND res.start_date < ? AND res.end_date > ?) "
+				+ "ORDER BY r.capacity, r.id");
+		
+		ReservationRepository reservationRepository = Mockito.mock(ReservationRepository.class);
+		Mockito.when(reservationRepository.findIntervalsEndingAfter(Mockito.any(LocalDateTime.class))).thenReturn(loadIntervals());
+		ReservationIndex reservationIndex = new ReservationIndex(reservationRepository, Mockito.mock(ReservationSeriesRepository.class),
+				Mockito.mock(RoomBookingVersionRepository.class), Mockito.mock(PlatformTransactionManager.class));
+		reservationIndex.afterSingletonsInstantiated();
+		
+		RoomRepository roomRepository = Mockito.mock(RoomRepository.class);
+		Mockito.when(roomRepository.findFingerprint()).thenReturn(new RoomsFingerprint((long) ROOMS, FIRST_SLOT));
+		Mockito.when(roomRepository.findAll()).thenReturn(loadRooms());
+		roomAvailabilityIndex = new RoomAvailabilityIndex(roomRepository, reservationIndex);
+		roomAvailabilityIndex.afterSingletonsInstantiated();
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+	
+	@Benchmark
+	public List<RoomResponseDTO> databaseAnyRoom() throws SQLException {
+		LocalDateTime from = FIRST_SLOT.plusHours(ThreadLocalRandom.current().nextInt(SLOTS_PER_ROOM));
+		return findAvailable(from, from.plusHours(1), 0, null);
+	}
+	
+	@Benchmark
+	public List<RoomResponseDTO> databaseByCapacityAndLocation() throws SQLException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		LocalDateTime from = FIRST_SLOT.plusHours(random.nextInt(SLOTS_PER_ROOM));
+		return findAvailable(from, from.plusHours(2), 12, "Floor " + random.nextInt(LOCATIONS));
+	}
+	
+	@Benchmark
+	public List<RoomResponseDTO> indexAnyRoom() {
+		LocalDateTime from = FIRST_SLOT.plusHours(ThreadLocalRandom.current().nextInt(SLOTS_PER_ROOM));
+		return roomAvailabilityIndex.findAvailable(from, from.plusHours(1), 0, null);
+	}
+	
+	@Benchmark
+	public List<RoomResponseDTO> indexByCapacityAndLocation() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		LocalDateTime from = FIRST_SLOT.plusHours(random.nextInt(SLOTS_PER_ROOM));
+		return roomAvailabilityIndex.findAvailable(from, from.plusHours(2), 12, "Floor " + random.nextInt(LOCATIONS));
+	}
+	
+	private List<RoomResponseDTO> findAvailable(LocalDateTime from, LocalDateTime to, int minCapacity, String location) throws SQLException {
+		availabilityQuery.setInt(1, minCapacity);
+		availabilityQuery.setString(2, location);
+		availabilityQuery.setString(3, location);
+		availabilityQuery.setObject(4, to);
+		availabilityQuery.setObject(5, from);
+		List<RoomResponseDTO> available = new ArrayList<>();
+		try (ResultSet resultSet = availabilityQuery.executeQuery()) {
+			while (resultSet.next()) {
+				available.add(new RoomResponseDTO(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+						resultSet.getInt(4), resultSet.getString(5), null));
+			}
+		}
+		return available;
+	}
+	
+	private void seed() throws SQLException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		connection.setAutoCommit(false);
+		try (PreparedStatement insertRoom = connection.prepareStatement(
+				"INSERT INTO rooms (id, name, capacity, location) VALUES (?, ?, ?, ?)");
+		     PreparedStatement insertReservation = connection.prepareStatement(
+				     "INSERT INTO reservations (id, start_date, end_date, user_id, room_id) VALUES (?, ?, ?, ?, ?)")) {
+			long id = 1;
+			for (long room = 1; room <= ROOMS; room++) {
+				insertRoom.setLong(1, room);
+				insertRoom.setString(2, "Room " + room);
+				insertRoom.setInt(3, 2 + random.nextInt(30));
+				insertRoom.setString(4, "Floor " + room % LOCATIONS);
+				insertRoom.addBatch();
+				for (int slot = 0; slot < SLOTS_PER_ROOM; slot++) {
+					if (random.nextInt(4) > 0) {
+						LocalDateTime start = FIRST_SLOT.plusHours(slot);
+						insertReservation.setLong(1, id);
+						insertReservation.setObject(2, start);
+						insertReservation.setObject(3, start.plusHours(1));
+						insertReservation.setLong(4, id % 100 + 1);
+						insertReservation.setLong(5, room);
+						insertReservation.addBatch();
+						id++;
+					}
+				}
+				insertReservation.executeBatch();
+			}
+			insertRoom.executeBatch();
+			connection.commit();
+		} finally {
+			connection.setAutoCommit(true);
+		}
+	}
+	
+	private List<Room> loadRooms() throws SQLException {
+		List<Room> rooms = new ArrayList<>(ROOMS);
+		try (Statement statement = connection.createStatement();
+		     ResultSet resultSet = statement.executeQuery("SELECT id, name, description, capacity, location FROM rooms")) {
+			while (resultSet.next()) {
+				rooms.add(new Room(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getInt(4), resultSet.getString(5)));
+			}
+		}
+		return rooms;
+	}
+	
+	private List<ReservationInterval> loadIntervals() throws SQLException {
+		List<ReservationInterval> intervals = new ArrayList<>();
+		try (Statement statement = connection.createStatement();
+		     ResultSet resultSet = statement.executeQuery("SELECT id, room_id, user_id, start_date, end_date FROM reservations")) {
+			while (resultSet.next()) {
+				intervals.add(new ReservationInterval(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3),
+						resultSet.getObject(4, LocalDateTime.class), resultSet.getObject(5, LocalDateTime.class)));
+			}
+		}
+		return intervals;
+	}
+}
@@ -0,0 +1,109 @@
+package com.github.alefthallys.roombooking.benchmarks;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Time to serve a burst of concurrent booking requests with Tomcat's default 200 platform worker
+ * threads versus one virtual thread per request, both sharing the same Hikari pool. Each request
+ * holds a pooled connection for a short query plus a simulated database round trip, then blocks
+ * outside the transaction as the AMQP publish confirm does. Platform mode is capped by the worker
+ * count, virtual mode only by the pool. The benchmark profile runs only {@code platform}; the
+ * {@code virtual} mode needs JDK 21 and is added by the virtual-threads profile:
+ * {@code mvn -P benchmark,virtual-threads test -DskipTests -Dbenchmark.include=VirtualThreadCapacity}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadCapacityBenchmark {
+	
+	private static final int TOMCAT_MAX_THREADS = 200;
+	private static final int CONCURRENT_REQUESTS = 2_000;
+	private static final int ROOMS = 100;
+	private static final long DB_ROUND_TRIP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long PUBLISH_CONFIRM_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+	
+	@Param({"platform", "virtual"})
+	public String threads;
+	
+	@Param({"10"})
+	public int poolSize;
+	
+	private HikariDataSource dataSource;
+	private ExecutorService platformWorkers;
+	private Executor executor;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		if (threads.equals("virtual") && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("Virtual threads need JDK 21, this is JDK " + Runtime.version().feature());
+		}
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl("jdbc:h2:mem:capacity-benchmark;DB_CLOSE_DELAY=-1");
+		config.setMaximumPoolSize(poolSize);
+		config.setMinimumIdle(poolSize);
+		dataSource = new HikariDataSource(config);
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE rooms (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, capacity INT NOT NULL)");
+			for (int room = 1; room <= ROOMS; room++) {
+				statement.execute("INSERT INTO rooms VALUES (" + room + ", 'Room " + room + "', " + (2 + room % 20) + ")");
+			}
+		}
+		
+		if (threads.equals("virtual")) {
+			executor = new VirtualThreadTaskExecutor("request-");
+		} else {
+			platformWorkers = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+			executor = platformWorkers;
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (platformWorkers != null) {
+			platformWorkers.shutdownNow();
+		}
+		dataSource.close();
+	}
+	
+	@Benchmark
+	public void burst() {
+		CompletableFuture<?>[] requests = new CompletableFuture<?>[CONCURRENT_REQUESTS];
+		for (int request = 0; request < CONCURRENT_REQUESTS; request++) {
+			requests[request] = CompletableFuture.runAsync(this::handleRequest, executor);
+		}
+		CompletableFuture.allOf(requests).join();
+	}
+	
+	private void handleRequest() {
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement query = connection.prepareStatement("SELECT name, capacity FROM rooms WHERE id = ?")) {
+			query.setLong(1, 1 + ThreadLocalRandom.current().nextInt(ROOMS));
+			try (ResultSet resultSet = query.executeQuery()) {
+				resultSet.next();
+			}
+			LockSupport.parkNanos(DB_ROUND_TRIP_NANOS);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+		LockSupport.parkNanos(PUBLISH_CONFIRM_NANOS);
+	}
+}
@@ -10,11 +10,13 @@ import com.github.alefthallys.roombooking.exceptions.User.EntityUserAlreadyExist
 import com.github.alefthallys.roombooking.models.User;
 import com.github.alefthallys.roombooking.repositories.UserRepository;
 import com.github.alefthallys.roombooking.security.CustomUserDetailsService;
+import com.github.alefthallys.roombooking.security.TokenDenyList;
 import com.github.alefthallys.roombooking.security.jwt.JwtAuthenticationFilter;
 import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
 import com.github.alefthallys.roombooking.services.UserService;
 import com.github.alefthallys.roombooking.testBuilders.UserTestBuilder;
 import com.github.alefthallys.roombooking.testUtils.TestConstants;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -34,6 +36,8 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Instant;
+import java.util.Date;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -73,6 +77,9 @@ class AuthControllerTest {
 	@MockitoBean
 	private UserRepository userRepository;
 	
+	@MockitoBean
+	private TokenDenyList tokenDenyList;
+	
 	private LoginRequestDTO loginRequestDTO;
 	private UserRequestDTO userRequestDTO;
 	private UserResponseDTO userResponseDTO;
@@ -243,7 +250,7 @@ class AuthControllerTest {
 					.roles("USER")
 					.build();
 			
-			when(jwtTokenProvider.getUsernameFromRefreshToken(refreshToken)).thenReturn(userEmail);
+			when(jwtTokenProvider.parseRefreshToken(refreshToken)).thenReturn(Jwts.claims().setSubject(userEmail));
 			when(customUserDetailsService.loadUserByUsername(userEmail)).thenReturn(userDetailsMock);
 			when(jwtTokenProvider.generateToken(any(Authentication.class))).thenReturn("new-access-token");
 			when(jwtTokenProvider.generateRefreshToken(any(Authentication.class))).thenReturn("new-refresh-token");
@@ -261,7 +268,7 @@ class AuthControllerTest {
 		void shouldReturnUnauthorizedWhenRefreshTokenIsInvalid() throws Exception {
 			String invalidRefreshToken = "invalid-refresh-token";
 			
-			doThrow(new InvalidJwtException("Invalid refresh token")).when(jwtTokenProvider).validateRefreshToken(invalidRefreshToken);
+			when(jwtTokenProvider.parseRefreshToken(invalidRefreshToken)).thenThrow(new InvalidJwtException("Invalid refresh token"));
 			
 			mockMvc.perform(post(URL_PREFIX + "/refresh-token")
 							.contentType(MediaType.APPLICATION_JSON)
@@ -270,6 +277,25 @@ class AuthControllerTest {
 					.andExpect(jsonPath("$.message").value("Invalid refresh token"));
 		}
 		
+		@Test
+		@DisplayName("should return 401 when the refresh token's subject was denied after it was issued")
+		void shouldReturnUnauthorizedWhenRefreshTokenSubjectIsDenied() throws Exception {
+			String userEmail = loginRequestDTO.email();
+			Instant issuedAt = Instant.parse("2030-01-01T10:00:00Z");
+			
+			when(jwtTokenProvider.parseRefreshToken(refreshToken))
+					.thenReturn(Jwts.claims().setSubject(userEmail).setIssuedAt(Date.from(issuedAt)));
+			when(tokenDenyList.isDenied(userEmail, issuedAt)).thenReturn(true);
+			
+			mockMvc.perform(post(URL_PREFIX + "/refresh-token")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(refreshToken))))
+					.andExpect(status().isUnauthorized())
+					.andExpect(jsonPath("$.message").value("Invalid refresh token"));
+			verify(customUserDetailsService, never()).loadUserByUsername(any());
+			verify(jwtTokenProvider, never()).generateToken(any(Authentication.class));
+		}
+		
 		@Test
 		@DisplayName("should return 400 when refresh token field is null")
 		void shouldReturnBadRequestWhenRefreshTokenFieldIsNull() throws Exception {
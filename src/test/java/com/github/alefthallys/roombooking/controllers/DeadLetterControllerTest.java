@@ -0,0 +1,91 @@
+package com.github.alefthallys.roombooking.controllers;
+
+import com.github.alefthallys.roombooking.assemblers.DeadLetterModelAssembler;
+import com.github.alefthallys.roombooking.dtos.DeadLetter.DeadLetterDTO;
+import com.github.alefthallys.roombooking.dtos.DeadLetter.DeadLetterReplayDTO;
+import com.github.alefthallys.roombooking.security.jwt.JwtAuthenticationFilter;
+import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
+import com.github.alefthallys.roombooking.services.DeadLetterService;
+import com.github.alefthallys.roombooking.testUtils.TestConstants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DeadLetterController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class DeadLetterControllerTest {
+	
+	private static final String URL_PREFIX = TestConstants.API_V1_ADMIN_DEAD_LETTERS;
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@MockitoBean
+	private JwtTokenProvider jwtTokenProvider;
+	
+	@MockitoBean
+	private JwtAuthenticationFilter jwtAuthenticationFilter;
+	
+	@MockitoBean
+	private DeadLetterService deadLetterService;
+	
+	@MockitoBean
+	private DeadLetterModelAssembler deadLetterModelAssembler;
+	
+	@Nested
+	@DisplayName("GET " + URL_PREFIX)
+	class PeekDeadLetters {
+		
+		@Test
+		@DisplayName("should return the dead letters with HATEOAS links")
+		void shouldReturnDeadLetters() throws Exception {
+			List<DeadLetterDTO> deadLetters = List.of(new DeadLetterDTO("outbox-1", 3, "smtp down", "rejected", "{}"));
+			when(deadLetterService.peek(5)).thenReturn(deadLetters);
+			doReturn(CollectionModel.of(deadLetters,
+					linkTo(methodOn(DeadLetterController.class).peek(5)).withSelfRel(),
+					linkTo(methodOn(DeadLetterController.class).replay(5)).withRel("replay")))
+					.when(deadLetterModelAssembler).toCollectionModel(deadLetters, 5);
+			
+			mockMvc.perform(get(URL_PREFIX).param("limit", "5"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$._embedded.deadLetterDTOList[0].messageId").value("outbox-1"))
+					.andExpect(jsonPath("$._embedded.deadLetterDTOList[0].retryCount").value(3))
+					.andExpect(jsonPath("$._links.replay.href").exists());
+			
+			verify(deadLetterService, times(1)).peek(5);
+		}
+	}
+	
+	@Nested
+	@DisplayName("POST " + URL_PREFIX + "/replay")
+	class ReplayDeadLetters {
+		
+		@Test
+		@DisplayName("should replay dead letters and return how many were republished")
+		void shouldReplayDeadLetters() throws Exception {
+			when(deadLetterService.replay(null)).thenReturn(new DeadLetterReplayDTO(2));
+			
+			mockMvc.perform(post(URL_PREFIX + "/replay"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.replayed").value(2));
+			
+			verify(deadLetterService, times(1)).replay(null);
+		}
+	}
+}
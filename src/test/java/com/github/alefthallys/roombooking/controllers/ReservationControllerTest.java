@@ -2,12 +2,22 @@ package com.github.alefthallys.roombooking.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.alefthallys.roombooking.assemblers.ReservationModelAssembler;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
+import com.github.alefthallys.roombooking.dtos.FieldErrorDTO;
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationBatchRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationUpdateRequestDTO;
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.IdempotencyKeyReusedException;
+import com.github.alefthallys.roombooking.exceptions.Pagination.InvalidCursorException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.Reservation.ReservationBatchRejectedException;
+import com.github.alefthallys.roombooking.idempotency.IdempotencyService;
+import com.github.alefthallys.roombooking.idempotency.IdempotentResult;
 import com.github.alefthallys.roombooking.models.Reservation;
+import com.github.alefthallys.roombooking.pagination.ReservationSort;
 import com.github.alefthallys.roombooking.security.jwt.JwtAuthenticationFilter;
 import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
 import com.github.alefthallys.roombooking.services.ReservationService;
@@ -26,6 +36,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -37,10 +48,13 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -69,6 +83,9 @@ public class ReservationControllerTest {
 	@MockitoBean
 	private ReservationModelAssembler reservationModelAssembler;
 	
+	@MockitoBean
+	private IdempotencyService idempotencyService;
+	
 	private ReservationRequestDTO reservationRequestDTO;
 	private ReservationResponseDTO reservationResponseDTO;
 	private ReservationUpdateRequestDTO reservationUpdateRequestDTO;
@@ -85,12 +102,12 @@ public class ReservationControllerTest {
 		
 		reservationEntityModel = EntityModel.of(reservationResponseDTO,
 				linkTo(methodOn(ReservationController.class).findById(reservationResponseDTO.id())).withSelfRel(),
-				linkTo(methodOn(ReservationController.class).update(reservationResponseDTO.id(), null)).withRel("update"),
+				linkTo(methodOn(ReservationController.class).update(reservationResponseDTO.id(), null, null)).withRel("update"),
 				linkTo(methodOn(ReservationController.class).delete(reservationResponseDTO.id())).withRel("delete")
 		);
 		
 		reservationCollectionModel = CollectionModel.of(Collections.singletonList(reservationEntityModel),
-				linkTo(methodOn(ReservationController.class).findAll()).withSelfRel()
+				linkTo(methodOn(ReservationController.class).findAll(null, null, ReservationSort.ID)).withSelfRel()
 		);
 	}
 	
@@ -136,15 +153,53 @@ public class ReservationControllerTest {
 		@DisplayName("should return a list of reservations with HATEOAS links")
 		void shouldReturnListOfReservationsWithHateoasLinks() throws Exception {
 			List<ReservationResponseDTO> responseList = List.of(reservationResponseDTO);
-			when(reservationService.findAll()).thenReturn(responseList);
+			CursorPageDTO<ReservationResponseDTO> page = new CursorPageDTO<>(responseList, null);
+			when(reservationService.findAll(null, null, ReservationSort.ID)).thenReturn(page);
 			
-			doReturn(reservationCollectionModel).when(reservationModelAssembler).toCollectionModel(responseList);
+			doReturn(reservationCollectionModel).when(reservationModelAssembler).toPagedModel(page, null, null, ReservationSort.ID);
 			
 			ResultActions resultActions = mockMvc.perform(get(URL_PREFIX))
 					.andExpect(status().isOk());
 			
 			assertReservationCollectionModel(resultActions, responseList, "reservationResponseDTOList");
 		}
+		
+		@Test
+		@DisplayName("should pass the cursor, page size and sort to the service")
+		void shouldPassPaginationParametersToService() throws Exception {
+			List<ReservationResponseDTO> responseList = List.of(reservationResponseDTO);
+			CursorPageDTO<ReservationResponseDTO> page = new CursorPageDTO<>(responseList, "next-cursor");
+			when(reservationService.findAll("cursor", 5, ReservationSort.START_DATE)).thenReturn(page);
+			
+			doReturn(reservationCollectionModel).when(reservationModelAssembler).toPagedModel(page, "cursor", 5, ReservationSort.START_DATE);
+			
+			mockMvc.perform(get(URL_PREFIX)
+							.param("cursor", "cursor")
+							.param("size", "5")
+							.param("sort", "START_DATE"))
+					.andExpect(status().isOk());
+			
+			verify(reservationService, times(1)).findAll("cursor", 5, ReservationSort.START_DATE);
+		}
+		
+		@Test
+		@DisplayName("should return 400 when the cursor is invalid")
+		void shouldReturnBadRequestWhenCursorIsInvalid() throws Exception {
+			when(reservationService.findAll("broken", null, ReservationSort.ID)).thenThrow(new InvalidCursorException("broken"));
+			
+			mockMvc.perform(get(URL_PREFIX).param("cursor", "broken"))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message").value("Invalid pagination cursor: broken"));
+		}
+		
+		@Test
+		@DisplayName("should return 400 when the sort is unknown")
+		void shouldReturnBadRequestWhenSortIsUnknown() throws Exception {
+			mockMvc.perform(get(URL_PREFIX).param("sort", "NAME"))
+					.andExpect(status().isBadRequest());
+			
+			verify(reservationService, never()).findAll(any(), any(), any());
+		}
 	}
 	
 	@Nested
@@ -221,6 +276,18 @@ public class ReservationControllerTest {
 			assertReservationEntityModel(resultActions, reservationResponseDTO);
 		}
 		
+		@Test
+		@DisplayName("should return the reservation version as ETag for the current user")
+		void shouldReturnMyReservationVersionAsETag() throws Exception {
+			ReservationResponseDTO versioned = ReservationTestBuilder.aReservation().withVersion(5L).buildResponseDTO();
+			when(reservationService.findReservationByIdAndUserId(1L)).thenReturn(versioned);
+			doReturn(EntityModel.of(versioned)).when(reservationModelAssembler).toModel(versioned);
+			
+			mockMvc.perform(get(URL_PREFIX + "/me/{id}", 1L))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+		}
+		
 		@Test
 		@DisplayName("should return 404 when reservation not found for current user")
 		void shouldThrowMethodNotFoundIfReservationNotFoundForUser() throws Exception {
@@ -292,6 +359,91 @@ public class ReservationControllerTest {
 					.andExpect(status().isConflict())
 					.andExpect(jsonPath("$.message").value("Reservation with ID " + 1L + " already exists."));
 		}
+		
+		@Test
+		@DisplayName("should return the stored reservation with its ETag and mark it replayed when the Idempotency-Key was already used")
+		void shouldReplayStoredReservationForRepeatedIdempotencyKey() throws Exception {
+			ReservationResponseDTO storedResponseDTO = ReservationTestBuilder.aReservation().withVersion(0L).buildResponseDTO();
+			when(idempotencyService.execute(eq("booking-1"), eq(reservationRequestDTO), eq(ReservationResponseDTO.class), any()))
+					.thenReturn(new IdempotentResult<>(storedResponseDTO, true));
+			doReturn(reservationEntityModel).when(reservationModelAssembler).toModel(storedResponseDTO);
+			
+			ResultActions resultActions = mockMvc.perform(post(URL_PREFIX)
+							.header(IdempotencyService.HEADER, "booking-1")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(reservationRequestDTO)))
+					.andExpect(status().isCreated())
+					.andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+					.andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+			assertReservationEntityModel(resultActions, reservationResponseDTO);
+			verify(reservationService, never()).create(any());
+		}
+		
+		@Test
+		@DisplayName("should return 422 when the Idempotency-Key was used with a different body")
+		void shouldReturnUnprocessableEntityWhenIdempotencyKeyIsReused() throws Exception {
+			when(idempotencyService.execute(eq("booking-1"), eq(reservationRequestDTO), eq(ReservationResponseDTO.class), any()))
+					.thenThrow(new IdempotencyKeyReusedException("booking-1"));
+			
+			mockMvc.perform(post(URL_PREFIX)
+							.header(IdempotencyService.HEADER, "booking-1")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(reservationRequestDTO)))
+					.andExpect(status().isUnprocessableEntity())
+					.andExpect(jsonPath("$.message").value("The Idempotency-Key 'booking-1' was already used with a different request body."));
+		}
+	}
+	
+	@Nested
+	@DisplayName("POST " + URL_PREFIX + "/batch")
+	class CreateReservationBatch {
+		
+		@Test
+		@DisplayName("should create every reservation of the batch with HATEOAS links")
+		void shouldCreateBatchWithHateoasLinks() throws Exception {
+			List<ReservationResponseDTO> responseList = List.of(reservationResponseDTO);
+			when(reservationService.createBatch(List.of(reservationRequestDTO))).thenReturn(responseList);
+			doReturn(reservationCollectionModel).when(reservationModelAssembler).toCollectionModel(responseList);
+			
+			ResultActions resultActions = mockMvc.perform(post(URL_PREFIX + "/batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(new ReservationBatchRequestDTO(List.of(reservationRequestDTO)))))
+					.andExpect(status().isCreated());
+			assertReservationCollectionModel(resultActions, responseList, "reservationResponseDTOList");
+		}
+		
+		@Test
+		@DisplayName("should return 409 with the rejected items when the batch cannot be booked")
+		void shouldReturnConflictWithRejectedItems() throws Exception {
+			FieldErrorDTO itemError = new FieldErrorDTO("reservations[0]", "The room 'Room 101' is already reserved.", null);
+			when(reservationService.createBatch(List.of(reservationRequestDTO)))
+					.thenThrow(new ReservationBatchRejectedException(List.of(itemError), 1));
+			
+			mockMvc.perform(post(URL_PREFIX + "/batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(new ReservationBatchRequestDTO(List.of(reservationRequestDTO)))))
+					.andExpect(status().isConflict())
+					.andExpect(jsonPath("$.message").value("Reservation batch rejected: 1 of 1 reservations cannot be booked."))
+					.andExpect(jsonPath("$.fieldErrors[0].field").value("reservations[0]"))
+					.andExpect(jsonPath("$.fieldErrors[0].message").value(itemError.message()));
+		}
+		
+		@Test
+		@DisplayName("should return 400 when the batch is empty or holds an invalid reservation")
+		void shouldReturnBadRequestWhenBatchIsInvalid() throws Exception {
+			ReservationRequestDTO invalid = new ReservationRequestDTO(null, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+			
+			mockMvc.perform(post(URL_PREFIX + "/batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(new ReservationBatchRequestDTO(List.of()))))
+					.andExpect(status().isBadRequest());
+			mockMvc.perform(post(URL_PREFIX + "/batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(new ReservationBatchRequestDTO(List.of(reservationRequestDTO, invalid)))))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.fieldErrors[0].field").value("reservations[1].roomId"));
+			verifyNoInteractions(reservationService);
+		}
 	}
 	
 	@Nested
@@ -312,7 +464,7 @@ public class ReservationControllerTest {
 		@Test
 		@DisplayName("should update reservation with HATEOAS links")
 		void shouldUpdateReservationWithHateoasLinks() throws Exception {
-			when(reservationService.update(1L, reservationUpdateRequestDTO)).thenReturn(reservationResponseDTO);
+			when(reservationService.update(1L, reservationUpdateRequestDTO, null)).thenReturn(reservationResponseDTO);
 			doReturn(reservationEntityModel).when(reservationModelAssembler).toModel(reservationResponseDTO);
 			
 			ResultActions resultActions = mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
@@ -322,10 +474,39 @@ public class ReservationControllerTest {
 			assertReservationEntityModel(resultActions, reservationResponseDTO);
 		}
 		
+		@Test
+		@DisplayName("should pass the If-Match version to the service and return the new ETag")
+		void shouldPassIfMatchVersionAndReturnNewETag() throws Exception {
+			ReservationResponseDTO updated = ReservationTestBuilder.aReservation().withVersion(2L).buildResponseDTO();
+			when(reservationService.update(eq(1L), any(ReservationUpdateRequestDTO.class), eq(1L))).thenReturn(updated);
+			doReturn(EntityModel.of(updated)).when(reservationModelAssembler).toModel(updated);
+			
+			mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
+							.header(HttpHeaders.IF_MATCH, "\"1\"")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(reservationUpdateRequestDTO)))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+		}
+		
+		@Test
+		@DisplayName("should return 412 when If-Match names a stale version")
+		void shouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+			when(reservationService.update(eq(1L), any(ReservationUpdateRequestDTO.class), eq(1L)))
+					.thenThrow(new EntityVersionMismatchException("reservation", 1L, 1L, 2L));
+			
+			mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
+							.header(HttpHeaders.IF_MATCH, "\"1\"")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(reservationUpdateRequestDTO)))
+					.andExpect(status().isPreconditionFailed())
+					.andExpect(jsonPath("$.message").value("The reservation with ID 1 is at version 2, not the version 1 given in If-Match."));
+		}
+		
 		@Test
 		@DisplayName("should return 404 if reservation not found")
 		void shouldReturnNotFoundIfReservationNotFound() throws Exception {
-			when(reservationService.update(1L, reservationUpdateRequestDTO)).thenThrow(new EntityReservationNotFoundException(1L));
+			when(reservationService.update(1L, reservationUpdateRequestDTO, null)).thenThrow(new EntityReservationNotFoundException(1L));
 			
 			mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
 							.contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,225 @@
+package com.github.alefthallys.roombooking.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alefthallys.roombooking.assemblers.ReservationSeriesModelAssembler;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationOccurrenceDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesRequestDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesResponseDTO;
+import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationConflictException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.EntityReservationOccurrenceNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.EntityReservationSeriesNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidOccurrenceRangeException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidRecurrenceRuleException;
+import com.github.alefthallys.roombooking.security.jwt.JwtAuthenticationFilter;
+import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
+import com.github.alefthallys.roombooking.services.ReservationSeriesService;
+import com.github.alefthallys.roombooking.testBuilders.ReservationSeriesTestBuilder;
+import com.github.alefthallys.roombooking.testUtils.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReservationSeriesController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class ReservationSeriesControllerTest {
+	
+	private static final String URL_PREFIX = TestConstants.API_V1_RESERVATION_SERIES;
+	private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 7, 0, 0);
+	private static final LocalDateTime TO = LocalDateTime.of(2030, 1, 14, 0, 0);
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@MockitoBean
+	private JwtTokenProvider jwtTokenProvider;
+	
+	@MockitoBean
+	private JwtAuthenticationFilter jwtAuthenticationFilter;
+	
+	@MockitoBean
+	private ReservationSeriesService reservationSeriesService;
+	
+	@MockitoBean
+	private ReservationSeriesModelAssembler reservationSeriesModelAssembler;
+	
+	private ReservationSeriesRequestDTO seriesRequestDTO;
+	private ReservationSeriesResponseDTO seriesResponseDTO;
+	private EntityModel<ReservationSeriesResponseDTO> seriesEntityModel;
+	
+	@BeforeEach
+	void setUp() {
+		seriesRequestDTO = ReservationSeriesTestBuilder.aReservationSeries().buildRequestDTO();
+		seriesResponseDTO = ReservationSeriesTestBuilder.aReservationSeries().withCancelledDates(Set.of(LocalDate.of(2030, 1, 9))).buildResponseDTO();
+		seriesEntityModel = EntityModel.of(seriesResponseDTO,
+				linkTo(methodOn(ReservationSeriesController.class).findById(seriesResponseDTO.id())).withSelfRel(),
+				linkTo(methodOn(ReservationSeriesController.class).delete(seriesResponseDTO.id())).withRel("delete")
+		);
+	}
+	
+	@Nested
+	@DisplayName("POST " + URL_PREFIX)
+	class CreateReservationSeries {
+		
+		@Test
+		@DisplayName("should create a new reservation series with HATEOAS links")
+		void shouldCreateNewReservationSeries() throws Exception {
+			when(reservationSeriesService.create(seriesRequestDTO)).thenReturn(seriesResponseDTO);
+			doReturn(seriesEntityModel).when(reservationSeriesModelAssembler).toModel(seriesResponseDTO);
+			
+			mockMvc.perform(post(URL_PREFIX)
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(seriesRequestDTO)))
+					.andExpect(status().isCreated())
+					.andExpect(jsonPath("$.id").value(seriesResponseDTO.id()))
+					.andExpect(jsonPath("$.startDate").value("2030-01-07T09:00:00"))
+					.andExpect(jsonPath("$.recurrenceRule").value("FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,WE;COUNT=10"))
+					.andExpect(jsonPath("$.cancelledDates[0]").value("2030-01-09"))
+					.andExpect(jsonPath("$._links.self.href").exists());
+		}
+		
+		@Test
+		@DisplayName("should return 400 when the recurrence rule is missing")
+		void shouldReturnBadRequestWhenRuleIsMissing() throws Exception {
+			ReservationSeriesRequestDTO invalidDto = new ReservationSeriesRequestDTO(1L, seriesRequestDTO.startDate(), seriesRequestDTO.endDate(), " ");
+			
+			mockMvc.perform(post(URL_PREFIX)
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(invalidDto)))
+					.andExpect(status().isBadRequest());
+			verifyNoInteractions(reservationSeriesService);
+		}
+		
+		@Test
+		@DisplayName("should return 400 when the recurrence rule is not supported")
+		void shouldReturnBadRequestWhenRuleIsInvalid() throws Exception {
+			when(reservationSeriesService.create(seriesRequestDTO)).thenThrow(new InvalidRecurrenceRuleException("FREQ=YEARLY", "FREQ must be DAILY or WEEKLY"));
+			
+			mockMvc.perform(post(URL_PREFIX)
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(seriesRequestDTO)))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message").value("Invalid recurrence rule 'FREQ=YEARLY': FREQ must be DAILY or WEEKLY"));
+		}
+		
+		@Test
+		@DisplayName("should return 409 when an occurrence conflicts with an existing booking")
+		void shouldReturnConflictWhenAnOccurrenceConflicts() throws Exception {
+			when(reservationSeriesService.create(seriesRequestDTO))
+					.thenThrow(new EntityReservationConflictException(FROM.plusHours(9), FROM.plusHours(10), "Room 101"));
+			
+			mockMvc.perform(post(URL_PREFIX)
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(seriesRequestDTO)))
+					.andExpect(status().isConflict());
+		}
+	}
+	
+	@Nested
+	@DisplayName("GET " + URL_PREFIX + "/{id}")
+	class FindReservationSeries {
+		
+		@Test
+		@DisplayName("should return the reservation series")
+		void shouldReturnReservationSeries() throws Exception {
+			when(reservationSeriesService.findById(1L)).thenReturn(seriesResponseDTO);
+			doReturn(seriesEntityModel).when(reservationSeriesModelAssembler).toModel(seriesResponseDTO);
+			
+			mockMvc.perform(get(URL_PREFIX + "/{id}", 1L))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.id").value(1L));
+		}
+		
+		@Test
+		@DisplayName("should return 404 when the reservation series does not exist")
+		void shouldReturnNotFoundWhenSeriesDoesNotExist() throws Exception {
+			when(reservationSeriesService.findById(99L)).thenThrow(new EntityReservationSeriesNotFoundException(99L));
+			
+			mockMvc.perform(get(URL_PREFIX + "/{id}", 99L))
+					.andExpect(status().isNotFound())
+					.andExpect(jsonPath("$.message").value("Reservation series not found with id: 99"));
+		}
+		
+		@Test
+		@DisplayName("should list the occurrences within the requested range")
+		void shouldListOccurrences() throws Exception {
+			List<ReservationOccurrenceDTO> occurrences = List.of(
+					new ReservationOccurrenceDTO(1L, FROM.plusHours(9), FROM.plusHours(10)),
+					new ReservationOccurrenceDTO(1L, FROM.plusDays(2).plusHours(9), FROM.plusDays(2).plusHours(10)));
+			when(reservationSeriesService.findOccurrences(1L, FROM, TO)).thenReturn(occurrences);
+			doReturn(CollectionModel.of(occurrences)).when(reservationSeriesModelAssembler).toOccurrencesModel(1L, occurrences, FROM, TO);
+			
+			mockMvc.perform(get(URL_PREFIX + "/{id}/occurrences", 1L)
+							.param("from", FROM.toString())
+							.param("to", TO.toString()))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$._embedded.reservationOccurrenceDTOList.length()").value(2))
+					.andExpect(jsonPath("$._embedded.reservationOccurrenceDTOList[1].startDate").value("2030-01-09T09:00:00"));
+		}
+		
+		@Test
+		@DisplayName("should return 400 when the occurrence range is invalid")
+		void shouldReturnBadRequestWhenRangeIsInvalid() throws Exception {
+			when(reservationSeriesService.findOccurrences(1L, TO, FROM)).thenThrow(new InvalidOccurrenceRangeException(TO, FROM));
+			
+			mockMvc.perform(get(URL_PREFIX + "/{id}/occurrences", 1L)
+							.param("from", TO.toString())
+							.param("to", FROM.toString()))
+					.andExpect(status().isBadRequest());
+		}
+	}
+	
+	@Nested
+	@DisplayName("DELETE " + URL_PREFIX)
+	class DeleteReservationSeries {
+		
+		@Test
+		@DisplayName("should cancel a single occurrence")
+		void shouldCancelOccurrence() throws Exception {
+			mockMvc.perform(delete(URL_PREFIX + "/{id}/occurrences/{date}", 1L, "2030-01-09"))
+					.andExpect(status().isNoContent());
+			verify(reservationSeriesService, times(1)).cancelOccurrence(1L, LocalDate.of(2030, 1, 9));
+		}
+		
+		@Test
+		@DisplayName("should return 404 when no occurrence is scheduled on the date")
+		void shouldReturnNotFoundWhenOccurrenceDoesNotExist() throws Exception {
+			doThrow(new EntityReservationOccurrenceNotFoundException(1L, LocalDate.of(2030, 1, 8)))
+					.when(reservationSeriesService).cancelOccurrence(1L, LocalDate.of(2030, 1, 8));
+			
+			mockMvc.perform(delete(URL_PREFIX + "/{id}/occurrences/{date}", 1L, "2030-01-08"))
+					.andExpect(status().isNotFound());
+		}
+		
+		@Test
+		@DisplayName("should delete the whole series")
+		void shouldDeleteSeries() throws Exception {
+			mockMvc.perform(delete(URL_PREFIX + "/{id}", 1L))
+					.andExpect(status().isNoContent());
+			verify(reservationSeriesService, times(1)).delete(1L);
+		}
+	}
+}
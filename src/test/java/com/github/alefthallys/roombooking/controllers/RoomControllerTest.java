@@ -2,10 +2,13 @@ package com.github.alefthallys.roombooking.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.alefthallys.roombooking.assemblers.RoomModelAssembler;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.Room.InvalidAvailabilityRangeException;
 import com.github.alefthallys.roombooking.security.jwt.JwtAuthenticationFilter;
 import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
 import com.github.alefthallys.roombooking.services.RoomService;
@@ -24,11 +27,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
@@ -37,6 +43,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -77,12 +84,12 @@ class RoomControllerTest {
 		
 		roomEntityModel = EntityModel.of(roomResponseDTO,
 				linkTo(methodOn(RoomController.class).findById(roomResponseDTO.id())).withSelfRel(),
-				linkTo(methodOn(RoomController.class).update(roomResponseDTO.id(), null)).withRel("update"),
+				linkTo(methodOn(RoomController.class).update(roomResponseDTO.id(), null, null)).withRel("update"),
 				linkTo(methodOn(RoomController.class).delete(roomResponseDTO.id())).withRel("delete")
 		);
 		
 		roomCollectionModel = CollectionModel.of(Collections.singletonList(roomEntityModel),
-				linkTo(methodOn(RoomController.class).findAll()).withSelfRel()
+				linkTo(methodOn(RoomController.class).findAll(null, null)).withSelfRel()
 		);
 	}
 	
@@ -124,9 +131,10 @@ class RoomControllerTest {
 		@DisplayName("should return all rooms with HATEOAS links")
 		void shouldReturnAllRoomsWithHateoasLinks() throws Exception {
 			List<RoomResponseDTO> responseList = List.of(roomResponseDTO);
-			when(roomService.findAll()).thenReturn(responseList);
+			CursorPageDTO<RoomResponseDTO> page = new CursorPageDTO<>(responseList, null);
+			when(roomService.findAll(null, null)).thenReturn(page);
 			
-			doReturn(roomCollectionModel).when(roomModelAssembler).toCollectionModel(responseList);
+			doReturn(roomCollectionModel).when(roomModelAssembler).toPagedModel(page, null, null);
 			
 			ResultActions resultActions = mockMvc.perform(get(URL_PREFIX))
 					.andExpect(status().isOk());
@@ -135,6 +143,51 @@ class RoomControllerTest {
 		}
 	}
 	
+	@Nested
+	@DisplayName("GET " + URL_PREFIX + "/available")
+	class FindAvailableRooms {
+		
+		private final LocalDateTime from = LocalDateTime.of(2030, 1, 7, 9, 0);
+		private final LocalDateTime to = from.plusHours(1);
+		
+		@Test
+		@DisplayName("should return the available rooms with HATEOAS links")
+		void shouldReturnAvailableRoomsWithHateoasLinks() throws Exception {
+			List<RoomResponseDTO> responseList = List.of(roomResponseDTO);
+			when(roomService.findAvailable(from, to, 8, "1st Floor")).thenReturn(responseList);
+			doReturn(roomCollectionModel).when(roomModelAssembler).toAvailableModel(responseList, from, to, 8, "1st Floor");
+			
+			ResultActions resultActions = mockMvc.perform(get(URL_PREFIX + "/available")
+							.param("from", "2030-01-07T09:00:00")
+							.param("to", "2030-01-07T10:00:00")
+							.param("minCapacity", "8")
+							.param("location", "1st Floor"))
+					.andExpect(status().isOk());
+			
+			assertRoomCollectionModel(resultActions, responseList);
+		}
+		
+		@Test
+		@DisplayName("should return 400 when the range is invalid")
+		void shouldReturnBadRequestWhenRangeIsInvalid() throws Exception {
+			when(roomService.findAvailable(to, from, null, null)).thenThrow(new InvalidAvailabilityRangeException(to, from));
+			
+			mockMvc.perform(get(URL_PREFIX + "/available")
+							.param("from", "2030-01-07T10:00:00")
+							.param("to", "2030-01-07T09:00:00"))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message").value(new InvalidAvailabilityRangeException(to, from).getMessage()));
+		}
+		
+		@Test
+		@DisplayName("should return 400 when the range is missing")
+		void shouldReturnBadRequestWhenRangeIsMissing() throws Exception {
+			mockMvc.perform(get(URL_PREFIX + "/available").param("from", "2030-01-07T09:00:00"))
+					.andExpect(status().isBadRequest());
+			verifyNoInteractions(roomService);
+		}
+	}
+	
 	@Nested
 	@DisplayName("GET " + URL_PREFIX + "/{id}")
 	class FindRoomById {
@@ -150,6 +203,19 @@ class RoomControllerTest {
 			assertRoomEntityModel(resultActions, roomResponseDTO);
 		}
 		
+		@Test
+		@DisplayName("should return the room version as ETag")
+		void shouldReturnRoomVersionAsETag() throws Exception {
+			RoomResponseDTO versioned = RoomTestBuilder.aRoom().withVersion(2L).buildResponseDTO();
+			when(roomService.findById(1L)).thenReturn(versioned);
+			doReturn(EntityModel.of(versioned)).when(roomModelAssembler).toModel(versioned);
+			
+			mockMvc.perform(get(URL_PREFIX + "/{id}", 1L))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+					.andExpect(jsonPath("$.version").doesNotExist());
+		}
+		
 		@Test
 		@DisplayName("should return 404 when room not found")
 		void shouldThrowEntityRoomNotFoundException() throws Exception {
@@ -234,7 +300,7 @@ class RoomControllerTest {
 		@Test
 		@DisplayName("should update a room with HATEOAS links")
 		void shouldUpdateRoomWithHateoasLinks() throws Exception {
-			when(roomService.update(1L, roomRequestDTO)).thenReturn(roomResponseDTO);
+			when(roomService.update(1L, roomRequestDTO, null)).thenReturn(roomResponseDTO);
 			doReturn(roomEntityModel).when(roomModelAssembler).toModel(roomResponseDTO);
 			
 			ResultActions resultActions = mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
@@ -244,10 +310,60 @@ class RoomControllerTest {
 			assertRoomEntityModel(resultActions, roomResponseDTO);
 		}
 		
+		@Test
+		@DisplayName("should pass the If-Match version to the service and return the new ETag")
+		void shouldPassIfMatchVersionAndReturnNewETag() throws Exception {
+			RoomResponseDTO updated = RoomTestBuilder.aRoom().withVersion(4L).buildResponseDTO();
+			when(roomService.update(1L, roomRequestDTO, 3L)).thenReturn(updated);
+			doReturn(EntityModel.of(updated)).when(roomModelAssembler).toModel(updated);
+			
+			mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
+							.header(HttpHeaders.IF_MATCH, "\"3\"")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(roomRequestDTO)))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+		}
+		
+		@Test
+		@DisplayName("should return 412 when If-Match names a stale version")
+		void shouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+			when(roomService.update(1L, roomRequestDTO, 3L)).thenThrow(new EntityVersionMismatchException("room", 1L, 3L, 4L));
+			
+			mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
+							.header(HttpHeaders.IF_MATCH, "W/\"3\"")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(roomRequestDTO)))
+					.andExpect(status().isPreconditionFailed());
+		}
+		
+		@Test
+		@DisplayName("should return 412 when If-Match is not a version")
+		void shouldReturnPreconditionFailedWhenIfMatchIsNotAVersion() throws Exception {
+			mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
+							.header(HttpHeaders.IF_MATCH, "\"abc\"")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(roomRequestDTO)))
+					.andExpect(status().isPreconditionFailed());
+			verifyNoInteractions(roomService);
+		}
+		
+		@Test
+		@DisplayName("should return 409 when concurrent edits keep winning the race")
+		void shouldReturnConflictWhenConcurrentEditsKeepWinning() throws Exception {
+			when(roomService.update(1L, roomRequestDTO, null)).thenThrow(new ObjectOptimisticLockingFailureException(RoomResponseDTO.class, 1L));
+			
+			mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(roomRequestDTO)))
+					.andExpect(status().isConflict())
+					.andExpect(jsonPath("$.message").value("The resource was modified concurrently. Reload it and try again."));
+		}
+		
 		@Test
 		@DisplayName("should return 404 when room not found")
 		void shouldThrowEntityRoomNotFoundExceptionOnUpdate() throws Exception {
-			when(roomService.update(1L, roomRequestDTO)).thenThrow(new EntityRoomNotFoundException(1L));
+			when(roomService.update(1L, roomRequestDTO, null)).thenThrow(new EntityRoomNotFoundException(1L));
 			
 			mockMvc.perform(put(URL_PREFIX + "/{id}", 1L)
 							.contentType(MediaType.APPLICATION_JSON)
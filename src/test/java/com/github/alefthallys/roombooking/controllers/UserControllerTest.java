@@ -2,6 +2,7 @@ package com.github.alefthallys.roombooking.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.alefthallys.roombooking.assemblers.UserModelAssembler;
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserRequestDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserUpdateRequestDTO;
@@ -84,7 +85,7 @@ class UserControllerTest {
 		);
 		
 		userCollectionModel = CollectionModel.of(Collections.singletonList(userEntityModel),
-				linkTo(methodOn(UserController.class).findAll()).withSelfRel()
+				linkTo(methodOn(UserController.class).findAll(null, null)).withSelfRel()
 		);
 	}
 	
@@ -126,9 +127,10 @@ class UserControllerTest {
 		@DisplayName("should return all users with HATEOAS links")
 		void shouldReturnAllUsersWithHateoasLinks() throws Exception {
 			List<UserResponseDTO> responseList = List.of(userResponseDTO);
-			when(userService.findAll()).thenReturn(responseList);
+			CursorPageDTO<UserResponseDTO> page = new CursorPageDTO<>(responseList, null);
+			when(userService.findAll(null, null)).thenReturn(page);
 			
-			doReturn(userCollectionModel).when(userModelAssembler).toCollectionModel(responseList);
+			doReturn(userCollectionModel).when(userModelAssembler).toPagedModel(page, null, null);
 			
 			ResultActions resultActions = mockMvc.perform(get(URL_PREFIX))
 					.andExpect(status().isOk());
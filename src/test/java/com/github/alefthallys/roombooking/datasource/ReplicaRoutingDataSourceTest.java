@@ -0,0 +1,176 @@
+package com.github.alefthallys.roombooking.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+	
+	private final AtomicReference<Supplier<Optional<Duration>>> lagProbe = new AtomicReference<>(() -> Optional.of(Duration.ZERO));
+	private SimpleMeterRegistry meterRegistry;
+	private ReplicaLagMonitor replicaLagMonitor;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+	
+	private static DataSource node(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:routing-" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+		jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+		return dataSource;
+	}
+	
+	@BeforeEach
+	void setUp() {
+		ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties();
+		properties.setMaxLag(Duration.ofSeconds(2));
+		meterRegistry = new SimpleMeterRegistry();
+		replicaLagMonitor = new ReplicaLagMonitor(() -> lagProbe.get().get(), properties, meterRegistry);
+		
+		DataSource dataSource = new LazyConnectionDataSourceProxy(
+				new ReplicaRoutingDataSource(node("primary"), node("replica"), replicaLagMonitor, meterRegistry));
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+	
+	private String nodeIn(TransactionTemplate transactionTemplate) {
+		return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static JdbcTemplate replicaWithoutReplicationStatus() {
+		JdbcTemplate replica = mock(JdbcTemplate.class);
+		when(replica.query(eq("SHOW SLAVE STATUS"), any(RowMapper.class))).thenReturn(List.of());
+		return replica;
+	}
+	
+	private void replicaLag(Supplier<Optional<Duration>> probe) {
+		lagProbe.set(probe);
+		replicaLagMonitor.checkLag();
+	}
+	
+	@Nested
+	@DisplayName("Routing")
+	class Routing {
+		
+		@Test
+		@DisplayName("Should send read-only transactions to the replica while it is within the lag bound")
+		void shouldSendReadOnlyTransactionsToReplica() {
+			replicaLag(() -> Optional.of(Duration.ofSeconds(1)));
+			
+			assertEquals("replica", nodeIn(readOnly));
+			assertEquals(1.0, meterRegistry.counter(ReplicaRoutingDataSource.READS_COUNTER, "target", "replica").count());
+		}
+		
+		@Test
+		@DisplayName("Should send read-write transactions to the primary")
+		void shouldSendReadWriteTransactionsToPrimary() {
+			replicaLag(() -> Optional.of(Duration.ZERO));
+			
+			assertEquals("primary", nodeIn(readWrite));
+		}
+		
+		@Test
+		@DisplayName("Should send work outside a transaction to the primary")
+		void shouldSendNonTransactionalWorkToPrimary() {
+			replicaLag(() -> Optional.of(Duration.ZERO));
+			
+			assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Lag fallback")
+	class LagFallback {
+		
+		@Test
+		@DisplayName("Should fall back to the primary before the lag has been measured")
+		void shouldFallBackBeforeLagIsMeasured() {
+			assertEquals("primary", nodeIn(readOnly));
+			assertEquals(1.0, meterRegistry.counter(ReplicaRoutingDataSource.READS_COUNTER, "target", "primary").count());
+		}
+		
+		@Test
+		@DisplayName("Should fall back to the primary while the replica lags more than the bound")
+		void shouldFallBackWhileReplicaLagsTooFarBehind() {
+			replicaLag(() -> Optional.of(Duration.ofSeconds(30)));
+			
+			assertEquals("primary", nodeIn(readOnly));
+			assertEquals(30.0, meterRegistry.get(ReplicaLagMonitor.LAG_GAUGE).gauge().value());
+		}
+		
+		@Test
+		@DisplayName("Should fall back to the primary when replication is stopped")
+		void shouldFallBackWhenReplicationIsStopped() {
+			replicaLag(Optional::empty);
+			
+			assertEquals("primary", nodeIn(readOnly));
+			assertTrue(Double.isNaN(meterRegistry.get(ReplicaLagMonitor.LAG_GAUGE).gauge().value()));
+		}
+		
+		@Test
+		@DisplayName("Should fall back to the primary when the replica reports no replication status")
+		void shouldFallBackWhenReplicationStatusIsMissing() {
+			replicaLag(ReplicaLagMonitor.secondsBehindPrimary(replicaWithoutReplicationStatus(), false));
+			
+			assertEquals("primary", nodeIn(readOnly));
+			assertTrue(Double.isNaN(meterRegistry.get(ReplicaLagMonitor.LAG_GAUGE).gauge().value()));
+		}
+		
+		@Test
+		@DisplayName("Should treat a missing replication status as no lag when explicitly allowed")
+		void shouldTrustMissingReplicationStatusWhenAllowed() {
+			replicaLag(ReplicaLagMonitor.secondsBehindPrimary(replicaWithoutReplicationStatus(), true));
+			
+			assertEquals("replica", nodeIn(readOnly));
+		}
+		
+		@Test
+		@DisplayName("Should fall back to the primary when the replica cannot be reached")
+		void shouldFallBackWhenReplicaIsUnreachable() {
+			replicaLag(() -> {
+				throw new IllegalStateException("Connection refused");
+			});
+			
+			assertEquals("primary", nodeIn(readOnly));
+		}
+		
+		@Test
+		@DisplayName("Should route reads to the replica again once it catches up")
+		void shouldRouteReadsToReplicaOnceItCatchesUp() {
+			replicaLag(() -> Optional.of(Duration.ofSeconds(30)));
+			assertEquals("primary", nodeIn(readOnly));
+			
+			replicaLag(() -> Optional.of(Duration.ofMillis(500)));
+			
+			assertEquals("replica", nodeIn(readOnly));
+		}
+	}
+}
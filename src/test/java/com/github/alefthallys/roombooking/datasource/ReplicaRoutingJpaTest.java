@@ -0,0 +1,124 @@
+package com.github.alefthallys.roombooking.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing through Hibernate, where {@link JpaTransactionManager} prepares the connection and the
+ * EntityManager holds it for as long as it lives. Without open-in-view every transaction gets its
+ * own EntityManager, so a write after a replica read fetches a fresh, primary connection.
+ */
+class ReplicaRoutingJpaTest {
+	
+	private JdbcTemplate primary;
+	private JdbcTemplate replica;
+	private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+	private EntityManagerFactory entityManagerFactory;
+	private EntityManager entityManager;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+	
+	private static DataSource node(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:jpa-routing-" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+		jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+		return dataSource;
+	}
+	
+	@BeforeEach
+	void setUp() {
+		ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ReplicaLagMonitor replicaLagMonitor = new ReplicaLagMonitor(() -> Optional.of(Duration.ZERO), properties, meterRegistry);
+		replicaLagMonitor.checkLag();
+		DataSource primaryDataSource = node("primary");
+		DataSource replicaDataSource = node("replica");
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(replicaDataSource);
+		
+		entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+		entityManagerFactoryBean.setDataSource(new LazyConnectionDataSourceProxy(
+				new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor, meterRegistry)));
+		entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		entityManagerFactoryBean.setPackagesToScan(ReplicaRoutingJpaTest.class.getPackageName());
+		entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.dialect", "org.hibernate.dialect.H2Dialect"));
+		entityManagerFactoryBean.afterPropertiesSet();
+		entityManagerFactory = entityManagerFactoryBean.getObject();
+		entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+		
+		JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.hasResource(entityManagerFactory)) {
+			((EntityManagerHolder) TransactionSynchronizationManager.unbindResource(entityManagerFactory)).getEntityManager().close();
+		}
+		entityManagerFactoryBean.destroy();
+	}
+	
+	private String readNode() {
+		return readOnly.execute(status -> (String) entityManager.createNativeQuery("SELECT name FROM node").getSingleResult());
+	}
+	
+	private void write(String name) {
+		readWrite.executeWithoutResult(status -> entityManager.createNativeQuery("INSERT INTO node VALUES (?1)")
+				.setParameter(1, name)
+				.executeUpdate());
+	}
+	
+	private List<String> names(JdbcTemplate node) {
+		return node.queryForList("SELECT name FROM node ORDER BY name", String.class);
+	}
+	
+	@Test
+	@DisplayName("Should send a write that follows a replica read in the same thread to the primary")
+	void shouldSendWriteAfterReplicaReadToPrimary() {
+		assertEquals("replica", readNode());
+		
+		write("written");
+		
+		assertEquals(List.of("primary", "written"), names(primary));
+		assertEquals(List.of("replica"), names(replica));
+	}
+	
+	@Test
+	@DisplayName("Should keep the replica connection for a later write when an EntityManager spans the request")
+	void shouldReuseReplicaConnectionWhenEntityManagerSpansRequest() {
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManagerFactory.createEntityManager()));
+		assertEquals("replica", readNode());
+		
+		write("written");
+		
+		assertEquals(List.of("primary"), names(primary));
+		assertEquals(List.of("replica", "written"), names(replica));
+	}
+}
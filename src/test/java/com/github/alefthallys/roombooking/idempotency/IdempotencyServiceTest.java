@@ -0,0 +1,258 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
+import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.IdempotencyKeyInFlightException;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.IdempotencyKeyReusedException;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.InvalidIdempotencyKeyException;
+import com.github.alefthallys.roombooking.models.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceTest {
+	
+	private static final String KEY = "booking-1";
+	private static final Map<String, Object> REQUEST = Map.of("roomId", 1, "startDate", "2030-01-07T08:00:00");
+	
+	private final AtomicInteger executions = new AtomicInteger();
+	
+	private IdempotencyProperties properties;
+	private InMemoryIdempotencyStore store;
+	private SimpleMeterRegistry meterRegistry;
+	private IdempotencyService idempotencyService;
+	
+	@BeforeEach
+	void setUp() {
+		properties = new IdempotencyProperties();
+		store = new InMemoryIdempotencyStore(properties);
+		meterRegistry = new SimpleMeterRegistry();
+		idempotencyService = instance(Clock.systemUTC());
+	}
+	
+	private IdempotencyService instance(Clock clock) {
+		return new IdempotencyService(store, properties, new ObjectMapper().findAndRegisterModules(), meterRegistry,
+				TransactionOperations.withoutTransaction(), clock);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+	
+	private Booking book() {
+		return new Booking((long) executions.incrementAndGet(), "Room 101");
+	}
+	
+	private double requests(String outcome) {
+		return meterRegistry.counter("roombooking.idempotency.requests", "outcome", outcome).count();
+	}
+	
+	@Nested
+	@DisplayName("Replays")
+	class Replays {
+		
+		@Test
+		@DisplayName("Should return the stored response without running the action again")
+		void shouldReplayStoredResponse() {
+			IdempotentResult<Booking> first = idempotencyService.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book);
+			IdempotentResult<Booking> second = idempotencyService.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book);
+			
+			assertFalse(first.replayed());
+			assertTrue(second.replayed());
+			assertEquals(first.value(), second.value());
+			assertEquals(1, executions.get());
+			assertEquals(1, requests("executed"));
+			assertEquals(1, requests("replayed"));
+		}
+		
+		@Test
+		@DisplayName("Should replay a response equal to the first one, including fields hidden from JSON")
+		void shouldReplayResponseEqualToFirstOne() {
+			LocalDateTime start = LocalDateTime.of(2030, 1, 7, 8, 0, 0, 123_456_000);
+			ReservationResponseDTO created = new ReservationResponseDTO(1L, start, start.plusHours(1),
+					new UserResponseDTO(2L, "John", "john@gmail.com", "11999999999", User.Role.USER),
+					new RoomResponseDTO(3L, "Room 101", "Projector", 8, "Floor 1", 4L),
+					0L);
+			
+			IdempotentResult<ReservationResponseDTO> first = idempotencyService.execute(KEY, REQUEST, ReservationResponseDTO.class, () -> created);
+			IdempotentResult<ReservationResponseDTO> replay = idempotencyService.execute(KEY, REQUEST, ReservationResponseDTO.class, () -> created);
+			
+			assertTrue(replay.replayed());
+			assertEquals(first.value(), replay.value());
+			assertEquals(0L, replay.value().version());
+			assertEquals(start, replay.value().startDate());
+		}
+		
+		@Test
+		@DisplayName("Should reject a key reused with a different request body")
+		void shouldRejectKeyReusedWithDifferentBody() {
+			idempotencyService.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book);
+			
+			assertThrows(IdempotencyKeyReusedException.class,
+					() -> idempotencyService.execute(KEY, Map.of("roomId", 2), Booking.class, IdempotencyServiceTest.this::book));
+			assertEquals(1, executions.get());
+		}
+		
+		@Test
+		@DisplayName("Should not remember a failed request so it can be retried with the same key")
+		void shouldNotRememberFailedRequest() {
+			assertThrows(IllegalStateException.class, () -> idempotencyService.execute(KEY, REQUEST, Booking.class, () -> {
+				throw new IllegalStateException("room unavailable");
+			}));
+			
+			IdempotentResult<Booking> retry = idempotencyService.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book);
+			
+			assertFalse(retry.replayed());
+			assertEquals(1, executions.get());
+		}
+		
+		@Test
+		@DisplayName("Should scope keys to the authenticated user")
+		void shouldScopeKeysToAuthenticatedUser() {
+			SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("john@gmail.com", null));
+			idempotencyService.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book);
+			SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("jane@gmail.com", null));
+			IdempotentResult<Booking> otherUser = idempotencyService.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book);
+			
+			assertFalse(otherUser.replayed());
+			assertEquals(2, executions.get());
+		}
+		
+		@ParameterizedTest(name = "Should reject the key \"{0}\"")
+		@ValueSource(strings = {"", "  "})
+		@DisplayName("Should reject a blank key")
+		void shouldRejectBlankKey(String key) {
+			assertThrows(InvalidIdempotencyKeyException.class,
+					() -> idempotencyService.execute(key, REQUEST, Booking.class, IdempotencyServiceTest.this::book));
+		}
+		
+		@Test
+		@DisplayName("Should reject a key longer than the maximum length")
+		void shouldRejectTooLongKey() {
+			String key = "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+			
+			assertThrows(InvalidIdempotencyKeyException.class,
+					() -> idempotencyService.execute(key, REQUEST, Booking.class, IdempotencyServiceTest.this::book));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Concurrent duplicates")
+	class ConcurrentDuplicates {
+		
+		@Test
+		@DisplayName("Should make a duplicate wait for the first request and run the action once")
+		void shouldRunActionOnceForConcurrentDuplicates() throws Exception {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			try {
+				Future<IdempotentResult<Booking>> first = executor.submit(() -> idempotencyService.execute(KEY, REQUEST, Booking.class, () -> {
+					started.countDown();
+					awaitQuietly(release);
+					return book();
+				}));
+				assertTrue(started.await(5, TimeUnit.SECONDS));
+				Future<IdempotentResult<Booking>> duplicate = executor.submit(
+						() -> idempotencyService.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book));
+				release.countDown();
+				
+				assertEquals(first.get(5, TimeUnit.SECONDS).value(), duplicate.get(5, TimeUnit.SECONDS).value());
+				assertTrue(duplicate.get().replayed());
+				assertEquals(1, executions.get());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		
+		@Test
+		@DisplayName("Should make a duplicate on another instance wait instead of taking over a live claim")
+		void shouldNotTakeOverLiveClaim() throws Exception {
+			properties.setInFlightTimeout(Duration.ofMillis(200));
+			IdempotencyService otherInstance = instance(Clock.systemUTC());
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			ExecutorService executor = Executors.newSingleThreadExecutor();
+			try {
+				Future<IdempotentResult<Booking>> first = executor.submit(() -> idempotencyService.execute(KEY, REQUEST, Booking.class, () -> {
+					started.countDown();
+					awaitQuietly(release);
+					return book();
+				}));
+				assertTrue(started.await(5, TimeUnit.SECONDS));
+				
+				assertThrows(IdempotencyKeyInFlightException.class,
+						() -> otherInstance.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book));
+				release.countDown();
+				
+				assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+				assertEquals(1, executions.get());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		
+		@Test
+		@DisplayName("Should fail a request whose claim was taken over after the claim timeout instead of storing its response")
+		void shouldFailRequestWhoseClaimWasTakenOver() throws Exception {
+			IdempotencyService laterInstance = instance(Clock.offset(Clock.systemUTC(), properties.getClaimTimeout().plusMinutes(1)));
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			ExecutorService executor = Executors.newSingleThreadExecutor();
+			try {
+				Future<IdempotentResult<Booking>> abandoned = executor.submit(() -> idempotencyService.execute(KEY, REQUEST, Booking.class, () -> {
+					started.countDown();
+					awaitQuietly(release);
+					return new Booking(99L, "Abandoned");
+				}));
+				assertTrue(started.await(5, TimeUnit.SECONDS));
+				
+				IdempotentResult<Booking> takenOver = laterInstance.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book);
+				release.countDown();
+				
+				ExecutionException failure = assertThrows(ExecutionException.class, () -> abandoned.get(5, TimeUnit.SECONDS));
+				assertInstanceOf(IdempotencyKeyInFlightException.class, failure.getCause());
+				assertFalse(takenOver.replayed());
+				assertEquals(takenOver.value(), idempotencyService.execute(KEY, REQUEST, Booking.class, IdempotencyServiceTest.this::book).value());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		
+		private static void awaitQuietly(CountDownLatch latch) {
+			try {
+				latch.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	record Booking(Long id, String room) {
+	}
+}
@@ -0,0 +1,147 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alefthallys.roombooking.exceptions.Idempotency.IdempotencyKeyInFlightException;
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.repositories.IdempotencyKeyRepository;
+import com.github.alefthallys.roombooking.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The action and the stored response against a real database: whatever the action created must
+ * never be kept without its response, or a retry would create it twice.
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTransactionTest {
+	
+	private static final String KEY = "booking-1";
+	private static final String REQUEST = "{\"roomId\":1}";
+	
+	@Autowired
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	private final AtomicBoolean failNextCompletion = new AtomicBoolean();
+	private IdempotencyProperties properties;
+	private IdempotencyStore store;
+	
+	@BeforeEach
+	void setUp() {
+		properties = new IdempotencyProperties();
+		JpaIdempotencyStore jpaStore = new JpaIdempotencyStore(idempotencyKeyRepository, properties);
+		store = new IdempotencyStore() {
+			@Override
+			public Optional<Entry> find(String key) {
+				return jpaStore.find(key);
+			}
+			
+			@Override
+			public boolean claim(String key, String fingerprint, String owner, Instant claimedAt) {
+				return jpaStore.claim(key, fingerprint, owner, claimedAt);
+			}
+			
+			@Override
+			public boolean complete(String key, String owner, String response) {
+				if (failNextCompletion.getAndSet(false)) {
+					throw new DataAccessResourceFailureException("Connection reset");
+				}
+				return jpaStore.complete(key, owner, response);
+			}
+			
+			@Override
+			public void release(String key, String owner) {
+				jpaStore.release(key, owner);
+			}
+		};
+	}
+	
+	@AfterEach
+	void tearDown() {
+		idempotencyKeyRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+	
+	private IdempotencyService instance(Clock clock) {
+		return new IdempotencyService(store, properties, new ObjectMapper(), new SimpleMeterRegistry(), new TransactionTemplate(transactionManager), clock);
+	}
+	
+	private Long createUser(String name) {
+		return userRepository.save(new User(name, name.toLowerCase().replace(' ', '.') + "@gmail.com", "password", "11999999999")).getId();
+	}
+	
+	private List<String> userNames() {
+		return userRepository.findAll().stream().map(User::getName).toList();
+	}
+	
+	@Test
+	@DisplayName("Should roll back the action when its response cannot be stored, so a retry creates only once")
+	void shouldRollBackActionWhenResponseCannotBeStored() {
+		IdempotencyService idempotencyService = instance(Clock.systemUTC());
+		failNextCompletion.set(true);
+		
+		assertThrows(DataAccessResourceFailureException.class,
+				() -> idempotencyService.execute(KEY, REQUEST, Long.class, () -> createUser("John Doe")));
+		assertEquals(List.of(), userNames());
+		
+		Long created = idempotencyService.execute(KEY, REQUEST, Long.class, () -> createUser("John Doe")).value();
+		IdempotentResult<Long> replay = idempotencyService.execute(KEY, REQUEST, Long.class, () -> createUser("John Doe"));
+		
+		assertTrue(replay.replayed());
+		assertEquals(created, replay.value());
+		assertEquals(List.of("John Doe"), userNames());
+	}
+	
+	@Test
+	@DisplayName("Should roll back a request whose claim another instance took over")
+	void shouldRollBackRequestWhoseClaimWasTakenOver() {
+		IdempotencyService idempotencyService = instance(Clock.systemUTC());
+		IdempotencyService laterInstance = instance(Clock.offset(Clock.systemUTC(), properties.getClaimTimeout().plusMinutes(1)));
+		ExecutorService otherInstanceThread = Executors.newSingleThreadExecutor();
+		try {
+			assertThrows(IdempotencyKeyInFlightException.class, () -> idempotencyService.execute(KEY, REQUEST, Long.class, () -> {
+				Long abandoned = createUser("Abandoned");
+				try {
+					otherInstanceThread.submit(() -> laterInstance.execute(KEY, REQUEST, Long.class, () -> createUser("Taken over")))
+							.get(10, TimeUnit.SECONDS);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+				return abandoned;
+			}));
+		} finally {
+			otherInstanceThread.shutdownNow();
+		}
+		
+		assertEquals(List.of("Taken over"), userNames());
+		assertEquals(userRepository.findAll().get(0).getId(),
+				idempotencyService.execute(KEY, REQUEST, Long.class, () -> createUser("Retried")).value());
+	}
+}
@@ -0,0 +1,115 @@
+package com.github.alefthallys.roombooking.idempotency;
+
+import com.github.alefthallys.roombooking.repositories.IdempotencyKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaIdempotencyStoreTest {
+	
+	private static final String KEY = "a".repeat(64);
+	private static final String FINGERPRINT = "f".repeat(64);
+	private static final String OWNER = "owner-1";
+	private static final Instant NOW = Instant.parse("2030-01-07T08:00:00Z");
+	
+	@Autowired
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+	
+	private JpaIdempotencyStore storeAt(Instant instant) {
+		IdempotencyProperties properties = new IdempotencyProperties();
+		properties.setTtl(Duration.ofHours(24));
+		return new JpaIdempotencyStore(idempotencyKeyRepository, properties, Clock.fixed(instant, ZoneOffset.UTC));
+	}
+	
+	@AfterEach
+	void tearDown() {
+		idempotencyKeyRepository.deleteAll();
+	}
+	
+	@Test
+	@DisplayName("Should let only the first request claim a key")
+	void shouldLetOnlyFirstRequestClaimKey() {
+		JpaIdempotencyStore store = storeAt(NOW);
+		
+		assertTrue(store.claim(KEY, FINGERPRINT, OWNER, NOW));
+		assertFalse(store.claim(KEY, FINGERPRINT, OWNER, NOW));
+		assertFalse(store.find(KEY).orElseThrow().isCompleted());
+	}
+	
+	@Test
+	@DisplayName("Should return the stored response once the request completed")
+	void shouldReturnStoredResponseOnceCompleted() {
+		JpaIdempotencyStore store = storeAt(NOW);
+		store.claim(KEY, FINGERPRINT, OWNER, NOW);
+		
+		assertTrue(store.complete(KEY, OWNER, "{\"id\":1}"));
+		
+		IdempotencyStore.Entry entry = store.find(KEY).orElseThrow();
+		assertEquals(FINGERPRINT, entry.fingerprint());
+		assertEquals("{\"id\":1}", entry.response());
+		assertEquals(NOW, entry.claimedAt());
+	}
+	
+	@Test
+	@DisplayName("Should forget a released key")
+	void shouldForgetReleasedKey() {
+		JpaIdempotencyStore store = storeAt(NOW);
+		store.claim(KEY, FINGERPRINT, OWNER, NOW);
+		
+		store.release(KEY, OWNER);
+		
+		assertTrue(store.find(KEY).isEmpty());
+		assertTrue(store.claim(KEY, FINGERPRINT, OWNER, NOW));
+	}
+	
+	@Test
+	@DisplayName("Should neither complete nor release a key claimed by another owner")
+	void shouldIgnoreOtherOwners() {
+		JpaIdempotencyStore store = storeAt(NOW);
+		store.claim(KEY, FINGERPRINT, OWNER, NOW);
+		
+		assertFalse(store.complete(KEY, "owner-2", "{\"id\":2}"));
+		store.release(KEY, "owner-2");
+		
+		IdempotencyStore.Entry entry = store.find(KEY).orElseThrow();
+		assertEquals(OWNER, entry.owner());
+		assertFalse(entry.isCompleted());
+	}
+	
+	@Test
+	@DisplayName("Should ignore an expired key and let it be claimed again")
+	void shouldIgnoreExpiredKey() {
+		storeAt(NOW).claim(KEY, FINGERPRINT, OWNER, NOW);
+		Instant later = NOW.plus(Duration.ofHours(25));
+		JpaIdempotencyStore store = storeAt(later);
+		
+		assertTrue(store.find(KEY).isEmpty());
+		assertTrue(store.claim(KEY, FINGERPRINT, OWNER, later));
+	}
+	
+	@Test
+	@DisplayName("Should purge only expired keys")
+	void shouldPurgeOnlyExpiredKeys() {
+		JpaIdempotencyStore store = storeAt(NOW);
+		store.claim(KEY, FINGERPRINT, OWNER, NOW.minus(Duration.ofHours(25)));
+		store.claim("b".repeat(64), FINGERPRINT, OWNER, NOW);
+		
+		store.purgeExpired();
+		
+		assertFalse(idempotencyKeyRepository.existsById(KEY));
+		assertTrue(idempotencyKeyRepository.existsById("b".repeat(64)));
+	}
+}
@@ -0,0 +1,144 @@
+package com.github.alefthallys.roombooking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+	
+	private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 7, 8, 0);
+	
+	private IntervalTree tree;
+	
+	private static ReservationInterval interval(long id, int startHour, int endHour) {
+		return new ReservationInterval(id, 1L, 1L, BASE.plusHours(startHour), BASE.plusHours(endHour));
+	}
+	
+	@BeforeEach
+	void setUp() {
+		tree = new IntervalTree();
+	}
+	
+	@Nested
+	@DisplayName("Overlap Queries")
+	class OverlapQueries {
+		
+		@Test
+		@DisplayName("Should find an interval that overlaps the requested range")
+		void shouldFindOverlappingInterval() {
+			tree.insert(interval(1L, 0, 2));
+			tree.insert(interval(2L, 4, 6));
+			
+			Optional<ReservationInterval> overlap = tree.findFirstOverlap(BASE.plusHours(5), BASE.plusHours(7), null);
+			
+			assertTrue(overlap.isPresent());
+			assertEquals(2L, overlap.get().id());
+		}
+		
+		@Test
+		@DisplayName("Should treat touching intervals as not overlapping")
+		void shouldTreatTouchingIntervalsAsNotOverlapping() {
+			tree.insert(interval(1L, 0, 2));
+			tree.insert(interval(2L, 4, 6));
+			
+			assertTrue(tree.findFirstOverlap(BASE.plusHours(2), BASE.plusHours(4), null).isEmpty());
+		}
+		
+		@Test
+		@DisplayName("Should ignore the excluded reservation id")
+		void shouldIgnoreExcludedReservationId() {
+			tree.insert(interval(1L, 0, 2));
+			
+			assertTrue(tree.findFirstOverlap(BASE, BASE.plusHours(1), 1L).isEmpty());
+		}
+		
+		@Test
+		@DisplayName("Should find a long interval that starts well before the requested range")
+		void shouldFindLongIntervalStartingBeforeRange() {
+			tree.insert(interval(1L, 0, 100));
+			for (long id = 2; id < 50; id++) {
+				tree.insert(interval(id, (int) id, (int) id + 1));
+			}
+			
+			List<ReservationInterval> overlaps = tree.findOverlaps(BASE.plusHours(60), BASE.plusHours(61));
+			
+			assertEquals(1, overlaps.size());
+			assertEquals(1L, overlaps.get(0).id());
+		}
+		
+		@Test
+		@DisplayName("Should match a brute force scan for random intervals")
+		void shouldMatchBruteForceScan() {
+			Random random = new Random(42);
+			List<ReservationInterval> all = new ArrayList<>();
+			for (long id = 1; id <= 500; id++) {
+				int start = random.nextInt(1000);
+				ReservationInterval interval = interval(id, start, start + 1 + random.nextInt(24));
+				all.add(interval);
+				tree.insert(interval);
+			}
+			for (int i = 0; i < 150; i++) {
+				ReservationInterval removed = all.remove(random.nextInt(all.size()));
+				assertTrue(tree.remove(removed));
+			}
+			
+			for (int i = 0; i < 200; i++) {
+				int start = random.nextInt(1000);
+				LocalDateTime from = BASE.plusHours(start);
+				LocalDateTime to = BASE.plusHours(start + 1 + random.nextInt(12));
+				List<ReservationInterval> expected = all.stream()
+						.filter(interval -> interval.overlaps(from, to))
+						.sorted(Comparator.comparing(ReservationInterval::startDate).thenComparing(ReservationInterval::id))
+						.toList();
+				
+				assertEquals(expected, tree.findOverlaps(from, to));
+				assertEquals(expected.stream().findFirst(), tree.findFirstOverlap(from, to, null));
+			}
+			assertEquals(all.size(), tree.size());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Mutations")
+	class Mutations {
+		
+		@Test
+		@DisplayName("Should replace an interval inserted twice with the same start and id")
+		void shouldReplaceDuplicateInterval() {
+			tree.insert(interval(1L, 0, 2));
+			tree.insert(interval(1L, 0, 5));
+			
+			assertEquals(1, tree.size());
+			assertTrue(tree.findFirstOverlap(BASE.plusHours(3), BASE.plusHours(4), null).isPresent());
+		}
+		
+		@Test
+		@DisplayName("Should return false when removing an unknown interval")
+		void shouldReturnFalseWhenRemovingUnknownInterval() {
+			tree.insert(interval(1L, 0, 2));
+			
+			assertFalse(tree.remove(interval(2L, 0, 2)));
+			assertEquals(1, tree.size());
+		}
+		
+		@Test
+		@DisplayName("Should keep intervals ordered by start date")
+		void shouldKeepIntervalsOrderedByStartDate() {
+			tree.insert(interval(3L, 6, 7));
+			tree.insert(interval(1L, 0, 1));
+			tree.insert(interval(2L, 3, 4));
+			
+			assertEquals(List.of(1L, 2L, 3L), tree.toList().stream().map(ReservationInterval::id).toList());
+		}
+	}
+}
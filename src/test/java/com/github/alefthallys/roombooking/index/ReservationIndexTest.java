@@ -0,0 +1,416 @@
+package com.github.alefthallys.roombooking.index;
+
+import com.github.alefthallys.roombooking.models.RoomBookingVersion;
+import com.github.alefthallys.roombooking.recurrence.RecurrenceRule;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomBookingVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationIndexTest {
+	
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 9, 0);
+	private static final LocalDateTime NOW = START.minusDays(1);
+	
+	@Mock
+	private ReservationRepository reservationRepository;
+	
+	@Mock
+	private ReservationSeriesRepository reservationSeriesRepository;
+	
+	@Mock
+	private RoomBookingVersionRepository roomBookingVersionRepository;
+	
+	@Mock
+	private Clock clock;
+	
+	private ReservationIndex reservationIndex;
+	private ReservationInterval interval;
+	
+	@BeforeEach
+	void setUp() {
+		lenient().when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+		moveTo(NOW);
+		reservationIndex = new ReservationIndex(reservationRepository, reservationSeriesRepository, roomBookingVersionRepository, TransactionOperations.withoutTransaction(), clock);
+		interval = new ReservationInterval(1L, 10L, 100L, START, START.plusHours(1));
+	}
+	
+	private void moveTo(LocalDateTime now) {
+		lenient().when(clock.instant()).thenReturn(now.toInstant(ZoneOffset.UTC));
+	}
+	
+	private static RoomBookingVersion version(Long roomId, long version) {
+		RoomBookingVersion bookingVersion = new RoomBookingVersion(roomId);
+		bookingVersion.setVersion(version);
+		return bookingVersion;
+	}
+	
+	private void committedAt(Long roomId, long version) {
+		when(roomBookingVersionRepository.findByRoomIdForUpdate(roomId)).thenReturn(Optional.of(version(roomId, version)));
+	}
+	
+	private static void commit() {
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+	}
+	
+	@Nested
+	@DisplayName("Warm Up")
+	class WarmUp {
+		
+		@Test
+		@DisplayName("Should answer from the warm up while the room's booking version has not moved")
+		void shouldAnswerFromWarmUpWhileVersionHolds() {
+			when(roomBookingVersionRepository.findAll()).thenReturn(List.of(version(10L, 3)));
+			when(reservationRepository.findIntervalsEndingAfter(NOW)).thenReturn(List.of(interval));
+			committedAt(10L, 3);
+			
+			reservationIndex.afterSingletonsInstantiated();
+			
+			assertTrue(reservationIndex.forLockedRoom(10L).findConflict(START, START.plusMinutes(30), null).isPresent());
+			verify(reservationRepository, never()).findIntervalsByRoomEndingAfter(anyLong(), any(LocalDateTime.class));
+		}
+		
+		@Test
+		@DisplayName("Should load a room on its first booking when the warm up failed")
+		void shouldLoadRoomOnFirstBookingWhenWarmUpFailed() {
+			when(roomBookingVersionRepository.findAll()).thenThrow(new IllegalStateException("database down"));
+			when(reservationRepository.findIntervalsByRoomEndingAfter(10L, NOW)).thenReturn(List.of(interval));
+			
+			reservationIndex.afterSingletonsInstantiated();
+			
+			assertTrue(reservationIndex.forLockedRoom(10L).findConflict(START, START.plusMinutes(30), null).isPresent());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Booking Versions")
+	class BookingVersions {
+		
+		@Test
+		@DisplayName("Should reload the room when another instance committed to it")
+		void shouldReloadRoomWhenVersionMoved() {
+			ReservationInterval foreign = new ReservationInterval(2L, 10L, 200L, START.plusHours(2), START.plusHours(3));
+			when(roomBookingVersionRepository.findAll()).thenReturn(List.of(version(10L, 3)));
+			when(reservationRepository.findIntervalsEndingAfter(NOW)).thenReturn(List.of(interval));
+			when(reservationRepository.findIntervalsByRoomEndingAfter(10L, NOW)).thenReturn(List.of(foreign));
+			reservationIndex.afterSingletonsInstantiated();
+			committedAt(10L, 4);
+			
+			RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+			
+			assertTrue(bookings.findConflict(START, START.plusMinutes(30), null).isEmpty());
+			assertTrue(bookings.findConflict(START.plusHours(2), START.plusHours(3), null).isPresent());
+		}
+		
+		@Test
+		@DisplayName("Should bump the room's booking version when the room is opened")
+		void shouldBumpBookingVersion() {
+			committedAt(10L, 4);
+			
+			reservationIndex.forLockedRoom(10L);
+			
+			verify(roomBookingVersionRepository).save(argThat(bookingVersion -> bookingVersion.getRoomId().equals(10L) && bookingVersion.getVersion() == 5));
+		}
+		
+		@Test
+		@DisplayName("Should publish committed changes without reloading the room on its next booking")
+		void shouldPublishCommittedChanges() {
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				reservationIndex.forLockedRoom(10L).add(interval);
+				commit();
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+			committedAt(10L, 1);
+			
+			assertTrue(reservationIndex.forLockedRoom(10L).findConflict(START, START.plusMinutes(30), null).isPresent());
+			verify(reservationRepository, times(1)).findIntervalsByRoomEndingAfter(10L, NOW);
+		}
+		
+		@Test
+		@DisplayName("Should not publish changes that were rolled back")
+		void shouldNotPublishRolledBackChanges() {
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				reservationIndex.forLockedRoom(10L).add(interval);
+				TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+			
+			assertTrue(reservationIndex.forLockedRoom(10L).findConflict(START, START.plusMinutes(30), null).isEmpty());
+		}
+		
+		@Test
+		@DisplayName("Should drop changes published after the room was already reloaded past them")
+		void shouldDropChangesOfStaleVersion() {
+			List<TransactionSynchronization> synchronizations;
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				reservationIndex.forLockedRoom(10L).add(interval);
+				synchronizations = TransactionSynchronizationManager.getSynchronizations();
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+			committedAt(10L, 1);
+			RoomBookings reloaded = reservationIndex.forLockedRoom(10L);
+			
+			synchronizations.forEach(TransactionSynchronization::afterCommit);
+			synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+			
+			assertTrue(reloaded.findConflict(START, START.plusMinutes(30), null).isEmpty());
+			verify(reservationRepository, times(2)).findIntervalsByRoomEndingAfter(10L, NOW);
+		}
+		
+		@Test
+		@DisplayName("Should open a room once per transaction")
+		void shouldOpenRoomOncePerTransaction() {
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				assertSame(reservationIndex.forLockedRoom(10L), reservationIndex.forLockedRoom(10L));
+				verify(roomBookingVersionRepository, times(1)).findByRoomIdForUpdate(10L);
+			} finally {
+				TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+		}
+	}
+	
+	@Nested
+	@DisplayName("Refresh")
+	class Refresh {
+		
+		@Test
+		@DisplayName("Should reload the rooms another instance committed to since the last refresh")
+		void shouldReloadRoomsWithMovedVersion() {
+			ReservationInterval foreign = new ReservationInterval(2L, 10L, 200L, START.plusHours(2), START.plusHours(3));
+			when(roomBookingVersionRepository.findAll())
+					.thenReturn(List.of(version(10L, 3), version(20L, 1)))
+					.thenReturn(List.of(version(10L, 4), version(20L, 1)));
+			when(reservationRepository.findIntervalsEndingAfter(NOW)).thenReturn(List.of(interval));
+			when(reservationRepository.findIntervalsByRoomInEndingAfter(Set.of(10L), NOW)).thenReturn(List.of(foreign));
+			reservationIndex.afterSingletonsInstantiated();
+			
+			reservationIndex.refresh();
+			
+			assertFalse(reservationIndex.isBooked(10L, START, START.plusMinutes(30)));
+			assertTrue(reservationIndex.isBooked(10L, START.plusHours(2), START.plusHours(3)));
+			verify(reservationSeriesRepository).findByRoomIdIn(Set.of(10L));
+		}
+		
+		@Test
+		@DisplayName("Should read only the booking versions when no room moved")
+		void shouldReadOnlyVersionsWhenNothingMoved() {
+			when(roomBookingVersionRepository.findAll()).thenReturn(List.of(version(10L, 3)));
+			reservationIndex.afterSingletonsInstantiated();
+			
+			reservationIndex.refresh();
+			
+			verify(reservationRepository, never()).findIntervalsByRoomInEndingAfter(anyCollection(), any(LocalDateTime.class));
+			verify(reservationSeriesRepository, never()).findByRoomIdIn(anyCollection());
+		}
+		
+		@Test
+		@DisplayName("Should not roll back a room a local commit advanced while the refresh was reading")
+		void shouldKeepRoomAdvancedByLocalCommit() {
+			when(roomBookingVersionRepository.findAll()).thenReturn(List.of(version(10L, 1)));
+			committedAt(10L, 1);
+			when(reservationRepository.findIntervalsByRoomInEndingAfter(Set.of(10L), NOW)).thenAnswer(invocation -> {
+				TransactionSynchronizationManager.initSynchronization();
+				try {
+					reservationIndex.forLockedRoom(10L).add(interval);
+					commit();
+				} finally {
+					TransactionSynchronizationManager.clearSynchronization();
+				}
+				return List.of();
+			});
+			
+			reservationIndex.refresh();
+			
+			assertTrue(reservationIndex.isBooked(10L, START, START.plusMinutes(30)));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Availability")
+	class Availability {
+		
+		@Test
+		@DisplayName("Should report a room booked by a reservation or a series occurrence")
+		void shouldReportBookedRooms() {
+			RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+			bookings.add(interval);
+			bookings.addSeries(new ReservationSeriesInterval(1L, 10L, 100L, START.plusDays(1), START.plusDays(1).plusHours(1), RecurrenceRule.parse("FREQ=DAILY;COUNT=3"), Set.of()));
+			
+			assertTrue(reservationIndex.isBooked(10L, START.plusMinutes(30), START.plusHours(2)));
+			assertTrue(reservationIndex.isBooked(10L, START.plusDays(2), START.plusDays(2).plusMinutes(30)));
+			assertFalse(reservationIndex.isBooked(10L, START.plusHours(1), START.plusHours(2)));
+			assertFalse(reservationIndex.isBooked(10L, START.plusDays(4), START.plusDays(4).plusHours(1)));
+			assertFalse(reservationIndex.isBooked(20L, START, START.plusHours(1)));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Pruning")
+	class Pruning {
+		
+		@Test
+		@DisplayName("Should prune ended reservations and read ranges before the prune from the database")
+		void shouldPruneEndedReservations() {
+			ReservationInterval later = new ReservationInterval(2L, 10L, 100L, START.plusHours(2), START.plusHours(3));
+			RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+			bookings.add(interval);
+			bookings.add(later);
+			
+			moveTo(START.plusHours(1));
+			reservationIndex.pruneEnded();
+			
+			assertEquals(1, reservationIndex.size());
+			assertTrue(bookings.findConflict(START.plusHours(2), START.plusHours(3), null).isPresent());
+			when(reservationRepository.findIntervalsOverlapping(Set.of(10L), START, START.plusHours(1))).thenReturn(List.of(interval));
+			assertTrue(bookings.findConflict(START, START.plusHours(1), null).isPresent());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Mutations")
+	class Mutations {
+		
+		@Test
+		@DisplayName("Should apply mutations immediately outside of a transaction")
+		void shouldApplyMutationsImmediatelyOutsideTransaction() {
+			RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+			bookings.add(interval);
+			assertTrue(bookings.findConflict(START, START.plusHours(2), null).isPresent());
+			assertTrue(bookings.findConflict(START, START.plusHours(2), interval.id()).isEmpty());
+			
+			ReservationInterval moved = new ReservationInterval(1L, 10L, 100L, START.plusHours(3), START.plusHours(4));
+			bookings.replace(interval, moved);
+			assertTrue(bookings.findConflict(START, START.plusHours(2), null).isEmpty());
+			assertTrue(bookings.findConflict(START.plusHours(3), START.plusHours(5), null).isPresent());
+			
+			bookings.remove(moved);
+			assertTrue(bookings.findConflict(START.plusHours(3), START.plusHours(5), null).isEmpty());
+		}
+		
+		@Test
+		@DisplayName("Should defer mutations until the surrounding transaction commits")
+		void shouldDeferMutationsUntilCommit() {
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+				bookings.add(interval);
+				assertTrue(bookings.findConflict(START, START.plusHours(2), null).isEmpty());
+				
+				commit();
+				assertTrue(bookings.findConflict(START, START.plusHours(2), null).isPresent());
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+		}
+		
+		@Test
+		@DisplayName("Should drop the reservations of a deleted user and reload a deleted room")
+		void shouldDropReservationsOfDeletedUserAndRoom() {
+			RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+			bookings.add(interval);
+			bookings.add(new ReservationInterval(2L, 10L, 200L, START.plusHours(2), START.plusHours(3)));
+			
+			bookings.removeUser(100L);
+			assertTrue(bookings.findConflict(START, START.plusHours(1), null).isEmpty());
+			assertTrue(bookings.findConflict(START.plusHours(2), START.plusHours(3), null).isPresent());
+			
+			reservationIndex.removeRoom(10L);
+			assertEquals(0, reservationIndex.size());
+			reservationIndex.forLockedRoom(10L);
+			verify(reservationRepository, times(2)).findIntervalsByRoomEndingAfter(10L, NOW);
+		}
+	}
+	
+	@Nested
+	@DisplayName("Series")
+	class Series {
+		
+		private ReservationSeriesInterval weekly(Long id, Long roomId, LocalDateTime firstStart, String rule, Set<LocalDate> cancelledDates) {
+			return new ReservationSeriesInterval(id, roomId, 100L, firstStart, firstStart.plusHours(1), RecurrenceRule.parse(rule), cancelledDates);
+		}
+		
+		@Test
+		@DisplayName("Should report series occurrences as conflicts except on cancelled dates")
+		void shouldReportSeriesOccurrencesAsConflicts() {
+			RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+			bookings.addSeries(weekly(1L, 10L, START, "FREQ=WEEKLY;BYDAY=MO,WE;COUNT=10", Set.of(START.plusWeeks(1).toLocalDate())));
+			
+			assertTrue(bookings.findConflict(START.plusDays(2), START.plusDays(2).plusMinutes(30), null).isPresent());
+			assertTrue(bookings.findConflict(START.plusWeeks(1), START.plusWeeks(1).plusMinutes(30), null).isEmpty());
+			assertTrue(bookings.findConflict(START.plusDays(1), START.plusDays(1).plusHours(1), null).isEmpty());
+			assertTrue(bookings.findConflict(START.plusWeeks(10), START.plusWeeks(10).plusHours(1), null).isEmpty());
+			assertTrue(reservationIndex.forLockedRoom(20L).findConflict(START, START.plusHours(1), null).isEmpty());
+		}
+		
+		@Test
+		@DisplayName("Should find the first reservation or series occurrence colliding with a candidate series")
+		void shouldFindFirstCollisionWithCandidateSeries() {
+			RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+			ReservationSeriesInterval candidate = weekly(null, 10L, START, "FREQ=WEEKLY;COUNT=8", Set.of());
+			LocalDateTime lastEnd = START.plusWeeks(7).plusHours(1);
+			bookings.add(new ReservationInterval(2L, 10L, 200L, START.plusDays(1), START.plusDays(1).plusHours(1)));
+			assertTrue(bookings.findConflict(candidate, START, lastEnd).isEmpty());
+			
+			bookings.add(new ReservationInterval(3L, 10L, 200L, START.plusWeeks(5).plusMinutes(30), START.plusWeeks(5).plusHours(2)));
+			assertEquals(START.plusWeeks(5).plusMinutes(30), bookings.findConflict(candidate, START, lastEnd).orElseThrow().startDate());
+			
+			bookings.remove(new ReservationInterval(3L, 10L, 200L, START.plusWeeks(5).plusMinutes(30), START.plusWeeks(5).plusHours(2)));
+			bookings.addSeries(weekly(4L, 10L, START.plusWeeks(3).plusMinutes(30), "FREQ=DAILY;INTERVAL=2;COUNT=3", Set.of()));
+			assertEquals(START.plusWeeks(3).plusMinutes(30), bookings.findConflict(candidate, START, lastEnd).orElseThrow().startDate());
+		}
+		
+		@Test
+		@DisplayName("Should replace and remove series by id")
+		void shouldReplaceAndRemoveSeries() {
+			RoomBookings bookings = reservationIndex.forLockedRoom(10L);
+			ReservationSeriesInterval series = weekly(1L, 10L, START, "FREQ=DAILY;COUNT=5", Set.of());
+			bookings.addSeries(series);
+			
+			ReservationSeriesInterval cancelled = weekly(1L, 10L, START, "FREQ=DAILY;COUNT=5", Set.of(START.plusDays(2).toLocalDate()));
+			bookings.replaceSeries(series, cancelled);
+			assertTrue(bookings.findConflict(START.plusDays(2), START.plusDays(2).plusHours(1), null).isEmpty());
+			assertTrue(bookings.findConflict(START.plusDays(3), START.plusDays(3).plusHours(1), null).isPresent());
+			
+			bookings.removeSeries(cancelled);
+			assertTrue(bookings.findConflict(START.plusDays(3), START.plusDays(3).plusHours(1), null).isEmpty());
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.github.alefthallys.roombooking.index;
+
+import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
+import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomAvailabilityIndexTest {
+	
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 9, 0);
+	private static final RoomsFingerprint FINGERPRINT = new RoomsFingerprint(4L, START.minusDays(7));
+	
+	@Mock
+	private RoomRepository roomRepository;
+	
+	@Mock
+	private ReservationIndex reservationIndex;
+	
+	private RoomAvailabilityIndex roomAvailabilityIndex;
+	
+	@BeforeEach
+	void setUp() {
+		roomAvailabilityIndex = new RoomAvailabilityIndex(roomRepository, reservationIndex);
+	}
+	
+	private static Room room(Long id, int capacity, String location) {
+		return RoomTestBuilder.aRoom().withId(id).withName("Room " + id).withCapacity(capacity).withLocation(location).build();
+	}
+	
+	private static List<Long> ids(List<RoomResponseDTO> rooms) {
+		return rooms.stream().map(RoomResponseDTO::id).toList();
+	}
+	
+	@Nested
+	@DisplayName("Warm Up")
+	class WarmUp {
+		
+		@Test
+		@DisplayName("Should load the rooms once and answer searches without querying the database")
+		void shouldLoadRoomsOnce() {
+			when(roomRepository.findFingerprint()).thenReturn(FINGERPRINT);
+			when(roomRepository.findAll()).thenReturn(List.of(room(1L, 10, "1st Floor")));
+			
+			roomAvailabilityIndex.afterSingletonsInstantiated();
+			
+			assertEquals(List.of(1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusHours(1), 0, null)));
+			assertEquals(List.of(1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusHours(1), 0, "1st Floor")));
+			verify(roomRepository).findFingerprint();
+			verify(roomRepository).findAll();
+			verifyNoMoreInteractions(roomRepository);
+		}
+		
+		@Test
+		@DisplayName("Should load the rooms on the first search when the warm up failed")
+		void shouldLoadRoomsOnFirstSearchWhenWarmUpFailed() {
+			when(roomRepository.findFingerprint())
+					.thenThrow(new IllegalStateException("database down"))
+					.thenReturn(FINGERPRINT);
+			when(roomRepository.findAll()).thenReturn(List.of(room(1L, 10, "1st Floor")));
+			
+			roomAvailabilityIndex.afterSingletonsInstantiated();
+			
+			assertEquals(List.of(1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusHours(1), 0, null)));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Search")
+	class Search {
+		
+		@BeforeEach
+		void setUp() {
+			when(roomRepository.findFingerprint()).thenReturn(FINGERPRINT);
+			when(roomRepository.findAll()).thenReturn(
+					List.of(room(1L, 20, "1st Floor"), room(2L, 4, "1st Floor"), room(3L, 10, "2nd Floor"), room(4L, 10, "1st Floor")));
+			roomAvailabilityIndex.afterSingletonsInstantiated();
+		}
+		
+		@Test
+		@DisplayName("Should return the rooms the reservation index reports free ordered by capacity")
+		void shouldReturnFreeRoomsOrderedByCapacity() {
+			lenient().when(reservationIndex.isBooked(4L, START, START.plusMinutes(30))).thenReturn(true);
+			
+			assertEquals(List.of(2L, 3L, 1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusMinutes(30), 0, null)));
+		}
+		
+		@Test
+		@DisplayName("Should filter by minimum capacity and location before asking the reservation index")
+		void shouldFilterByCapacityAndLocation() {
+			assertEquals(List.of(3L, 4L, 1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusMinutes(30), 10, null)));
+			assertEquals(List.of(4L, 1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusMinutes(30), 5, "1ST FLOOR")));
+			verify(reservationIndex, never()).isBooked(2L, START, START.plusMinutes(30));
+		}
+		
+		@Test
+		@DisplayName("Should not ask the reservation index when no room matches")
+		void shouldNotAskReservationIndexWhenNoRoomMatches() {
+			assertEquals(List.of(), ids(roomAvailabilityIndex.findAvailable(START, START.plusMinutes(30), 0, "Basement")));
+			assertEquals(List.of(), ids(roomAvailabilityIndex.findAvailable(START, START.plusMinutes(30), 50, null)));
+			verify(reservationIndex, never()).isBooked(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Room Changes")
+	class RoomChanges {
+		
+		@Test
+		@DisplayName("Should reload the rooms when the refresh sees another instance create, change or delete one")
+		void shouldReloadRoomsWhenFingerprintMoves() {
+			RoomsFingerprint changed = new RoomsFingerprint(2L, START.minusDays(1));
+			when(roomRepository.findFingerprint()).thenReturn(FINGERPRINT, FINGERPRINT, changed, changed);
+			when(roomRepository.findAll())
+					.thenReturn(List.of(room(1L, 20, "1st Floor")))
+					.thenReturn(List.of(room(1L, 30, "2nd Floor"), room(2L, 6, "2nd Floor")));
+			roomAvailabilityIndex.afterSingletonsInstantiated();
+			
+			roomAvailabilityIndex.refresh();
+			assertEquals(List.of(1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusHours(1), 0, "1st Floor")));
+			
+			roomAvailabilityIndex.refresh();
+			assertEquals(List.of(2L, 1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusHours(1), 0, "2nd Floor")));
+			verify(roomRepository, times(2)).findAll();
+		}
+		
+		@Test
+		@DisplayName("Should reload the rooms once a local room change commits")
+		void shouldReloadRoomsAfterLocalChangeCommits() {
+			when(roomRepository.findFingerprint()).thenReturn(FINGERPRINT);
+			when(roomRepository.findAll())
+					.thenReturn(List.of(room(1L, 20, "1st Floor")))
+					.thenReturn(List.of(room(1L, 20, "1st Floor"), room(2L, 6, "1st Floor")));
+			roomAvailabilityIndex.afterSingletonsInstantiated();
+			
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				roomAvailabilityIndex.roomsChanged();
+				assertEquals(List.of(1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusHours(1), 0, null)));
+				
+				TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+			
+			assertEquals(List.of(2L, 1L), ids(roomAvailabilityIndex.findAvailable(START, START.plusHours(1), 0, null)));
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.github.alefthallys.roombooking.load;
+
+import com.github.alefthallys.roombooking.config.RabbitMQConfig;
+import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import com.github.alefthallys.roombooking.messaging.EmailConsumerProperties;
+import com.github.alefthallys.roombooking.messaging.EmailMessageConsumer;
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Stand-in for the email topology of {@link RabbitMQConfig}: the main queue, the TTL retry tiers
+ * that dead-letter back to it and the dead letter queue, drained in listener-sized batches into
+ * {@link EmailMessageConsumer} on one consumer thread. Rejected deliveries follow the main queue's
+ * dead letter exchange; acknowledged ones are simply dropped.
+ */
+class InProcessAmqpBroker implements SmartLifecycle {
+	
+	private final BlockingQueue<Message> emailQueue = new LinkedBlockingQueue<>();
+	private final ConcurrentLinkedQueue<Message> deadLetters = new ConcurrentLinkedQueue<>();
+	private final Map<Long, Message> unacknowledged = new ConcurrentHashMap<>();
+	private final AtomicLong deliveryTags = new AtomicLong();
+	private final Channel channel = mock(Channel.class);
+	private final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor();
+	private final Map<String, Duration> retryDelays;
+	private final EmailConsumerProperties emailConsumerProperties;
+	private final MessageConverter messageConverter;
+	private final ObjectProvider<EmailMessageConsumer> emailMessageConsumer;
+	private volatile boolean running;
+	private Thread consumer;
+	
+	InProcessAmqpBroker(EmailConsumerProperties emailConsumerProperties, MessageConverter messageConverter, ObjectProvider<EmailMessageConsumer> emailMessageConsumer) {
+		this.emailConsumerProperties = emailConsumerProperties;
+		this.messageConverter = messageConverter;
+		this.emailMessageConsumer = emailMessageConsumer;
+		this.retryDelays = emailConsumerProperties.getRetryDelays().stream()
+				.collect(Collectors.toMap(RabbitMQConfig::retryQueueName, Function.identity()));
+		try {
+			doAnswer(invocation -> unacknowledged.remove(invocation.<Long>getArgument(0))).when(channel).basicAck(anyLong(), anyBoolean());
+			doAnswer(invocation -> deadLetters.add(unacknowledged.remove(invocation.<Long>getArgument(0)))).when(channel).basicReject(anyLong(), anyBoolean());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	void publish(String exchange, String routingKey, Message message) {
+		switch (exchange) {
+			case RabbitMQConfig.EXCHANGE_NAME -> {
+				if (routingKey.equals(RabbitMQConfig.ROUTING_KEY) || routingKey.equals(RabbitMQConfig.REMINDER_ROUTING_KEY)) {
+					emailQueue.add(message);
+				}
+			}
+			case RabbitMQConfig.RETRY_EXCHANGE_NAME -> {
+				Duration delay = retryDelays.get(routingKey);
+				if (delay != null) {
+					retryTimer.schedule(() -> emailQueue.add(message), delay.toMillis(), TimeUnit.MILLISECONDS);
+				}
+			}
+			case RabbitMQConfig.DEAD_LETTER_EXCHANGE_NAME -> deadLetters.add(message);
+			default -> throw new IllegalArgumentException("Unknown exchange: " + exchange);
+		}
+	}
+	
+	int deadLetterCount() {
+		return deadLetters.size();
+	}
+	
+	@Override
+	public void start() {
+		running = true;
+		consumer = new Thread(this::consume, "in-process-amqp-consumer");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+	
+	@Override
+	public void stop() {
+		running = false;
+		consumer.interrupt();
+		retryTimer.shutdownNow();
+	}
+	
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+	
+	private void consume() {
+		long batchTimeoutMillis = emailConsumerProperties.getBatchTimeout().toMillis();
+		while (running) {
+			try {
+				Message first = emailQueue.poll(batchTimeoutMillis, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				List<Message> batch = new ArrayList<>(emailConsumerProperties.getBatchSize());
+				batch.add(first);
+				emailQueue.drainTo(batch, emailConsumerProperties.getBatchSize() - 1);
+				emailMessageConsumer.getObject().receiveMessages(batch.stream().map(this::toDelivery).toList(), channel);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	private org.springframework.messaging.Message<ReservationConfirmationEmailDTO> toDelivery(Message message) {
+		ReservationConfirmationEmailDTO payload = (ReservationConfirmationEmailDTO) messageConverter.fromMessage(message);
+		long deliveryTag = deliveryTags.incrementAndGet();
+		unacknowledged.put(deliveryTag, message);
+		return MessageBuilder.withPayload(payload)
+				.copyHeaders(message.getMessageProperties().getHeaders())
+				.setHeader(AmqpHeaders.MESSAGE_ID, message.getMessageProperties().getMessageId())
+				.setHeader(AmqpHeaders.DELIVERY_TAG, deliveryTag)
+				.build();
+	}
+}
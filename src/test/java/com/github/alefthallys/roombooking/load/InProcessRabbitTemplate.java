@@ -0,0 +1,37 @@
+package com.github.alefthallys.roombooking.load;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * {@link RabbitTemplate} that hands every message to an {@link InProcessAmqpBroker} instead of a
+ * broker connection. Publishing is synchronous, so every confirm wait succeeds immediately.
+ */
+class InProcessRabbitTemplate extends RabbitTemplate {
+	
+	private final InProcessAmqpBroker broker;
+	
+	InProcessRabbitTemplate(InProcessAmqpBroker broker, MessageConverter messageConverter) {
+		super(new CachingConnectionFactory());
+		this.broker = broker;
+		setMessageConverter(messageConverter);
+	}
+	
+	@Override
+	public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+		broker.publish(exchange, routingKey, message);
+	}
+	
+	@Override
+	public <T> T invoke(OperationsCallback<T> action, com.rabbitmq.client.ConfirmCallback acks, com.rabbitmq.client.ConfirmCallback nacks) {
+		return action.doInRabbit(this);
+	}
+	
+	@Override
+	public void waitForConfirmsOrDie(long timeout) {
+		// publishing is synchronous, nothing is ever unconfirmed
+	}
+}
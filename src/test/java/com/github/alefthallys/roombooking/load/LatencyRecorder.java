@@ -0,0 +1,56 @@
+package com.github.alefthallys.roombooking.load;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects request latencies per operation and summarises them as nearest-rank percentiles.
+ */
+class LatencyRecorder {
+	
+	private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+	
+	void record(String operation, long nanos, boolean success) {
+		latencies.computeIfAbsent(operation, key -> new ConcurrentLinkedQueue<>()).add(nanos);
+		AtomicInteger operationErrors = errors.computeIfAbsent(operation, key -> new AtomicInteger());
+		if (!success) {
+			operationErrors.incrementAndGet();
+		}
+	}
+	
+	int totalErrors() {
+		return errors.values().stream().mapToInt(AtomicInteger::get).sum();
+	}
+	
+	String report(Iterable<String> operations, long wallNanos) {
+		double seconds = wallNanos / 1_000_000_000.0;
+		StringBuilder report = new StringBuilder(String.format("%-20s %8s %7s %10s %10s %10s %10s%n",
+				"operation", "requests", "errors", "p50 ms", "p99 ms", "max ms", "req/s"));
+		long total = 0;
+		for (String operation : operations) {
+			long[] sorted = latencies.getOrDefault(operation, new ConcurrentLinkedQueue<>()).stream().mapToLong(Long::longValue).sorted().toArray();
+			total += sorted.length;
+			report.append(String.format("%-20s %8d %7d %10.2f %10.2f %10.2f %10.1f%n",
+					operation, sorted.length, errors.getOrDefault(operation, new AtomicInteger()).get(),
+					millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+					millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]), sorted.length / seconds));
+		}
+		report.append(String.format("%-20s %8d %7d %43.1f%n", "total", total, totalErrors(), total / seconds));
+		return report.toString();
+	}
+	
+	static long percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(percentile * sorted.length);
+		return sorted[Math.max(rank, 1) - 1];
+	}
+	
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+}
@@ -0,0 +1,25 @@
+package com.github.alefthallys.roombooking.load;
+
+import com.github.alefthallys.roombooking.messaging.EmailConsumerProperties;
+import com.github.alefthallys.roombooking.messaging.EmailMessageConsumer;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+@TestConfiguration
+class LoadTestConfig {
+	
+	@Bean
+	InProcessAmqpBroker inProcessAmqpBroker(EmailConsumerProperties emailConsumerProperties, MessageConverter jsonMessageConverter, ObjectProvider<EmailMessageConsumer> emailMessageConsumer) {
+		return new InProcessAmqpBroker(emailConsumerProperties, jsonMessageConverter, emailMessageConsumer);
+	}
+	
+	@Bean
+	@Primary
+	RabbitTemplate inProcessRabbitTemplate(InProcessAmqpBroker inProcessAmqpBroker, MessageConverter jsonMessageConverter) {
+		return new InProcessRabbitTemplate(inProcessAmqpBroker, jsonMessageConverter);
+	}
+}
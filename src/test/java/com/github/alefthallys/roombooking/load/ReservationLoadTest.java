@@ -0,0 +1,228 @@
+package com.github.alefthallys.roombooking.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alefthallys.roombooking.dtos.Auth.JwtResponseDTO;
+import com.github.alefthallys.roombooking.dtos.Auth.LoginRequestDTO;
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationRequestDTO;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
+import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test of the booking flow (login, list rooms, create a reservation, list my
+ * reservations) driven by concurrent virtual users over HTTP against the full application. MariaDB,
+ * RabbitMQ and SMTP are replaced by H2 in MariaDB mode, {@link InProcessAmqpBroker} and GreenMail,
+ * so it runs offline; p50/p99 latency and throughput per operation are printed and written to
+ * {@code target/load-test-report.txt}.
+ * <p>
+ * Excluded from the default build, run with {@code mvn -P load test [-Dload.users=20 -Dload.iterations=25]}.
+ */
+@Tag("load")
+@Import(LoadTestConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReservationLoadTest {
+	
+	private static final int USERS = Integer.getInteger("load.users", 20);
+	private static final int ITERATIONS = Integer.getInteger("load.iterations", 25);
+	private static final int ROOMS = 50;
+	private static final String PASSWORD = "load-test-password";
+	private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 0, 0);
+	private static final List<String> OPERATIONS = List.of("login", "listRooms", "createReservation", "myReservations");
+	private static final Path REPORT = Path.of("target", "load-test-report.txt");
+	
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+	
+	private static List<Long> roomIds;
+	
+	@LocalServerPort
+	private int port;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		String secret = Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:loadtest;MODE=MariaDB;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+		registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+		registry.add("spring.datasource.username", () -> "sa");
+		registry.add("spring.datasource.password", () -> "");
+		registry.add("spring.datasource.hikari.maximum-pool-size", () -> 20);
+		registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.H2Dialect");
+		registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+		registry.add("spring.jpa.show-sql", () -> false);
+		registry.add("spring.flyway.enabled", () -> false);
+		registry.add("spring.rabbitmq.host", () -> "localhost");
+		registry.add("spring.rabbitmq.port", () -> 5672);
+		registry.add("spring.rabbitmq.username", () -> "guest");
+		registry.add("spring.rabbitmq.password", () -> "guest");
+		registry.add("spring.mail.host", () -> "localhost");
+		registry.add("spring.mail.port", () -> ServerSetupTest.SMTP.getPort());
+		registry.add("spring.mail.username", () -> "");
+		registry.add("spring.mail.password", () -> "");
+		registry.add("spring.mail.properties.mail.smtp.auth", () -> false);
+		registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> false);
+		registry.add("jwt.secret", () -> secret);
+		registry.add("jwt.refreshSecret", () -> secret);
+		registry.add("jwt.expiration", () -> 3_600_000);
+		registry.add("jwt.refreshExpiration", () -> 86_400_000);
+		registry.add("jwt.issuer", () -> "roombooking-load-test");
+		registry.add("jwt.audience", () -> "roombooking-load-test");
+		registry.add("jwt.header", () -> "Authorization");
+		registry.add("jwt.prefix", () -> "Bearer ");
+		registry.add("email.consumer.auto-startup", () -> false);
+		registry.add("email.consumer.retry-delays", () -> "100ms,500ms,1s");
+		registry.add("management.health.rabbit.enabled", () -> false);
+		registry.add("management.server.port", () -> 0);
+		registry.add("logging.level.com.github.alefthallys", () -> "warn");
+	}
+	
+	@BeforeAll
+	static void seed(@Autowired UserRepository userRepository, @Autowired RoomRepository roomRepository, @Autowired PasswordEncoder passwordEncoder) {
+		String encodedPassword = passwordEncoder.encode(PASSWORD);
+		userRepository.saveAll(IntStream.range(0, USERS)
+				.mapToObj(user -> new User("Load User " + user, email(user), encodedPassword, "11999999999"))
+				.toList());
+		roomIds = roomRepository.saveAll(IntStream.range(0, ROOMS)
+						.mapToObj(room -> new Room("Load Room " + room, null, 2 + room % 20, "Floor " + room % 5))
+						.toList())
+				.stream().map(Room::getId).toList();
+	}
+	
+	@Test
+	@DisplayName("Should sustain concurrent bookings without errors and deliver every confirmation email")
+	void shouldSustainConcurrentBookings() throws Exception {
+		LatencyRecorder recorder = new LatencyRecorder();
+		ExecutorService virtualUsers = Executors.newFixedThreadPool(USERS);
+		long startNanos = System.nanoTime();
+		try {
+			List<Future<?>> sessions = new ArrayList<>(USERS);
+			for (int user = 0; user < USERS; user++) {
+				int virtualUser = user;
+				sessions.add(virtualUsers.submit(() -> session(virtualUser, recorder)));
+			}
+			for (Future<?> session : sessions) {
+				session.get(10, TimeUnit.MINUTES);
+			}
+		} finally {
+			virtualUsers.shutdownNow();
+		}
+		long wallNanos = System.nanoTime() - startNanos;
+		
+		String report = String.format("Load test: %d users x %d iterations%n", USERS, ITERATIONS) + recorder.report(OPERATIONS, wallNanos);
+		System.out.println(report);
+		Files.createDirectories(REPORT.getParent());
+		Files.writeString(REPORT, report);
+		
+		assertEquals(0, recorder.totalErrors(), report);
+		assertTrue(greenMail.waitForIncomingEmail(60_000, USERS * ITERATIONS), "Expected " + USERS * ITERATIONS + " confirmation emails");
+	}
+	
+	private void session(int user, LatencyRecorder recorder) {
+		for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+			String token = login(user, recorder);
+			if (token == null) {
+				continue;
+			}
+			call(recorder, "listRooms", get("/api/v1/rooms", token), 200);
+			LocalDateTime start = FIRST_SLOT.plusHours((long) user * ITERATIONS + iteration);
+			Long roomId = roomIds.get(ThreadLocalRandom.current().nextInt(roomIds.size()));
+			call(recorder, "createReservation", post("/api/v1/reservations", token, new ReservationRequestDTO(roomId, start, start.plusMinutes(30))), 201);
+			call(recorder, "myReservations", get("/api/v1/reservations/me", token), 200);
+		}
+	}
+	
+	private String login(int user, LatencyRecorder recorder) {
+		HttpResponse<String> response = call(recorder, "login", post("/api/v1/auth/login", null, new LoginRequestDTO(email(user), PASSWORD)), 200);
+		if (response == null || response.statusCode() != 200) {
+			return null;
+		}
+		try {
+			return objectMapper.readValue(response.body(), JwtResponseDTO.class).token();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+	
+	private HttpResponse<String> call(LatencyRecorder recorder, String operation, HttpRequest request, int expectedStatus) {
+		long startNanos = System.nanoTime();
+		try {
+			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+			recorder.record(operation, System.nanoTime() - startNanos, response.statusCode() == expectedStatus);
+			return response;
+		} catch (IOException e) {
+			recorder.record(operation, System.nanoTime() - startNanos, false);
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			recorder.record(operation, System.nanoTime() - startNanos, false);
+			return null;
+		}
+	}
+	
+	private HttpRequest get(String path, String token) {
+		return request(path, token).GET().build();
+	}
+	
+	private HttpRequest post(String path, String token, Object body) {
+		try {
+			return request(path, token)
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+					.build();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private HttpRequest.Builder request(String path, String token) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(30));
+		return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+	}
+	
+	private static String email(int user) {
+		return "load-user-" + user + "@roombooking.test";
+	}
+}
@@ -0,0 +1,185 @@
+package com.github.alefthallys.roombooking.messaging;
+
+import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import com.github.alefthallys.roombooking.templates.EmailTemplateEngine;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.net.ConnectException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailMessageConsumerTest {
+	
+	@Mock
+	private JavaMailSender mailSender;
+	
+	@Mock
+	private EmailRetryPublisher emailRetryPublisher;
+	
+	@Mock
+	private Channel channel;
+	
+	private SimpleMeterRegistry meterRegistry;
+	private EmailMessageConsumer emailMessageConsumer;
+	private List<Message<ReservationConfirmationEmailDTO>> deliveries;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		emailMessageConsumer = new EmailMessageConsumer(mailSender, new EmailTemplateEngine(), new EmailConsumerProperties(), emailRetryPublisher, meterRegistry);
+		Session session = Session.getInstance(new Properties());
+		lenient().when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(session));
+		LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+		deliveries = List.of(
+				MessageBuilder.withPayload(new ReservationConfirmationEmailDTO("john@example.com", "John", "Room 101", start, start.plusHours(1), 1L)).setHeader(AmqpHeaders.DELIVERY_TAG, 1L).build(),
+				MessageBuilder.withPayload(new ReservationConfirmationEmailDTO("mary@example.com", "Mary", "Room 102", start, start.plusHours(2), 2L)).setHeader(AmqpHeaders.DELIVERY_TAG, 2L).build(),
+				MessageBuilder.withPayload(new ReservationConfirmationEmailDTO("ann@example.com", "Ann", "Room 103", start, start.plusHours(3), 3L)).setHeader(AmqpHeaders.DELIVERY_TAG, 3L).build());
+	}
+	
+	@Test
+	@DisplayName("Should send a whole listener batch in a single SMTP call")
+	void shouldSendBatchInSingleCall() throws Exception {
+		emailMessageConsumer.receiveMessages(deliveries, channel);
+		
+		ArgumentCaptor<MimeMessage[]> messages = ArgumentCaptor.forClass(MimeMessage[].class);
+		verify(mailSender, times(1)).send(messages.capture());
+		assertEquals(3, messages.getValue().length);
+		assertEquals("mary@example.com", messages.getValue()[1].getAllRecipients()[0].toString());
+		assertEquals("Reserva Confirmada - Room 102", messages.getValue()[1].getSubject());
+		verifyNoInteractions(emailRetryPublisher);
+	}
+	
+	@Test
+	@DisplayName("Should schedule a retry for only the messages that failed without failing the batch")
+	void shouldRetryPartialFailures() {
+		IllegalStateException cause = new IllegalStateException("mailbox unavailable");
+		doAnswer(invocation -> {
+			MimeMessage failed = invocation.getArgument(1);
+			throw new MailSendException(Map.of(failed, cause));
+		}).when(mailSender).send(any(MimeMessage[].class));
+		
+		assertDoesNotThrow(() -> emailMessageConsumer.receiveMessages(deliveries, channel));
+		
+		verify(emailRetryPublisher).retry(deliveries.get(1), cause);
+		verifyNoMoreInteractions(emailRetryPublisher);
+	}
+	
+	@Test
+	@DisplayName("Should schedule a retry for the whole batch when the SMTP server is unreachable")
+	void shouldRetryWholeBatchOnConnectionFailure() {
+		MailSendException cause = new MailSendException("connection refused");
+		doThrow(cause).when(mailSender).send(any(MimeMessage[].class));
+		
+		assertDoesNotThrow(() -> emailMessageConsumer.receiveMessages(deliveries, channel));
+		
+		deliveries.forEach(delivery -> verify(emailRetryPublisher).retry(delivery, cause));
+	}
+	
+	@Test
+	@DisplayName("Should dead-letter a message that cannot be rendered and still send the rest")
+	void shouldDeadLetterPoisonMessage() {
+		Message<ReservationConfirmationEmailDTO> poison = MessageBuilder.withPayload(
+				new ReservationConfirmationEmailDTO("bad@example.com", null, "Room 104", null, null, 4L)).setHeader(AmqpHeaders.DELIVERY_TAG, 4L).build();
+		
+		emailMessageConsumer.receiveMessages(List.of(deliveries.get(0), poison), channel);
+		
+		verify(emailRetryPublisher).deadLetter(eq(poison), any(Exception.class));
+		ArgumentCaptor<MimeMessage[]> messages = ArgumentCaptor.forClass(MimeMessage[].class);
+		verify(mailSender).send(messages.capture());
+		assertEquals(1, messages.getValue().length);
+	}
+	
+	@Test
+	@DisplayName("Should render the template named by the email type header")
+	void shouldRenderTemplateFromHeader() throws Exception {
+		Message<ReservationConfirmationEmailDTO> reminder = MessageBuilder.fromMessage(deliveries.get(0))
+				.setHeader(EmailMessageConsumer.EMAIL_TYPE_HEADER, "REMINDER")
+				.build();
+		
+		emailMessageConsumer.receiveMessages(List.of(reminder), channel);
+		
+		ArgumentCaptor<MimeMessage[]> messages = ArgumentCaptor.forClass(MimeMessage[].class);
+		verify(mailSender).send(messages.capture());
+		assertEquals("Lembrete de Reserva - Room 101", messages.getValue()[0].getSubject());
+	}
+	
+	@Test
+	@DisplayName("Should acknowledge every delivery of a sent batch")
+	void shouldAcknowledgeSentBatch() throws Exception {
+		emailMessageConsumer.receiveMessages(deliveries, channel);
+		
+		verify(channel).basicAck(1L, false);
+		verify(channel).basicAck(2L, false);
+		verify(channel).basicAck(3L, false);
+		verify(channel, never()).basicReject(anyLong(), anyBoolean());
+	}
+	
+	@Test
+	@DisplayName("Should reject only the delivery whose retry could not be published and retry the rest")
+	void shouldRejectOnlyDeliveryWhoseRetryFailed() throws Exception {
+		MailSendException cause = new MailSendException("connection refused");
+		doThrow(cause).when(mailSender).send(any(MimeMessage[].class));
+		lenient().doThrow(new AmqpConnectException(new ConnectException("broker down"))).when(emailRetryPublisher).retry(deliveries.get(1), cause);
+		
+		assertDoesNotThrow(() -> emailMessageConsumer.receiveMessages(deliveries, channel));
+		
+		verify(emailRetryPublisher).retry(deliveries.get(0), cause);
+		verify(emailRetryPublisher).retry(deliveries.get(2), cause);
+		verify(channel).basicAck(1L, false);
+		verify(channel).basicReject(2L, false);
+		verify(channel).basicAck(3L, false);
+		assertEquals(1, meterRegistry.counter(EmailMessageConsumer.HANDOFF_FAILURES).count());
+	}
+	
+	@Test
+	@DisplayName("Should reject a poison message whose dead letter could not be published and still send the rest")
+	void shouldRejectPoisonMessageWhenDeadLetterFails() throws Exception {
+		Message<ReservationConfirmationEmailDTO> poison = MessageBuilder.withPayload(
+				new ReservationConfirmationEmailDTO("bad@example.com", null, "Room 104", null, null, 4L)).setHeader(AmqpHeaders.DELIVERY_TAG, 4L).build();
+		doThrow(new AmqpConnectException(new ConnectException("broker down"))).when(emailRetryPublisher).deadLetter(eq(poison), any(Exception.class));
+		
+		assertDoesNotThrow(() -> emailMessageConsumer.receiveMessages(List.of(deliveries.get(0), poison), channel));
+		
+		verify(mailSender).send(any(MimeMessage[].class));
+		verify(channel).basicAck(1L, false);
+		verify(channel).basicReject(4L, false);
+	}
+	
+	@Test
+	@DisplayName("Should describe a delivery by its email type")
+	void shouldDescribeDeliveryByEmailType() {
+		Message<ReservationConfirmationEmailDTO> reminder = MessageBuilder.fromMessage(deliveries.get(0))
+				.setHeader(EmailMessageConsumer.EMAIL_TYPE_HEADER, "REMINDER")
+				.build();
+		
+		assertEquals("REMINDER email for reservation ID 1", EmailMessageConsumer.describe(reminder));
+		assertEquals("CONFIRMATION email for reservation ID 2", EmailMessageConsumer.describe(deliveries.get(1)));
+	}
+}
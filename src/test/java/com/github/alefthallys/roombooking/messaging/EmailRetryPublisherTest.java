@@ -0,0 +1,118 @@
+package com.github.alefthallys.roombooking.messaging;
+
+import com.github.alefthallys.roombooking.config.RabbitMQConfig;
+import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailRetryPublisherTest {
+	
+	@Mock
+	private RabbitTemplate rabbitTemplate;
+	
+	@Mock
+	private RabbitOperations rabbitOperations;
+	
+	private EmailConsumerProperties emailConsumerProperties;
+	private EmailRetryPublisher emailRetryPublisher;
+	private ReservationConfirmationEmailDTO emailDTO;
+	
+	@BeforeEach
+	void setUp() {
+		emailConsumerProperties = new EmailConsumerProperties();
+		emailRetryPublisher = new EmailRetryPublisher(rabbitTemplate, emailConsumerProperties);
+		when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+				invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitOperations));
+		LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+		emailDTO = new ReservationConfirmationEmailDTO("john@example.com", "John", "Room 101", start, start.plusHours(1), 1L);
+	}
+	
+	private Message<ReservationConfirmationEmailDTO> delivery(int retryCount) {
+		return MessageBuilder.withPayload(emailDTO)
+				.setHeader(AmqpHeaders.MESSAGE_ID, "outbox-1")
+				.setHeader(EmailRetryPublisher.RETRY_COUNT_HEADER, retryCount)
+				.build();
+	}
+	
+	private MessageProperties publishedProperties(String exchange, String routingKey) {
+		ArgumentCaptor<MessagePostProcessor> postProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+		verify(rabbitOperations).convertAndSend(eq(exchange), eq(routingKey), eq(emailDTO), postProcessor.capture());
+		return postProcessor.getValue().postProcessMessage(new org.springframework.amqp.core.Message(new byte[0])).getMessageProperties();
+	}
+	
+	@Test
+	@DisplayName("Should park a first failure on the shortest retry tier")
+	void shouldRetryOnFirstTier() {
+		emailRetryPublisher.retry(delivery(0), new IllegalStateException("smtp down"));
+		
+		MessageProperties properties = publishedProperties(RabbitMQConfig.RETRY_EXCHANGE_NAME, RabbitMQConfig.retryQueueName(Duration.ofSeconds(5)));
+		assertEquals(1, (Integer) properties.getHeader(EmailRetryPublisher.RETRY_COUNT_HEADER));
+		assertEquals("java.lang.IllegalStateException: smtp down", properties.getHeader(EmailRetryPublisher.LAST_ERROR_HEADER));
+		assertEquals("outbox-1", properties.getMessageId());
+	}
+	
+	@Test
+	@DisplayName("Should back off to the next retry tier on each redelivery")
+	void shouldBackOffExponentially() {
+		emailRetryPublisher.retry(delivery(2), new IllegalStateException("smtp down"));
+		
+		MessageProperties properties = publishedProperties(RabbitMQConfig.RETRY_EXCHANGE_NAME, RabbitMQConfig.retryQueueName(Duration.ofMinutes(5)));
+		assertEquals(3, (Integer) properties.getHeader(EmailRetryPublisher.RETRY_COUNT_HEADER));
+	}
+	
+	@Test
+	@DisplayName("Should dead-letter a message once every retry tier is used")
+	void shouldDeadLetterAfterLastTier() {
+		emailRetryPublisher.retry(delivery(3), new IllegalStateException("smtp down"));
+		
+		MessageProperties properties = publishedProperties(RabbitMQConfig.DEAD_LETTER_EXCHANGE_NAME, RabbitMQConfig.DEAD_LETTER_ROUTING_KEY);
+		assertEquals(3, (Integer) properties.getHeader(EmailRetryPublisher.RETRY_COUNT_HEADER));
+	}
+	
+	@Test
+	@DisplayName("Should wait for the broker to confirm the retry before returning")
+	void shouldWaitForConfirm() {
+		emailRetryPublisher.retry(delivery(0), new IllegalStateException("smtp down"));
+		
+		InOrder publishOrder = inOrder(rabbitOperations);
+		publishOrder.verify(rabbitOperations).convertAndSend(eq(RabbitMQConfig.RETRY_EXCHANGE_NAME), eq(RabbitMQConfig.retryQueueName(Duration.ofSeconds(5))), eq(emailDTO), any(MessagePostProcessor.class));
+		publishOrder.verify(rabbitOperations).waitForConfirmsOrDie(emailConsumerProperties.getRetryConfirmTimeout().toMillis());
+	}
+	
+	@Test
+	@DisplayName("Should throw when the retry is not confirmed so the consumer rejects the original")
+	void shouldThrowWhenRetryIsNotConfirmed() {
+		doThrow(new AmqpTimeoutException("no confirms")).when(rabbitOperations).waitForConfirmsOrDie(anyLong());
+		
+		assertThrows(AmqpTimeoutException.class,
+				() -> emailRetryPublisher.retry(delivery(0), new IllegalStateException("smtp down")));
+	}
+}
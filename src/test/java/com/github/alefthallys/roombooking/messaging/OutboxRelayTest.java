@@ -0,0 +1,208 @@
+package com.github.alefthallys.roombooking.messaging;
+
+import com.github.alefthallys.roombooking.models.OutboxDeadLetter;
+import com.github.alefthallys.roombooking.models.OutboxEvent;
+import com.github.alefthallys.roombooking.repositories.OutboxDeadLetterRepository;
+import com.github.alefthallys.roombooking.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+	
+	private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 8, 0);
+	
+	@Mock
+	private OutboxEventRepository outboxEventRepository;
+	
+	@Mock
+	private OutboxDeadLetterRepository outboxDeadLetterRepository;
+	
+	@Mock
+	private RabbitTemplate rabbitTemplate;
+	
+	@Mock
+	private RabbitOperations rabbitOperations;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	private OutboxProperties outboxProperties;
+	private SimpleMeterRegistry meterRegistry;
+	private OutboxRelay outboxRelay;
+	
+	@BeforeEach
+	void setUp() {
+		outboxProperties = new OutboxProperties();
+		outboxProperties.setBatchSize(2);
+		meterRegistry = new SimpleMeterRegistry();
+		outboxRelay = new OutboxRelay(outboxEventRepository, outboxDeadLetterRepository, rabbitTemplate, transactionManager, outboxProperties, meterRegistry,
+				Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+	}
+	
+	private static OutboxEvent event(long id) {
+		return event(id, 0);
+	}
+	
+	private static OutboxEvent event(long id, int attempts) {
+		return new OutboxEvent(id, "roombooking.exchange", "reservation.created", "com.example.Payload", "{\"id\":" + id + "}", attempts, NOW.minusMinutes(1), NOW.minusMinutes(1));
+	}
+	
+	private void brokerRejects(long eventId) {
+		lenient().doThrow(new AmqpIOException(new IOException("NOT_FOUND - no exchange")))
+				.when(rabbitOperations).send(anyString(), anyString(), argThat((Message message) -> message.getMessageProperties().getMessageId().equals("outbox-" + eventId)));
+	}
+	
+	private void brokerConfirms() {
+		when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+				invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitOperations));
+	}
+	
+	@Test
+	@DisplayName("Should publish every locked event, wait for confirms and delete them until a short batch")
+	void shouldPublishAndDeleteConfirmedBatches() {
+		List<OutboxEvent> first = LongStream.of(1, 2).mapToObj(OutboxRelayTest::event).toList();
+		List<OutboxEvent> second = List.of(event(3));
+		when(outboxEventRepository.lockNextBatch(NOW, 2)).thenReturn(first, second);
+		brokerConfirms();
+		
+		outboxRelay.relay();
+		
+		ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+		verify(rabbitOperations, times(3)).send(eq("roombooking.exchange"), eq("reservation.created"), messages.capture());
+		verify(rabbitOperations, times(2)).waitForConfirmsOrDie(outboxProperties.getConfirmTimeout().toMillis());
+		verify(outboxEventRepository).deleteAllInBatch(first);
+		verify(outboxEventRepository).deleteAllInBatch(second);
+		
+		Message message = messages.getAllValues().get(0);
+		assertEquals("{\"id\":1}", new String(message.getBody(), StandardCharsets.UTF_8));
+		assertEquals("outbox-1", message.getMessageProperties().getMessageId());
+		assertEquals("com.example.Payload", message.getMessageProperties().getHeader("__TypeId__"));
+		verify(transactionManager, times(2)).commit(any());
+	}
+	
+	@Test
+	@DisplayName("Should keep each event of a batch the broker does not confirm and back it off")
+	void shouldBackOffEventsWhenBrokerDoesNotConfirm() {
+		List<OutboxEvent> batch = LongStream.of(1, 2).mapToObj(OutboxRelayTest::event).toList();
+		when(outboxEventRepository.lockNextBatch(NOW, 2)).thenReturn(batch);
+		brokerConfirms();
+		doThrow(new AmqpTimeoutException("no confirms")).when(rabbitOperations).waitForConfirmsOrDie(anyLong());
+		
+		outboxRelay.relay();
+		
+		verify(outboxEventRepository, never()).deleteAllInBatch(anyList());
+		assertEquals(List.of(1, 1), batch.stream().map(OutboxEvent::getAttempts).toList());
+		assertEquals(List.of(NOW.plusSeconds(1), NOW.plusSeconds(1)), batch.stream().map(OutboxEvent::getNextAttemptAt).toList());
+		verify(outboxEventRepository, times(1)).lockNextBatch(NOW, 2);
+	}
+	
+	@Test
+	@DisplayName("Should publish the rest of a batch when one event keeps failing")
+	void shouldIsolateFailingEvent() {
+		OutboxEvent delivered = event(1);
+		OutboxEvent poison = event(2);
+		when(outboxEventRepository.lockNextBatch(NOW, 2)).thenReturn(List.of(delivered, poison));
+		brokerConfirms();
+		brokerRejects(2);
+		
+		outboxRelay.relay();
+		
+		verify(outboxEventRepository).deleteAllInBatch(List.of(delivered));
+		assertEquals(1, poison.getAttempts());
+		assertEquals(NOW.plusSeconds(1), poison.getNextAttemptAt());
+	}
+	
+	@Test
+	@DisplayName("Should double the backoff with every attempt up to the maximum")
+	void shouldDoubleBackoffUpToMaximum() {
+		outboxProperties.setMaxAttempts(20);
+		OutboxEvent early = event(1, 3);
+		OutboxEvent late = event(2, 12);
+		when(outboxEventRepository.lockNextBatch(NOW, 2)).thenReturn(List.of(early, late));
+		brokerConfirms();
+		brokerRejects(1);
+		brokerRejects(2);
+		
+		outboxRelay.relay();
+		
+		assertEquals(NOW.plusSeconds(8), early.getNextAttemptAt());
+		assertEquals(NOW.plus(outboxProperties.getMaxBackoff()), late.getNextAttemptAt());
+	}
+	
+	@Test
+	@DisplayName("Should move an event to the dead letter table once it reaches the maximum attempts")
+	void shouldDeadLetterEventAfterMaxAttempts() {
+		OutboxEvent poison = event(1, outboxProperties.getMaxAttempts() - 1);
+		when(outboxEventRepository.lockNextBatch(NOW, 2)).thenReturn(List.of(poison));
+		brokerConfirms();
+		brokerRejects(1);
+		
+		outboxRelay.relay();
+		
+		ArgumentCaptor<OutboxDeadLetter> deadLetter = ArgumentCaptor.forClass(OutboxDeadLetter.class);
+		verify(outboxDeadLetterRepository).save(deadLetter.capture());
+		assertEquals(1L, deadLetter.getValue().getId());
+		assertEquals("{\"id\":1}", deadLetter.getValue().getPayload());
+		assertEquals(outboxProperties.getMaxAttempts(), deadLetter.getValue().getAttempts());
+		assertEquals(NOW, deadLetter.getValue().getFailedAt());
+		verify(outboxEventRepository).delete(poison);
+		assertEquals(1.0, meterRegistry.counter(OutboxRelay.DEAD_LETTER_COUNTER).count());
+	}
+	
+	@Test
+	@DisplayName("Should leave the batch untouched while the broker is unreachable")
+	void shouldNotCountAttemptsWhileBrokerIsUnreachable() {
+		List<OutboxEvent> batch = LongStream.of(1, 2).mapToObj(id -> event(id, outboxProperties.getMaxAttempts() - 1)).toList();
+		when(outboxEventRepository.lockNextBatch(NOW, 2)).thenReturn(batch);
+		when(rabbitTemplate.invoke(any())).thenThrow(new AmqpConnectException(new ConnectException("Connection refused")));
+		
+		outboxRelay.relay();
+		
+		verify(outboxEventRepository, never()).deleteAllInBatch(anyList());
+		verifyNoInteractions(outboxDeadLetterRepository);
+		assertEquals(List.of(9, 9), batch.stream().map(OutboxEvent::getAttempts).toList());
+		assertEquals(List.of(NOW.minusMinutes(1), NOW.minusMinutes(1)), batch.stream().map(OutboxEvent::getNextAttemptAt).toList());
+	}
+	
+	@Test
+	@DisplayName("Should not touch the broker when the outbox is empty")
+	void shouldSkipEmptyOutbox() {
+		when(outboxEventRepository.lockNextBatch(NOW, 2)).thenReturn(List.of());
+		
+		outboxRelay.relay();
+		
+		verifyNoInteractions(rabbitTemplate);
+	}
+}
@@ -0,0 +1,52 @@
+package com.github.alefthallys.roombooking.pagination;
+
+import com.github.alefthallys.roombooking.exceptions.Pagination.InvalidCursorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorTest {
+	
+	@Test
+	@DisplayName("Should round trip an id cursor")
+	void shouldRoundTripIdCursor() {
+		Cursor cursor = Cursor.ofId(42L);
+		assertEquals(cursor, Cursor.decode(cursor.encode()));
+	}
+	
+	@Test
+	@DisplayName("Should round trip a start date cursor")
+	void shouldRoundTripStartDateCursor() {
+		Cursor cursor = Cursor.ofStartDate(LocalDateTime.of(2030, 1, 7, 9, 30, 15, 123_000), 42L);
+		assertEquals(cursor, Cursor.decode(cursor.encode()));
+	}
+	
+	@Test
+	@DisplayName("Should decode a missing cursor as the first page")
+	void shouldDecodeMissingCursorAsFirstPage() {
+		assertNull(Cursor.decode(null));
+		assertNull(Cursor.decode(" "));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"%%%", "bm90LWEtbnVtYmVy", "NDJ8bm90LWEtZGF0ZQ"})
+	@DisplayName("Should throw InvalidCursorException for malformed cursors")
+	void shouldThrowForMalformedCursors(String cursor) {
+		assertThrows(InvalidCursorException.class, () -> Cursor.decode(cursor));
+	}
+	
+	@Test
+	@DisplayName("Should clamp page sizes between one and the maximum")
+	void shouldClampPageSizes() {
+		assertEquals(CursorPages.DEFAULT_SIZE, CursorPages.resolveSize(null));
+		assertEquals(1, CursorPages.resolveSize(0));
+		assertEquals(CursorPages.MAX_SIZE, CursorPages.resolveSize(CursorPages.MAX_SIZE + 1));
+	}
+}
@@ -0,0 +1,126 @@
+package com.github.alefthallys.roombooking.recurrence;
+
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidRecurrenceRuleException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+	
+	private static final LocalDateTime MONDAY = LocalDateTime.of(2030, 1, 7, 9, 0);
+	
+	@Nested
+	@DisplayName("Parse")
+	class Parse {
+		
+		@Test
+		@DisplayName("Should parse a weekly rule and print it in canonical form")
+		void shouldParseWeeklyRule() {
+			RecurrenceRule rule = RecurrenceRule.parse("freq=weekly;byday=we,mo;count=20");
+			
+			assertEquals(Frequency.WEEKLY, rule.frequency());
+			assertEquals(1, rule.interval());
+			assertEquals(List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), rule.byDays());
+			assertEquals(20, rule.count());
+			assertEquals("FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,WE;COUNT=20", rule.toString());
+			assertEquals(rule, RecurrenceRule.parse(rule.toString()));
+		}
+		
+		@Test
+		@DisplayName("Should parse a daily rule bounded by an until date")
+		void shouldParseDailyRuleWithUntil() {
+			RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2;UNTIL=20300131T235959Z");
+			
+			assertEquals(Frequency.DAILY, rule.frequency());
+			assertEquals(2, rule.interval());
+			assertEquals(LocalDate.of(2030, 1, 31), rule.until());
+			assertNull(rule.count());
+		}
+		
+		@Test
+		@DisplayName("Should parse a lower-case rule when the default locale is Turkish")
+		void shouldParseUnderTurkishLocale() {
+			Locale defaultLocale = Locale.getDefault();
+			Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+			try {
+				assertEquals(Frequency.DAILY, RecurrenceRule.parse("freq=daily;count=3").frequency());
+			} finally {
+				Locale.setDefault(defaultLocale);
+			}
+		}
+		
+		@ParameterizedTest
+		@ValueSource(strings = {
+				"",
+				"COUNT=3",
+				"FREQ=MONTHLY;COUNT=3",
+				"FREQ=DAILY",
+				"FREQ=DAILY;COUNT=3;UNTIL=20300101",
+				"FREQ=DAILY;BYDAY=MO;COUNT=3",
+				"FREQ=WEEKLY;BYDAY=XX;COUNT=3",
+				"FREQ=DAILY;INTERVAL=0;COUNT=3",
+				"FREQ=DAILY;COUNT=1001",
+				"FREQ=DAILY;COUNT=3;BYHOUR=9",
+				"FREQ=DAILY;FREQ=WEEKLY;COUNT=3",
+				"FREQ=DAILY;UNTIL=2030-01-01"
+		})
+		@DisplayName("Should reject rules outside of the supported subset")
+		void shouldRejectUnsupportedRules(String rule) {
+			assertThrows(InvalidRecurrenceRuleException.class, () -> RecurrenceRule.parse(rule));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Expansion")
+	class Expansion {
+		
+		@Test
+		@DisplayName("Should expand weekly occurrences on every listed weekday")
+		void shouldExpandWeeklyOccurrences() {
+			RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR;COUNT=4");
+			
+			assertEquals(List.of(MONDAY, MONDAY.plusDays(4), MONDAY.plusWeeks(2), MONDAY.plusWeeks(2).plusDays(4)),
+					rule.startsFrom(MONDAY, MONDAY).toList());
+		}
+		
+		@Test
+		@DisplayName("Should count occurrences from the first start when it is not the first weekday of the week")
+		void shouldCountFromFirstStart() {
+			LocalDateTime wednesday = MONDAY.plusDays(2);
+			RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=3");
+			
+			assertEquals(List.of(wednesday, MONDAY.plusWeeks(1), wednesday.plusWeeks(1)), rule.startsFrom(wednesday, wednesday).toList());
+		}
+		
+		@Test
+		@DisplayName("Should start from any instant without changing the occurrences")
+		void shouldStartFromAnyInstant() {
+			RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=3;UNTIL=20301231");
+			List<LocalDateTime> all = rule.startsFrom(MONDAY, MONDAY).toList();
+			LocalDateTime from = MONDAY.plusDays(100).plusHours(1);
+			
+			assertEquals(all.stream().filter(start -> !start.isBefore(from)).toList(), rule.startsFrom(MONDAY, from).toList());
+			assertEquals(LocalDate.of(2030, 12, 30), all.get(all.size() - 1).toLocalDate());
+		}
+		
+		@Test
+		@DisplayName("Should only accept a first start on one of the listed weekdays")
+		void shouldMatchFirstStart() {
+			RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=TU;COUNT=3");
+			
+			assertFalse(rule.matchesFirstStart(MONDAY));
+			assertTrue(rule.matchesFirstStart(MONDAY.plusDays(1)));
+			assertTrue(RecurrenceRule.parse("FREQ=DAILY;COUNT=3").matchesFirstStart(MONDAY));
+		}
+	}
+}
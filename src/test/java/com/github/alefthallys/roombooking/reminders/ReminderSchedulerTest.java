@@ -0,0 +1,187 @@
+package com.github.alefthallys.roombooking.reminders;
+
+import com.github.alefthallys.roombooking.config.RabbitMQConfig;
+import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.models.Reservation;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.testBuilders.ReservationTestBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+	
+	private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 8, 0);
+	
+	@Mock
+	private ReservationRepository reservationRepository;
+	
+	@Mock
+	private RabbitTemplate rabbitTemplate;
+	
+	@Mock
+	private RabbitOperations rabbitOperations;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	@Mock
+	private Clock clock;
+	
+	private ReminderProperties reminderProperties;
+	
+	private ReminderScheduler reminderScheduler;
+	private Reservation reservation;
+	
+	@BeforeEach
+	void setUp() {
+		when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+		moveTo(NOW);
+		reminderProperties = new ReminderProperties();
+		reminderScheduler = new ReminderScheduler(reservationRepository, rabbitTemplate, transactionManager, reminderProperties, clock);
+		lenient().when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+				invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitOperations));
+		reservation = ReservationTestBuilder.aReservation().withStartDate(NOW.plusHours(1)).withEndDate(NOW.plusHours(2)).build();
+	}
+	
+	private void moveTo(LocalDateTime now) {
+		when(clock.instant()).thenReturn(now.toInstant(ZoneOffset.UTC));
+	}
+	
+	@Test
+	@DisplayName("Should load only upcoming reservations on startup")
+	void shouldLoadUpcomingReservations() {
+		when(reservationRepository.findIntervalsStartingAfter(NOW)).thenReturn(List.of(
+				new ReservationInterval(1L, 1L, 1L, NOW.plusHours(1), NOW.plusHours(2)),
+				new ReservationInterval(2L, 1L, 1L, NOW.plusDays(30), NOW.plusDays(30).plusHours(1))));
+		
+		reminderScheduler.afterSingletonsInstantiated();
+		
+		assertEquals(2, reminderScheduler.pending());
+	}
+	
+	@Test
+	@DisplayName("Should publish a reminder once the lead time before the start is reached")
+	void shouldPublishWhenDue() {
+		reminderScheduler.schedule(reservation.getId(), reservation.getStartDate());
+		
+		moveTo(NOW.plusMinutes(30));
+		reminderScheduler.fireDueReminders();
+		verifyNoInteractions(reservationRepository, rabbitTemplate);
+		
+		when(reservationRepository.findByIdIn(Set.of(reservation.getId()))).thenReturn(List.of(reservation));
+		when(reservationRepository.claimReminder(reservation.getId(), reservation.getStartDate())).thenReturn(1);
+		moveTo(NOW.plusMinutes(45));
+		reminderScheduler.fireDueReminders();
+		
+		ArgumentCaptor<ReservationConfirmationEmailDTO> emailDTO = ArgumentCaptor.forClass(ReservationConfirmationEmailDTO.class);
+		InOrder claimOrder = inOrder(reservationRepository, rabbitOperations, transactionManager);
+		claimOrder.verify(reservationRepository).claimReminder(reservation.getId(), reservation.getStartDate());
+		claimOrder.verify(rabbitOperations).convertAndSend(eq(RabbitMQConfig.EXCHANGE_NAME), eq(RabbitMQConfig.REMINDER_ROUTING_KEY), emailDTO.capture(), any(MessagePostProcessor.class));
+		claimOrder.verify(rabbitOperations).waitForConfirmsOrDie(reminderProperties.getConfirmTimeout().toMillis());
+		claimOrder.verify(transactionManager).commit(any());
+		assertEquals(reservation.getId(), emailDTO.getValue().reservationId());
+		assertEquals(reservation.getUser().getEmail(), emailDTO.getValue().recipientEmail());
+		assertEquals(0, reminderScheduler.pending());
+	}
+	
+	@Test
+	@DisplayName("Should not publish a reminder for a cancelled reservation")
+	void shouldNotPublishCancelled() {
+		reminderScheduler.schedule(reservation.getId(), reservation.getStartDate());
+		reminderScheduler.cancel(reservation.getId(), reservation.getStartDate());
+		
+		moveTo(NOW.plusMinutes(50));
+		reminderScheduler.fireDueReminders();
+		
+		assertEquals(0, reminderScheduler.pending());
+		verifyNoInteractions(rabbitTemplate);
+	}
+	
+	@Test
+	@DisplayName("Should move the reminder when the reservation is rescheduled")
+	void shouldMoveRescheduledReminder() {
+		reminderScheduler.schedule(reservation.getId(), reservation.getStartDate());
+		reminderScheduler.reschedule(reservation.getId(), reservation.getStartDate(), NOW.plusHours(3));
+		
+		moveTo(NOW.plusMinutes(50));
+		reminderScheduler.fireDueReminders();
+		
+		assertEquals(1, reminderScheduler.pending());
+		verifyNoInteractions(rabbitTemplate);
+	}
+	
+	@Test
+	@DisplayName("Should skip a reminder whose reservation was moved or deleted elsewhere")
+	void shouldSkipStaleReminder() {
+		reminderScheduler.schedule(reservation.getId(), reservation.getStartDate());
+		reservation.setStartDate(NOW.plusHours(5));
+		when(reservationRepository.findByIdIn(anyCollection())).thenReturn(List.of(reservation));
+		
+		moveTo(NOW.plusMinutes(50));
+		reminderScheduler.fireDueReminders();
+		
+		verifyNoInteractions(rabbitTemplate);
+	}
+	
+	@Test
+	@DisplayName("Should roll back the claim and retry on the next tick when the broker does not confirm the reminder")
+	void shouldRetryWhenPublishIsNotConfirmed() {
+		reminderScheduler.schedule(reservation.getId(), reservation.getStartDate());
+		when(reservationRepository.findByIdIn(anyCollection())).thenReturn(List.of(reservation));
+		when(reservationRepository.claimReminder(reservation.getId(), reservation.getStartDate())).thenReturn(1);
+		doThrow(new AmqpTimeoutException("no confirms")).doNothing()
+				.when(rabbitOperations).waitForConfirmsOrDie(anyLong());
+		
+		moveTo(NOW.plusMinutes(45));
+		reminderScheduler.fireDueReminders();
+		assertEquals(1, reminderScheduler.pending());
+		
+		moveTo(NOW.plusMinutes(46));
+		reminderScheduler.fireDueReminders();
+		
+		assertEquals(0, reminderScheduler.pending());
+		verify(transactionManager, times(1)).rollback(any());
+		verify(transactionManager, times(1)).commit(any());
+		verify(reservationRepository, times(2)).claimReminder(reservation.getId(), reservation.getStartDate());
+		verify(rabbitOperations, times(2)).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+	}
+	
+	@Test
+	@DisplayName("Should not publish a reminder another instance already claimed")
+	void shouldNotPublishReminderClaimedElsewhere() {
+		reminderScheduler.schedule(reservation.getId(), reservation.getStartDate());
+		when(reservationRepository.findByIdIn(anyCollection())).thenReturn(List.of(reservation));
+		when(reservationRepository.claimReminder(reservation.getId(), reservation.getStartDate())).thenReturn(0);
+		
+		moveTo(NOW.plusMinutes(45));
+		reminderScheduler.fireDueReminders();
+		
+		assertEquals(0, reminderScheduler.pending());
+		verifyNoInteractions(rabbitTemplate);
+	}
+}
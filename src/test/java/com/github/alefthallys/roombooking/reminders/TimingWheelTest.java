@@ -0,0 +1,86 @@
+package com.github.alefthallys.roombooking.reminders;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+	
+	private static List<Long> advance(TimingWheel wheel, long tick) {
+		List<Long> expired = new ArrayList<>();
+		wheel.advanceTo(tick, expired::add);
+		return expired;
+	}
+	
+	@Test
+	@DisplayName("Should fire each id on its due tick only")
+	void shouldFireOnDueTick() {
+		TimingWheel wheel = new TimingWheel(8, 0);
+		wheel.schedule(1, 3);
+		wheel.schedule(2, 5);
+		
+		assertEquals(List.of(), advance(wheel, 2));
+		assertEquals(List.of(1L), advance(wheel, 3));
+		assertEquals(List.of(2L), advance(wheel, 5));
+		assertEquals(0, wheel.size());
+	}
+	
+	@Test
+	@DisplayName("Should keep ids more than one rotation away until their own tick")
+	void shouldHandleMultipleRotations() {
+		TimingWheel wheel = new TimingWheel(8, 0);
+		wheel.schedule(1, 3);
+		wheel.schedule(2, 3 + 8);
+		wheel.schedule(3, 3 + 16);
+		
+		assertEquals(List.of(1L), advance(wheel, 8));
+		assertEquals(List.of(2L), advance(wheel, 16));
+		assertEquals(List.of(3L), advance(wheel, 24));
+	}
+	
+	@Test
+	@DisplayName("Should sweep every bucket once after a gap longer than a rotation")
+	void shouldCatchUpAfterLongGap() {
+		TimingWheel wheel = new TimingWheel(8, 0);
+		wheel.schedule(1, 2);
+		wheel.schedule(2, 7);
+		wheel.schedule(3, 40);
+		
+		assertEquals(List.of(1L, 2L), advance(wheel, 30));
+		assertEquals(1, wheel.size());
+		assertEquals(30, wheel.currentTick());
+	}
+	
+	@Test
+	@DisplayName("Should fire ids scheduled in the past on the next advance")
+	void shouldFireOverdueOnNextTick() {
+		TimingWheel wheel = new TimingWheel(8, 10);
+		wheel.schedule(1, 4);
+		
+		assertEquals(List.of(1L), advance(wheel, 11));
+	}
+	
+	@Test
+	@DisplayName("Should cancel a scheduled id and leave the others in its bucket")
+	void shouldCancel() {
+		TimingWheel wheel = new TimingWheel(8, 0);
+		for (long id = 1; id <= 5; id++) {
+			wheel.schedule(id, 3);
+		}
+		
+		assertTrue(wheel.cancel(2, 3));
+		assertFalse(wheel.cancel(2, 3));
+		assertFalse(wheel.cancel(1, 4));
+		assertEquals(List.of(1L, 3L, 4L, 5L), advance(wheel, 3).stream().sorted().toList());
+	}
+	
+	@Test
+	@DisplayName("Should reject a wheel size that is not a power of two")
+	void shouldRejectInvalidWheelSize() {
+		assertThrows(IllegalArgumentException.class, () -> new TimingWheel(6, 0));
+	}
+}
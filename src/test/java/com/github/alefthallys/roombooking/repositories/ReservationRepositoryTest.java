@@ -0,0 +1,155 @@
+package com.github.alefthallys.roombooking.repositories;
+
+import com.github.alefthallys.roombooking.models.Reservation;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.testBuilders.ReservationTestBuilder;
+import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
+import com.github.alefthallys.roombooking.testBuilders.UserTestBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ReservationRepositoryTest {
+	
+	private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 8, 0);
+	
+	@Autowired
+	private ReservationRepository reservationRepository;
+	
+	@Autowired
+	private TestEntityManager entityManager;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	private Statistics statistics;
+	private User firstUser;
+	private Reservation firstReservation;
+	
+	@BeforeEach
+	void setUp() {
+		List<User> users = new ArrayList<>();
+		List<Room> rooms = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			users.add(entityManager.persist(UserTestBuilder.anUser().withId(null).withEmail("user" + i + "@gmail.com").build()));
+			rooms.add(entityManager.persist(RoomTestBuilder.aRoom().withId(null).withName("Room " + i).build()));
+		}
+		for (int i = 0; i < 9; i++) {
+			Reservation reservation = entityManager.persist(ReservationTestBuilder.aReservation()
+					.withId(null)
+					.withUser(users.get(i % 3))
+					.withRoom(rooms.get(i / 3))
+					.withStartDate(FIRST_SLOT.plusHours(i))
+					.withEndDate(FIRST_SLOT.plusHours(i + 1))
+					.build());
+			if (i == 0) {
+				firstReservation = reservation;
+			}
+		}
+		firstUser = users.get(0);
+		entityManager.flush();
+		entityManager.clear();
+		
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+	
+	private void assertSingleStatementLoadsUsersAndRooms(Collection<Reservation> reservations) {
+		reservations.forEach(reservation -> {
+			reservation.getUser().getName();
+			reservation.getRoom().getName();
+		});
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	@DisplayName("Should list a page of reservations ordered by id with a single statement")
+	void shouldListPageByIdWithSingleStatement() {
+		List<Reservation> page = reservationRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21));
+		assertEquals(9, page.size());
+		assertSingleStatementLoadsUsersAndRooms(page);
+	}
+	
+	@Test
+	@DisplayName("Should list a page of reservations ordered by start date with a single statement")
+	void shouldListPageByStartDateWithSingleStatement() {
+		List<Reservation> page = reservationRepository.findAfterStartDate(FIRST_SLOT, firstReservation.getId(), Limit.of(21));
+		assertEquals(8, page.size());
+		assertSingleStatementLoadsUsersAndRooms(page);
+	}
+	
+	@Test
+	@DisplayName("Should list the reservations of a user with a single statement")
+	void shouldListReservationsOfUserWithSingleStatement() {
+		Collection<Reservation> reservations = reservationRepository.findByUser(firstUser);
+		assertEquals(3, reservations.size());
+		assertSingleStatementLoadsUsersAndRooms(reservations);
+	}
+	
+	@Test
+	@DisplayName("Should find a reservation by id with a single statement")
+	void shouldFindByIdWithSingleStatement() {
+		Optional<Reservation> reservation = reservationRepository.findById(firstReservation.getId());
+		assertTrue(reservation.isPresent());
+		assertSingleStatementLoadsUsersAndRooms(List.of(reservation.get()));
+	}
+	
+	@Test
+	@DisplayName("Should find a reservation of a user by id with a single statement")
+	void shouldFindByIdAndUserIdWithSingleStatement() {
+		Optional<Reservation> reservation = reservationRepository.findReservationByIdAndUserId(firstReservation.getId(), firstUser.getId());
+		assertTrue(reservation.isPresent());
+		assertSingleStatementLoadsUsersAndRooms(List.of(reservation.get()));
+	}
+	
+	@Test
+	@DisplayName("Should let only one claim win the reminder for a start date")
+	void shouldClaimReminderOnce() {
+		Long id = firstReservation.getId();
+		
+		assertEquals(1, reservationRepository.claimReminder(id, FIRST_SLOT));
+		assertEquals(0, reservationRepository.claimReminder(id, FIRST_SLOT));
+	}
+	
+	@Test
+	@DisplayName("Should not claim a reminder for a start date the reservation no longer has")
+	void shouldNotClaimReminderForStaleStartDate() {
+		assertEquals(0, reservationRepository.claimReminder(firstReservation.getId(), FIRST_SLOT.plusDays(1)));
+	}
+	
+	@Test
+	@DisplayName("Should claim the reminder again once the reservation is moved")
+	void shouldClaimReminderAgainAfterMove() {
+		Long id = firstReservation.getId();
+		assertEquals(1, reservationRepository.claimReminder(id, FIRST_SLOT));
+		
+		Reservation moved = reservationRepository.findById(id).orElseThrow();
+		moved.setStartDate(FIRST_SLOT.plusDays(1));
+		moved.setEndDate(FIRST_SLOT.plusDays(1).plusHours(1));
+		entityManager.flush();
+		entityManager.clear();
+		
+		assertEquals(1, reservationRepository.claimReminder(id, FIRST_SLOT.plusDays(1)));
+	}
+}
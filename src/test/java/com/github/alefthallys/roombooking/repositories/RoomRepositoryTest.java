@@ -0,0 +1,44 @@
+package com.github.alefthallys.roombooking.repositories;
+
+import com.github.alefthallys.roombooking.index.RoomsFingerprint;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+class RoomRepositoryTest {
+	
+	private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 9, 0);
+	
+	@Autowired
+	private RoomRepository roomRepository;
+	
+	@Autowired
+	private TestEntityManager entityManager;
+	
+	@Test
+	@DisplayName("Should fingerprint the rooms table by row count and latest modification")
+	void shouldFingerprintRoomsTable() {
+		Room first = RoomTestBuilder.aRoom().withId(null).withName("First").build();
+		first.setLastModifiedDate(START);
+		Room second = RoomTestBuilder.aRoom().withId(null).withName("Second").build();
+		second.setLastModifiedDate(START.plusDays(1));
+		entityManager.persist(first);
+		entityManager.persist(second);
+		entityManager.flush();
+		
+		assertEquals(new RoomsFingerprint(2L, START.plusDays(1)), roomRepository.findFingerprint());
+		
+		entityManager.remove(first);
+		entityManager.flush();
+		assertEquals(new RoomsFingerprint(1L, START.plusDays(1)), roomRepository.findFingerprint());
+	}
+}
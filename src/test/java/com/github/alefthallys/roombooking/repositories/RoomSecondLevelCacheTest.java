@@ -0,0 +1,112 @@
+package com.github.alefthallys.roombooking.repositories;
+
+import com.github.alefthallys.roombooking.config.HibernateCacheConfig;
+import com.github.alefthallys.roombooking.config.RoomCacheProperties;
+import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.RoomAvailabilityIndex;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.services.OptimisticLockRetry;
+import com.github.alefthallys.roombooking.services.RoomService;
+import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.flyway.enabled=false", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({HibernateCacheConfig.class, RoomCacheProperties.class, RoomService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RoomSecondLevelCacheTest {
+	
+	@Autowired
+	private RoomService roomService;
+	
+	@Autowired
+	private RoomRepository roomRepository;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private MeterBinder roomCacheMetrics;
+	
+	@MockitoBean
+	private ReservationIndex reservationIndex;
+	
+	@MockitoBean
+	private RoomAvailabilityIndex roomAvailabilityIndex;
+	
+	@MockitoBean
+	private OptimisticLockRetry optimisticLockRetry;
+	
+	private Statistics statistics;
+	
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		roomRepository.deleteAll();
+	}
+	
+	@Test
+	@DisplayName("Should serve a room from the second-level cache without running SQL")
+	void shouldServeRoomFromSecondLevelCacheWithoutRunningSql() {
+		Long roomId = roomRepository.save(RoomTestBuilder.aRoom().withId(null).build()).getId();
+		roomService.findById(roomId);
+		long statements = statistics.getPrepareStatementCount();
+		long hits = statistics.getDomainDataRegionStatistics(Room.CACHE_REGION).getHitCount();
+		
+		RoomResponseDTO cached = roomService.findById(roomId);
+		
+		assertEquals(roomId, cached.id());
+		assertEquals(statements, statistics.getPrepareStatementCount());
+		assertEquals(hits + 1, statistics.getDomainDataRegionStatistics(Room.CACHE_REGION).getHitCount());
+	}
+	
+	@Test
+	@DisplayName("Should refresh the cached room when it is updated")
+	void shouldRefreshCachedRoomWhenItIsUpdated() {
+		Room room = roomRepository.save(RoomTestBuilder.aRoom().withId(null).withCapacity(4).build());
+		roomService.findById(room.getId());
+		room.setCapacity(12);
+		roomRepository.save(room);
+		
+		assertEquals(12, roomService.findById(room.getId()).capacity());
+	}
+	
+	@Test
+	@DisplayName("Should publish the room region statistics as cache meters")
+	void shouldPublishRoomRegionStatisticsAsCacheMeters() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		Long roomId = roomRepository.save(RoomTestBuilder.aRoom().withId(null).build()).getId();
+		roomService.findById(roomId);
+		roomService.findById(roomId);
+		
+		roomCacheMetrics.bindTo(registry);
+		
+		FunctionCounter hits = registry.find("cache.gets").tag("cache", Room.CACHE_REGION).tag("result", "hit").functionCounter();
+		assertNotNull(hits);
+		assertTrue(hits.count() > 0);
+	}
+}
@@ -0,0 +1,62 @@
+package com.github.alefthallys.roombooking.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ManagementPortRequestMatcherTest {
+	
+	private static final int API_PORT = 8080;
+	private static final int MANAGEMENT_PORT = 8081;
+	
+	private ManagementPortRequestMatcher matcher;
+	
+	@BeforeEach
+	void setUp() {
+		matcher = new ManagementPortRequestMatcher();
+	}
+	
+	private static WebServerInitializedEvent serverStarted(String namespace, int port) {
+		WebServer webServer = mock(WebServer.class);
+		when(webServer.getPort()).thenReturn(port);
+		WebServerApplicationContext context = mock(WebServerApplicationContext.class);
+		when(context.getServerNamespace()).thenReturn(namespace);
+		WebServerInitializedEvent event = mock(WebServerInitializedEvent.class);
+		when(event.getWebServer()).thenReturn(webServer);
+		when(event.getApplicationContext()).thenReturn(context);
+		return event;
+	}
+	
+	private static MockHttpServletRequest requestOn(int port) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/prometheus");
+		request.setLocalPort(port);
+		return request;
+	}
+	
+	@Test
+	@DisplayName("Should match only requests that arrived on the management server's port")
+	void shouldMatchManagementPort() {
+		matcher.onApplicationEvent(serverStarted(null, API_PORT));
+		matcher.onApplicationEvent(serverStarted("management", MANAGEMENT_PORT));
+		
+		assertTrue(matcher.matches(requestOn(MANAGEMENT_PORT)));
+		assertFalse(matcher.matches(requestOn(API_PORT)));
+	}
+	
+	@Test
+	@DisplayName("Should match nothing before the management server has started")
+	void shouldMatchNothingBeforeManagementServerStarts() {
+		matcher.onApplicationEvent(serverStarted(null, API_PORT));
+		
+		assertFalse(matcher.matches(requestOn(API_PORT)));
+	}
+}
@@ -0,0 +1,129 @@
+package com.github.alefthallys.roombooking.security;
+
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.testBuilders.UserTestBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+	
+	private static final String EMAIL = "john@gmail.com";
+	
+	private final AtomicLong nanos = new AtomicLong();
+	private final AtomicInteger loads = new AtomicInteger();
+	
+	private PrincipalCache principalCache;
+	private Function<String, AuthenticatedUser> loader;
+	
+	@BeforeEach
+	void setUp() {
+		PrincipalCacheProperties properties = new PrincipalCacheProperties();
+		properties.setTtl(Duration.ofMinutes(5));
+		principalCache = new PrincipalCache(properties, nanos::get);
+		
+		User user = UserTestBuilder.anUser().withEmail(EMAIL).build();
+		loader = email -> {
+			loads.incrementAndGet();
+			return AuthenticatedUser.from(user);
+		};
+	}
+	
+	@Nested
+	@DisplayName("Lookups")
+	class Lookups {
+		
+		@Test
+		@DisplayName("Should load a principal once per subject and token id")
+		void shouldLoadPrincipalOncePerToken() {
+			AuthenticatedUser first = principalCache.get(EMAIL, "token-1", loader);
+			AuthenticatedUser second = principalCache.get(EMAIL, "token-1", loader);
+			principalCache.get(EMAIL, "token-2", loader);
+			
+			assertSame(first, second);
+			assertEquals(2, loads.get());
+			assertEquals(1, principalCache.stats().hitCount());
+			assertEquals(2, principalCache.stats().missCount());
+		}
+		
+		@Test
+		@DisplayName("Should not keep the password of a cached principal")
+		void shouldEraseCredentialsOfCachedPrincipal() {
+			assertNull(principalCache.get(EMAIL, "token-1", loader).getPassword());
+		}
+		
+		@Test
+		@DisplayName("Should reload a principal once its entry has expired")
+		void shouldReloadExpiredPrincipal() {
+			principalCache.get(EMAIL, "token-1", loader);
+			nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+			principalCache.get(EMAIL, "token-1", loader);
+			
+			assertEquals(2, loads.get());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Invalidation")
+	class Invalidation {
+		
+		@Test
+		@DisplayName("Should drop every token of the invalidated subject only")
+		void shouldDropEveryTokenOfSubject() {
+			principalCache.get(EMAIL, "token-1", loader);
+			principalCache.get(EMAIL, "token-2", loader);
+			principalCache.get("other@gmail.com", "token-3", loader);
+			
+			principalCache.invalidate(EMAIL);
+			principalCache.get(EMAIL, "token-1", loader);
+			principalCache.get("other@gmail.com", "token-3", loader);
+			
+			assertEquals(4, loads.get());
+		}
+		
+		@Test
+		@DisplayName("Should defer invalidation until the surrounding transaction commits")
+		void shouldDeferInvalidationUntilCommit() {
+			principalCache.get(EMAIL, "token-1", loader);
+			
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+				principalCache.invalidate(EMAIL);
+				principalCache.get(EMAIL, "token-1", loader);
+				assertEquals(1, loads.get());
+				
+				TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+			
+			principalCache.get(EMAIL, "token-1", loader);
+			assertEquals(2, loads.get());
+		}
+	}
+	
+	@Test
+	@DisplayName("Should expose its hit and miss counts as cache metrics")
+	void shouldBindCacheMetrics() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		principalCache.bindTo(meterRegistry);
+		
+		principalCache.get(EMAIL, "token-1", loader);
+		principalCache.get(EMAIL, "token-1", loader);
+		
+		assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "principals", "result", "hit").functionCounter().count());
+		assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "principals", "result", "miss").functionCounter().count());
+	}
+}
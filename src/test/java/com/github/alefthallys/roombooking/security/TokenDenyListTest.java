@@ -0,0 +1,83 @@
+package com.github.alefthallys.roombooking.security;
+
+import com.github.alefthallys.roombooking.security.jwt.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenDenyListTest {
+	
+	private static final String EMAIL = "john@gmail.com";
+	private static final Instant NOW = Instant.parse("2030-01-07T09:00:00Z");
+	
+	private TokenDenyList tokenDenyList;
+	private Clock clock;
+	
+	@BeforeEach
+	void setUp() {
+		JwtProperties jwtProperties = new JwtProperties();
+		jwtProperties.setExpiration(TimeUnit.MINUTES.toMillis(15));
+		clock = mock(Clock.class);
+		when(clock.instant()).thenReturn(NOW);
+		tokenDenyList = new TokenDenyList(jwtProperties, clock);
+	}
+	
+	@Test
+	@DisplayName("Should deny tokens of the subject issued before it was denied")
+	void shouldDenyTokensIssuedBeforeDenial() {
+		tokenDenyList.deny(EMAIL);
+		
+		assertTrue(tokenDenyList.isDenied(EMAIL, NOW.minusSeconds(60)));
+		assertTrue(tokenDenyList.isDenied(EMAIL, null));
+		assertFalse(tokenDenyList.isDenied(EMAIL, NOW.plusSeconds(1)));
+		assertFalse(tokenDenyList.isDenied("other@gmail.com", NOW.minusSeconds(60)));
+	}
+	
+	@Test
+	@DisplayName("Should accept a token from a login in the same second the subject was denied")
+	void shouldAcceptTokenIssuedInSameSecondAsDenial() {
+		when(clock.instant()).thenReturn(NOW.plusMillis(400));
+		tokenDenyList.deny(EMAIL);
+		
+		assertFalse(tokenDenyList.isDenied(EMAIL, NOW));
+		assertTrue(tokenDenyList.isDenied(EMAIL, NOW.minusSeconds(1)));
+	}
+	
+	@Test
+	@DisplayName("Should forget denied subjects once their tokens have expired")
+	void shouldForgetDeniedSubjectsAfterExpiration() {
+		tokenDenyList.deny(EMAIL);
+		when(clock.instant()).thenReturn(NOW.plusSeconds(TimeUnit.MINUTES.toSeconds(16)));
+		tokenDenyList.deny("other@gmail.com");
+		
+		assertFalse(tokenDenyList.isDenied(EMAIL, NOW.minusSeconds(60)));
+	}
+	
+	@Test
+	@DisplayName("Should only deny a subject once the surrounding transaction commits")
+	void shouldDenyAfterCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			tokenDenyList.deny(EMAIL);
+			assertFalse(tokenDenyList.isDenied(EMAIL, NOW.minusSeconds(60)));
+			
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		
+		assertTrue(tokenDenyList.isDenied(EMAIL, NOW.minusSeconds(60)));
+	}
+}
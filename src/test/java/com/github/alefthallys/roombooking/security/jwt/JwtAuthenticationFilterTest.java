@@ -0,0 +1,147 @@
+package com.github.alefthallys.roombooking.security.jwt;
+
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.security.AuthenticatedUser;
+import com.github.alefthallys.roombooking.security.CustomUserDetailsService;
+import com.github.alefthallys.roombooking.security.PrincipalCache;
+import com.github.alefthallys.roombooking.security.TokenDenyList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+	
+	private static final String TOKEN = "access-token";
+	private static final String EMAIL = "john@gmail.com";
+	
+	@InjectMocks
+	private JwtAuthenticationFilter jwtAuthenticationFilter;
+	
+	@Mock
+	private JwtTokenProvider jwtTokenProvider;
+	
+	@Mock
+	private CustomUserDetailsService customUserDetailsService;
+	
+	@Mock
+	private PrincipalCache principalCache;
+	
+	@Mock
+	private TokenDenyList tokenDenyList;
+	
+	@Mock
+	private JwtProperties jwtProperties;
+	
+	@Spy
+	private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+	private Claims claims;
+	private AuthenticatedUser trustedPrincipal;
+	
+	@BeforeEach
+	void setUp() {
+		request = new MockHttpServletRequest("GET", "/api/v1/rooms");
+		request.addHeader("Authorization", "Bearer " + TOKEN);
+		response = new MockHttpServletResponse();
+		claims = Jwts.claims().setSubject(EMAIL).setId("token-1").setIssuedAt(new Date());
+		trustedPrincipal = AuthenticatedUser.fromClaims(1L, EMAIL, User.Role.USER);
+		
+		when(jwtTokenProvider.parseAccessToken(TOKEN)).thenReturn(claims);
+		SecurityContextHolder.clearContext();
+	}
+	
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+	
+	@Nested
+	@DisplayName("Claims Trusted Mode")
+	class ClaimsTrustedMode {
+		
+		@Test
+		@DisplayName("Should authenticate from the token claims without loading the user")
+		void shouldAuthenticateFromClaimsWithoutLoadingUser() throws Exception {
+			when(jwtProperties.isClaimsTrusted()).thenReturn(true);
+			when(jwtTokenProvider.getPrincipalFromClaims(claims)).thenReturn(Optional.of(trustedPrincipal));
+			
+			jwtAuthenticationFilter.doFilter(request, response, new MockFilterChain());
+			
+			assertSame(trustedPrincipal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+			verifyNoInteractions(principalCache, customUserDetailsService);
+			assertEquals(1, meterRegistry.timer(JwtAuthenticationFilter.VALIDATION_TIMER, "outcome", "accepted").count());
+		}
+		
+		@Test
+		@DisplayName("Should fall back to the principal cache for tokens without a user id claim")
+		void shouldFallBackToPrincipalCache() throws Exception {
+			AuthenticatedUser cachedPrincipal = new AuthenticatedUser(1L, "John Doe", EMAIL, "1299994444", User.Role.USER, null);
+			when(jwtProperties.isClaimsTrusted()).thenReturn(true);
+			when(jwtTokenProvider.getPrincipalFromClaims(claims)).thenReturn(Optional.empty());
+			when(principalCache.get(eq(EMAIL), eq("token-1"), any())).thenReturn(cachedPrincipal);
+			
+			jwtAuthenticationFilter.doFilter(request, response, new MockFilterChain());
+			
+			assertSame(cachedPrincipal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+		}
+		
+		@Test
+		@DisplayName("Should respond 401 when the token subject has been denied")
+		void shouldRespondUnauthorizedWhenSubjectDenied() throws Exception {
+			when(tokenDenyList.isDenied(eq(EMAIL), any())).thenReturn(true);
+			MockFilterChain filterChain = new MockFilterChain();
+			
+			jwtAuthenticationFilter.doFilter(request, response, filterChain);
+			
+			assertEquals(401, response.getStatus());
+			assertNull(filterChain.getRequest());
+			assertNull(SecurityContextHolder.getContext().getAuthentication());
+			assertEquals(1, meterRegistry.timer(JwtAuthenticationFilter.VALIDATION_TIMER, "outcome", "rejected").count());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Database Backed Mode")
+	class DatabaseBackedMode {
+		
+		@Test
+		@DisplayName("Should resolve the principal through the principal cache")
+		void shouldResolvePrincipalThroughCache() throws Exception {
+			AuthenticatedUser cachedPrincipal = new AuthenticatedUser(1L, "John Doe", EMAIL, "1299994444", User.Role.USER, null);
+			when(jwtProperties.isClaimsTrusted()).thenReturn(false);
+			when(principalCache.get(eq(EMAIL), eq("token-1"), any())).thenReturn(cachedPrincipal);
+			
+			jwtAuthenticationFilter.doFilter(request, response, new MockFilterChain());
+			
+			assertSame(cachedPrincipal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+			verify(jwtTokenProvider, never()).getPrincipalFromClaims(any(Claims.class));
+			verify(customUserDetailsService, never()).loadAuthenticatedUser(anyString());
+		}
+	}
+}
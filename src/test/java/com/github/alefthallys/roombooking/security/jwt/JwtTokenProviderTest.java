@@ -2,6 +2,8 @@ package com.github.alefthallys.roombooking.security.jwt;
 
 import com.github.alefthallys.roombooking.exceptions.Auth.InvalidJwtException;
 import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.github.alefthallys.roombooking.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
@@ -81,7 +83,65 @@ class JwtTokenProviderTest {
 			assertNotNull(token, "Token should not be null");
 			
 			assertDoesNotThrow(() -> jwtTokenProvider.validateToken(token), "Token should be valid");
-			assertEquals("userTest@gmail.com", jwtTokenProvider.getUsernameFromToken(token), "Username should match");
+			assertEquals("userTest@gmail.com", jwtTokenProvider.parseAccessToken(token).getSubject(), "Username should match");
+		}
+		
+		@Test
+		@DisplayName("Should return the verified claims of a token in a single parse")
+		void shouldReturnVerifiedClaims() {
+			Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+			
+			Claims claims = jwtTokenProvider.parseAccessToken(jwtTokenProvider.generateToken(auth));
+			
+			assertEquals("userTest@gmail.com", claims.getSubject());
+			assertEquals("USER", claims.get("role", String.class));
+			assertNotNull(claims.getId());
+		}
+		
+		@Test
+		@DisplayName("Should throw InvalidJwtException when parsing a malformed token")
+		void shouldThrowWhenParsingMalformedToken() {
+			assertThrows(InvalidJwtException.class, () -> jwtTokenProvider.parseAccessToken("invalidTokenString"));
+			assertThrows(InvalidJwtException.class, () -> jwtTokenProvider.parseRefreshToken("invalidTokenString"));
+		}
+		
+		@Test
+		@DisplayName("Should build a principal from the user id and role claims")
+		void shouldBuildPrincipalFromClaims() {
+			AuthenticatedUser user = new AuthenticatedUser(7L, "Test User", "userTest@gmail.com", "1299994444",
+					com.github.alefthallys.roombooking.models.User.Role.ADMIN, "passwordTest");
+			Authentication auth = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+			
+			Claims claims = jwtTokenProvider.parseAccessToken(jwtTokenProvider.generateToken(auth));
+			Optional<AuthenticatedUser> principal = jwtTokenProvider.getPrincipalFromClaims(claims);
+			
+			assertTrue(principal.isPresent());
+			assertEquals(7L, principal.get().getId());
+			assertEquals("userTest@gmail.com", principal.get().getUsername());
+			assertEquals(com.github.alefthallys.roombooking.models.User.Role.ADMIN, principal.get().getRole());
+			assertFalse(principal.get().hasProfile());
+		}
+		
+		@Test
+		@DisplayName("Should not build a principal from a token without a user id claim")
+		void shouldNotBuildPrincipalWithoutUserIdClaim() {
+			Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+			
+			Claims claims = jwtTokenProvider.parseAccessToken(jwtTokenProvider.generateToken(auth));
+			
+			assertTrue(jwtTokenProvider.getPrincipalFromClaims(claims).isEmpty());
+		}
+		
+		@Test
+		@DisplayName("Should give every access token its own token id")
+		void shouldGiveEveryAccessTokenItsOwnId() {
+			Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+			
+			String firstTokenId = jwtTokenProvider.parseAccessToken(jwtTokenProvider.generateToken(auth)).getId();
+			String secondTokenId = jwtTokenProvider.parseAccessToken(jwtTokenProvider.generateToken(auth)).getId();
+			
+			assertNotNull(firstTokenId);
+			assertNotEquals(firstTokenId, secondTokenId);
 		}
 		
 		@Test
@@ -237,6 +297,38 @@ class JwtTokenProviderTest {
 			assertEquals(1L, currentUser.getId());
 		}
 		
+		@Test
+		@DisplayName("Should build current user from an authenticated principal without querying the repository")
+		void shouldBuildCurrentUserFromAuthenticatedPrincipal() {
+			AuthenticatedUser principal = new AuthenticatedUser(1L, "Test User", "userTest@gmail.com", "1299994444",
+					com.github.alefthallys.roombooking.models.User.Role.USER, 3L, null);
+			Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+			SecurityContextHolder.getContext().setAuthentication(auth);
+			
+			com.github.alefthallys.roombooking.models.User currentUser = jwtTokenProvider.getCurrentUser();
+			
+			assertEquals(1L, currentUser.getId());
+			assertEquals("userTest@gmail.com", currentUser.getEmail());
+			assertEquals("Test User", currentUser.getName());
+			assertEquals(3L, currentUser.getVersion());
+			Mockito.verifyNoInteractions(userRepository);
+		}
+		
+		@Test
+		@DisplayName("Should load current user from the repository when the principal only carries token claims")
+		void shouldLoadCurrentUserWhenPrincipalHasNoProfile() {
+			com.github.alefthallys.roombooking.models.User storedUser = new com.github.alefthallys.roombooking.models.User();
+			storedUser.setId(1L);
+			storedUser.setEmail("userTest@gmail.com");
+			storedUser.setName("Test User");
+			AuthenticatedUser principal = AuthenticatedUser.fromClaims(1L, "userTest@gmail.com", com.github.alefthallys.roombooking.models.User.Role.USER);
+			SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+			
+			when(userRepository.findByEmail("userTest@gmail.com")).thenReturn(Optional.of(storedUser));
+			
+			assertEquals("Test User", jwtTokenProvider.getCurrentUser().getName());
+		}
+		
 		@Test
 		@DisplayName("Should throw InvalidJwtException when no authenticated user")
 		void shouldThrowExceptionWhenNoAuthenticatedUser() {
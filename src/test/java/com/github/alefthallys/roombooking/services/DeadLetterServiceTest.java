@@ -0,0 +1,154 @@
+package com.github.alefthallys.roombooking.services;
+
+import com.github.alefthallys.roombooking.config.RabbitMQConfig;
+import com.github.alefthallys.roombooking.dtos.DeadLetter.DeadLetterDTO;
+import com.github.alefthallys.roombooking.messaging.EmailConsumerProperties;
+import com.github.alefthallys.roombooking.messaging.EmailRetryPublisher;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterServiceTest {
+	
+	@Mock
+	private RabbitTemplate rabbitTemplate;
+	
+	@Mock
+	private Channel channel;
+	
+	@Spy
+	private EmailConsumerProperties emailConsumerProperties = new EmailConsumerProperties();
+	
+	@InjectMocks
+	private DeadLetterService deadLetterService;
+	
+	@BeforeEach
+	void setUp() {
+		lenient().when(rabbitTemplate.execute(any())).thenAnswer(invocation -> invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+	}
+	
+	private static GetResponse deadLetter(long deliveryTag, String messageId) {
+		AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+				.messageId(messageId)
+				.headers(Map.of(
+						EmailRetryPublisher.RETRY_COUNT_HEADER, 3,
+						EmailRetryPublisher.LAST_ERROR_HEADER, "smtp down",
+						"x-death", List.of(Map.of("reason", "rejected"))))
+				.build();
+		return new GetResponse(new Envelope(deliveryTag, false, RabbitMQConfig.DEAD_LETTER_EXCHANGE_NAME, RabbitMQConfig.DEAD_LETTER_ROUTING_KEY),
+				properties, "{\"reservationId\":1}".getBytes(StandardCharsets.UTF_8), 0);
+	}
+	
+	@Nested
+	class Peek {
+		
+		@Test
+		@DisplayName("Should return dead letters and requeue all of them with a single nack")
+		void shouldPeekAndRequeue() throws Exception {
+			when(channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false))
+					.thenReturn(deadLetter(1, "outbox-1"), deadLetter(2, "outbox-2"), null);
+			
+			List<DeadLetterDTO> result = deadLetterService.peek(10);
+			
+			assertEquals(List.of(
+					new DeadLetterDTO("outbox-1", 3, "smtp down", "rejected", "{\"reservationId\":1}"),
+					new DeadLetterDTO("outbox-2", 3, "smtp down", "rejected", "{\"reservationId\":1}")), result);
+			verify(channel).basicNack(2, true, true);
+			verify(channel, never()).basicAck(anyLong(), anyBoolean());
+		}
+		
+		@Test
+		@DisplayName("Should stop at the limit")
+		void shouldStopAtLimit() throws Exception {
+			when(channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false)).thenReturn(deadLetter(1, "outbox-1"));
+			
+			assertEquals(1, deadLetterService.peek(1).size());
+			verify(channel, times(1)).basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false);
+			verify(channel).basicNack(1, true, true);
+		}
+		
+		@Test
+		@DisplayName("Should not nack anything when the queue is empty")
+		void shouldHandleEmptyQueue() throws Exception {
+			when(channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false)).thenReturn(null);
+			
+			assertTrue(deadLetterService.peek(null).isEmpty());
+			verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+		}
+	}
+	
+	@Nested
+	class Replay {
+		
+		@Test
+		@DisplayName("Should republish to the main exchange with the retry headers reset and ack each message")
+		void shouldReplay() throws Exception {
+			when(channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false)).thenReturn(deadLetter(7, "outbox-7"), (GetResponse) null);
+			
+			assertEquals(1, deadLetterService.replay(null).replayed());
+			
+			ArgumentCaptor<AMQP.BasicProperties> properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+			verify(channel).basicPublish(eq(RabbitMQConfig.EXCHANGE_NAME), eq(RabbitMQConfig.ROUTING_KEY), properties.capture(), any(byte[].class));
+			assertEquals("outbox-7", properties.getValue().getMessageId());
+			assertTrue(properties.getValue().getHeaders().isEmpty());
+			verify(channel).basicAck(7, false);
+		}
+		
+		@Test
+		@DisplayName("Should ack each message only after the broker confirms its republished copy")
+		void shouldAckAfterConfirm() throws Exception {
+			when(channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false)).thenReturn(deadLetter(7, "outbox-7"), (GetResponse) null);
+			
+			deadLetterService.replay(null);
+			
+			InOrder inOrder = inOrder(channel);
+			inOrder.verify(channel).confirmSelect();
+			inOrder.verify(channel).basicPublish(eq(RabbitMQConfig.EXCHANGE_NAME), eq(RabbitMQConfig.ROUTING_KEY), any(AMQP.BasicProperties.class), any(byte[].class));
+			inOrder.verify(channel).waitForConfirmsOrDie(emailConsumerProperties.getReplayConfirmTimeout().toMillis());
+			inOrder.verify(channel).basicAck(7, false);
+		}
+		
+		@Test
+		@DisplayName("Should leave the message on the dead letter queue when the broker does not confirm it")
+		void shouldNotAckWithoutConfirm() throws Exception {
+			when(channel.basicGet(RabbitMQConfig.DEAD_LETTER_QUEUE_NAME, false)).thenReturn(deadLetter(7, "outbox-7"));
+			doThrow(new IOException("nack received")).when(channel).waitForConfirmsOrDie(anyLong());
+			
+			assertThrows(IOException.class, () -> deadLetterService.replay(null));
+			verify(channel, never()).basicAck(anyLong(), anyBoolean());
+		}
+	}
+	
+	@Test
+	@DisplayName("Should clamp the limit between 1 and the maximum")
+	void shouldClampLimit() {
+		assertEquals(DeadLetterService.DEFAULT_LIMIT, DeadLetterService.resolveLimit(null));
+		assertEquals(1, DeadLetterService.resolveLimit(0));
+		assertEquals(DeadLetterService.MAX_LIMIT, DeadLetterService.resolveLimit(1000));
+	}
+}
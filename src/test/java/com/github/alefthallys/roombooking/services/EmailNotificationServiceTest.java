@@ -0,0 +1,65 @@
+package com.github.alefthallys.roombooking.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.alefthallys.roombooking.config.RabbitMQConfig;
+import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
+import com.github.alefthallys.roombooking.models.OutboxEvent;
+import com.github.alefthallys.roombooking.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmailNotificationServiceTest {
+	
+	@Mock
+	private OutboxEventRepository outboxEventRepository;
+	
+	private ObjectMapper objectMapper;
+	private EmailNotificationService emailNotificationService;
+	private ReservationConfirmationEmailDTO emailDTO;
+	
+	@BeforeEach
+	void setUp() {
+		objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		emailNotificationService = new EmailNotificationService(outboxEventRepository, objectMapper);
+		LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+		emailDTO = new ReservationConfirmationEmailDTO("john@example.com", "John", "Room 101", start, start.plusHours(1), 42L);
+	}
+	
+	@Test
+	@DisplayName("Should write the confirmation email to the outbox instead of publishing it")
+	void shouldWriteConfirmationEmailToOutbox() throws Exception {
+		emailNotificationService.sendReservationConfirmationEmail(emailDTO);
+		
+		ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+		verify(outboxEventRepository).save(event.capture());
+		assertEquals(RabbitMQConfig.EXCHANGE_NAME, event.getValue().getExchange());
+		assertEquals(RabbitMQConfig.ROUTING_KEY, event.getValue().getRoutingKey());
+		assertEquals(ReservationConfirmationEmailDTO.class.getName(), event.getValue().getPayloadType());
+		assertEquals(emailDTO, objectMapper.readValue(event.getValue().getPayload(), ReservationConfirmationEmailDTO.class));
+	}
+	
+	@Test
+	@DisplayName("Should write a batch of confirmation emails to the outbox in one call")
+	@SuppressWarnings("unchecked")
+	void shouldWriteConfirmationEmailBatchToOutbox() {
+		emailNotificationService.sendReservationConfirmationEmails(List.of(emailDTO, emailDTO));
+		
+		ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+		verify(outboxEventRepository).saveAll(events.capture());
+		assertEquals(2, events.getValue().size());
+	}
+}
@@ -0,0 +1,292 @@
+package com.github.alefthallys.roombooking.services;
+
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationOccurrenceDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesRequestDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesResponseDTO;
+import com.github.alefthallys.roombooking.exceptions.Auth.ForbiddenException;
+import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationConflictException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.EntityReservationOccurrenceNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.EntityReservationSeriesNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidOccurrenceRangeException;
+import com.github.alefthallys.roombooking.exceptions.ReservationSeries.InvalidRecurrenceRuleException;
+import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomNotFoundException;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.index.ReservationSeriesInterval;
+import com.github.alefthallys.roombooking.index.RoomBookings;
+import com.github.alefthallys.roombooking.index.RoomLockRegistry;
+import com.github.alefthallys.roombooking.models.ReservationSeries;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
+import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
+import com.github.alefthallys.roombooking.testBuilders.ReservationSeriesTestBuilder;
+import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
+import com.github.alefthallys.roombooking.testBuilders.UserTestBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationSeriesServiceTest {
+	
+	private static final LocalDateTime MONDAY = LocalDateTime.of(2030, 1, 7, 9, 0);
+	
+	@InjectMocks
+	private ReservationSeriesService reservationSeriesService;
+	
+	@Mock
+	private ReservationSeriesRepository reservationSeriesRepository;
+	
+	@Mock
+	private RoomRepository roomRepository;
+	
+	@Mock
+	private UserRepository userRepository;
+	
+	@Mock
+	private JwtTokenProvider jwtTokenProvider;
+	
+	@Mock
+	private AuthService authService;
+	
+	@Mock
+	private ReservationIndex reservationIndex;
+	
+	@Mock
+	private RoomLockRegistry roomLockRegistry;
+	
+	@Mock
+	private RoomBookings roomBookings;
+	
+	private User user;
+	private Room room;
+	private ReservationSeries series;
+	private ReservationSeriesRequestDTO seriesRequestDTO;
+	
+	@BeforeEach
+	void setUp() {
+		user = UserTestBuilder.anUser().build();
+		room = RoomTestBuilder.aRoom().build();
+		series = ReservationSeriesTestBuilder.aReservationSeries().withUser(user).withRoom(room).build();
+		seriesRequestDTO = ReservationSeriesTestBuilder.aReservationSeries().withRoom(room).buildRequestDTO();
+		lenient().when(userRepository.findByIdForShare(user.getId())).thenReturn(Optional.of(user));
+	}
+	
+	@Nested
+	@DisplayName("Create Reservation Series")
+	class CreateReservationSeries {
+		
+		@Test
+		@DisplayName("Should check every occurrence against the locked room's bookings and save the series")
+		void shouldCreateReservationSeries() {
+			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+			when(reservationIndex.forLockedRoom(room.getId())).thenReturn(roomBookings);
+			when(roomBookings.findConflict(any(ReservationSeriesInterval.class), eq(MONDAY), eq(LocalDateTime.of(2030, 2, 6, 10, 0))))
+					.thenReturn(Optional.empty());
+			when(reservationSeriesRepository.save(any(ReservationSeries.class))).thenReturn(series);
+			
+			ReservationSeriesResponseDTO result = reservationSeriesService.create(seriesRequestDTO);
+			
+			assertEquals(series.getId(), result.id());
+			assertEquals("FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,WE;COUNT=10", result.recurrenceRule());
+			InOrder lockOrder = inOrder(userRepository, roomLockRegistry, roomRepository);
+			lockOrder.verify(userRepository).findByIdForShare(user.getId());
+			lockOrder.verify(roomLockRegistry).lockUntilCompletion(room.getId());
+			lockOrder.verify(roomRepository).findByIdForUpdate(room.getId());
+			verify(reservationSeriesRepository, never()).findByRoomIdIn(anyCollection());
+			verify(roomBookings, times(1)).addSeries(ReservationSeriesInterval.of(series));
+		}
+		
+		@Test
+		@DisplayName("Should throw EntityReservationConflictException when the room's bookings report a conflict")
+		void shouldThrowConflictFromRoomBookings() {
+			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+			when(reservationIndex.forLockedRoom(room.getId())).thenReturn(roomBookings);
+			when(roomBookings.findConflict(any(ReservationSeriesInterval.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+					.thenReturn(Optional.of(new ReservationInterval(5L, room.getId(), 2L, MONDAY.plusWeeks(3), MONDAY.plusWeeks(3).plusHours(1))));
+			
+			assertThrows(EntityReservationConflictException.class, () -> reservationSeriesService.create(seriesRequestDTO));
+			verify(reservationSeriesRepository, never()).save(any(ReservationSeries.class));
+			verify(roomBookings, never()).addSeries(any(ReservationSeriesInterval.class));
+		}
+		
+		@Test
+		@DisplayName("Should reject a series starting on a weekday the rule does not list")
+		void shouldRejectStartOutsideByDay() {
+			ReservationSeriesRequestDTO requestDTO = new ReservationSeriesRequestDTO(room.getId(), MONDAY.plusDays(1), MONDAY.plusDays(1).plusHours(1),
+					"FREQ=WEEKLY;BYDAY=MO;COUNT=3");
+			
+			assertThrows(InvalidRecurrenceRuleException.class, () -> reservationSeriesService.create(requestDTO));
+			verifyNoInteractions(roomRepository, reservationSeriesRepository);
+		}
+		
+		@Test
+		@DisplayName("Should reject a series whose occurrences overlap each other")
+		void shouldRejectSelfOverlappingSeries() {
+			ReservationSeriesRequestDTO requestDTO = new ReservationSeriesRequestDTO(room.getId(), MONDAY, MONDAY.plusHours(25), "FREQ=DAILY;COUNT=3");
+			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+			
+			assertThrows(InvalidRecurrenceRuleException.class, () -> reservationSeriesService.create(requestDTO));
+			verify(reservationSeriesRepository, never()).save(any(ReservationSeries.class));
+		}
+		
+		@Test
+		@DisplayName("Should throw EntityRoomNotFoundException when the room does not exist")
+		void shouldThrowWhenRoomDoesNotExist() {
+			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.empty());
+			
+			assertThrows(EntityRoomNotFoundException.class, () -> reservationSeriesService.create(seriesRequestDTO));
+			verify(reservationSeriesRepository, never()).save(any(ReservationSeries.class));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Find Reservation Series")
+	class FindReservationSeries {
+		
+		@Test
+		@DisplayName("Should expand only the occurrences within the range, skipping cancelled dates")
+		void shouldExpandOccurrencesWithinRange() {
+			series.setCancelledDates(Set.of(LocalDate.of(2030, 1, 14)));
+			when(reservationSeriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+			
+			List<ReservationOccurrenceDTO> result = reservationSeriesService.findOccurrences(series.getId(), MONDAY.plusDays(2), MONDAY.plusWeeks(2));
+			
+			assertEquals(List.of(MONDAY.plusDays(2), MONDAY.plusDays(9)), result.stream().map(ReservationOccurrenceDTO::startDate).toList());
+			verify(authService, times(1)).validateUserOwnership(user);
+		}
+		
+		@Test
+		@DisplayName("Should throw InvalidOccurrenceRangeException when the range does not end after it starts")
+		void shouldThrowWhenRangeIsInvalid() {
+			assertThrows(InvalidOccurrenceRangeException.class, () -> reservationSeriesService.findOccurrences(1L, MONDAY, MONDAY));
+			verifyNoInteractions(reservationSeriesRepository);
+		}
+		
+		@Test
+		@DisplayName("Should throw EntityReservationSeriesNotFoundException when the series does not exist")
+		void shouldThrowWhenSeriesDoesNotExist() {
+			when(reservationSeriesRepository.findById(99L)).thenReturn(Optional.empty());
+			
+			assertThrows(EntityReservationSeriesNotFoundException.class, () -> reservationSeriesService.findById(99L));
+		}
+	}
+	
+	@Nested
+	@DisplayName("Cancel And Delete Reservation Series")
+	class CancelAndDeleteReservationSeries {
+		
+		@Test
+		@DisplayName("Should record a cancelled occurrence as a sparse exception")
+		void shouldCancelOccurrence() {
+			LocalDate wednesday = LocalDate.of(2030, 1, 9);
+			when(reservationSeriesRepository.findRoomIdById(series.getId())).thenReturn(Optional.of(room.getId()));
+			when(reservationSeriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+			when(reservationIndex.forLockedRoom(room.getId())).thenReturn(roomBookings);
+			when(reservationSeriesRepository.save(series)).thenReturn(series);
+			
+			reservationSeriesService.cancelOccurrence(series.getId(), wednesday);
+			
+			assertEquals(Set.of(wednesday), series.getCancelledDates());
+			verify(roomLockRegistry, times(1)).lockUntilCompletion(room.getId());
+			verify(roomBookings, times(1)).replaceSeries(any(ReservationSeriesInterval.class),
+					argThat(interval -> interval.cancelledDates().equals(Set.of(wednesday))));
+		}
+		
+		@Test
+		@DisplayName("Should lock the room before loading the series it cancels an occurrence of")
+		void shouldLockRoomBeforeLoadingSeriesOnCancel() {
+			when(reservationSeriesRepository.findRoomIdById(series.getId())).thenReturn(Optional.of(room.getId()));
+			when(reservationSeriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+			when(reservationIndex.forLockedRoom(room.getId())).thenReturn(roomBookings);
+			when(reservationSeriesRepository.save(series)).thenReturn(series);
+			
+			reservationSeriesService.cancelOccurrence(series.getId(), LocalDate.of(2030, 1, 9));
+			
+			InOrder lockOrder = inOrder(roomLockRegistry, roomRepository, reservationIndex, reservationSeriesRepository);
+			lockOrder.verify(roomLockRegistry).lockUntilCompletion(room.getId());
+			lockOrder.verify(roomRepository).findByIdForUpdate(room.getId());
+			lockOrder.verify(reservationIndex).forLockedRoom(room.getId());
+			lockOrder.verify(reservationSeriesRepository).findById(series.getId());
+			lockOrder.verify(reservationSeriesRepository).save(series);
+		}
+		
+		@Test
+		@DisplayName("Should throw EntityReservationSeriesNotFoundException without locking a room when the series does not exist")
+		void shouldThrowWhenCancellingUnknownSeries() {
+			when(reservationSeriesRepository.findRoomIdById(series.getId())).thenReturn(Optional.empty());
+			
+			assertThrows(EntityReservationSeriesNotFoundException.class,
+					() -> reservationSeriesService.cancelOccurrence(series.getId(), LocalDate.of(2030, 1, 9)));
+			verify(roomLockRegistry, never()).lockUntilCompletion(anyLong());
+		}
+		
+		@Test
+		@DisplayName("Should throw EntityReservationOccurrenceNotFoundException when nothing is scheduled on the date")
+		void shouldThrowWhenNoOccurrenceOnDate() {
+			when(reservationSeriesRepository.findRoomIdById(series.getId())).thenReturn(Optional.of(room.getId()));
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+			when(reservationSeriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+			
+			assertThrows(EntityReservationOccurrenceNotFoundException.class,
+					() -> reservationSeriesService.cancelOccurrence(series.getId(), LocalDate.of(2030, 1, 8)));
+			verify(reservationSeriesRepository, never()).save(any(ReservationSeries.class));
+		}
+		
+		@Test
+		@DisplayName("Should delete the series under the room's lock and drop it from the room's bookings")
+		void shouldDeleteSeries() {
+			when(reservationSeriesRepository.findRoomIdById(series.getId())).thenReturn(Optional.of(room.getId()));
+			when(reservationSeriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+			when(reservationIndex.forLockedRoom(room.getId())).thenReturn(roomBookings);
+			
+			reservationSeriesService.delete(series.getId());
+			
+			verify(roomLockRegistry, times(1)).lockUntilCompletion(room.getId());
+			verify(reservationSeriesRepository, times(1)).delete(series);
+			verify(roomBookings, times(1)).removeSeries(ReservationSeriesInterval.of(series));
+		}
+		
+		@Test
+		@DisplayName("Should not delete a series owned by another user")
+		void shouldNotDeleteSeriesOfAnotherUser() {
+			when(reservationSeriesRepository.findRoomIdById(series.getId())).thenReturn(Optional.of(room.getId()));
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
+			when(reservationSeriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+			doThrow(new ForbiddenException()).when(authService).validateUserOwnership(user);
+			
+			assertThrows(ForbiddenException.class, () -> reservationSeriesService.delete(series.getId()));
+			verify(reservationSeriesRepository, never()).delete(any(ReservationSeries.class));
+		}
+	}
+}
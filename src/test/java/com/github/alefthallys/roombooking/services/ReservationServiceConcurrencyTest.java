@@ -0,0 +1,257 @@
+package com.github.alefthallys.roombooking.services;
+
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationRequestDTO;
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
+import com.github.alefthallys.roombooking.dtos.Reservation.ReservationUpdateRequestDTO;
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
+import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationConflictException;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.RoomLockProperties;
+import com.github.alefthallys.roombooking.index.RoomLockRegistry;
+import com.github.alefthallys.roombooking.models.Reservation;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.reminders.ReminderScheduler;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomBookingVersionRepository;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
+import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
+import com.github.alefthallys.roombooking.testBuilders.ReservationTestBuilder;
+import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
+import com.github.alefthallys.roombooking.testBuilders.UserTestBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+@Import({ReservationService.class, ReservationIndex.class, RoomLockRegistry.class, RoomLockProperties.class, OptimisticLockRetry.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReservationServiceConcurrencyTest {
+	
+	private static final int THREADS = 8;
+	private static final int ATTEMPTS_PER_THREAD = 40;
+	private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 8, 0);
+	
+	@Autowired
+	private ReservationService reservationService;
+	
+	@Autowired
+	private ReservationRepository reservationRepository;
+	
+	@Autowired
+	private RoomRepository roomRepository;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private ReservationSeriesRepository reservationSeriesRepository;
+	
+	@Autowired
+	private RoomBookingVersionRepository roomBookingVersionRepository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@MockitoBean
+	private JwtTokenProvider jwtTokenProvider;
+	
+	@MockitoBean
+	private AuthService authService;
+	
+	@MockitoBean
+	private EmailNotificationService emailNotificationService;
+	
+	@MockitoBean
+	private ReminderScheduler reminderScheduler;
+	
+	@AfterEach
+	void tearDown() {
+		reservationRepository.deleteAll();
+		roomBookingVersionRepository.deleteAll();
+		roomRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+	
+	@Test
+	@DisplayName("Should never persist overlapping reservations for the same room under concurrent bookings")
+	void shouldNeverPersistOverlappingReservationsUnderConcurrentBookings() throws Exception {
+		User user = userRepository.save(UserTestBuilder.anUser().withId(null).build());
+		Room room = roomRepository.save(RoomTestBuilder.aRoom().withId(null).build());
+		when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+		
+		CountDownLatch start = new CountDownLatch(1);
+		List<Callable<Integer>> workers = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			Random random = new Random(thread);
+			workers.add(() -> {
+				start.await();
+				int conflicts = 0;
+				for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+					LocalDateTime startDate = FIRST_SLOT.plusMinutes(30L * random.nextInt(48));
+					LocalDateTime endDate = startDate.plusMinutes(30L * (1 + random.nextInt(4)));
+					try {
+						reservationService.create(new ReservationRequestDTO(room.getId(), startDate, endDate));
+					} catch (EntityReservationConflictException e) {
+						conflicts++;
+					}
+				}
+				return conflicts;
+			});
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		int conflicts = 0;
+		try {
+			List<Future<Integer>> results = workers.stream().map(executor::submit).toList();
+			start.countDown();
+			for (Future<Integer> result : results) {
+				conflicts += result.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		List<Reservation> saved = reservationRepository.findAll().stream()
+				.sorted(Comparator.comparing(Reservation::getStartDate))
+				.toList();
+		assertFalse(saved.isEmpty());
+		assertTrue(conflicts > 0);
+		assertEquals(THREADS * ATTEMPTS_PER_THREAD, saved.size() + conflicts);
+		for (int i = 1; i < saved.size(); i++) {
+			Reservation previous = saved.get(i - 1);
+			Reservation current = saved.get(i);
+			assertFalse(current.getStartDate().isBefore(previous.getEndDate()),
+					() -> "Reservations " + previous.getId() + " and " + current.getId() + " overlap");
+		}
+	}
+	
+	@Test
+	@DisplayName("Should never lose a concurrent update of the same reservation")
+	void shouldNeverLoseConcurrentUpdateOfSameReservation() throws Exception {
+		User user = userRepository.save(UserTestBuilder.anUser().withId(null).build());
+		Room room = roomRepository.save(RoomTestBuilder.aRoom().withId(null).build());
+		Reservation reservation = reservationRepository.save(ReservationTestBuilder.aReservation().withId(null)
+				.withStartDate(FIRST_SLOT).withEndDate(FIRST_SLOT.plusHours(1)).withUser(user).withRoom(room).build());
+		
+		CountDownLatch start = new CountDownLatch(1);
+		List<Callable<Boolean>> workers = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			LocalDateTime startDate = FIRST_SLOT.plusHours(thread + 1L);
+			workers.add(() -> {
+				start.await();
+				try {
+					reservationService.update(reservation.getId(), new ReservationUpdateRequestDTO(startDate, startDate.plusHours(1)), null);
+					return true;
+				} catch (OptimisticLockingFailureException e) {
+					return false;
+				}
+			});
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		long applied = 0;
+		try {
+			List<Future<Boolean>> results = workers.stream().map(executor::submit).toList();
+			start.countDown();
+			for (Future<Boolean> result : results) {
+				applied += result.get(60, TimeUnit.SECONDS) ? 1 : 0;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		assertTrue(applied > 0);
+		assertEquals(applied, reservationRepository.findById(reservation.getId()).orElseThrow().getVersion());
+	}
+	
+	@Test
+	@DisplayName("Should reject an update whose If-Match version was already superseded")
+	void shouldRejectUpdateWhoseIfMatchVersionWasSuperseded() {
+		User user = userRepository.save(UserTestBuilder.anUser().withId(null).build());
+		Room room = roomRepository.save(RoomTestBuilder.aRoom().withId(null).build());
+		Reservation reservation = reservationRepository.save(ReservationTestBuilder.aReservation().withId(null)
+				.withStartDate(FIRST_SLOT).withEndDate(FIRST_SLOT.plusHours(1)).withUser(user).withRoom(room).build());
+		Long seenVersion = reservation.getVersion();
+		
+		ReservationResponseDTO first = reservationService.update(reservation.getId(), new ReservationUpdateRequestDTO(FIRST_SLOT.plusHours(1), FIRST_SLOT.plusHours(2)), seenVersion);
+		
+		assertEquals(seenVersion + 1, first.version());
+		assertThrows(EntityVersionMismatchException.class, () -> reservationService.update(reservation.getId(),
+				new ReservationUpdateRequestDTO(FIRST_SLOT.plusHours(3), FIRST_SLOT.plusHours(4)), seenVersion));
+		assertEquals(FIRST_SLOT.plusHours(1), reservationRepository.findById(reservation.getId()).orElseThrow().getStartDate());
+	}
+	
+	@Test
+	@DisplayName("Should never double-book a room when two instances book the same slot against one database")
+	void shouldNeverDoubleBookAcrossInstances() throws Exception {
+		User user = userRepository.save(UserTestBuilder.anUser().withId(null).build());
+		Room room = roomRepository.save(RoomTestBuilder.aRoom().withId(null).build());
+		when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+		ReservationRequestDTO slot = new ReservationRequestDTO(room.getId(), FIRST_SLOT, FIRST_SLOT.plusHours(1));
+		
+		ReservationIndex otherIndex = new ReservationIndex(reservationRepository, reservationSeriesRepository, roomBookingVersionRepository, transactionManager);
+		otherIndex.afterSingletonsInstantiated();
+		ReservationService otherInstance = new ReservationService(reservationRepository, roomRepository, userRepository, jwtTokenProvider,
+				authService, emailNotificationService, otherIndex, new RoomLockRegistry(new RoomLockProperties()), reminderScheduler,
+				new OptimisticLockRetry(transactionManager), new SimpleMeterRegistry());
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+		
+		CountDownLatch firstChecked = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			firstChecked.countDown();
+			Thread.sleep(300);
+			return null;
+		}).when(reminderScheduler).schedule(anyLong(), any(LocalDateTime.class));
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<ReservationResponseDTO> first = executor.submit(() -> reservationService.create(slot));
+			assertTrue(firstChecked.await(10, TimeUnit.SECONDS));
+			Future<ReservationResponseDTO> second = executor.submit(() -> transactionTemplate.execute(status -> otherInstance.create(slot)));
+			
+			first.get(10, TimeUnit.SECONDS);
+			Exception failure = assertThrows(Exception.class, () -> second.get(10, TimeUnit.SECONDS));
+			assertTrue(failure.getCause() instanceof EntityReservationConflictException, () -> "Unexpected failure: " + failure.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		assertEquals(1, reservationRepository.count());
+	}
+}
@@ -1,16 +1,30 @@
 package com.github.alefthallys.roombooking.services;
 
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
+import com.github.alefthallys.roombooking.dtos.FieldErrorDTO;
 import com.github.alefthallys.roombooking.dtos.Email.ReservationConfirmationEmailDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationResponseDTO;
 import com.github.alefthallys.roombooking.dtos.Reservation.ReservationUpdateRequestDTO;
 import com.github.alefthallys.roombooking.exceptions.Auth.ForbiddenException;
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
+import com.github.alefthallys.roombooking.exceptions.Pagination.InvalidCursorException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationConflictException;
 import com.github.alefthallys.roombooking.exceptions.Reservation.EntityReservationNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.Reservation.ReservationBatchRejectedException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.User.EntityUserNotFoundException;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.ReservationInterval;
+import com.github.alefthallys.roombooking.index.RoomBookings;
+import com.github.alefthallys.roombooking.index.RoomLockRegistry;
 import com.github.alefthallys.roombooking.models.Reservation;
 import com.github.alefthallys.roombooking.models.Room;
 import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.pagination.Cursor;
+import com.github.alefthallys.roombooking.pagination.CursorPages;
+import com.github.alefthallys.roombooking.pagination.ReservationSort;
+import com.github.alefthallys.roombooking.reminders.ReminderScheduler;
 import com.github.alefthallys.roombooking.repositories.ReservationRepository;
 import com.github.alefthallys.roombooking.repositories.RoomRepository;
 import com.github.alefthallys.roombooking.repositories.UserRepository;
@@ -18,6 +32,7 @@ import com.github.alefthallys.roombooking.security.jwt.JwtTokenProvider;
 import com.github.alefthallys.roombooking.testBuilders.ReservationTestBuilder;
 import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
 import com.github.alefthallys.roombooking.testBuilders.UserTestBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -26,18 +41,31 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,6 +92,24 @@ class ReservationServiceTest {
 	@Mock
 	private EmailNotificationService emailNotificationService;
 	
+	@Mock
+	private ReservationIndex reservationIndex;
+	
+	@Mock
+	private RoomBookings roomBookings;
+	
+	@Mock
+	private RoomLockRegistry roomLockRegistry;
+	
+	@Mock
+	private ReminderScheduler reminderScheduler;
+	
+	@Spy
+	private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(TransactionOperations.withoutTransaction());
+	
+	@Spy
+	private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	
 	private Reservation reservation;
 	private ReservationRequestDTO reservationRequestDTO;
 	private ReservationUpdateRequestDTO reservationUpdateRequestDTO;
@@ -88,6 +134,9 @@ class ReservationServiceTest {
 				.withStartDate(LocalDateTime.now().plusDays(1).plusHours(1))
 				.withEndDate(LocalDateTime.now().plusDays(2).minusHours(1))
 				.build();
+		
+		lenient().when(reservationIndex.forLockedRoom(anyLong())).thenReturn(roomBookings);
+		lenient().when(userRepository.findByIdForShare(user.getId())).thenReturn(Optional.of(user));
 	}
 	
 	private void assertEqualsResponseDTO(Reservation expectedReservation, ReservationResponseDTO actualResponseDTO) {
@@ -103,20 +152,63 @@ class ReservationServiceTest {
 	class FindAllReservations {
 		
 		@Test
-		@DisplayName("Should return a list of reservations")
-		void shouldReturnAListOfReservations() {
-			when(reservationRepository.findAll()).thenReturn(List.of(reservation));
-			List<ReservationResponseDTO> result = reservationService.findAll();
-			assertEquals(1, result.size());
-			assertEqualsResponseDTO(reservation, result.get(0));
+		@DisplayName("Should return the first page ordered by id")
+		void shouldReturnTheFirstPageOrderedById() {
+			when(reservationRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of(reservation));
+			CursorPageDTO<ReservationResponseDTO> result = reservationService.findAll(null, null, ReservationSort.ID);
+			assertEquals(1, result.content().size());
+			assertEqualsResponseDTO(reservation, result.content().get(0));
+			assertFalse(result.hasNext());
+		}
+		
+		@Test
+		@DisplayName("Should return an empty page when no reservations are found")
+		void shouldReturnAnEmptyPage() {
+			when(reservationRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of());
+			CursorPageDTO<ReservationResponseDTO> result = reservationService.findAll(null, null, ReservationSort.ID);
+			assertEquals(0, result.content().size());
+			assertNull(result.nextCursor());
+		}
+		
+		@Test
+		@DisplayName("Should return a next cursor pointing after the last reservation of a full page")
+		void shouldReturnNextCursorWhenMoreReservationsExist() {
+			Reservation second = ReservationTestBuilder.aReservation().withId(2L).build();
+			Reservation third = ReservationTestBuilder.aReservation().withId(3L).build();
+			when(reservationRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(reservation, second, third));
+			
+			CursorPageDTO<ReservationResponseDTO> result = reservationService.findAll(null, 2, ReservationSort.ID);
+			
+			assertEquals(2, result.content().size());
+			assertEquals(Cursor.ofId(2L), Cursor.decode(result.nextCursor()));
+		}
+		
+		@Test
+		@DisplayName("Should continue after the cursor when sorting by start date")
+		void shouldContinueAfterCursorWhenSortingByStartDate() {
+			LocalDateTime startDate = LocalDateTime.of(2030, 1, 7, 9, 0);
+			String cursor = Cursor.ofStartDate(startDate, 5L).encode();
+			when(reservationRepository.findAfterStartDate(startDate, 5L, Limit.of(21))).thenReturn(List.of(reservation));
+			
+			CursorPageDTO<ReservationResponseDTO> result = reservationService.findAll(cursor, null, ReservationSort.START_DATE);
+			
+			assertEquals(1, result.content().size());
+			verify(reservationRepository, never()).findAllByOrderByStartDateAscIdAsc(any(Limit.class));
+		}
+		
+		@Test
+		@DisplayName("Should clamp the page size to the maximum")
+		void shouldClampPageSizeToTheMaximum() {
+			when(reservationRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(CursorPages.MAX_SIZE + 1))).thenReturn(List.of());
+			reservationService.findAll(null, 10_000, ReservationSort.ID);
+			verify(reservationRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(CursorPages.MAX_SIZE + 1));
 		}
 		
 		@Test
-		@DisplayName("Should return an empty list when no reservations are found")
-		void shouldReturnAnEmptyList() {
-			when(reservationRepository.findAll()).thenReturn(List.of());
-			List<ReservationResponseDTO> result = reservationService.findAll();
-			assertEquals(0, result.size());
+		@DisplayName("Should throw InvalidCursorException when an id cursor is used to sort by start date")
+		void shouldThrowInvalidCursorExceptionForIdCursorSortedByStartDate() {
+			String cursor = Cursor.ofId(5L).encode();
+			assertThrows(InvalidCursorException.class, () -> reservationService.findAll(cursor, null, ReservationSort.START_DATE));
 		}
 	}
 	
@@ -154,70 +246,219 @@ class ReservationServiceTest {
 	class CreateReservation {
 		
 		@Test
-		@DisplayName("Should create a new reservation")
+		@DisplayName("Should create a new reservation checked against the locked room's bookings only")
 		void shouldCreateNewReservation() {
-			when(roomRepository.existsById(reservationRequestDTO.roomId())).thenReturn(true);
 			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
-			when(roomRepository.findById(reservationRequestDTO.roomId())).thenReturn(Optional.of(room));
-			when(reservationRepository.findByRoomIdAndStartDateBeforeAndEndDateAfter(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+			when(roomRepository.findByIdForUpdate(reservationRequestDTO.roomId())).thenReturn(Optional.of(room));
 			when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
 			doNothing().when(emailNotificationService).sendReservationConfirmationEmail(any(ReservationConfirmationEmailDTO.class));
 			
 			ReservationResponseDTO result = reservationService.create(reservationRequestDTO);
 			
 			assertEqualsResponseDTO(reservation, result);
+			InOrder lockOrder = inOrder(userRepository, roomRepository);
+			lockOrder.verify(userRepository).findByIdForShare(user.getId());
+			lockOrder.verify(roomRepository).findByIdForUpdate(reservationRequestDTO.roomId());
+			verify(roomRepository, never()).existsById(anyLong());
+			verify(roomLockRegistry, times(1)).lockUntilCompletion(room.getId());
+			verify(reservationIndex, times(1)).forLockedRoom(room.getId());
+			verify(roomBookings, times(1)).findConflict(reservationRequestDTO.startDate(), reservationRequestDTO.endDate(), null);
+			verify(reservationRepository, never()).findIntervalsOverlapping(anySet(), any(LocalDateTime.class), any(LocalDateTime.class));
 			verify(reservationRepository, times(1)).save(any(Reservation.class));
+			verify(roomBookings, times(1)).add(ReservationInterval.of(reservation));
+			verify(reminderScheduler, times(1)).schedule(reservation.getId(), reservation.getStartDate());
+			assertEquals(1, meterRegistry.timer(ReservationService.CREATE_TIMER).count());
+			assertEquals(1, meterRegistry.timer(ReservationService.CONFLICT_CHECK_TIMER).count());
 			verify(emailNotificationService, times(1)).sendReservationConfirmationEmail(any(ReservationConfirmationEmailDTO.class));
 		}
 		
+		@Test
+		@DisplayName("Should throw EntityReservationConflictException when the room's bookings report a conflict")
+		void shouldThrowEntityReservationConflictExceptionWhenTheRoomsBookingsReportAConflict() {
+			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+			when(roomRepository.findByIdForUpdate(reservationRequestDTO.roomId())).thenReturn(Optional.of(room));
+			when(roomBookings.findConflict(reservationRequestDTO.startDate(), reservationRequestDTO.endDate(), null))
+					.thenReturn(Optional.of(ReservationInterval.of(existingConflictingReservation)));
+			
+			assertThrows(EntityReservationConflictException.class, () -> reservationService.create(reservationRequestDTO));
+			verify(reservationRepository, never()).save(any(Reservation.class));
+			verify(roomBookings, never()).add(any(ReservationInterval.class));
+		}
+		
 		@Test
 		@DisplayName("Should throw EntityRoomNotFoundException when room does not exist")
 		void shouldThrowEntityRoomNotFoundExceptionWhenRoomDoesNotExist() {
-			when(roomRepository.existsById(reservationRequestDTO.roomId())).thenReturn(false);
+			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+			when(roomRepository.findByIdForUpdate(reservationRequestDTO.roomId())).thenReturn(Optional.empty());
 			assertThrows(EntityRoomNotFoundException.class, () -> reservationService.create(reservationRequestDTO));
 			verify(reservationRepository, never()).save(any(Reservation.class));
 		}
 		
 		@Test
-		@DisplayName("Should throw EntityReservationConflictException when there is a time conflict")
-		void shouldThrowEntityReservationConflictExceptionWhenTimeConflict() {
-			when(roomRepository.existsById(reservationRequestDTO.roomId())).thenReturn(true);
+		@DisplayName("Should throw EntityUserNotFoundException without locking the room when the user was deleted")
+		void shouldThrowEntityUserNotFoundExceptionWhenUserWasDeleted() {
 			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
-			when(roomRepository.findById(reservationRequestDTO.roomId())).thenReturn(Optional.of(room));
-			when(reservationRepository.findByRoomIdAndStartDateBeforeAndEndDateAfter(
-					anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
-					.thenReturn(List.of(existingConflictingReservation));
+			when(userRepository.findByIdForShare(user.getId())).thenReturn(Optional.empty());
 			
-			assertThrows(EntityReservationConflictException.class, () -> reservationService.create(reservationRequestDTO));
+			assertThrows(EntityUserNotFoundException.class, () -> reservationService.create(reservationRequestDTO));
+			verify(roomLockRegistry, never()).lockUntilCompletion(anyLong());
+			verify(roomRepository, never()).findByIdForUpdate(anyLong());
 			verify(reservationRepository, never()).save(any(Reservation.class));
 		}
 	}
 	
+	@Nested
+	@DisplayName("Create Reservation Batch")
+	class CreateReservationBatch {
+		
+		private final LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+		private Room otherRoom;
+		
+		@BeforeEach
+		void setUp() {
+			otherRoom = RoomTestBuilder.aRoom().withId(2L).withName("Room 202").build();
+			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
+		}
+		
+		private Reservation saved(Long id, ReservationRequestDTO reservationDTO, Room room) {
+			return ReservationTestBuilder.aReservation().withId(id).withUser(user).withRoom(room)
+					.withStartDate(reservationDTO.startDate()).withEndDate(reservationDTO.endDate()).build();
+		}
+		
+		@Test
+		@DisplayName("Should lock every room once, save all reservations and publish their confirmations together")
+		void shouldCreateAllReservations() {
+			ReservationRequestDTO first = new ReservationRequestDTO(room.getId(), start, start.plusHours(1));
+			ReservationRequestDTO second = new ReservationRequestDTO(otherRoom.getId(), start, start.plusHours(1));
+			ReservationRequestDTO third = new ReservationRequestDTO(room.getId(), start.plusHours(1), start.plusHours(2));
+			List<Reservation> savedReservations = List.of(saved(10L, first, room), saved(11L, second, otherRoom), saved(12L, third, room));
+			when(roomRepository.findAllByIdForUpdate(Set.of(room.getId(), otherRoom.getId()))).thenReturn(List.of(room, otherRoom));
+			when(reservationRepository.saveAll(anyList())).thenReturn(savedReservations);
+			
+			List<ReservationResponseDTO> result = reservationService.createBatch(List.of(first, second, third));
+			
+			assertEquals(List.of(10L, 11L, 12L), result.stream().map(ReservationResponseDTO::id).toList());
+			verify(roomLockRegistry, times(1)).lockUntilCompletion(Set.of(room.getId(), otherRoom.getId()));
+			verify(reservationIndex, times(1)).forLockedRoom(room.getId());
+			verify(reservationIndex, times(1)).forLockedRoom(otherRoom.getId());
+			verify(reservationRepository, never()).findIntervalsOverlapping(anySet(), any(LocalDateTime.class), any(LocalDateTime.class));
+			verify(reservationRepository, times(1)).saveAll(anyList());
+			verify(reservationRepository, never()).save(any(Reservation.class));
+			savedReservations.forEach(savedReservation -> verify(roomBookings).add(ReservationInterval.of(savedReservation)));
+			verify(emailNotificationService, times(1)).sendReservationConfirmationEmails(argThat(emails -> emails.size() == 3));
+			verify(emailNotificationService, never()).sendReservationConfirmationEmail(any(ReservationConfirmationEmailDTO.class));
+		}
+		
+		@Test
+		@DisplayName("Should reject the whole batch when two of its reservations overlap")
+		void shouldRejectOverlapWithinBatch() {
+			ReservationRequestDTO first = new ReservationRequestDTO(room.getId(), start, start.plusHours(2));
+			ReservationRequestDTO second = new ReservationRequestDTO(room.getId(), start.plusHours(1), start.plusHours(3));
+			when(roomRepository.findAllByIdForUpdate(Set.of(room.getId()))).thenReturn(List.of(room));
+			
+			ReservationBatchRejectedException exception = assertThrows(ReservationBatchRejectedException.class,
+					() -> reservationService.createBatch(List.of(first, second)));
+			
+			assertEquals(1, exception.getItemErrors().size());
+			assertEquals("reservations[1]", exception.getItemErrors().get(0).field());
+			assertEquals(second, exception.getItemErrors().get(0).rejectedValue());
+			verify(reservationRepository, never()).saveAll(anyList());
+			verifyNoInteractions(emailNotificationService);
+		}
+		
+		@Test
+		@DisplayName("Should report every reservation conflicting with the room's bookings or pointing to a missing room")
+		void shouldReportBookingConflictsAndMissingRooms() {
+			ReservationRequestDTO conflicting = new ReservationRequestDTO(room.getId(), start, start.plusHours(1));
+			ReservationRequestDTO free = new ReservationRequestDTO(room.getId(), start.plusHours(4), start.plusHours(5));
+			ReservationRequestDTO missingRoom = new ReservationRequestDTO(99L, start, start.plusHours(1));
+			when(roomRepository.findAllByIdForUpdate(Set.of(room.getId(), 99L))).thenReturn(List.of(room));
+			when(roomBookings.findConflict(conflicting.startDate(), conflicting.endDate(), null))
+					.thenReturn(Optional.of(ReservationInterval.of(existingConflictingReservation)));
+			
+			ReservationBatchRejectedException exception = assertThrows(ReservationBatchRejectedException.class,
+					() -> reservationService.createBatch(List.of(conflicting, free, missingRoom)));
+			
+			assertEquals(List.of("reservations[0]", "reservations[2]"), exception.getItemErrors().stream().map(FieldErrorDTO::field).toList());
+			assertEquals(new EntityRoomNotFoundException(99L).getMessage(), exception.getItemErrors().get(1).message());
+			verify(roomLockRegistry, times(1)).lockUntilCompletion(Set.of(room.getId(), 99L));
+			verify(reservationIndex, never()).forLockedRoom(99L);
+			verify(reservationRepository, never()).saveAll(anyList());
+		}
+	}
+	
 	@Nested
 	@DisplayName("Update Reservation")
 	class UpdateReservation {
 		
+		@BeforeEach
+		void setUp() {
+			lenient().when(roomRepository.findByIdForUpdate(reservation.getRoom().getId())).thenReturn(Optional.of(reservation.getRoom()));
+		}
+		
 		@Test
 		@DisplayName("Should update reservation")
 		void shouldUpdateReservation() {
 			when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
 			doNothing().when(authService).validateUserOwnership(any(User.class));
-			when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+			when(reservationRepository.saveAndFlush(any(Reservation.class))).thenReturn(reservation);
 			
-			ReservationResponseDTO result = reservationService.update(1L, reservationUpdateRequestDTO);
+			ReservationResponseDTO result = reservationService.update(1L, reservationUpdateRequestDTO, null);
 			
 			assertEqualsResponseDTO(reservation, result);
 			verify(authService, times(1)).validateUserOwnership(any(User.class));
-			verify(reservationRepository, times(1)).save(any(Reservation.class));
+			verify(roomLockRegistry, times(1)).lockUntilCompletion(reservation.getRoom().getId());
+			verify(roomRepository, times(1)).findByIdForUpdate(reservation.getRoom().getId());
+			verify(roomBookings, times(1)).findConflict(reservationUpdateRequestDTO.startDate(), reservationUpdateRequestDTO.endDate(), 1L);
+			verify(reservationRepository, times(1)).saveAndFlush(any(Reservation.class));
+			verify(roomBookings, times(1)).replace(any(ReservationInterval.class), eq(ReservationInterval.of(reservation)));
+			verify(reminderScheduler, times(1)).reschedule(eq(reservation.getId()), any(LocalDateTime.class), eq(reservation.getStartDate()));
+		}
+		
+		@Test
+		@DisplayName("Should throw EntityVersionMismatchException when If-Match names a stale version")
+		void shouldThrowEntityVersionMismatchExceptionWhenIfMatchNamesStaleVersion() {
+			reservation.setVersion(2L);
+			when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
+			
+			assertThrows(EntityVersionMismatchException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO, 1L));
+			verify(roomLockRegistry, never()).lockUntilCompletion(anyLong());
+			verify(reservationRepository, never()).saveAndFlush(any(Reservation.class));
+		}
+		
+		@Test
+		@DisplayName("Should retry the update when a concurrent edit wins the race")
+		void shouldRetryUpdateWhenConcurrentEditWinsRace() {
+			when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
+			when(reservationRepository.saveAndFlush(any(Reservation.class)))
+					.thenThrow(new ObjectOptimisticLockingFailureException(Reservation.class, 1L))
+					.thenReturn(reservation);
+			
+			ReservationResponseDTO result = reservationService.update(1L, reservationUpdateRequestDTO, null);
+			
+			assertEqualsResponseDTO(reservation, result);
+			verify(reservationRepository, times(2)).findById(1L);
+			verify(roomBookings, times(1)).replace(any(ReservationInterval.class), eq(ReservationInterval.of(reservation)));
+		}
+		
+		@Test
+		@DisplayName("Should rethrow OptimisticLockingFailureException after the maximum number of lost races")
+		void shouldRethrowOptimisticLockingFailureExceptionAfterMaximumNumberOfLostRaces() {
+			when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
+			when(reservationRepository.saveAndFlush(any(Reservation.class))).thenThrow(new ObjectOptimisticLockingFailureException(Reservation.class, 1L));
+			
+			assertThrows(OptimisticLockingFailureException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO, null));
+			verify(reservationRepository, times(OptimisticLockRetry.MAX_ATTEMPTS)).saveAndFlush(any(Reservation.class));
+			verify(roomBookings, never()).replace(any(), any());
 		}
 		
 		@Test
 		@DisplayName("Should throw EntityReservationNotFoundException when reservation is not found")
 		void shouldThrowEntityReservationNotFoundExceptionWhenReservationIsNotFound() {
 			when(reservationRepository.findById(1L)).thenReturn(Optional.empty());
-			assertThrows(EntityReservationNotFoundException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO));
+			assertThrows(EntityReservationNotFoundException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO, null));
 			verify(authService, never()).validateUserOwnership(any(User.class));
-			verify(reservationRepository, never()).save(any(Reservation.class));
+			verify(reservationRepository, never()).saveAndFlush(any(Reservation.class));
 		}
 		
 		@ParameterizedTest(name = "Should throw IllegalArgumentException when user id is invalid: {0}")
@@ -235,22 +476,19 @@ class ReservationServiceTest {
 			when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
 			doThrow(new ForbiddenException()).when(authService).validateUserOwnership(any(User.class));
 			
-			assertThrows(ForbiddenException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO));
-			verify(reservationRepository, never()).save(any(Reservation.class));
+			assertThrows(ForbiddenException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO, null));
+			verify(reservationRepository, never()).saveAndFlush(any(Reservation.class));
 		}
 		
 		@Test
 		@DisplayName("Should throw EntityReservationConflictException when there is a time conflict")
 		void shouldThrowEntityReservationConflictExceptionWhenTimeConflict() {
-			when(roomRepository.existsById(reservationRequestDTO.roomId())).thenReturn(true);
-			when(jwtTokenProvider.getCurrentUser()).thenReturn(user);
-			when(roomRepository.findById(reservationRequestDTO.roomId())).thenReturn(Optional.of(room));
-			when(reservationRepository.findByRoomIdAndStartDateBeforeAndEndDateAfter(
-					anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
-					.thenReturn(List.of(existingConflictingReservation));
+			when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
+			when(roomBookings.findConflict(reservationUpdateRequestDTO.startDate(), reservationUpdateRequestDTO.endDate(), 1L))
+					.thenReturn(Optional.of(ReservationInterval.of(existingConflictingReservation)));
 			
-			assertThrows(EntityReservationConflictException.class, () -> reservationService.create(reservationRequestDTO));
-			verify(reservationRepository, never()).save(any(Reservation.class));
+			assertThrows(EntityReservationConflictException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO, null));
+			verify(reservationRepository, never()).saveAndFlush(any(Reservation.class));
 		}
 	}
 	
@@ -262,13 +500,17 @@ class ReservationServiceTest {
 		@DisplayName("Should delete reservation")
 		void shouldDeleteReservation() {
 			when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
+			when(roomRepository.findByIdForUpdate(room.getId())).thenReturn(Optional.of(room));
 			doNothing().when(authService).validateUserOwnership(any(User.class));
 			doNothing().when(reservationRepository).delete(any(Reservation.class));
 			
 			reservationService.delete(1L);
 			
 			verify(authService, times(1)).validateUserOwnership(any(User.class));
+			verify(roomLockRegistry, times(1)).lockUntilCompletion(room.getId());
 			verify(reservationRepository, times(1)).delete(any(Reservation.class));
+			verify(roomBookings, times(1)).remove(ReservationInterval.of(reservation));
+			verify(reminderScheduler, times(1)).cancel(reservation.getId(), reservation.getStartDate());
 		}
 		
 		@Test
@@ -295,8 +537,8 @@ class ReservationServiceTest {
 			when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
 			doThrow(new ForbiddenException()).when(authService).validateUserOwnership(any(User.class));
 			
-			assertThrows(ForbiddenException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO));
-			verify(reservationRepository, never()).save(any(Reservation.class));
+			assertThrows(ForbiddenException.class, () -> reservationService.update(1L, reservationUpdateRequestDTO, null));
+			verify(reservationRepository, never()).saveAndFlush(any(Reservation.class));
 		}
 	}
 }
\ No newline at end of file
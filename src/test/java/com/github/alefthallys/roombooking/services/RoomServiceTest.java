@@ -1,10 +1,16 @@
 package com.github.alefthallys.roombooking.services;
 
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomRequestDTO;
 import com.github.alefthallys.roombooking.dtos.Room.RoomResponseDTO;
+import com.github.alefthallys.roombooking.exceptions.Concurrency.EntityVersionMismatchException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.Room.EntityRoomNotFoundException;
+import com.github.alefthallys.roombooking.exceptions.Room.InvalidAvailabilityRangeException;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.RoomAvailabilityIndex;
 import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.pagination.Cursor;
 import com.github.alefthallys.roombooking.repositories.RoomRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,13 +19,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +48,15 @@ class RoomServiceTest {
 	@Mock
 	private RoomRepository roomRepository;
 	
+	@Mock
+	private ReservationIndex reservationIndex;
+	
+	@Mock
+	private RoomAvailabilityIndex roomAvailabilityIndex;
+	
+	@Spy
+	private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(TransactionOperations.withoutTransaction());
+	
 	private Room room;
 	private RoomRequestDTO roomRequestDTO;
 	
@@ -59,19 +85,72 @@ class RoomServiceTest {
 	class FindAllRooms {
 		
 		@Test
-		@DisplayName("should return a list of rooms")
+		@DisplayName("should return the first page of rooms")
 		void shouldReturnAllRooms() {
-			when(roomRepository.findAll()).thenReturn(List.of(room));
-			List<RoomResponseDTO> result = roomService.findAll();
-			assertEqualsResponseDTO(room, result.get(0));
+			when(roomRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of(room));
+			CursorPageDTO<RoomResponseDTO> result = roomService.findAll(null, null);
+			assertEqualsResponseDTO(room, result.content().get(0));
+			assertNull(result.nextCursor());
 		}
 		
 		@Test
-		@DisplayName("should return an empty list when no rooms are found")
+		@DisplayName("should return an empty page when no rooms are found")
 		void shouldReturnEmptyList() {
-			when(roomRepository.findAll()).thenReturn(List.of());
-			List<RoomResponseDTO> result = roomService.findAll();
-			assertEquals(0, result.size());
+			when(roomRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of());
+			CursorPageDTO<RoomResponseDTO> result = roomService.findAll(null, null);
+			assertEquals(0, result.content().size());
+		}
+		
+		@Test
+		@DisplayName("should continue after the room id in the cursor")
+		void shouldContinueAfterCursor() {
+			when(roomRepository.findByIdGreaterThanOrderByIdAsc(7L, Limit.of(11))).thenReturn(List.of(room));
+			CursorPageDTO<RoomResponseDTO> result = roomService.findAll(Cursor.ofId(7L).encode(), 10);
+			assertEquals(1, result.content().size());
+		}
+	}
+	
+	@Nested
+	@DisplayName("Find Available Rooms")
+	class FindAvailableRooms {
+		
+		private final LocalDateTime from = LocalDateTime.of(2030, 1, 7, 9, 0);
+		private final LocalDateTime to = from.plusHours(1);
+		private final LocalDateTime past = LocalDateTime.of(2020, 1, 7, 9, 0);
+		
+		@Test
+		@DisplayName("should answer from the availability index")
+		void shouldAnswerFromIndex() {
+			RoomResponseDTO available = new RoomResponseDTO(1L, "Room 101", "A small room for meetings", 10, "1st Floor", null);
+			when(roomAvailabilityIndex.findAvailable(from, to, 8, "1st Floor")).thenReturn(List.of(available));
+			
+			List<RoomResponseDTO> result = roomService.findAvailable(from, to, 8, " 1st Floor ");
+			
+			assertEquals(List.of(available), result);
+			verifyNoInteractions(roomRepository);
+		}
+		
+		@Test
+		@DisplayName("should default to any capacity and location")
+		void shouldDefaultToAnyCapacityAndLocation() {
+			when(roomAvailabilityIndex.findAvailable(from, to, 0, null)).thenReturn(List.of());
+			
+			assertEquals(List.of(), roomService.findAvailable(from, to, null, " "));
+		}
+		
+		@Test
+		@DisplayName("should throw exception when the range starts in the past")
+		void shouldThrowExceptionWhenRangeStartsInPast() {
+			assertThrows(InvalidAvailabilityRangeException.class, () -> roomService.findAvailable(past, past.plusHours(1), null, null));
+			verifyNoInteractions(roomAvailabilityIndex);
+		}
+		
+		@Test
+		@DisplayName("should throw exception when the range does not end after it starts")
+		void shouldThrowExceptionWhenRangeIsInvalid() {
+			assertThrows(InvalidAvailabilityRangeException.class, () -> roomService.findAvailable(to, from, null, null));
+			assertThrows(InvalidAvailabilityRangeException.class, () -> roomService.findAvailable(from, from, null, null));
+			verifyNoInteractions(roomAvailabilityIndex);
 		}
 	}
 	
@@ -111,6 +190,7 @@ class RoomServiceTest {
 			when(roomRepository.save(any(Room.class))).thenReturn(room);
 			RoomResponseDTO result = roomService.create(roomRequestDTO);
 			assertEqualsResponseDTO(room, result);
+			verify(roomAvailabilityIndex).roomsChanged();
 		}
 		
 		@Test
@@ -129,22 +209,69 @@ class RoomServiceTest {
 		@DisplayName("should update room")
 		void shouldUpdateRoom() {
 			when(roomRepository.findById(1L)).thenReturn(java.util.Optional.of(room));
-			when(roomRepository.save(any(Room.class))).thenReturn(room);
-			RoomResponseDTO result = roomService.update(1L, roomRequestDTO);
+			when(roomRepository.saveAndFlush(any(Room.class))).thenReturn(room);
+			RoomResponseDTO result = roomService.update(1L, roomRequestDTO, null);
 			assertEqualsResponseDTO(room, result);
+			verify(roomAvailabilityIndex).roomsChanged();
+		}
+		
+		@Test
+		@DisplayName("should update room when If-Match names the current version")
+		void shouldUpdateRoomWhenIfMatchNamesCurrentVersion() {
+			room.setVersion(3L);
+			when(roomRepository.findById(1L)).thenReturn(java.util.Optional.of(room));
+			when(roomRepository.saveAndFlush(any(Room.class))).thenReturn(room);
+			
+			RoomResponseDTO result = roomService.update(1L, roomRequestDTO, 3L);
+			
+			assertEquals(3L, result.version());
+		}
+		
+		@Test
+		@DisplayName("should reject the update when If-Match names a stale version")
+		void shouldRejectUpdateWhenIfMatchNamesStaleVersion() {
+			room.setVersion(4L);
+			when(roomRepository.findById(1L)).thenReturn(java.util.Optional.of(room));
+			
+			assertThrows(EntityVersionMismatchException.class, () -> roomService.update(1L, roomRequestDTO, 3L));
+			verify(roomRepository, never()).saveAndFlush(any(Room.class));
+		}
+		
+		@Test
+		@DisplayName("should retry the update when a concurrent edit wins the race")
+		void shouldRetryUpdateWhenConcurrentEditWinsRace() {
+			when(roomRepository.findById(1L)).thenReturn(java.util.Optional.of(room));
+			when(roomRepository.saveAndFlush(any(Room.class)))
+					.thenThrow(new ObjectOptimisticLockingFailureException(Room.class, 1L))
+					.thenReturn(room);
+			
+			RoomResponseDTO result = roomService.update(1L, roomRequestDTO, null);
+			
+			assertEqualsResponseDTO(room, result);
+			verify(roomRepository, times(2)).findById(1L);
+		}
+		
+		@Test
+		@DisplayName("should give up after the maximum number of lost races")
+		void shouldGiveUpAfterMaximumNumberOfLostRaces() {
+			when(roomRepository.findById(1L)).thenReturn(java.util.Optional.of(room));
+			when(roomRepository.saveAndFlush(any(Room.class))).thenThrow(new ObjectOptimisticLockingFailureException(Room.class, 1L));
+			
+			assertThrows(OptimisticLockingFailureException.class, () -> roomService.update(1L, roomRequestDTO, null));
+			verify(roomRepository, times(OptimisticLockRetry.MAX_ATTEMPTS)).saveAndFlush(any(Room.class));
 		}
 		
 		@Test
 		@DisplayName("should throw exception when room not found")
 		void shouldThrowExceptionWhenRoomNotFound() {
 			when(roomRepository.findById(1L)).thenReturn(java.util.Optional.empty());
-			assertThrows(EntityRoomNotFoundException.class, () -> roomService.update(1L, roomRequestDTO));
+			assertThrows(EntityRoomNotFoundException.class, () -> roomService.update(1L, roomRequestDTO, null));
 		}
 		
 		@Test
 		@DisplayName("should throw IllegalArgumentException when room id is null")
 		void shouldThrowIllegalArgumentExceptionWhenRoomIdIsNull() {
-			assertThrows(IllegalArgumentException.class, () -> roomService.update(null, roomRequestDTO));
+			assertThrows(IllegalArgumentException.class, () -> roomService.update(null, roomRequestDTO, null));
 		}
 	}
 	
@@ -157,6 +284,8 @@ class RoomServiceTest {
 		void shouldDeleteRoom() {
 			when(roomRepository.findById(1L)).thenReturn(java.util.Optional.of(room));
 			roomService.delete(1L);
+			verify(reservationIndex).removeRoom(1L);
+			verify(roomAvailabilityIndex).roomsChanged();
 			when(roomRepository.findById(1L)).thenReturn(java.util.Optional.empty());
 			assertThrows(EntityRoomNotFoundException.class, () -> roomService.findById(1L));
 		}
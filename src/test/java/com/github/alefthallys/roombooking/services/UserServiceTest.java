@@ -1,12 +1,24 @@
 package com.github.alefthallys.roombooking.services;
 
+import com.github.alefthallys.roombooking.dtos.CursorPageDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserRequestDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserResponseDTO;
 import com.github.alefthallys.roombooking.dtos.User.UserUpdateRequestDTO;
+import com.github.alefthallys.roombooking.exceptions.Pagination.InvalidCursorException;
 import com.github.alefthallys.roombooking.exceptions.User.EntityUserAlreadyExistsException;
 import com.github.alefthallys.roombooking.exceptions.User.EntityUserNotFoundException;
+import com.github.alefthallys.roombooking.index.ReservationIndex;
+import com.github.alefthallys.roombooking.index.RoomBookings;
+import com.github.alefthallys.roombooking.index.RoomLockRegistry;
+import com.github.alefthallys.roombooking.models.Room;
 import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.repositories.ReservationRepository;
+import com.github.alefthallys.roombooking.repositories.ReservationSeriesRepository;
+import com.github.alefthallys.roombooking.repositories.RoomRepository;
 import com.github.alefthallys.roombooking.repositories.UserRepository;
+import com.github.alefthallys.roombooking.security.PrincipalCache;
+import com.github.alefthallys.roombooking.security.TokenDenyList;
+import com.github.alefthallys.roombooking.testBuilders.RoomTestBuilder;
 import com.github.alefthallys.roombooking.testBuilders.UserTestBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,13 +28,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -40,9 +55,30 @@ class UserServiceTest {
 	@Mock
 	private UserRepository userRepository;
 	
+	@Mock
+	private ReservationRepository reservationRepository;
+	
+	@Mock
+	private ReservationSeriesRepository reservationSeriesRepository;
+	
+	@Mock
+	private RoomRepository roomRepository;
+	
 	@Mock
 	private PasswordEncoder passwordEncoder;
 	
+	@Mock
+	private ReservationIndex reservationIndex;
+	
+	@Mock
+	private RoomLockRegistry roomLockRegistry;
+	
+	@Mock
+	private PrincipalCache principalCache;
+	
+	@Mock
+	private TokenDenyList tokenDenyList;
+	
 	private User user;
 	private UserRequestDTO userRequestDTO;
 	private UserUpdateRequestDTO userUpdateRequestDTO;
@@ -69,20 +105,26 @@ class UserServiceTest {
 	class FindAllUsers {
 		
 		@Test
-		@DisplayName("Should return a list of users")
+		@DisplayName("Should return the first page of users")
 		void shouldReturnAListOfUsers() {
-			when(userRepository.findAll()).thenReturn(List.of(user));
-			List<UserResponseDTO> userResponseDTOList = userService.findAll();
-			assertEquals(1, userResponseDTOList.size());
-			assertEqualsResponseDTO(user, userResponseDTOList.get(0));
+			when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of(user));
+			CursorPageDTO<UserResponseDTO> userResponseDTOPage = userService.findAll(null, null);
+			assertEquals(1, userResponseDTOPage.content().size());
+			assertEqualsResponseDTO(user, userResponseDTOPage.content().get(0));
 		}
 		
 		@Test
-		@DisplayName("Should return an empty list when no users are found")
+		@DisplayName("Should return an empty page when no users are found")
 		void shouldReturnAnEmptyList() {
-			when(userRepository.findAll()).thenReturn(List.of());
-			List<UserResponseDTO> userResponseDTOList = userService.findAll();
-			assertEquals(0, userResponseDTOList.size());
+			when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of());
+			CursorPageDTO<UserResponseDTO> userResponseDTOPage = userService.findAll(null, null);
+			assertEquals(0, userResponseDTOPage.content().size());
+		}
+		
+		@Test
+		@DisplayName("Should throw InvalidCursorException when the cursor is malformed")
+		void shouldThrowInvalidCursorExceptionWhenCursorIsMalformed() {
+			assertThrows(InvalidCursorException.class, () -> userService.findAll("%%%", null));
 		}
 	}
 	
@@ -169,6 +211,8 @@ class UserServiceTest {
 			
 			verify(passwordEncoder, times(1)).encode(userUpdateRequestDTO.password());
 			verify(userRepository, times(1)).save(any(User.class));
+			verify(principalCache, times(1)).invalidate(user.getEmail());
+			verify(tokenDenyList, times(1)).deny(user.getEmail());
 		}
 		
 		@Test
@@ -178,6 +222,7 @@ class UserServiceTest {
 			assertThrows(EntityUserNotFoundException.class, () -> userService.update(1L, userUpdateRequestDTO));
 			verify(authService, never()).validateUserOwnership(any(User.class));
 			verify(userRepository, never()).save(any(User.class));
+			verify(tokenDenyList, never()).deny(any());
 		}
 		
 		@ParameterizedTest(name = "Should throw IllegalArgumentException when user id is invalid: {0}")
@@ -195,19 +240,47 @@ class UserServiceTest {
 	class DeleteUser {
 		
 		@Test
-		@DisplayName("Should delete a user")
+		@DisplayName("Should delete a user without bookings")
 		void shouldDeleteAUser() {
-			when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+			when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
 			doNothing().when(userRepository).delete(any(User.class));
 			
 			userService.delete(1L);
 			verify(userRepository, times(1)).delete(user);
+			verifyNoInteractions(roomLockRegistry, roomRepository, reservationIndex);
+			verify(principalCache, times(1)).invalidate(user.getEmail());
+			verify(tokenDenyList, times(1)).deny(user.getEmail());
+		}
+		
+		@Test
+		@DisplayName("Should lock the user before reading its rooms, then lock every room and drop the user's bookings from it")
+		void shouldDropBookingsFromEveryBookedRoom() {
+			Room room = RoomTestBuilder.aRoom().withId(1L).build();
+			Room otherRoom = RoomTestBuilder.aRoom().withId(2L).build();
+			RoomBookings roomBookings = mock(RoomBookings.class);
+			RoomBookings otherRoomBookings = mock(RoomBookings.class);
+			when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+			when(reservationRepository.findRoomIdsByUserId(1L)).thenReturn(List.of(1L));
+			when(reservationSeriesRepository.findRoomIdsByUserId(1L)).thenReturn(List.of(1L, 2L));
+			when(roomRepository.findAllByIdForUpdate(Set.of(1L, 2L))).thenReturn(List.of(room, otherRoom));
+			when(reservationIndex.forLockedRoom(1L)).thenReturn(roomBookings);
+			when(reservationIndex.forLockedRoom(2L)).thenReturn(otherRoomBookings);
+			
+			userService.delete(1L);
+			
+			InOrder lockOrder = inOrder(userRepository, reservationRepository, roomLockRegistry);
+			lockOrder.verify(userRepository).findByIdForUpdate(1L);
+			lockOrder.verify(reservationRepository).findRoomIdsByUserId(1L);
+			lockOrder.verify(roomLockRegistry).lockUntilCompletion(Set.of(1L, 2L));
+			verify(roomBookings, times(1)).removeUser(1L);
+			verify(otherRoomBookings, times(1)).removeUser(1L);
+			verify(userRepository, times(1)).delete(user);
 		}
 		
 		@Test
 		@DisplayName("Should throw EntityUserNotFoundException when user is not found")
 		void shouldThrowEntityUserNotFoundExceptionWhenUserIsNotFound() {
-			when(userRepository.findById(1L)).thenReturn(Optional.empty());
+			when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 			assertThrows(EntityUserNotFoundException.class, () -> userService.delete(1L));
 			verify(authService, never()).validateUserOwnership(any(User.class));
 			verify(userRepository, never()).delete(any(User.class));
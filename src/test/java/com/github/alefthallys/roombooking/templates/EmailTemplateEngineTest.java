@@ -0,0 +1,77 @@
+package com.github.alefthallys.roombooking.templates;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailTemplateEngineTest {
+	
+	private static final Map<String, String> MODEL = Map.of(
+			"userName", "Ann",
+			"roomName", "R&D Lab",
+			"startDate", "2030-01-07 09:00",
+			"endDate", "2030-01-07 10:00",
+			"reservationId", "42"
+	);
+	
+	private static EmailTemplateEngine engine;
+	
+	@BeforeAll
+	static void setUp() {
+		engine = new EmailTemplateEngine();
+	}
+	
+	@ParameterizedTest
+	@EnumSource(EmailTemplateType.class)
+	@DisplayName("Should render every template in every language inside the shared layout")
+	void shouldRenderEveryTemplate(EmailTemplateType type) {
+		for (String language : EmailTemplateEngine.LANGUAGES) {
+			RenderedEmail email = engine.render(type, Locale.forLanguageTag(language), MODEL);
+			
+			assertTrue(email.subject().endsWith(" - R&D Lab"), email.subject());
+			assertTrue(email.html().startsWith("<!DOCTYPE html>"));
+			assertTrue(email.html().contains("R&amp;D Lab"));
+			assertTrue(email.html().contains("2030-01-07 09:00"));
+			assertTrue(email.html().contains(">42</span>"));
+			assertFalse(email.html().contains("{{"));
+		}
+	}
+	
+	@Test
+	@DisplayName("Should pick the template by language and fall back to Portuguese")
+	void shouldPickTemplateByLanguage() {
+		assertEquals("Reservation Confirmed - R&D Lab", engine.render(EmailTemplateType.CONFIRMATION, Locale.US, MODEL).subject());
+		assertEquals("Reserva Confirmada - R&D Lab", engine.render(EmailTemplateType.CONFIRMATION, Locale.forLanguageTag("pt-BR"), MODEL).subject());
+		assertEquals("Reserva Confirmada - R&D Lab", engine.render(EmailTemplateType.CONFIRMATION, Locale.JAPANESE, MODEL).subject());
+	}
+	
+	@Test
+	@DisplayName("Should not leak the previous render into the reused buffer")
+	void shouldResetReusedBuffer() {
+		RenderedEmail first = engine.render(EmailTemplateType.REMINDER, Locale.ENGLISH, MODEL);
+		RenderedEmail second = engine.render(EmailTemplateType.REMINDER, Locale.ENGLISH, MODEL);
+		
+		assertEquals(first, second);
+	}
+	
+	@Test
+	@DisplayName("Should find the template files when the default locale is Turkish")
+	void shouldLoadTemplatesUnderTurkishLocale() {
+		Locale defaultLocale = Locale.getDefault();
+		Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+		try {
+			assertEquals("Reservation Confirmed - R&D Lab", new EmailTemplateEngine().render(EmailTemplateType.CONFIRMATION, Locale.US, MODEL).subject());
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.github.alefthallys.roombooking.templates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmailTemplateTest {
+	
+	@Test
+	@DisplayName("Should substitute every variable, including repeated ones")
+	void shouldSubstituteVariables() {
+		EmailTemplate template = EmailTemplate.compile("test", "Hi {{ name }}, room {{room}} ({{room}})", true);
+		
+		assertEquals(Set.of("name", "room"), template.variables());
+		assertEquals("Hi Ann, room 101 (101)", template.render(Map.of("name", "Ann", "room", "101")));
+	}
+	
+	@Test
+	@DisplayName("Should escape HTML in values of HTML templates only")
+	void shouldEscapeHtmlValues() {
+		Map<String, String> model = Map.of("name", "<b>Tom & \"Jerry\"</b>'");
+		
+		assertEquals("<p>&lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt;&#39;</p>", EmailTemplate.compile("html", "<p>{{name}}</p>", true).render(model));
+		assertEquals("Subject <b>Tom & \"Jerry\"</b>'", EmailTemplate.compile("plain", "Subject {{name}}", false).render(model));
+	}
+	
+	@Test
+	@DisplayName("Should append to the buffer it is given")
+	void shouldAppendToGivenBuffer() {
+		StringBuilder out = new StringBuilder("prefix:");
+		EmailTemplate.compile("test", "{{a}}", true).renderTo(out, Map.of("a", "1"));
+		
+		assertEquals("prefix:1", out.toString());
+	}
+	
+	@Test
+	@DisplayName("Should reject rendering without a value for every variable")
+	void shouldRejectMissingValue() {
+		EmailTemplate template = EmailTemplate.compile("test", "{{a}} {{b}}", true);
+		
+		assertThrows(IllegalArgumentException.class, () -> template.render(Map.of("a", "1")));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"Hi {{name", "Hi {{}}", "Hi {{first name}}", "Hi {{> body}}"})
+	@DisplayName("Should reject malformed templates at compile time")
+	void shouldRejectMalformedTemplates(String source) {
+		assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("test", source, true));
+	}
+}
@@ -0,0 +1,87 @@
+package com.github.alefthallys.roombooking.testBuilders;
+
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesRequestDTO;
+import com.github.alefthallys.roombooking.dtos.ReservationSeries.ReservationSeriesResponseDTO;
+import com.github.alefthallys.roombooking.mappers.RoomMapper;
+import com.github.alefthallys.roombooking.mappers.UserMapper;
+import com.github.alefthallys.roombooking.models.ReservationSeries;
+import com.github.alefthallys.roombooking.models.Room;
+import com.github.alefthallys.roombooking.models.User;
+import com.github.alefthallys.roombooking.recurrence.RecurrenceRule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ReservationSeriesTestBuilder {
+	
+	private Long id = 1L;
+	private LocalDateTime startDate = LocalDateTime.of(2030, 1, 7, 9, 0);
+	private LocalDateTime endDate = LocalDateTime.of(2030, 1, 7, 10, 0);
+	private String recurrenceRule = "FREQ=WEEKLY;BYDAY=MO,WE;COUNT=10";
+	private Set<LocalDate> cancelledDates = new HashSet<>();
+	private User user = UserTestBuilder.anUser().build();
+	private Room room = RoomTestBuilder.aRoom().build();
+	
+	public static ReservationSeriesTestBuilder aReservationSeries() {
+		return new ReservationSeriesTestBuilder();
+	}
+	
+	public ReservationSeriesTestBuilder withId(Long id) {
+		this.id = id;
+		return this;
+	}
+	
+	public ReservationSeriesTestBuilder withStartDate(LocalDateTime startDate) {
+		this.startDate = startDate;
+		return this;
+	}
+	
+	public ReservationSeriesTestBuilder withEndDate(LocalDateTime endDate) {
+		this.endDate = endDate;
+		return this;
+	}
+	
+	public ReservationSeriesTestBuilder withRecurrenceRule(String recurrenceRule) {
+		this.recurrenceRule = recurrenceRule;
+		return this;
+	}
+	
+	public ReservationSeriesTestBuilder withCancelledDates(Set<LocalDate> cancelledDates) {
+		this.cancelledDates = new HashSet<>(cancelledDates);
+		return this;
+	}
+	
+	public ReservationSeriesTestBuilder withUser(User user) {
+		this.user = user;
+		return this;
+	}
+	
+	public ReservationSeriesTestBuilder withRoom(Room room) {
+		this.room = room;
+		return this;
+	}
+	
+	public ReservationSeries build() {
+		ReservationSeries series = new ReservationSeries();
+		series.setId(id);
+		series.setStartDate(startDate);
+		series.setEndDate(endDate);
+		series.setRecurrenceRule(RecurrenceRule.parse(recurrenceRule));
+		series.setCancelledDates(new HashSet<>(cancelledDates));
+		series.setUser(user);
+		series.setRoom(room);
+		return series;
+	}
+	
+	public ReservationSeriesRequestDTO buildRequestDTO() {
+		return new ReservationSeriesRequestDTO(room.getId(), startDate, endDate, recurrenceRule);
+	}
+	
+	public ReservationSeriesResponseDTO buildResponseDTO() {
+		return new ReservationSeriesResponseDTO(id, startDate, endDate, RecurrenceRule.parse(recurrenceRule).toString(),
+				cancelledDates.stream().sorted().toList(), UserMapper.toDto(user), RoomMapper.toDto(room));
+	}
+}
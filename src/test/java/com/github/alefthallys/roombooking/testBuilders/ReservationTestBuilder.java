@@ -18,6 +18,7 @@ public class ReservationTestBuilder {
 	private LocalDateTime endDate = LocalDateTime.now().plusDays(2);
 	private User user = UserTestBuilder.anUser().build();
 	private Room room = RoomTestBuilder.aRoom().build();
+	private Long version;
 	
 	public static ReservationTestBuilder aReservation() {
 		return new ReservationTestBuilder();
@@ -48,6 +49,11 @@ public class ReservationTestBuilder {
 		return this;
 	}
 	
+	public ReservationTestBuilder withVersion(Long version) {
+		this.version = version;
+		return this;
+	}
+	
 	public Reservation build() {
 		Reservation reservation = new Reservation();
 		reservation.setId(id);
@@ -55,6 +61,7 @@ public class ReservationTestBuilder {
 		reservation.setEndDate(endDate);
 		reservation.setUser(user);
 		reservation.setRoom(room);
+		reservation.setVersion(version);
 		return reservation;
 	}
 	
@@ -67,6 +74,6 @@ public class ReservationTestBuilder {
 	}
 	
 	public ReservationResponseDTO buildResponseDTO() {
-		return new ReservationResponseDTO(id, startDate, endDate, UserMapper.toDto(user), RoomMapper.toDto(room));
+		return new ReservationResponseDTO(id, startDate, endDate, UserMapper.toDto(user), RoomMapper.toDto(room), version);
 	}
 }
\ No newline at end of file
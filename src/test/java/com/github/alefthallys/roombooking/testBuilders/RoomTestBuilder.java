@@ -12,6 +12,7 @@ public class RoomTestBuilder {
 	private int capacity = 10;
 	private boolean available = true;
 	private String location = "1st Floor";
+	private Long version;
 	
 	public static RoomTestBuilder aRoom() {
 		return new RoomTestBuilder();
@@ -47,6 +48,11 @@ public class RoomTestBuilder {
 		return this;
 	}
 	
+	public RoomTestBuilder withVersion(Long version) {
+		this.version = version;
+		return this;
+	}
+	
 	public Room build() {
 		Room room = new Room();
 		room.setId(id);
@@ -54,6 +60,7 @@ public class RoomTestBuilder {
 		room.setDescription(description);
 		room.setCapacity(capacity);
 		room.setLocation(location);
+		room.setVersion(version);
 		return room;
 	}
 	
@@ -62,6 +69,6 @@ public class RoomTestBuilder {
 	}
 	
 	public RoomResponseDTO buildResponseDTO() {
-		return new RoomResponseDTO(id, name, description, capacity, location);
+		return new RoomResponseDTO(id, name, description, capacity, location, version);
 	}
 }
\ No newline at end of file
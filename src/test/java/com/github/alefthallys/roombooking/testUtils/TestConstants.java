@@ -5,6 +5,8 @@ public final class TestConstants {
 	public static final String API_V1_AUTH = "/api/v1/auth";
 	public static final String API_V1_ROOMS = "/api/v1/rooms";
 	public static final String API_V1_RESERVATIONS = "/api/v1/reservations";
+	public static final String API_V1_RESERVATION_SERIES = "/api/v1/reservation-series";
+	public static final String API_V1_ADMIN_DEAD_LETTERS = "/api/v1/admin/dead-letters";
 	
 	private TestConstants() {
 	}